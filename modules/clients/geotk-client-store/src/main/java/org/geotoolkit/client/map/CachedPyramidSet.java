@@ -73,6 +73,12 @@ public abstract class CachedPyramidSet extends DefaultPyramidSet {
      */
     public static final String PROPERTY_NIO = "nio_query";
 
+    /**
+     * {@link PersistentTileCache} property used on tiled servers to store downloaded tiles on disk.
+     * default value is null, tiles are only cached in memory.
+     */
+    public static final String PROPERTY_TILE_CACHE = "tile_cache";
+
     protected static final Logger LOGGER = Logging.getLogger("org.geotoolkit.client.map");
 
     //NIO netty bootstrap.
@@ -118,6 +124,28 @@ public abstract class CachedPyramidSet extends DefaultPyramidSet {
 
     public abstract Request getTileRequest(GridMosaic mosaic, int col, int row, Map hints) throws DataStoreException;
 
+    /**
+     * Returns the persistent tile cache defined on server by {@link #PROPERTY_TILE_CACHE}.
+     *
+     * @return persistent tile cache, or null if tiles are not stored on disk.
+     */
+    protected PersistentTileCache getPersistentCache() {
+        final Client server = getServer();
+        if (server == null) return null;
+        final Object cache = server.getUserProperty(PROPERTY_TILE_CACHE);
+        return (cache instanceof PersistentTileCache) ? (PersistentTileCache) cache : null;
+    }
+
+    /**
+     * Returns tile request, reading through the persistent tile cache if defined.
+     */
+    private Request getCachedTileRequest(GridMosaic mosaic, int col, int row, Map hints) throws DataStoreException {
+        final Request request = getTileRequest(mosaic, col, row, hints);
+        final PersistentTileCache diskCache = getPersistentCache();
+        if (diskCache == null) return request;
+        return diskCache.wrap(request, server.getClientSecurity(), server.getTimeOutValue());
+    }
+
     public TileReference getTile(GridMosaic mosaic, int col, int row, Map hints) throws DataStoreException {
         final String formatmime = (hints==null) ? null : (String) hints.get(PyramidSet.HINT_FORMAT);
         ImageReaderSpi spi = null;
@@ -132,7 +160,7 @@ public abstract class CachedPyramidSet extends DefaultPyramidSet {
         if (cacheImages) {
             return new DefaultTileReference(spi, getTileImage(mosaic, col, row, hints), 0, new Point(col, row));
         } else {
-            return new RequestTileReference(spi, getTileRequest(mosaic, col, row, hints), 0, new Point(col, row));
+            return new RequestTileReference(spi, getCachedTileRequest(mosaic, col, row, hints), 0, new Point(col, row));
         }
     }
 
@@ -156,7 +184,7 @@ public abstract class CachedPyramidSet extends DefaultPyramidSet {
             try {
                 value = handler.peek();
                 if (value == null) {
-                    final Request request = getTileRequest(mosaic, col, row, hints);
+                    final Request request = getCachedTileRequest(mosaic, col, row, hints);
                     InputStream stream = null;
                     ImageInputStream iis = null;
                     try {
@@ -208,7 +236,8 @@ public abstract class CachedPyramidSet extends DefaultPyramidSet {
         }
 
         final boolean useNIO = Boolean.TRUE.equals(server.getUserProperty(PROPERTY_NIO));
-        if(!useNIO){
+        if(!useNIO || getPersistentCache() != null){
+            //NIO queries do not go through the persistent tile cache
             return queryUnoptimizedIO(mosaic, locations, hints);
         }
 
@@ -0,0 +1,642 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.client.map;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import org.apache.sis.util.ArgumentChecks;
+import org.geotoolkit.client.Request;
+import org.geotoolkit.security.ClientSecurity;
+import org.geotoolkit.security.DefaultClientSecurity;
+
+/**
+ * Persistent cache of encoded tiles, shared by tiled clients through the
+ * {@link CachedPyramidSet#PROPERTY_TILE_CACHE} user property.<br/>
+ * Tiles are stored in a single append-only pack file, the index (tile url to file position) is
+ * kept in memory and rebuilt by scanning the pack when the cache is opened. A truncated last
+ * record, left by an interrupted application, is discarded.<br/>
+ * <br/>
+ * The total size of stored tiles is bounded by {@link #getMaximumSize() }, least recently used tiles
+ * are evicted first. Tiles read from the cache are recorded by batches of touch records, written every
+ * 256 reads and when the cache is closed, so that reopened cache keeps usage order.
+ * When obsolete records make the pack file larger than one and a half times the maximum size, live tiles
+ * are rewritten into a new pack, from the least to the most recently used.<br/>
+ * <br/>
+ * Tile expiration is defined by the {@code Cache-Control: max-age} or {@code Expires} response headers,
+ * or by the default expiration given at construction. Expired tiles are revalidated with a conditional
+ * request ({@code If-None-Match} / {@code If-Modified-Since}), a {@code 304 Not Modified} answer only
+ * updates tile expiration. Responses with {@code Cache-Control: no-store} are never stored.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public class PersistentTileCache implements Closeable {
+
+    /**
+     * Pack file header.
+     */
+    private static final byte[] MAGIC = "GTKTILE1".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Record types.
+     */
+    private static final byte RECORD_PUT    = 1;
+    private static final byte RECORD_REMOVE = 2;
+    private static final byte RECORD_TOUCH  = 3;
+
+    /**
+     * Number of tile reads after which touch records are written.
+     */
+    private static final int TOUCH_BATCH = 256;
+
+    /**
+     * Pack file.
+     */
+    private final Path file;
+
+    /**
+     * Maximum size in bytes of stored tiles.
+     */
+    private final long maxSize;
+
+    /**
+     * Expiration delay in milliseconds of tiles when server does not define one.
+     */
+    private final long defaultExpiration;
+
+    /**
+     * Stored tiles in access order, eldest first.
+     */
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(64, 0.75f, true);
+
+    /**
+     * Tiles read from cache since last touch records, in access order.
+     */
+    private final Set<String> touched = new LinkedHashSet<>();
+
+    private FileChannel channel;
+
+    /**
+     * Pack file end, where next record will be written.
+     */
+    private long end;
+
+    /**
+     * Pack file size from which live tiles are rewritten in a new pack.
+     */
+    private long compactThreshold;
+
+    /**
+     * Sum of stored tile sizes.
+     */
+    private long size;
+
+    /**
+     * Statistics.
+     */
+    private long hits, revalidations, misses;
+
+    /**
+     * Open or create a tile cache.
+     *
+     * @param file pack file, created if it does not exist.
+     * @param maxSize maximum size in bytes of stored tiles.
+     * @param defaultExpiration expiration delay in milliseconds of tiles when server does not define one.
+     * @throws IOException if pack file can not be opened or is not a tile cache.
+     */
+    public PersistentTileCache(final Path file, final long maxSize, final long defaultExpiration) throws IOException {
+        ArgumentChecks.ensureNonNull("file", file);
+        ArgumentChecks.ensureStrictlyPositive("maxSize", maxSize);
+        ArgumentChecks.ensurePositive("defaultExpiration", defaultExpiration);
+        this.file              = file;
+        this.maxSize           = maxSize;
+        this.defaultExpiration = defaultExpiration;
+        open();
+    }
+
+    /**
+     * Open pack file and rebuild index.
+     */
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            writeFully(ByteBuffer.wrap(MAGIC), 0);
+            end = MAGIC.length;
+            compactThreshold = maxSize + maxSize / 2;
+            return;
+        }
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+        final byte[] magic = new byte[MAGIC.length];
+        try {
+            in.readFully(magic);
+        } catch (EOFException ex) {
+            throw new IOException("File is not a tile cache : "+file, ex);
+        }
+        if (!Arrays.equals(MAGIC, magic)) {
+            throw new IOException("File is not a tile cache : "+file);
+        }
+        long position = MAGIC.length;
+        try {
+            while (true) {
+                final int type = in.read();
+                if (type < 0) break;
+                final byte[] key = new byte[in.readUnsignedShort()];
+                in.readFully(key);
+                final String tileKey = new String(key, StandardCharsets.UTF_8);
+                long recordEnd = position + 3 + key.length;
+                switch (type) {
+                    case RECORD_PUT : {
+                        final long expires      = in.readLong();
+                        final long lastModified = in.readLong();
+                        final byte[] etag       = new byte[in.readUnsignedShort()];
+                        in.readFully(etag);
+                        final int length        = in.readInt();
+                        final long dataPosition = recordEnd + 8 + 8 + 2 + etag.length + 4;
+                        if (dataPosition + length > channel.size()) throw new EOFException();
+                        skipFully(in, length);
+                        final Entry old = index.put(tileKey, new Entry(dataPosition, length, expires, lastModified,
+                                (etag.length == 0) ? null : new String(etag, StandardCharsets.UTF_8)));
+                        if (old != null) size -= old.length;
+                        size += length;
+                        recordEnd = dataPosition + length;
+                        break;
+                    }
+                    case RECORD_TOUCH : {
+                        final long expires = in.readLong();
+                        final Entry entry = index.get(tileKey);
+                        if (entry != null) entry.expires = expires;
+                        recordEnd += 8;
+                        break;
+                    }
+                    case RECORD_REMOVE : {
+                        final Entry old = index.remove(tileKey);
+                        if (old != null) size -= old.length;
+                        break;
+                    }
+                    default : throw new EOFException();
+                }
+                position = recordEnd;
+            }
+        } catch (EOFException ex) {
+            //-- last record incomplete, discard it --//
+        }
+        if (position < channel.size()) channel.truncate(position);
+        end = position;
+        compactThreshold = Math.max(maxSize + maxSize / 2, end * 2);
+        evict();
+    }
+
+    /**
+     * Returns the maximum size in bytes of stored tiles.
+     */
+    public long getMaximumSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the current size in bytes of stored tiles.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of stored tiles.
+     */
+    public synchronized int getTileCount() {
+        return index.size();
+    }
+
+    /**
+     * Returns the number of tiles returned from cache without any request.
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of expired tiles returned from cache after a {@code 304 Not Modified} answer.
+     */
+    public synchronized long getRevalidationCount() {
+        return revalidations;
+    }
+
+    /**
+     * Returns the number of tiles downloaded.
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Returns the ratio of tiles returned from cache, with or without revalidation, over all returned tiles.
+     *
+     * @return hit ratio between 0 and 1, 0 if no tile has been asked yet.
+     */
+    public synchronized double getHitRatio() {
+        final long total = hits + revalidations + misses;
+        return (total == 0) ? 0 : (double) (hits + revalidations) / total;
+    }
+
+    /**
+     * Returns a request which reads tile from this cache, or from given request if tile is missing or expired.
+     *
+     * @param request tile request.
+     * @param security client security, or {@code null}.
+     * @param timeout connection timeout in milliseconds.
+     * @return cached request.
+     */
+    public Request wrap(final Request request, final ClientSecurity security, final int timeout) {
+        return new CachedRequest(request, (security == null) ? DefaultClientSecurity.NO_SECURITY : security, timeout);
+    }
+
+    /**
+     * Returns tile bytes from cache if present and not expired, otherwise download them.
+     *
+     * @param request tile request, its url is used as tile key.
+     * @param security client security, or {@code null}.
+     * @param timeout connection timeout in milliseconds.
+     * @return tile bytes.
+     * @throws IOException if tile can not be downloaded or read from cache.
+     */
+    public byte[] getTile(final Request request, final ClientSecurity security, final int timeout) throws IOException {
+        final String key = request.getURL().toString();
+        final long now = System.currentTimeMillis();
+        final Entry entry;
+        synchronized (this) {
+            entry = index.get(key);
+            if (entry != null && entry.expires > now) {
+                hits++;
+                final byte[] data = read(entry);
+                touched.remove(key);
+                touched.add(key);
+                if (touched.size() >= TOUCH_BATCH) writeTouches();
+                return data;
+            }
+        }
+        return download(key, request, entry, (security == null) ? DefaultClientSecurity.NO_SECURITY : security, timeout, now);
+    }
+
+    /**
+     * Download tile, conditionaly if an expired version is stored.
+     */
+    private byte[] download(final String key, final Request request, final Entry entry,
+            final ClientSecurity security, final int timeout, final long now) throws IOException {
+        URLConnection cnx = request.getURL().openConnection();
+        for (final Map.Entry<String,String> header : request.getHeaderMap().entrySet()) {
+            cnx.setRequestProperty(header.getKey(), header.getValue());
+        }
+        if (entry != null) {
+            if (entry.etag != null) cnx.setRequestProperty("If-None-Match", entry.etag);
+            if (entry.lastModified > 0) cnx.setIfModifiedSince(entry.lastModified);
+        }
+        cnx = security.secure(cnx);
+        cnx.setConnectTimeout(timeout);
+        cnx.setReadTimeout(timeout*2);
+
+        if (entry != null && cnx instanceof HttpURLConnection
+                && ((HttpURLConnection) cnx).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            final long expires = expiration(cnx, now);
+            synchronized (this) {
+                revalidations++;
+                //-- entry may have been evicted or replaced meanwhile --//
+                final Entry current = index.get(key);
+                if (current != null) {
+                    if (expires != Long.MIN_VALUE) touch(key, current, expires);
+                    return read(current);
+                }
+            }
+            //-- evicted, download it again without condition --//
+            return download(key, request, null, security, timeout, now);
+        }
+
+        final byte[] data;
+        InputStream stream = security.decrypt(cnx.getInputStream());
+        try {
+            if ("gzip".equalsIgnoreCase(cnx.getContentEncoding())) {
+                stream = new GZIPInputStream(stream);
+            }
+            data = readAll(stream);
+        } finally {
+            stream.close();
+        }
+
+        final long expires = expiration(cnx, now);
+        synchronized (this) {
+            misses++;
+            if (expires != Long.MIN_VALUE) {
+                put(key, data, expires, cnx.getLastModified(), cnx.getHeaderField("ETag"));
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Returns tile expiration date from response headers,
+     * or {@link Long#MIN_VALUE} if tile must not be stored.
+     */
+    private long expiration(final URLConnection cnx, final long now) {
+        final String cacheControl = cnx.getHeaderField("Cache-Control");
+        if (cacheControl != null) {
+            for (String directive : cacheControl.split(",")) {
+                directive = directive.trim().toLowerCase(Locale.ENGLISH);
+                if (directive.equals("no-store")) {
+                    return Long.MIN_VALUE;
+                } else if (directive.equals("no-cache")) {
+                    return now;
+                } else if (directive.startsWith("max-age=")) {
+                    try {
+                        return now + 1000 * Long.parseLong(directive.substring(8).trim());
+                    } catch (NumberFormatException ex) {
+                        //-- invalid header, use other headers --//
+                    }
+                }
+            }
+        }
+        final long expires = cnx.getExpiration();
+        return (expires > 0) ? expires : now + defaultExpiration;
+    }
+
+    /**
+     * Store tile and evict least recently used tiles if cache is full.
+     */
+    private void put(final String key, final byte[] data, final long expires, final long lastModified,
+            final String etag) throws IOException {
+        final Entry old = index.remove(key);
+        if (old != null) size -= old.length;
+        final byte[] keyBytes  = key.getBytes(StandardCharsets.UTF_8);
+        if (data.length > maxSize || keyBytes.length > 0xFFFF) {
+            if (old != null) writeRemove(key);
+            return;
+        }
+        final byte[] etagBytes = (etag == null) ? new byte[0] : etag.getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer buffer = ByteBuffer.allocate(1 + 2 + keyBytes.length + 8 + 8 + 2 + etagBytes.length + 4 + data.length);
+        buffer.put(RECORD_PUT).putShort((short) keyBytes.length).put(keyBytes)
+              .putLong(expires).putLong(lastModified)
+              .putShort((short) etagBytes.length).put(etagBytes)
+              .putInt(data.length).put(data);
+        buffer.flip();
+        final long dataPosition = end + buffer.limit() - data.length;
+        writeFully(buffer, end);
+        end += buffer.limit();
+        index.put(key, new Entry(dataPosition, data.length, expires, lastModified, etag));
+        touched.remove(key);
+        size += data.length;
+        evict();
+        if (end > compactThreshold) compact();
+    }
+
+    /**
+     * Update tile expiration.
+     */
+    private void touch(final String key, final Entry entry, final long expires) throws IOException {
+        entry.expires = expires;
+        touched.remove(key);
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer buffer = ByteBuffer.allocate(1 + 2 + keyBytes.length + 8);
+        buffer.put(RECORD_TOUCH).putShort((short) keyBytes.length).put(keyBytes).putLong(expires);
+        buffer.flip();
+        writeFully(buffer, end);
+        end += buffer.limit();
+    }
+
+    /**
+     * Write touch records of tiles read since last call, moving them to the most recently used
+     * when the pack file is scanned.
+     */
+    private void writeTouches() throws IOException {
+        int length = 0;
+        for (final String key : touched) {
+            if (index.containsKey(key)) length += 1 + 2 + key.getBytes(StandardCharsets.UTF_8).length + 8;
+        }
+        if (length > 0) {
+            final ByteBuffer buffer = ByteBuffer.allocate(length);
+            for (final String key : touched) {
+                final Entry entry = index.get(key);
+                if (entry == null) continue;
+                final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+                buffer.put(RECORD_TOUCH).putShort((short) keyBytes.length).put(keyBytes).putLong(entry.expires);
+            }
+            buffer.flip();
+            writeFully(buffer, end);
+            end += buffer.limit();
+        }
+        touched.clear();
+        if (end > compactThreshold) compact();
+    }
+
+    private void writeRemove(final String key) throws IOException {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer buffer = ByteBuffer.allocate(1 + 2 + keyBytes.length);
+        buffer.put(RECORD_REMOVE).putShort((short) keyBytes.length).put(keyBytes);
+        buffer.flip();
+        writeFully(buffer, end);
+        end += buffer.limit();
+    }
+
+    /**
+     * Remove least recently used tiles until size is under maximum size.
+     */
+    private void evict() throws IOException {
+        final Iterator<Map.Entry<String, Entry>> ite = index.entrySet().iterator();
+        while (size > maxSize && ite.hasNext()) {
+            final Map.Entry<String, Entry> eldest = ite.next();
+            ite.remove();
+            size -= eldest.getValue().length;
+            writeRemove(eldest.getKey());
+        }
+    }
+
+    /**
+     * Rewrite live tiles in a new pack file, from least to most recently used.
+     */
+    private void compact() throws IOException {
+        final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            position += write(out, ByteBuffer.wrap(MAGIC), position);
+            for (final Map.Entry<String, Entry> e : index.entrySet()) {
+                final Entry entry = e.getValue();
+                final byte[] keyBytes  = e.getKey().getBytes(StandardCharsets.UTF_8);
+                final byte[] etagBytes = (entry.etag == null) ? new byte[0] : entry.etag.getBytes(StandardCharsets.UTF_8);
+                final ByteBuffer header = ByteBuffer.allocate(1 + 2 + keyBytes.length + 8 + 8 + 2 + etagBytes.length + 4);
+                header.put(RECORD_PUT).putShort((short) keyBytes.length).put(keyBytes)
+                      .putLong(entry.expires).putLong(entry.lastModified)
+                      .putShort((short) etagBytes.length).put(etagBytes)
+                      .putInt(entry.length);
+                header.flip();
+                position += write(out, header, position);
+                position += write(out, ByteBuffer.wrap(read(entry)), position);
+                entry.position = position - entry.length;
+            }
+            out.force(true);
+            end = position;
+            //-- tiles are written in usage order --//
+            touched.clear();
+            //-- record headers may be large compared to small tiles --//
+            compactThreshold = Math.max(maxSize + maxSize / 2, end * 2);
+        }
+        channel.close();
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Read stored tile bytes.
+     */
+    private byte[] read(final Entry entry) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+        long position = entry.position;
+        while (buffer.hasRemaining()) {
+            final int n = channel.read(buffer, position);
+            if (n < 0) throw new EOFException("Unexpected end of tile cache file : "+file);
+            position += n;
+        }
+        return buffer.array();
+    }
+
+    private void writeFully(final ByteBuffer buffer, final long position) throws IOException {
+        write(channel, buffer, position);
+    }
+
+    private static int write(final FileChannel channel, final ByteBuffer buffer, long position) throws IOException {
+        final int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return length;
+    }
+
+    private static void skipFully(final DataInputStream in, int length) throws IOException {
+        while (length > 0) {
+            final int n = in.skipBytes(length);
+            if (n <= 0) {
+                if (in.read() < 0) throw new EOFException();
+                length--;
+            } else {
+                length -= n;
+            }
+        }
+    }
+
+    private static byte[] readAll(final InputStream stream) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(16384);
+        final byte[] buffer = new byte[8192];
+        int n;
+        while ((n = stream.read(buffer)) >= 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Flush and close pack file.
+     *
+     * @throws IOException if pack file can not be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            writeTouches();
+            channel.force(true);
+            channel.close();
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PersistentTileCache[" + file + ", tiles : " + index.size() + ", size : " + size + "/" + maxSize
+                + ", hit ratio : " + getHitRatio() + "]";
+    }
+
+    /**
+     * Stored tile description.
+     */
+    private static final class Entry {
+        long position;
+        final int length;
+        long expires;
+        final long lastModified;
+        final String etag;
+
+        Entry(final long position, final int length, final long expires, final long lastModified, final String etag) {
+            this.position     = position;
+            this.length       = length;
+            this.expires      = expires;
+            this.lastModified = lastModified;
+            this.etag         = etag;
+        }
+    }
+
+    /**
+     * Request reading tiles through the cache.
+     */
+    private final class CachedRequest implements Request {
+
+        private final Request request;
+        private final ClientSecurity security;
+        private final int timeout;
+
+        CachedRequest(final Request request, final ClientSecurity security, final int timeout) {
+            this.request  = request;
+            this.security = security;
+            this.timeout  = timeout;
+        }
+
+        @Override
+        public Map<String, String> getHeaderMap() {
+            return request.getHeaderMap();
+        }
+
+        @Override
+        public URL getURL() throws MalformedURLException {
+            return request.getURL();
+        }
+
+        @Override
+        public InputStream getResponseStream() throws IOException {
+            return new ByteArrayInputStream(getTile(request, security, timeout));
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.client.map;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geotoolkit.client.Request;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link PersistentTileCache} against a local http server.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public class PersistentTileCacheTest extends org.geotoolkit.test.TestBase {
+
+    private static final int TILE_SIZE = 1000;
+
+    private HttpServer server;
+    private Path file;
+
+    /**
+     * Number of requests received by server, and number of 304 answers.
+     */
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    /**
+     * Tile version for each path, used to build tile bytes and ETag.
+     */
+    private final Map<String, Integer> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Cache-Control header sent by server.
+     */
+    private volatile String cacheControl = "max-age=3600";
+
+    @Before
+    public void startServer() throws IOException {
+        file = Files.createTempFile("tiles", ".pack");
+        Files.delete(file);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/tiles", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                requests.incrementAndGet();
+                final String path = exchange.getRequestURI().getPath();
+                final Integer version = versions.containsKey(path) ? versions.get(path) : 0;
+                final String etag = "\"" + path.hashCode() + "-" + version + "\"";
+                exchange.getResponseHeaders().set("ETag", etag);
+                exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+                if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModified.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+                    final byte[] data = createTile(path, version);
+                    exchange.sendResponseHeaders(200, data.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(data);
+                    }
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        server.stop(0);
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".tmp"));
+    }
+
+    private static byte[] createTile(final String path, final int version) {
+        final byte[] data = new byte[TILE_SIZE];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (path.hashCode() + version * 31 + i);
+        }
+        return data;
+    }
+
+    private Request request(final int col) throws IOException {
+        final URL url = new URL("http://localhost:" + server.getAddress().getPort() + "/tiles/0/" + col);
+        return new Request() {
+            @Override
+            public Map<String, String> getHeaderMap() {
+                return Collections.emptyMap();
+            }
+
+            @Override
+            public URL getURL() {
+                return url;
+            }
+
+            @Override
+            public InputStream getResponseStream() throws IOException {
+                return url.openStream();
+            }
+        };
+    }
+
+    private byte[] get(final PersistentTileCache cache, final int col) throws IOException {
+        return cache.getTile(request(col), null, 5000);
+    }
+
+    /**
+     * Second access and access after reopening do not query the server.
+     */
+    @Test
+    public void hitAndPersistenceTest() throws IOException {
+        try (PersistentTileCache cache = new PersistentTileCache(file, 100000, 60000)) {
+            assertArrayEquals(createTile("/tiles/0/1", 0), get(cache, 1));
+            assertArrayEquals(createTile("/tiles/0/1", 0), get(cache, 1));
+            assertEquals(1, requests.get());
+            assertEquals(1, cache.getHitCount());
+            assertEquals(1, cache.getMissCount());
+            assertEquals(0.5, cache.getHitRatio(), 0);
+        }
+        try (PersistentTileCache cache = new PersistentTileCache(file, 100000, 60000)) {
+            assertEquals(1, cache.getTileCount());
+            assertArrayEquals(createTile("/tiles/0/1", 0), get(cache, 1));
+            assertEquals(1, requests.get());
+            assertEquals(1, cache.getHitRatio(), 0);
+        }
+    }
+
+    /**
+     * Expired tiles are revalidated, and downloaded again only if they changed.
+     */
+    @Test
+    public void revalidationTest() throws IOException {
+        cacheControl = "max-age=0";
+        try (PersistentTileCache cache = new PersistentTileCache(file, 100000, 60000)) {
+            get(cache, 2);
+            assertArrayEquals(createTile("/tiles/0/2", 0), get(cache, 2));
+            assertEquals(2, requests.get());
+            assertEquals(1, notModified.get());
+            assertEquals(1, cache.getRevalidationCount());
+
+            versions.put("/tiles/0/2", 1);
+            assertArrayEquals(createTile("/tiles/0/2", 1), get(cache, 2));
+            assertEquals(3, requests.get());
+            assertEquals(2, cache.getMissCount());
+
+            //-- revalidation extends expiration --//
+            cacheControl = "max-age=3600";
+            get(cache, 2);
+            assertEquals(2, notModified.get());
+            get(cache, 2);
+            assertEquals(4, requests.get());
+            assertEquals(1, cache.getHitCount());
+        }
+    }
+
+    /**
+     * Responses with no-store are never stored.
+     */
+    @Test
+    public void noStoreTest() throws IOException {
+        cacheControl = "no-store";
+        try (PersistentTileCache cache = new PersistentTileCache(file, 100000, 60000)) {
+            get(cache, 3);
+            get(cache, 3);
+            assertEquals(2, requests.get());
+            assertEquals(0, cache.getTileCount());
+        }
+    }
+
+    /**
+     * Least recently used tiles are evicted, pack file is compacted and stay consistent after reopening.
+     */
+    @Test
+    public void evictionTest() throws IOException {
+        try (PersistentTileCache cache = new PersistentTileCache(file, 3 * TILE_SIZE, 60000)) {
+            get(cache, 0);
+            get(cache, 1);
+            get(cache, 2);
+            //-- tile 0 becomes the most recently used, tile 1 is evicted --//
+            get(cache, 0);
+            get(cache, 3);
+            assertEquals(3, cache.getTileCount());
+            assertEquals(3 * TILE_SIZE, cache.getSize());
+            assertEquals(4, requests.get());
+            get(cache, 1);
+            assertEquals(5, requests.get());
+
+            //-- many tiles to force pack compaction --//
+            for (int i = 10; i < 30; i++) {
+                get(cache, i);
+            }
+            assertTrue(Files.size(file) < 6 * TILE_SIZE);
+        }
+        requests.set(0);
+        try (PersistentTileCache cache = new PersistentTileCache(file, 3 * TILE_SIZE, 60000)) {
+            assertEquals(3, cache.getTileCount());
+            for (int i = 27; i < 30; i++) {
+                assertArrayEquals(createTile("/tiles/0/" + i, 0), get(cache, i));
+            }
+            assertEquals(0, requests.get());
+        }
+    }
+
+    /**
+     * Tiles read from cache keep their usage order after reopening.
+     */
+    @Test
+    public void usageOrderPersistenceTest() throws IOException {
+        try (PersistentTileCache cache = new PersistentTileCache(file, 3 * TILE_SIZE, 60000)) {
+            get(cache, 0);
+            get(cache, 1);
+            get(cache, 2);
+            get(cache, 0);
+            assertEquals(3, requests.get());
+        }
+        try (PersistentTileCache cache = new PersistentTileCache(file, 3 * TILE_SIZE, 60000)) {
+            //-- tile 0 was read last in previous session, tile 1 is evicted --//
+            get(cache, 3);
+            assertEquals(4, requests.get());
+            get(cache, 0);
+            assertEquals(4, requests.get());
+            get(cache, 1);
+            assertEquals(5, requests.get());
+        }
+    }
+
+    /**
+     * Incomplete last record is discarded at opening.
+     */
+    @Test
+    public void truncatedFileTest() throws IOException {
+        try (PersistentTileCache cache = new PersistentTileCache(file, 100000, 60000)) {
+            get(cache, 0);
+            get(cache, 1);
+        }
+        final byte[] content = Files.readAllBytes(file);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(content, 0, content.length - 10);
+        Files.write(file, out.toByteArray());
+
+        try (PersistentTileCache cache = new PersistentTileCache(file, 100000, 60000)) {
+            assertEquals(1, cache.getTileCount());
+            assertArrayEquals(createTile("/tiles/0/0", 0), get(cache, 0));
+            assertArrayEquals(createTile("/tiles/0/1", 0), get(cache, 1));
+            assertEquals(3, requests.get());
+        }
+        try (PersistentTileCache cache = new PersistentTileCache(file, 100000, 60000)) {
+            assertEquals(2, cache.getTileCount());
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.display2d.style.labeling.candidate;
+
+import java.awt.Font;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.LineMetrics;
+import java.awt.geom.FlatteningPathIterator;
+import java.awt.geom.PathIterator;
+import java.util.Arrays;
+import org.geotoolkit.display2d.style.labeling.LinearLabelDescriptor;
+
+/**
+ * Area covered by a label candidate in display space, made of oriented boxes.<br/>
+ * A point candidate is a single box, rotated by the label rotation. A linear candidate
+ * is a box for each path segment covered by the text, as painted by the TextStroke.<br/>
+ * Two footprints intersect if any of their boxes overlap, touching boxes do not intersect.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public final class CandidateFootprint {
+
+    private static final double[][] EMPTY = new double[0][];
+
+    /** boxes, 4 corners as x1,y1,...,x4,y4 */
+    private final double[][] boxes;
+    /** axis aligned bounds */
+    public final double minX;
+    public final double minY;
+    public final double maxX;
+    public final double maxY;
+
+    private CandidateFootprint(final double[][] boxes) {
+        this.boxes = boxes;
+        double minx = Double.POSITIVE_INFINITY;
+        double miny = Double.POSITIVE_INFINITY;
+        double maxx = Double.NEGATIVE_INFINITY;
+        double maxy = Double.NEGATIVE_INFINITY;
+        for(double[] box : boxes){
+            for(int i=0;i<8;i+=2){
+                minx = Math.min(minx, box[i]);
+                maxx = Math.max(maxx, box[i]);
+                miny = Math.min(miny, box[i+1]);
+                maxy = Math.max(maxy, box[i+1]);
+            }
+        }
+        this.minX = minx;
+        this.minY = miny;
+        this.maxX = maxx;
+        this.maxY = maxy;
+    }
+
+    /**
+     * @return true if footprint covers nothing, for exemple a linear label on a path too short.
+     */
+    public boolean isEmpty() {
+        return boxes.length == 0;
+    }
+
+    /**
+     * Test if footprints overlap.
+     *
+     * @param other footprint to test
+     * @return true if at least one box of each footprint overlap.
+     */
+    public boolean intersects(final CandidateFootprint other) {
+        if(isEmpty() || other.isEmpty()
+           || maxX <= other.minX || other.maxX <= minX
+           || maxY <= other.minY || other.maxY <= minY){
+            return false;
+        }
+        for(double[] b1 : boxes){
+            for(double[] b2 : other.boxes){
+                if(!separated(b1, b2) && !separated(b2, b1)){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Separating axis test, using the edge normals of the first box.
+     */
+    private static boolean separated(final double[] b1, final double[] b2) {
+        for(int e=0;e<2;e++){
+            //boxes are rectangles, two edges are enough
+            final double nx = -(b1[2*e+3] - b1[2*e+1]);
+            final double ny =   b1[2*e+2] - b1[2*e];
+            if(nx == 0 && ny == 0) continue;
+            double min1 = Double.POSITIVE_INFINITY, max1 = Double.NEGATIVE_INFINITY;
+            double min2 = Double.POSITIVE_INFINITY, max2 = Double.NEGATIVE_INFINITY;
+            for(int i=0;i<8;i+=2){
+                final double p1 = b1[i]*nx + b1[i+1]*ny;
+                final double p2 = b2[i]*nx + b2[i+1]*ny;
+                min1 = Math.min(min1, p1); max1 = Math.max(max1, p1);
+                min2 = Math.min(min2, p2); max2 = Math.max(max2, p2);
+            }
+            if(max1 <= min2 || max2 <= min1){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compute candidate footprint.
+     *
+     * @param candidate point or linear candidate
+     * @return candidate footprint
+     * @throws IllegalArgumentException if candidate type is not supported
+     */
+    public static CandidateFootprint create(final Candidate candidate) {
+        if(candidate instanceof PointCandidate){
+            return create((PointCandidate)candidate);
+        }else if(candidate instanceof LinearCandidate){
+            return create((LinearCandidate)candidate);
+        }
+        throw new IllegalArgumentException("Unexpected Candidate classes.");
+    }
+
+    /**
+     * Point label box, same area as used by
+     * {@link LabelingUtilities#intersects(PointCandidate, PointCandidate)}.
+     */
+    private static CandidateFootprint create(final PointCandidate candidate) {
+        final double angle = Math.toRadians(candidate.getDescriptor().getRotation());
+        final double cos = Math.cos(angle);
+        final double sin = Math.sin(angle);
+        final double ox = candidate.getCorrectedX();
+        final double oy = candidate.getCorrectedY();
+        final double top = -candidate.upper;
+        final double bottom = candidate.lower;
+        final double width = candidate.width;
+        final double[] box = new double[]{
+            0, top, width, top, width, bottom, 0, bottom
+        };
+        for(int i=0;i<8;i+=2){
+            final double u = box[i];
+            final double v = box[i+1];
+            box[i]   = ox + u*cos - v*sin;
+            box[i+1] = oy + u*sin + v*cos;
+        }
+        return new CandidateFootprint(new double[][]{box});
+    }
+
+    /**
+     * Linear label boxes, following the text placement rules of the TextStroke :
+     * text starts after the initial gap, is repeated along the path if requested,
+     * and is painted only if the path is long enough.
+     */
+    private static CandidateFootprint create(final LinearCandidate candidate) {
+        final Shape shape = candidate.getShape();
+        final LinearLabelDescriptor desc = candidate.getDescriptor();
+        final String text = desc.getText();
+        if(shape == null || text == null || text.isEmpty()){
+            return new CandidateFootprint(EMPTY);
+        }
+
+        final Font font = desc.getTextFont();
+        final FontRenderContext frc = new FontRenderContext(null, true, true);
+        final GlyphVector glyphs = font.createGlyphVector(frc, text);
+        final LineMetrics metrics = font.getLineMetrics(text, frc);
+        final double labelLength = glyphs.getVisualBounds().getWidth();
+        final double top = -desc.getOffSet() - metrics.getAscent();
+        final double bottom = -desc.getOffSet() + metrics.getDescent();
+
+        //text ranges along the path
+        final double pathLength = pathLength(shape);
+        final double start = desc.getInitialGap();
+        if(start + labelLength > pathLength){
+            return new CandidateFootprint(EMPTY);
+        }
+        final double end = desc.isRepeated() ? pathLength : start + labelLength;
+
+        double[][] boxes = new double[16][];
+        int nb = 0;
+        final PathIterator ite = new FlatteningPathIterator(shape.getPathIterator(null), 1);
+        final double[] coords = new double[6];
+        double moveX = 0, moveY = 0, lastX = 0, lastY = 0;
+        double position = 0;
+        for(; !ite.isDone() && position < end; ite.next()){
+            final int type = ite.currentSegment(coords);
+            if(type == PathIterator.SEG_MOVETO){
+                moveX = lastX = coords[0];
+                moveY = lastY = coords[1];
+                continue;
+            }else if(type == PathIterator.SEG_CLOSE){
+                coords[0] = moveX;
+                coords[1] = moveY;
+            }
+            final double dx = coords[0] - lastX;
+            final double dy = coords[1] - lastY;
+            final double length = Math.sqrt(dx*dx + dy*dy);
+            if(length > 0){
+                final double s0 = Math.max(start, position) - position;
+                final double s1 = Math.min(end, position + length) - position;
+                if(s1 > s0){
+                    final double cos = dx / length;
+                    final double sin = dy / length;
+                    final double[] box = new double[]{
+                        s0, top, s1, top, s1, bottom, s0, bottom
+                    };
+                    for(int i=0;i<8;i+=2){
+                        final double u = box[i];
+                        final double v = box[i+1];
+                        box[i]   = lastX + u*cos - v*sin;
+                        box[i+1] = lastY + u*sin + v*cos;
+                    }
+                    if(nb == boxes.length) boxes = Arrays.copyOf(boxes, nb*2);
+                    boxes[nb++] = box;
+                }
+                position += length;
+            }
+            lastX = coords[0];
+            lastY = coords[1];
+        }
+        return new CandidateFootprint(Arrays.copyOf(boxes, nb));
+    }
+
+    private static double pathLength(final Shape shape) {
+        final PathIterator ite = new FlatteningPathIterator(shape.getPathIterator(null), 1);
+        final double[] coords = new double[6];
+        double moveX = 0, moveY = 0, lastX = 0, lastY = 0;
+        double total = 0;
+        for(; !ite.isDone(); ite.next()){
+            final int type = ite.currentSegment(coords);
+            if(type == PathIterator.SEG_MOVETO){
+                moveX = lastX = coords[0];
+                moveY = lastY = coords[1];
+                continue;
+            }else if(type == PathIterator.SEG_CLOSE){
+                coords[0] = moveX;
+                coords[1] = moveY;
+            }
+            final double dx = coords[0] - lastX;
+            final double dy = coords[1] - lastY;
+            total += Math.sqrt(dx*dx + dy*dy);
+            lastX = coords[0];
+            lastY = coords[1];
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.display2d.style.labeling.candidate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.sis.util.ArgumentChecks;
+
+/**
+ * Uniform grid index of accepted label candidates in display space.<br/>
+ * Each candidate footprint is registered in all grid cells its bounds cover, a new candidate
+ * is only tested against the footprints of the cells it covers.<br/>
+ * Cells are guarded by a fixed set of locks : concurrent insertions in different areas
+ * of the canvas do not block each other. Footprints covering too many cells are stored
+ * apart and tested by all queries.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public final class LabelCollisionIndex {
+
+    private static final int NB_LOCKS = 64;
+    /** maximum number of cells covered by a footprint stored in the grid */
+    private static final int MAX_CELLS = 4096;
+
+    private final double cellSize;
+    private final ConcurrentHashMap<Long,List<CandidateFootprint>> cells = new ConcurrentHashMap<>();
+    /** footprints covering too many cells, modified with all locks */
+    private final List<CandidateFootprint> large = new ArrayList<>();
+    private final ReentrantLock[] locks = new ReentrantLock[NB_LOCKS];
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * @param cellSize grid cell size in display units, should be close to the common label size.
+     */
+    public LabelCollisionIndex(final double cellSize) {
+        ArgumentChecks.ensureStrictlyPositive("cellSize", cellSize);
+        this.cellSize = cellSize;
+        for(int i=0;i<NB_LOCKS;i++){
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @return number of accepted candidates.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Remove all candidates.
+     */
+    public void clear() {
+        for(ReentrantLock lock : locks) lock.lock();
+        try{
+            cells.clear();
+            large.clear();
+            size.set(0);
+        }finally{
+            for(ReentrantLock lock : locks) lock.unlock();
+        }
+    }
+
+    /**
+     * Test if candidate overlaps an accepted candidate.
+     *
+     * @param candidate candidate to test
+     * @return true if candidate overlaps an accepted candidate
+     */
+    public boolean intersects(final Candidate candidate) {
+        final CandidateFootprint footprint = CandidateFootprint.create(candidate);
+        if(footprint.isEmpty()) return false;
+        final long[] keys = cellKeys(footprint);
+        final int[] stripes = stripes(keys);
+        lock(stripes);
+        try{
+            return intersects(footprint, keys);
+        }finally{
+            unlock(stripes);
+        }
+    }
+
+    /**
+     * Accept candidate if it does not overlap an accepted candidate.
+     * Test and insertion are atomic.
+     *
+     * @param candidate candidate to insert
+     * @return true if candidate has been accepted
+     */
+    public boolean add(final Candidate candidate) {
+        final CandidateFootprint footprint = CandidateFootprint.create(candidate);
+        if(footprint.isEmpty()){
+            //label will not be painted, nothing to reserve
+            size.incrementAndGet();
+            return true;
+        }
+        final long[] keys = cellKeys(footprint);
+        final int[] stripes = stripes(keys);
+        lock(stripes);
+        try{
+            if(intersects(footprint, keys)) return false;
+            if(keys == null){
+                large.add(footprint);
+                size.incrementAndGet();
+                return true;
+            }
+            for(long key : keys){
+                List<CandidateFootprint> lst = cells.get(key);
+                if(lst == null){
+                    lst = new ArrayList<>(4);
+                    cells.put(key, lst);
+                }
+                lst.add(footprint);
+            }
+            size.incrementAndGet();
+            return true;
+        }finally{
+            unlock(stripes);
+        }
+    }
+
+    private boolean intersects(final CandidateFootprint footprint, final long[] keys) {
+        if(intersects(footprint, large)) return true;
+        if(keys == null){
+            //all locks are held
+            for(List<CandidateFootprint> lst : cells.values()){
+                if(intersects(footprint, lst)) return true;
+            }
+            return false;
+        }
+        for(long key : keys){
+            final List<CandidateFootprint> lst = cells.get(key);
+            if(lst != null && intersects(footprint, lst)) return true;
+        }
+        return false;
+    }
+
+    private static boolean intersects(final CandidateFootprint footprint, final List<CandidateFootprint> lst) {
+        for(int i=0,n=lst.size();i<n;i++){
+            if(footprint.intersects(lst.get(i))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return keys of the covered cells, null if footprint covers too many cells.
+     */
+    private long[] cellKeys(final CandidateFootprint footprint) {
+        final double minx = Math.floor(footprint.minX / cellSize);
+        final double maxx = Math.floor(footprint.maxX / cellSize);
+        final double miny = Math.floor(footprint.minY / cellSize);
+        final double maxy = Math.floor(footprint.maxY / cellSize);
+        final double nb = (maxx-minx+1) * (maxy-miny+1);
+        if(!(nb <= MAX_CELLS) || minx < Integer.MIN_VALUE || maxx > Integer.MAX_VALUE
+                || miny < Integer.MIN_VALUE || maxy > Integer.MAX_VALUE){
+            return null;
+        }
+        return cellKeys((int)minx, (int)miny, (int)maxx, (int)maxy);
+    }
+
+    private static long[] cellKeys(final int minx, final int miny, final int maxx, final int maxy) {
+        final long[] keys = new long[(maxx-minx+1) * (maxy-miny+1)];
+        int k = 0;
+        for(int y=miny;y<=maxy;y++){
+            for(int x=minx;x<=maxx;x++){
+                keys[k++] = (((long)x) << 32) | (y & 0xFFFFFFFFL);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * @return sorted distinct lock indexes, locks are always acquired in the same order.
+     *         All locks if keys is null.
+     */
+    private static int[] stripes(final long[] keys) {
+        if(keys == null){
+            final int[] all = new int[NB_LOCKS];
+            for(int i=0;i<NB_LOCKS;i++) all[i] = i;
+            return all;
+        }
+        final boolean[] used = new boolean[NB_LOCKS];
+        int nb = 0;
+        for(long key : keys){
+            final int s = stripe(key);
+            if(!used[s]){
+                used[s] = true;
+                nb++;
+            }
+        }
+        final int[] stripes = new int[nb];
+        for(int i=0,k=0;i<NB_LOCKS;i++){
+            if(used[i]) stripes[k++] = i;
+        }
+        return stripes;
+    }
+
+    private static int stripe(final long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 58);
+    }
+
+    private void lock(final int[] stripes) {
+        for(int s : stripes) locks[s].lock();
+    }
+
+    private void unlock(final int[] stripes) {
+        for(int i=stripes.length-1;i>=0;i--) locks[stripes[i]].unlock();
+    }
+
+    @Override
+    public String toString() {
+        return "LabelCollisionIndex[cellSize="+cellSize+", size="+size+", cells="+cells.size()+"]";
+    }
+
+}
@@ -226,11 +226,11 @@ public class LabelingUtilities {
     }
 
     public static boolean intersects(final LinearCandidate linear, final PointCandidate point){
-        return false;
+        return CandidateFootprint.create(linear).intersects(CandidateFootprint.create(point));
     }
 
     public static boolean intersects(final LinearCandidate linear1, final LinearCandidate linear2){
-        return false;
+        return CandidateFootprint.create(linear1).intersects(CandidateFootprint.create(linear2));
     }
 
 }
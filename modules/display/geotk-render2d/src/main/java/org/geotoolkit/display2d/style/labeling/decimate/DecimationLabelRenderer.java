@@ -20,8 +20,10 @@ import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import org.geotoolkit.display2d.canvas.RenderingContext2D;
 import org.geotoolkit.display2d.style.labeling.DefaultLabelRenderer;
 import org.geotoolkit.display2d.style.labeling.LabelDescriptor;
@@ -29,6 +31,7 @@ import org.geotoolkit.display2d.style.labeling.LabelLayer;
 import org.geotoolkit.display2d.style.labeling.LinearLabelDescriptor;
 import org.geotoolkit.display2d.style.labeling.PointLabelDescriptor;
 import org.geotoolkit.display2d.style.labeling.candidate.Candidate;
+import org.geotoolkit.display2d.style.labeling.candidate.LabelCollisionIndex;
 import org.geotoolkit.display2d.style.labeling.candidate.LabelingUtilities;
 import org.geotoolkit.display2d.style.labeling.candidate.LinearCandidate;
 import org.geotoolkit.display2d.style.labeling.candidate.PointCandidate;
@@ -36,13 +39,21 @@ import org.geotoolkit.display2d.style.labeling.candidate.PointCandidate;
 /**
  * Label renderer that apply a simple decimation on labels to remove all
  * overlaping labels and labels partly visible on the map edges.
+ * Accepted labels are stored in a grid index, labels can be appended
+ * by several rendering threads.
  * 
  * @author Johann Sorel (Geomatys)
  * @module pending
  */
 public class DecimationLabelRenderer extends DefaultLabelRenderer{
     
-    private final SortedSet<Candidate> candidates = new TreeSet<Candidate>(LabelingUtilities.XY_COMPARATOR);
+    /**
+     * Grid cell size in pixels, close to the common label size.
+     */
+    private static final double CELL_SIZE = 64;
+
+    private final LabelCollisionIndex index = new LabelCollisionIndex(CELL_SIZE);
+    private final Queue<Candidate> candidates = new ConcurrentLinkedQueue<Candidate>();
 
     private final List<LabelLayer> layers = new ArrayList<LabelLayer>();
 
@@ -93,7 +104,9 @@ public class DecimationLabelRenderer extends DefaultLabelRenderer{
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         
         //paint the remaining candidates
-        for(Candidate candidate : candidates){
+        final SortedSet<Candidate> ordered = new TreeSet<Candidate>(LabelingUtilities.XY_COMPARATOR);
+        ordered.addAll(candidates);
+        for(Candidate candidate : ordered){
             if(candidate instanceof PointCandidate){
                 pointRenderer.render(candidate);
             }else if(candidate instanceof LinearCandidate){
@@ -122,19 +135,17 @@ public class DecimationLabelRenderer extends DefaultLabelRenderer{
                     for(Candidate c : pcs){
                         final PointCandidate pc = (PointCandidate) c;
                         pc.setPriority(1);
-                        synchronized(candidates){
-                            if(!LabelingUtilities.intersects(pc,candidates)){
-                                candidates.add(pc);
-                            }else{
-                            }
+                        if(index.add(pc)){
+                            candidates.add(pc);
                         }
                     }
                 }else if(label instanceof LinearLabelDescriptor){
                     final Candidate[] lcs = LinearRenderer.generateCandidat((LinearLabelDescriptor) label);
+                    if(lcs == null) return true;
                     for(Candidate c : lcs){
                         final LinearCandidate lc = (LinearCandidate) c;
                         lc.setPriority(1);
-                        synchronized(candidates){
+                        if(index.add(lc)){
                             candidates.add(lc);
                         }
                     }
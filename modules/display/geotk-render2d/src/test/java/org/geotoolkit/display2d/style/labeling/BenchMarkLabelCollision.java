@@ -0,0 +1,94 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.display2d.style.labeling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.geotoolkit.display2d.style.labeling.candidate.Candidate;
+import org.geotoolkit.display2d.style.labeling.candidate.LabelCollisionIndex;
+import org.geotoolkit.display2d.style.labeling.candidate.LabelingUtilities;
+import org.geotoolkit.display2d.style.labeling.candidate.PointCandidate;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Decimate 100 000 point labels on a 4096x4096 canvas with the {@link LabelCollisionIndex}
+ * grid and with the previous test against every accepted label.
+ *
+ * @author Johann Sorel (Geomatys)
+ */
+public class BenchMarkLabelCollision {
+
+    private static final int CANVAS_SIZE = 4096;
+    private static final int NB_LABELS = 100000;
+    private static final int NB_ITERATIONS = 5;
+
+    /**
+     * Same candidates for all runs, labels of 20 to 80 pixels, a quarter of them rotated.
+     */
+    private final List<PointCandidate> candidates = new ArrayList<>();
+
+    public BenchMarkLabelCollision() {
+        final Random random = new Random(42);
+        for (int i = 0; i < NB_LABELS; i++) {
+            final float rotation = (i % 4 == 0) ? random.nextFloat() * 360 : 0;
+            candidates.add(LabelCollisionIndexTest.point(random.nextFloat() * CANVAS_SIZE,
+                    random.nextFloat() * CANVAS_SIZE, 20 + random.nextInt(60), rotation));
+        }
+    }
+
+    @Test
+    @Ignore
+    public void benchGridTest() {
+        for (int nb : new int[]{10000, NB_LABELS}) {
+            for (int i = 0; i < NB_ITERATIONS; i++) {
+                final long start = System.nanoTime();
+                final LabelCollisionIndex index = new LabelCollisionIndex(32);
+                for (int k = 0; k < nb; k++) {
+                    index.add(candidates.get(k));
+                }
+                print("grid", nb, index.size(), start);
+            }
+        }
+    }
+
+    /**
+     * Full scan is quadratic, only the first 10 000 labels are used.
+     */
+    @Test
+    @Ignore
+    public void benchScanTest() {
+        final int nb = 10000;
+        for (int i = 0; i < NB_ITERATIONS; i++) {
+            final long start = System.nanoTime();
+            final List<Candidate> accepted = new ArrayList<>();
+            for (int k = 0; k < nb; k++) {
+                final PointCandidate candidate = candidates.get(k);
+                if (!LabelingUtilities.intersects(candidate, accepted)) {
+                    accepted.add(candidate);
+                }
+            }
+            print("scan", nb, accepted.size(), start);
+        }
+    }
+
+    private static void print(final String name, final int nb, final int nbAccepted, final long start) {
+        final long time = (System.nanoTime() - start) / 1000000;
+        System.out.println("stats " + name + " : " + nb + " labels, " + nbAccepted + " accepted in " + time + " ms");
+    }
+}
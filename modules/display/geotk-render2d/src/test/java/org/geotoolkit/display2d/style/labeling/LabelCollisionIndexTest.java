@@ -0,0 +1,199 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.display2d.style.labeling;
+
+import java.awt.Font;
+import java.awt.geom.Line2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.geotoolkit.display2d.style.labeling.candidate.Candidate;
+import org.geotoolkit.display2d.style.labeling.candidate.CandidateFootprint;
+import org.geotoolkit.display2d.style.labeling.candidate.LabelCollisionIndex;
+import org.geotoolkit.display2d.style.labeling.candidate.LabelingUtilities;
+import org.geotoolkit.display2d.style.labeling.candidate.LinearCandidate;
+import org.geotoolkit.display2d.style.labeling.candidate.PointCandidate;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link LabelCollisionIndex} and label candidates collisions.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public class LabelCollisionIndexTest extends org.geotoolkit.test.TestBase {
+
+    private static final Font FONT = new Font("Dialog", Font.PLAIN, 12);
+
+    static PointCandidate point(final float x, final float y, final int width, final float rotation) {
+        final PointLabelDescriptor desc = new DefaultPointLabelDescriptor("label", FONT, null,
+                0, null, 0, 0, 0, 0, rotation, null, null);
+        return new PointCandidate(desc, width, 10, 3, x, y);
+    }
+
+    private static LinearCandidate linear(final double x1, final double y1, final double x2, final double y2,
+            final float initialGap, final boolean repeated) {
+        final LinearLabelDescriptor desc = new DefaultLinearLabelDescriptor("Label", FONT, null,
+                0, null, 10, initialGap, 0, repeated, true, false, null);
+        return new LinearCandidate(desc, new Line2D.Double(x1, y1, x2, y2));
+    }
+
+    /**
+     * Footprint test must give the same result as the point candidate test.
+     */
+    @Test
+    public void testPointCollisions() {
+        final PointCandidate base = point(100, 100, 50, 0);
+        final PointCandidate[] others = new PointCandidate[]{
+            point(140, 105, 50, 0),
+            point(151, 100, 50, 0),
+            point(100, 114, 50, 0),
+            point(100, 86, 50, 0),
+            point(120, 140, 50, 90),
+            point(120, 180, 50, 90),
+            point(60, 120, 60, -45),
+            point(40, 160, 60, -45),
+            point(110, 98, 10, 30),
+        };
+        final CandidateFootprint fb = CandidateFootprint.create(base);
+        for(PointCandidate other : others){
+            final boolean expected = LabelingUtilities.intersects(base, other);
+            assertEquals(expected, fb.intersects(CandidateFootprint.create(other)));
+            assertEquals(expected, CandidateFootprint.create(other).intersects(fb));
+        }
+        //touching labels do not intersect
+        assertFalse(fb.intersects(CandidateFootprint.create(point(150, 100, 50, 0))));
+    }
+
+    /**
+     * Linear candidates only cover the path part where the text is painted.
+     */
+    @Test
+    public void testLinearCollisions() {
+        final LinearCandidate line = linear(0, 100, 400, 100, 0, false);
+        assertTrue(LabelingUtilities.intersects(line, point(5, 100, 20, 0)));
+        assertTrue(LabelingUtilities.intersects(line, point(5, 90, 20, 45)));
+        assertFalse(LabelingUtilities.intersects(line, point(5, 130, 20, 0)));
+        //after the text end
+        assertFalse(LabelingUtilities.intersects(line, point(300, 100, 20, 0)));
+        //repeated text covers the full path
+        assertTrue(LabelingUtilities.intersects(linear(0, 100, 400, 100, 0, true), point(300, 100, 20, 0)));
+        //initial gap
+        assertFalse(LabelingUtilities.intersects(linear(0, 100, 400, 100, 200, false), point(5, 100, 20, 0)));
+
+        //crossing lines
+        assertTrue(LabelingUtilities.intersects(line, linear(10, 0, 10, 200, 90, false)));
+        assertFalse(LabelingUtilities.intersects(line, linear(0, 150, 400, 150, 0, true)));
+        //path too short, nothing painted
+        assertFalse(LabelingUtilities.intersects(linear(0, 100, 5, 100, 0, false), point(0, 100, 20, 0)));
+    }
+
+    /**
+     * Accepted candidates must not overlap, rejected candidates must overlap an accepted one.
+     */
+    @Test
+    public void testIndex() {
+        final Random random = new Random(42);
+        final LabelCollisionIndex index = new LabelCollisionIndex(32);
+        final List<Candidate> accepted = new ArrayList<>();
+        final List<Candidate> rejected = new ArrayList<>();
+        for(int i=0;i<3000;i++){
+            final Candidate candidate;
+            if(i % 50 == 0){
+                candidate = linear(random.nextInt(1000), random.nextInt(1000),
+                        random.nextInt(1000), random.nextInt(1000), 0, random.nextBoolean());
+            }else{
+                candidate = point(random.nextFloat()*1000, random.nextFloat()*1000,
+                        10 + random.nextInt(80), (random.nextInt(4) == 0) ? random.nextFloat()*360 : 0);
+            }
+            if(index.add(candidate)){
+                accepted.add(candidate);
+            }else{
+                rejected.add(candidate);
+            }
+        }
+        assertEquals(accepted.size(), index.size());
+        assertFalse(rejected.isEmpty());
+        checkDecimation(accepted, rejected);
+        for(Candidate candidate : rejected){
+            assertTrue(index.intersects(candidate));
+        }
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.add(rejected.get(0)));
+    }
+
+    /**
+     * Concurrent insertions must keep accepted candidates free of overlaps.
+     */
+    @Test
+    public void testConcurrentIndex() throws InterruptedException {
+        final LabelCollisionIndex index = new LabelCollisionIndex(64);
+        final Queue<Candidate> accepted = new ConcurrentLinkedQueue<>();
+        final Queue<Candidate> rejected = new ConcurrentLinkedQueue<>();
+        final Thread[] threads = new Thread[4];
+        for(int t=0;t<threads.length;t++){
+            final Random random = new Random(t);
+            threads[t] = new Thread(){
+                @Override
+                public void run() {
+                    for(int i=0;i<2000;i++){
+                        final Candidate candidate = point(random.nextFloat()*2000, random.nextFloat()*2000,
+                                10 + random.nextInt(200), random.nextFloat()*360);
+                        if(index.add(candidate)){
+                            accepted.add(candidate);
+                        }else{
+                            rejected.add(candidate);
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for(Thread thread : threads){
+            thread.join();
+        }
+        assertEquals(accepted.size(), index.size());
+        checkDecimation(new ArrayList<>(accepted), new ArrayList<>(rejected));
+    }
+
+    private static void checkDecimation(final List<Candidate> accepted, final List<Candidate> rejected) {
+        final List<CandidateFootprint> footprints = new ArrayList<>();
+        for(Candidate candidate : accepted){
+            footprints.add(CandidateFootprint.create(candidate));
+        }
+        for(int i=0;i<footprints.size();i++){
+            for(int k=i+1;k<footprints.size();k++){
+                assertFalse(footprints.get(i).intersects(footprints.get(k)));
+            }
+        }
+        search:
+        for(Candidate candidate : rejected){
+            final CandidateFootprint fp = CandidateFootprint.create(candidate);
+            for(CandidateFootprint other : footprints){
+                if(fp.intersects(other)) continue search;
+            }
+            fail("Rejected candidate does not overlap any accepted candidate.");
+        }
+    }
+
+}
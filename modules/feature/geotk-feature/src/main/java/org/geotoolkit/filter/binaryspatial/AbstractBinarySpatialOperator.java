@@ -19,6 +19,8 @@ package org.geotoolkit.filter.binaryspatial;
 
 import org.geotoolkit.feature.Feature;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
 
 import java.io.Serializable;
 import java.util.logging.Level;
@@ -33,6 +35,7 @@ import org.geotoolkit.referencing.CRS;
 import org.apache.sis.util.logging.Logging;
 
 import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
 import org.opengis.filter.expression.PropertyName;
 import org.opengis.filter.spatial.BinarySpatialOperator;
 import org.opengis.util.FactoryException;
@@ -76,6 +79,13 @@ public abstract class AbstractBinarySpatialOperator<E extends Expression,F exten
     protected final E left;
     protected final F right;
 
+    /**
+     * Geometries of {@link Literal} operands, converted on first evaluation and
+     * reprojected in the CRS of the other operand when needed.
+     */
+    private transient volatile LiteralGeometry leftLiteral;
+    private transient volatile LiteralGeometry rightLiteral;
+
     protected AbstractBinarySpatialOperator(final E left, final F right){
         ensureNonNull("left", left);
         ensureNonNull("right", right);
@@ -135,6 +145,97 @@ public abstract class AbstractBinarySpatialOperator<E extends Expression,F exten
         return candidate;
     }
 
+    /**
+     * Evaluate both operand geometries and reproject the right one in the left geometry CRS
+     * if needed, as done by {@link #toSameCRS(com.vividsolutions.jts.geom.Geometry, com.vividsolutions.jts.geom.Geometry) }.<br/>
+     * {@link Literal} operand geometries are converted only once, a right literal is reprojected
+     * only when the left geometry CRS changes.
+     *
+     * @param object evaluated object
+     * @return left and right geometries in the same CRS, or null if an operand is not a geometry
+     */
+    protected final Geometry[] toGeometries(final Object object)
+            throws NoSuchAuthorityCodeException, FactoryException, TransformException{
+        final Geometry leftGeom = (left instanceof Literal) ? getLiteral(true, null).geometry : toGeometry(object, left);
+        if (leftGeom == null) return null;
+
+        if (right instanceof Literal) {
+            final Geometry rightGeom = getLiteral(false, JTS.findCoordinateReferenceSystem(leftGeom)).geometry;
+            return (rightGeom == null) ? null : new Geometry[]{leftGeom, rightGeom};
+        }
+        final Geometry rightGeom = toGeometry(object, right);
+        if (rightGeom == null) return null;
+        return toSameCRS(leftGeom, rightGeom);
+    }
+
+    /**
+     * Return literal operand geometry, reprojected in the given CRS if both CRS are known.
+     *
+     * @param leftOperand true for left operand, false for right operand
+     * @param targetCRS CRS of the other operand, may be null
+     */
+    private LiteralGeometry getLiteral(final boolean leftOperand, final CoordinateReferenceSystem targetCRS)
+            throws NoSuchAuthorityCodeException, FactoryException, TransformException{
+        LiteralGeometry cache = leftOperand ? leftLiteral : rightLiteral;
+        if (cache != null && cache.requestedCRS == targetCRS) {
+            return cache;
+        }
+
+        if (cache == null) {
+            final Geometry source = toGeometry(null, leftOperand ? left : right);
+            final CoordinateReferenceSystem sourceCRS = (source == null) ? null : JTS.findCoordinateReferenceSystem(source);
+            cache = new LiteralGeometry(source, sourceCRS, sourceCRS, source, null);
+            if (cache.requestedCRS == targetCRS) {
+                return store(leftOperand, cache);
+            }
+        }
+
+        //-- same reprojection as toSameCRS : none if a CRS is unknown or if both are equal
+        final CoordinateReferenceSystem crs;
+        if (cache.source == null || targetCRS == null || cache.sourceCRS == null
+                || CRS.equalsIgnoreMetadata(cache.sourceCRS, targetCRS)) {
+            crs = cache.sourceCRS;
+        } else {
+            crs = targetCRS;
+        }
+
+        if (cache.crs == crs || (cache.crs != null && crs != null && CRS.equalsIgnoreMetadata(cache.crs, crs))) {
+            //-- same geometry, keep its prepared form
+            cache = new LiteralGeometry(cache.source, cache.sourceCRS, targetCRS, cache.geometry, cache.prepared);
+        } else if (crs == cache.sourceCRS) {
+            cache = new LiteralGeometry(cache.source, cache.sourceCRS, targetCRS, cache.source, null);
+        } else {
+            final MathTransform trs = CRS.findMathTransform(cache.sourceCRS, crs);
+            cache = new LiteralGeometry(cache.source, cache.sourceCRS, targetCRS, JTS.transform(cache.source, trs), null);
+        }
+        return store(leftOperand, cache);
+    }
+
+    private LiteralGeometry store(final boolean leftOperand, final LiteralGeometry cache) {
+        if (leftOperand) {
+            leftLiteral = cache;
+        } else {
+            rightLiteral = cache;
+        }
+        return cache;
+    }
+
+    /**
+     * Return a {@link PreparedGeometry} of the given operand geometry, if the operand expression
+     * is a {@link Literal} and the geometry has been returned by {@link #toGeometries(java.lang.Object) }.<br/>
+     * Prepared geometry is created once for each literal geometry and re-used for all evaluations,
+     * so spatial indexes on literal segments are computed only once.
+     *
+     * @param exp operand expression
+     * @param geom operand geometry, as used for evaluation
+     * @return prepared geometry, or null if operand is not a literal geometry
+     */
+    protected final PreparedGeometry toPreparedGeometry(final Expression exp, final Geometry geom) {
+        if (!(exp instanceof Literal) || geom == null) return null;
+        final LiteralGeometry cache = (exp == left) ? leftLiteral : (exp == right) ? rightLiteral : null;
+        return (cache != null && cache.geometry == geom) ? cache.getPrepared() : null;
+    }
+
     /**
      * Reproject geometries to the same CRS if needed and if possible.
      */
@@ -271,4 +372,37 @@ public abstract class AbstractBinarySpatialOperator<E extends Expression,F exten
 
     }
 
+    /**
+     * Literal operand geometry, its reprojected and prepared forms.
+     */
+    private static final class LiteralGeometry {
+        /** Literal geometry as converted from literal value, may be null. */
+        private final Geometry source;
+        private final CoordinateReferenceSystem sourceCRS;
+        /** CRS of the other operand this geometry was requested for, may be null. */
+        private final CoordinateReferenceSystem requestedCRS;
+        /** Geometry used for evaluation and its CRS. */
+        private final Geometry geometry;
+        private final CoordinateReferenceSystem crs;
+        private volatile PreparedGeometry prepared;
+
+        private LiteralGeometry(final Geometry source, final CoordinateReferenceSystem sourceCRS,
+                final CoordinateReferenceSystem requestedCRS, final Geometry geometry, final PreparedGeometry prepared) {
+            this.source       = source;
+            this.sourceCRS    = sourceCRS;
+            this.requestedCRS = requestedCRS;
+            this.geometry     = geometry;
+            this.crs          = (geometry == source) ? sourceCRS : requestedCRS;
+            this.prepared     = prepared;
+        }
+
+        private PreparedGeometry getPrepared() {
+            PreparedGeometry prep = prepared;
+            if (prep == null && geometry != null) {
+                prep = PreparedGeometryFactory.prepare(geometry);
+                prepared = prep;
+            }
+            return prep;
+        }
+    }
 }
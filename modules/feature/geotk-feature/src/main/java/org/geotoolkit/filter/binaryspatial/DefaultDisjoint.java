@@ -19,6 +19,7 @@ package org.geotoolkit.filter.binaryspatial;
 
 import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
 
 import java.util.logging.Level;
 import org.geotoolkit.util.StringUtilities;
@@ -46,27 +47,27 @@ public class DefaultDisjoint extends AbstractBinarySpatialOperator<Expression,Ex
      */
     @Override
     public boolean evaluate(final Object object) {
-        Geometry leftGeom = toGeometry(object, left);
-        Geometry rightGeom = toGeometry(object, right);
-
-        if(leftGeom == null || rightGeom == null){
-            return false;
-        }
-
         final Geometry[] values;
         try {
-            values = toSameCRS(leftGeom, rightGeom);
+            values = toGeometries(object);
         } catch (FactoryException | TransformException ex) {
             Logging.getLogger("org.geotoolkit.filter.binaryspatial").log(Level.WARNING, null, ex);
             return false;
         }
-        leftGeom = values[0];
-        rightGeom = values[1];
+        if(values == null){
+            return false;
+        }
+        final Geometry leftGeom = values[0];
+        final Geometry rightGeom = values[1];
 
         final Envelope envLeft = leftGeom.getEnvelopeInternal();
         final Envelope envRight = rightGeom.getEnvelopeInternal();
 
         if(envRight.intersects(envLeft)){
+            PreparedGeometry prepared = toPreparedGeometry(left, leftGeom);
+            if (prepared != null) return prepared.disjoint(rightGeom);
+            prepared = toPreparedGeometry(right, rightGeom);
+            if (prepared != null) return prepared.disjoint(leftGeom);
             return leftGeom.disjoint(rightGeom);
         }
 
@@ -18,11 +18,16 @@
 package org.geotoolkit.filter.binaryspatial;
 
 import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateFilter;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.LinearRing;
 
+import org.apache.sis.referencing.CommonCRS;
+import org.geotoolkit.geometry.jts.JTS;
 import org.junit.Test;
 
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.ExpressionVisitor;
 import org.opengis.filter.spatial.BBOX;
 import org.opengis.filter.spatial.Beyond;
 
@@ -35,6 +40,7 @@ import org.opengis.filter.spatial.Intersects;
 import org.opengis.filter.spatial.Overlaps;
 import org.opengis.filter.spatial.Touches;
 import org.opengis.filter.spatial.Within;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import static org.junit.Assert.*;
 import static org.geotoolkit.filter.FilterTestConstants.*;
 
@@ -262,4 +268,102 @@ public class BinarySpatialTest extends org.geotoolkit.test.TestBase {
 
     }
 
+    /**
+     * Literal operand geometries are prepared, results should not change.
+     */
+    @Test
+    public void testPreparedLiteral() {
+        for (int x = 0; x < 14; x++) {
+            for (int y = 0; y < 22; y++) {
+                final Geometry point = GF.createPoint(new Coordinate(x, y));
+
+                final Intersects intersect = FF.intersects(FF.literal(GEOM_CONTAINS), FF.literal(point));
+                assertEquals(GEOM_CONTAINS.intersects(point), intersect.evaluate(null));
+                //-- second evaluation re-use prepared geometry
+                assertEquals(GEOM_CONTAINS.intersects(point), intersect.evaluate(null));
+
+                final Within within = FF.within(FF.literal(point), FF.literal(GEOM_INTERSECT));
+                assertEquals(point.within(GEOM_INTERSECT), within.evaluate(null));
+
+                final Contains contains = FF.contains(FF.literal(GEOM_INTERSECT), FF.literal(point));
+                assertEquals(GEOM_INTERSECT.contains(point), contains.evaluate(null));
+
+                final Disjoint disjoint = FF.disjoint(FF.literal(point), FF.literal(GEOM_CROSSES));
+                assertEquals(point.disjoint(GEOM_CROSSES), disjoint.evaluate(null));
+            }
+        }
+    }
+
+    /**
+     * Literal operand in another CRS is reprojected once and prepared, for each operand.
+     */
+    @Test
+    public void testPreparedReprojectedLiteral() throws Exception {
+        final CoordinateReferenceSystem lonLat = CommonCRS.WGS84.normalizedGeographic();
+        final CoordinateReferenceSystem latLon = CommonCRS.WGS84.geographic();
+
+        //-- GEOM_CONTAINS with latitude first
+        final Geometry polygon = (Geometry) GEOM_CONTAINS.clone();
+        polygon.apply(new CoordinateFilter() {
+            @Override
+            public void filter(final Coordinate coord) {
+                final double x = coord.x;
+                coord.x = coord.y;
+                coord.y = x;
+            }
+        });
+        polygon.geometryChanged();
+        JTS.setCRS(polygon, latLon);
+
+        final DefaultIntersect intersect = new DefaultIntersect(new Identity(), FF.literal(polygon));
+        Geometry reprojected = null;
+        for (int x = 0; x < 14; x++) {
+            for (int y = 0; y < 22; y++) {
+                final Geometry point = GF.createPoint(new Coordinate(x, y));
+                JTS.setCRS(point, lonLat);
+                assertEquals(GEOM_CONTAINS.intersects(point), intersect.evaluate(point));
+
+                final Geometry[] values = intersect.toGeometries(point);
+                assertSame(point, values[0]);
+                assertNotSame(polygon, values[1]);
+                if (reprojected == null) reprojected = values[1];
+                assertSame(reprojected, values[1]);
+                assertNotNull(intersect.toPreparedGeometry(intersect.getExpression2(), values[1]));
+                assertNull(intersect.toPreparedGeometry(intersect.getExpression1(), values[0]));
+            }
+        }
+
+        //-- both literals have their own prepared geometry
+        final Geometry point = GF.createPoint(new Coordinate(3, 3));
+        final DefaultIntersect literals = new DefaultIntersect(FF.literal(GEOM_CONTAINS), FF.literal(point));
+        assertTrue(literals.evaluate(null));
+        final Geometry[] values = literals.toGeometries(null);
+        assertSame(GEOM_CONTAINS, values[0]);
+        assertSame(point, values[1]);
+        assertNotNull(literals.toPreparedGeometry(literals.getExpression1(), values[0]));
+        assertNotNull(literals.toPreparedGeometry(literals.getExpression2(), values[1]));
+        assertNotSame(literals.toPreparedGeometry(literals.getExpression1(), values[0]),
+                literals.toPreparedGeometry(literals.getExpression2(), values[1]));
+    }
+
+    /**
+     * Expression returning the evaluated object.
+     */
+    private static final class Identity implements Expression {
+
+        @Override
+        public Object evaluate(final Object object) {
+            return object;
+        }
+
+        @Override
+        public <T> T evaluate(final Object object, final Class<T> context) {
+            return context.cast(object);
+        }
+
+        @Override
+        public Object accept(final ExpressionVisitor visitor, final Object extraData) {
+            return extraData;
+        }
+    }
 }
@@ -21,7 +21,9 @@ import com.vividsolutions.jts.geom.CoordinateSequence;
 import com.vividsolutions.jts.geom.CoordinateSequenceFactory;
 import com.vividsolutions.jts.geom.impl.CoordinateArraySequenceFactory;
 import java.util.Arrays;
+import java.util.List;
 
+import org.geotoolkit.geometry.jts.coordinatesequence.LiteCoordinateSequence;
 import org.opengis.geometry.MismatchedDimensionException;
 import org.opengis.referencing.operation.MathTransform;
 import org.opengis.referencing.operation.TransformException;
@@ -32,7 +34,11 @@ import org.opengis.referencing.operation.TransformException;
  * means that caller are immediately notified if a transformation fails).
  * <p>
  * This transformer support {@linkplain MathTransform math transform} with up to 3 source
- * or target dimensions. This transformer is not thread-safe.
+ * or target dimensions. This transformer is thread-safe, provided the math transform is,
+ * each call uses its own work buffer.
+ * <p>
+ * Many coordinate sequences, for example all the rings of a multi-polygon, can be transformed
+ * with a single call to the math transform using {@link #transformAll(List) }.
  *
  * @module pending
  * @since 2.1
@@ -47,18 +53,18 @@ public class CoordinateSequenceMathTransformer implements CoordinateSequenceTran
      */
     static final CoordinateSequenceFactory DEFAULT_CS_FACTORY = CoordinateArraySequenceFactory.instance();
     /**
-     * A buffer for coordinate transformations. We choose a length which is divisible by
-     * both 2 and 3, since JTS coordinates may be up to three-dimensional. If the number
-     * of coordinates point to transform is greater than the buffer capacity, then the
-     * buffer will be flushed to the destination array before to continue. We avoid to
-     * create a buffer as large than the number of point to transforms, because it would
+     * Maximum length of the buffer for coordinate transformations. We choose a length which
+     * is divisible by both 2 and 3, since JTS coordinates may be up to three-dimensional.
+     * If the number of coordinates point to transform is greater than the buffer capacity,
+     * then the buffer will be flushed to the destination array before to continue. We avoid
+     * to create a buffer as large than the number of point to transforms, because it would
      * consume a large amount of memory for big geometries.
      */
-    private final transient double[] buffer = new double[96];
+    private static final int BUFFER_LENGTH = 96;
 
     private final CoordinateSequenceFactory csf;
 
-    private MathTransform transform = null;
+    private volatile MathTransform transform = null;
 
     /**
      * Constructs a default coordinate sequence transformer.
@@ -79,11 +85,11 @@ public class CoordinateSequenceMathTransformer implements CoordinateSequenceTran
         this.transform =transform;
     }
 
-    public synchronized void setTransform(final MathTransform transform) {
+    public void setTransform(final MathTransform transform) {
         this.transform = transform;
     }
 
-    public synchronized MathTransform getTransform() {
+    public MathTransform getTransform() {
         return transform;
     }
 
@@ -91,12 +97,14 @@ public class CoordinateSequenceMathTransformer implements CoordinateSequenceTran
      * {@inheritDoc}
      */
     @Override
-    public synchronized CoordinateSequence transform(final CoordinateSequence sequence, final int minpoints)
+    public CoordinateSequence transform(final CoordinateSequence sequence, final int minpoints)
             throws TransformException {
+        final MathTransform transform = this.transform;
         final int sourceDim = transform.getSourceDimensions();
         final int targetDim = transform.getTargetDimensions();
         final int size = sequence.size();
         final Coordinate[] tcs = new Coordinate[size];
+        final double[] buffer = new double[Math.min(BUFFER_LENGTH, size * Math.max(sourceDim, targetDim))];
         final int bufferCapacity = buffer.length / Math.max(sourceDim, targetDim);
         int remainingBeforeFlush = Math.min(bufferCapacity, size);
         int ib = 0; // Index in the buffer array.
@@ -151,6 +159,66 @@ public class CoordinateSequenceMathTransformer implements CoordinateSequenceTran
         return csf.create(tcs);
     }
 
+    /**
+     * Transforms all given coordinate sequences with a single call to the math transform.
+     * Coordinates are packed in one array, transformed in place, then split in one
+     * {@link LiteCoordinateSequence} for each source sequence.
+     * <p>
+     * The math transform must have 2 target dimensions, since packed sequences are two-dimensional.
+     *
+     * @param sequences coordinate sequences to transform.
+     * @return transformed sequences, in the same order as the given sequences.
+     * @throws TransformException if a coordinate can not be transformed.
+     * @throws MismatchedDimensionException if the math transform has not 2 target dimensions.
+     */
+    public LiteCoordinateSequence[] transformAll(final List<? extends CoordinateSequence> sequences)
+            throws TransformException {
+        final MathTransform transform = this.transform;
+        final int sourceDim = transform.getSourceDimensions();
+        final int targetDim = transform.getTargetDimensions();
+        if (targetDim != 2) {
+            throw new MismatchedDimensionException("Math transform has " + targetDim
+                    + " target dimensions, packed sequences are two-dimensional.");
+        }
+
+        int nbPoints = 0;
+        for (CoordinateSequence sequence : sequences) {
+            nbPoints += sequence.size();
+        }
+
+        final double[] coords = new double[nbPoints * Math.max(sourceDim, targetDim)];
+        int ib = 0;
+        for (CoordinateSequence sequence : sequences) {
+            final int size = sequence.size();
+            if (sourceDim == 2 && sequence instanceof LiteCoordinateSequence) {
+                System.arraycopy(((LiteCoordinateSequence) sequence).getArray(), 0, coords, ib, size * 2);
+                ib += size * 2;
+                continue;
+            }
+            for (int i = 0; i < size; i++) {
+                switch (sourceDim) { // Fall through in every cases.
+                    default: Arrays.fill(coords, ib + 3, ib + sourceDim, Double.NaN);
+                    case 3:  coords[ib + 2] = sequence.getOrdinate(i, 2);
+                    case 2:  coords[ib + 1] = sequence.getY(i);
+                    case 1:  coords[ib] = sequence.getX(i);
+                    case 0:  break;
+                }
+                ib += sourceDim;
+            }
+        }
+
+        transform.transform(coords, 0, coords, 0, nbPoints);
+
+        final LiteCoordinateSequence[] result = new LiteCoordinateSequence[sequences.size()];
+        int i = 0, it = 0;
+        for (CoordinateSequence sequence : sequences) {
+            final int length = sequence.size() * 2;
+            result[i++] = new LiteCoordinateSequence(Arrays.copyOfRange(coords, it, it + length));
+            it += length;
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("CoordinateSequenceTransformer : Mathtransform : ");
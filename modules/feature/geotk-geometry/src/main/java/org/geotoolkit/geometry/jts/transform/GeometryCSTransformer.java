@@ -18,7 +18,12 @@
 package org.geotoolkit.geometry.jts.transform;
 
 import com.vividsolutions.jts.geom.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import org.geotoolkit.geometry.jts.JTS;
+import org.geotoolkit.geometry.jts.coordinatesequence.LiteCoordinateSequence;
 
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.opengis.referencing.operation.TransformException;
@@ -123,6 +128,120 @@ public class GeometryCSTransformer implements GeometryTransformer{
         return transformed;
     }
 
+    /**
+     * Applies the transform to all given geometries.
+     * <p>
+     * When the coordinate sequence transformer is a {@link CoordinateSequenceMathTransformer}
+     * with two target dimensions, the coordinate sequences of all geometries, including all
+     * components of geometry collections, are transformed with a single math transform call and
+     * the transformed geometries use {@link LiteCoordinateSequence}s. Otherwise each geometry
+     * is transformed with {@link #transform(Geometry) }.
+     * </p>
+     * @param geometries geometries to transform
+     * @return transformed geometries, in the same order as the given geometries
+     * @throws TransformException
+     */
+    public List<Geometry> transformAll(final List<? extends Geometry> geometries) throws TransformException {
+        final List<Geometry> result = new ArrayList<Geometry>(geometries.size());
+        if (csTransformer instanceof CoordinateSequenceMathTransformer
+                && ((CoordinateSequenceMathTransformer) csTransformer).getTransform().getTargetDimensions() == 2) {
+            final List<CoordinateSequence> sequences = new ArrayList<CoordinateSequence>();
+            for (Geometry g : geometries) {
+                collectSequences(g, sequences);
+            }
+            final LiteCoordinateSequence[] transformed =
+                    ((CoordinateSequenceMathTransformer) csTransformer).transformAll(sequences);
+            final Iterator<LiteCoordinateSequence> ite = Arrays.asList(transformed).iterator();
+            for (Geometry g : geometries) {
+                final Geometry transformed = rebuild(g, g.getFactory(), ite);
+                if (crs != null) {
+                    JTS.setCRS(transformed, crs);
+                }
+                result.add(transformed);
+            }
+        } else {
+            for (Geometry g : geometries) {
+                result.add(transform(g));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * List coordinate sequences of a geometry, in the order used by
+     * {@link #rebuild(Geometry, GeometryFactory, Iterator) }.
+     */
+    private static void collectSequences(final Geometry g, final List<CoordinateSequence> sequences) {
+        if (g instanceof Point) {
+            sequences.add(((Point) g).getCoordinateSequence());
+        } else if (g instanceof LineString) {
+            sequences.add(((LineString) g).getCoordinateSequence());
+        } else if (g instanceof Polygon) {
+            final Polygon polygon = (Polygon) g;
+            sequences.add(polygon.getExteriorRing().getCoordinateSequence());
+            for (int i = 0, n = polygon.getNumInteriorRing(); i < n; i++) {
+                sequences.add(polygon.getInteriorRingN(i).getCoordinateSequence());
+            }
+        } else if (g instanceof GeometryCollection) {
+            for (int i = 0, n = g.getNumGeometries(); i < n; i++) {
+                collectSequences(g.getGeometryN(i), sequences);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported geometry type " + g.getClass());
+        }
+    }
+
+    /**
+     * Create a geometry of the same structure with the next transformed coordinate sequences.
+     */
+    private static Geometry rebuild(final Geometry g, final GeometryFactory factory,
+            final Iterator<LiteCoordinateSequence> sequences) {
+        final Geometry transformed;
+
+        if (g instanceof Point) {
+            transformed = factory.createPoint(sequences.next());
+        } else if (g instanceof LinearRing) {
+            transformed = factory.createLinearRing(ensureClosed(sequences.next()));
+        } else if (g instanceof LineString) {
+            transformed = factory.createLineString(sequences.next());
+        } else if (g instanceof Polygon) {
+            final Polygon polygon = (Polygon) g;
+            final LinearRing exterior = (LinearRing) rebuild(polygon.getExteriorRing(), factory, sequences);
+            final LinearRing[] interiors = new LinearRing[polygon.getNumInteriorRing()];
+            for (int i = 0; i < interiors.length; i++) {
+                interiors[i] = (LinearRing) rebuild(polygon.getInteriorRingN(i), factory, sequences);
+            }
+            transformed = factory.createPolygon(exterior, interiors);
+        } else if (g instanceof MultiPoint) {
+            final Point[] points = new Point[g.getNumGeometries()];
+            for (int i = 0; i < points.length; i++) {
+                points[i] = (Point) rebuild(g.getGeometryN(i), factory, sequences);
+            }
+            transformed = factory.createMultiPoint(points);
+        } else if (g instanceof MultiLineString) {
+            final LineString[] lines = new LineString[g.getNumGeometries()];
+            for (int i = 0; i < lines.length; i++) {
+                lines[i] = (LineString) rebuild(g.getGeometryN(i), factory, sequences);
+            }
+            transformed = factory.createMultiLineString(lines);
+        } else if (g instanceof MultiPolygon) {
+            final Polygon[] polygons = new Polygon[g.getNumGeometries()];
+            for (int i = 0; i < polygons.length; i++) {
+                polygons[i] = (Polygon) rebuild(g.getGeometryN(i), factory, sequences);
+            }
+            transformed = factory.createMultiPolygon(polygons);
+        } else {
+            final Geometry[] geoms = new Geometry[g.getNumGeometries()];
+            for (int i = 0; i < geoms.length; i++) {
+                geoms[i] = rebuild(g.getGeometryN(i), factory, sequences);
+            }
+            transformed = factory.createGeometryCollection(geoms);
+        }
+
+        transformed.setUserData(g.getUserData());
+        return transformed;
+    }
+
     /**
      *
      * @throws TransformException
@@ -0,0 +1,95 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.geometry.jts.transform;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.sis.referencing.CommonCRS;
+import org.geotoolkit.referencing.CRS;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.opengis.referencing.operation.MathTransform;
+
+/**
+ * Reproject 1 million vertices multipolygons with one {@link CoordinateSequenceMathTransformer}
+ * shared by 8 threads, sequence by sequence and in batch.
+ *
+ * @author Johann Sorel (Geomatys)
+ */
+public class BenchMarkReproject {
+
+    private static final int NB_THREADS = 8;
+    private static final int NB_ITERATIONS = 10;
+
+    /**
+     * 2000 polygons of 2 rings of 249 points : about 1 000 000 vertices.
+     */
+    private final MultiPolygon geometry = CoordinateSequenceMathTransformerTest.createMultiPolygon(2000, 62);
+
+    private final GeometryCSTransformer transformer;
+
+    public BenchMarkReproject() throws Exception {
+        final MathTransform mt = CRS.findMathTransform(CommonCRS.WGS84.normalizedGeographic(),
+                ReprojectTest.getLocalLambertCRS(10, 60));
+        transformer = new GeometryCSTransformer(new CoordinateSequenceMathTransformer(mt));
+    }
+
+    @Test
+    @Ignore
+    public void benchSequenceTest() throws Exception {
+        bench("sequence", false);
+    }
+
+    @Test
+    @Ignore
+    public void benchBatchTest() throws Exception {
+        bench("batch", true);
+    }
+
+    private void bench(final String name, final boolean batch) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(NB_THREADS);
+        try {
+            for (int i = 0; i < NB_ITERATIONS; i++) {
+                final long start = System.nanoTime();
+                final List<Future<Geometry>> futures = new ArrayList<>();
+                for (int t = 0; t < NB_THREADS; t++) {
+                    futures.add(executor.submit(new Callable<Geometry>() {
+                        @Override
+                        public Geometry call() throws Exception {
+                            return batch ? transformer.transformAll(Collections.singletonList(geometry)).get(0)
+                                         : transformer.transform(geometry);
+                        }
+                    }));
+                }
+                for (Future<Geometry> future : futures) {
+                    future.get();
+                }
+                System.out.println("stats " + name + " : " + NB_THREADS + " x " + geometry.getNumPoints()
+                        + " vertices in " + (System.nanoTime() - start) / 1000000 + " ms");
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
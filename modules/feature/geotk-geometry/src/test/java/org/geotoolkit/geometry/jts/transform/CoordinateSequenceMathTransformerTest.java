@@ -0,0 +1,141 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.geometry.jts.transform;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Polygon;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.sis.referencing.CommonCRS;
+import org.geotoolkit.geometry.jts.coordinatesequence.LiteCoordinateSequence;
+import org.geotoolkit.referencing.CRS;
+import org.junit.Test;
+import org.opengis.referencing.operation.MathTransform;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link CoordinateSequenceMathTransformer} batch and concurrent transformations.
+ *
+ * @author Johann Sorel (Geomatys)
+ */
+public class CoordinateSequenceMathTransformerTest extends org.geotoolkit.test.TestBase {
+
+    private static final GeometryFactory GF = new GeometryFactory();
+
+    /**
+     * Create a multipolygon of squares with one hole each, in geographic coordinates.
+     */
+    static MultiPolygon createMultiPolygon(final int nbPolygon, final int pointsPerSide) {
+        final Polygon[] polygons = new Polygon[nbPolygon];
+        for (int i = 0; i < nbPolygon; i++) {
+            final double x = 5 + (i % 20);
+            final double y = 45 + (i / 20) % 20;
+            final LinearRing exterior = createSquare(x, y, 0.9, pointsPerSide);
+            final LinearRing hole = createSquare(x + 0.3, y + 0.3, 0.3, pointsPerSide);
+            polygons[i] = GF.createPolygon(exterior, new LinearRing[]{hole});
+        }
+        return GF.createMultiPolygon(polygons);
+    }
+
+    private static LinearRing createSquare(final double x, final double y, final double size, final int pointsPerSide) {
+        final Coordinate[] coords = new Coordinate[pointsPerSide * 4 + 1];
+        final double step = size / pointsPerSide;
+        int k = 0;
+        for (int i = 0; i < pointsPerSide; i++) coords[k++] = new Coordinate(x + i * step, y);
+        for (int i = 0; i < pointsPerSide; i++) coords[k++] = new Coordinate(x + size, y + i * step);
+        for (int i = 0; i < pointsPerSide; i++) coords[k++] = new Coordinate(x + size - i * step, y + size);
+        for (int i = 0; i < pointsPerSide; i++) coords[k++] = new Coordinate(x, y + size - i * step);
+        coords[k] = new Coordinate(coords[0]);
+        return GF.createLinearRing(coords);
+    }
+
+    private static MathTransform createTransform() throws Exception {
+        return CRS.findMathTransform(CommonCRS.WGS84.normalizedGeographic(), ReprojectTest.getLocalLambertCRS(10, 60));
+    }
+
+    private static void assertSameCoordinates(final Geometry expected, final Geometry result) {
+        final Coordinate[] exp = expected.getCoordinates();
+        final Coordinate[] res = result.getCoordinates();
+        assertEquals(exp.length, res.length);
+        for (int i = 0; i < exp.length; i++) {
+            assertEquals(exp[i].x, res[i].x, 1e-9);
+            assertEquals(exp[i].y, res[i].y, 1e-9);
+        }
+    }
+
+    /**
+     * Batch transformation must give the same coordinates and structure as sequence by sequence transformation.
+     */
+    @Test
+    public void batchTest() throws Exception {
+        final MultiPolygon geometry = createMultiPolygon(30, 25);
+        final GeometryCSTransformer transformer = new GeometryCSTransformer(
+                new CoordinateSequenceMathTransformer(createTransform()));
+
+        final Geometry expected = transformer.transform(geometry);
+        final List<Geometry> results = transformer.transformAll(Arrays.asList(geometry, geometry.getGeometryN(3)));
+        assertEquals(2, results.size());
+
+        final Geometry result = results.get(0);
+        assertTrue(result instanceof MultiPolygon);
+        assertEquals(geometry.getNumGeometries(), result.getNumGeometries());
+        final Polygon polygon = (Polygon) result.getGeometryN(0);
+        assertEquals(1, polygon.getNumInteriorRing());
+        assertTrue(polygon.getExteriorRing().getCoordinateSequence() instanceof LiteCoordinateSequence);
+        assertSameCoordinates(expected, result);
+        assertSameCoordinates(expected.getGeometryN(3), results.get(1));
+    }
+
+    /**
+     * A single transformer can be used by several threads.
+     */
+    @Test
+    public void concurrentTest() throws Exception {
+        final MultiPolygon geometry = createMultiPolygon(40, 50);
+        final CoordinateSequenceMathTransformer cst = new CoordinateSequenceMathTransformer(createTransform());
+        final GeometryCSTransformer transformer = new GeometryCSTransformer(cst);
+        final Geometry expected = transformer.transform(geometry);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Geometry>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(new Callable<Geometry>() {
+                    @Override
+                    public Geometry call() throws Exception {
+                        return transformer.transform(geometry);
+                    }
+                }));
+            }
+            for (Future<Geometry> future : futures) {
+                assertSameCoordinates(expected, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
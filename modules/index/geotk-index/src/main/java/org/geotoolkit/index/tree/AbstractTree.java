@@ -18,13 +18,17 @@ package org.geotoolkit.index.tree;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Iterator;
 import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.ArraysExt;
 import org.apache.sis.util.Classes;
 import org.opengis.geometry.Envelope;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.geotoolkit.internal.tree.TreeUtilities;
 import org.geotoolkit.internal.tree.CalculatorND;
 import org.geotoolkit.internal.tree.Calculator;
+import org.geotoolkit.internal.tree.DistanceQueue;
+import org.geotoolkit.internal.tree.SortTileRecursive;
 import org.geotoolkit.internal.tree.TreeAccess;
 import org.geotoolkit.referencing.CRS;
 import static org.geotoolkit.internal.tree.TreeUtilities.*;
@@ -117,6 +121,26 @@ public abstract class AbstractTree<E> implements Tree<E> {
         return new int[0];
     }
 
+    /**
+     * {@inheritDoc }.
+     */
+    @Override
+    public boolean searchID(final Envelope regionSearch, final TreeIdentifierVisitor visitor) throws StoreIndexException {
+        ArgumentChecks.ensureNonNull("Envelope regionSearch", regionSearch);
+        ArgumentChecks.ensureNonNull("visitor", visitor);
+        final Node root = getRoot();
+        final double[] regSearch = TreeUtilities.getCoords(regionSearch);
+        if (root != null && !root.isEmpty()) {
+            try {
+                return treeAccess.search(root.getNodeId(), regSearch, visitor);
+            } catch (IOException ex) {
+                throw new StoreIndexException(this.getClass().getName()+" impossible to find stored elements at "
+                        +Arrays.toString(regSearch)+" region search area.", ex);
+            }
+        }
+        return true;
+    }
+
     /**
      * {@inheritDoc }.
      */
@@ -127,6 +151,89 @@ public abstract class AbstractTree<E> implements Tree<E> {
         return new TreeIntegerIdentifierIterator(treeAccess, regSearch);
     }
 
+    /**
+     * Find the {@code k} tree identifiers, from stored datas which are the nearest of {@code regionSearch},
+     * ordered by ascending distance.<br/><br/>
+     *
+     * Distance is the Euclidean minimum distance between data boundary and {@code regionSearch},
+     * expressed in Tree {@link CoordinateReferenceSystem} units, and is 0 for all intersecting datas.<br/>
+     * Tree is travelled best-first, only Nodes which may contain one of the nearest datas are red.
+     *
+     * <blockquote><font size=-1>
+     * <strong>NOTE: if Tree contain less than k datas, all tree identifiers are returned.</strong>
+     * </font></blockquote>
+     *
+     * @param regionSearch area, or position as an empty envelope, from which distance is computed.
+     * @param k maximum result number.
+     * @return tree identifiers of the k nearest datas, ordered by ascending distance.
+     * @throws StoreIndexException if problem during Node reading.
+     */
+    public int[] searchNearest(final Envelope regionSearch, final int k) throws StoreIndexException {
+        ArgumentChecks.ensureNonNull("Envelope regionSearch", regionSearch);
+        ArgumentChecks.ensureStrictlyPositive("k", k);
+        return searchNearest(TreeUtilities.getCoords(regionSearch), k, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Find all tree identifiers, from stored datas which are at a distance lesser or equals than {@code distance}
+     * from {@code regionSearch}, ordered by ascending distance.
+     *
+     * @param regionSearch area, or position as an empty envelope, from which distance is computed.
+     * @param distance maximum distance in Tree {@link CoordinateReferenceSystem} units.
+     * @return tree identifiers of datas within distance, ordered by ascending distance.
+     * @throws StoreIndexException if problem during Node reading.
+     * @see #searchNearest(org.opengis.geometry.Envelope, int)
+     */
+    public int[] searchWithinDistance(final Envelope regionSearch, final double distance) throws StoreIndexException {
+        ArgumentChecks.ensureNonNull("Envelope regionSearch", regionSearch);
+        ArgumentChecks.ensurePositive("distance", distance);
+        return searchNearest(TreeUtilities.getCoords(regionSearch), Integer.MAX_VALUE, distance * distance);
+    }
+
+    /**
+     * Best-first nearest search.<br/>
+     * Queue contain Node identifiers for branches, and opposite of tree identifier (data Node child identifier) for datas.
+     *
+     * @param regSearch area from which distance is computed.
+     * @param k maximum result number.
+     * @param maxSquaredDistance maximum squared distance of results.
+     * @return tree identifiers ordered by ascending distance.
+     */
+    private int[] searchNearest(final double[] regSearch, final int k, final double maxSquaredDistance) throws StoreIndexException {
+        if (ArraysExt.hasNaN(regSearch))
+            throw new IllegalArgumentException("regionSearch should not contain NaN value : "+Arrays.toString(regSearch));
+        final Node root = getRoot();
+        if (root == null || root.isEmpty()) return new int[0];
+        int[] result     = new int[Math.min(k, 100)];
+        int resultLength = 0;
+        try {
+            final DistanceQueue queue = new DistanceQueue();
+            queue.add(0, root.getNodeId());
+            while (!queue.isEmpty() && resultLength < k) {
+                if (queue.peekDistance() > maxSquaredDistance) break;
+                final int value = queue.poll();
+                if (value < 0) {
+                    if (resultLength == result.length) result = Arrays.copyOf(result, resultLength << 1);
+                    result[resultLength++] = -value;
+                    continue;
+                }
+                int sibl = treeAccess.readNode(value).getChildId();
+                while (sibl != 0) {
+                    final Node child = treeAccess.readNode(sibl);
+                    if (!child.isEmpty()) {
+                        final double dist = getSquaredMinDistance(child.getBoundary(), regSearch);
+                        if (dist <= maxSquaredDistance) queue.add(dist, child.isData() ? child.getChildId() : sibl);
+                    }
+                    sibl = child.getSiblingId();
+                }
+            }
+        } catch (IOException ex) {
+            throw new StoreIndexException(this.getClass().getName()+" impossible to find nearest stored elements from "
+                    +Arrays.toString(regSearch)+" region search area.", ex);
+        }
+        return Arrays.copyOf(result, resultLength);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -173,6 +280,167 @@ public abstract class AbstractTree<E> implements Tree<E> {
         }
     }
 
+    /**
+     * Fill an empty Tree with all objects from {@code objects} iterator in a single pass.<br/><br/>
+     *
+     * Contrary to successive {@link #insert(java.lang.Object) } calls, no Node split is done.
+     * All elements are sorted in accordance with Sort-Tile-Recursive algorithm and Tree is built from bottom
+     * to top with fully packed Nodes, which are written in ascending identifier order.<br/>
+     * Tree identifiers are affected in iteration order, and given to {@link TreeElementMapper} like during insertion.
+     *
+     * <blockquote><font size=-1>
+     * <strong>NOTE: all elements are kept in memory during sort.</strong>
+     * </font></blockquote>
+     *
+     * @param objects all objects which will be stored.
+     * @throws IllegalStateException if Tree is not empty.
+     * @throws IllegalArgumentException if an object has a different CRS from Tree or its coordinates contain NaN value.
+     * @throws StoreIndexException if problem during Node writing.
+     * @see SortTileRecursive
+     */
+    public void bulkLoad(final Iterator<? extends E> objects) throws StoreIndexException {
+        ArgumentChecks.ensureNonNull("bulkLoad : objects", objects);
+        ensureEmpty();
+        setRoot(null);
+        int[] identifiers      = new int[100];
+        double[][] coordinates = new double[100][];
+        int count = 0;
+        try {
+            while (objects.hasNext()) {
+                final E object = objects.next();
+                ArgumentChecks.ensureNonNull("bulkLoad : object", object);
+                final Envelope env = treeEltMap.getEnvelope(object);
+                if (!CRS.equalsIgnoreMetadata(crs, env.getCoordinateReferenceSystem()))
+                    throw new IllegalArgumentException("During insertion element should have same CoordinateReferenceSystem as Tree.");
+                final double[] coords = TreeUtilities.getCoords(env);
+                for (double d : coords)
+                    if (Double.isNaN(d))
+                        throw new IllegalArgumentException("coordinates contain at least one NAN value");
+                if (count == identifiers.length) {
+                    identifiers = Arrays.copyOf(identifiers, count << 1);
+                    coordinates = Arrays.copyOf(coordinates, count << 1);
+                }
+                treeEltMap.setTreeIdentifier(object, treeIdentifier);
+                identifiers[count]   = treeIdentifier++;
+                coordinates[count++] = coords;
+            }
+        } catch (IOException ex) {
+            throw new StoreIndexException(ex);
+        }
+        packTree(identifiers, coordinates, count);
+    }
+
+    /**
+     * Fill an empty Tree with all given data in a single pass.<br/><br/>
+     *
+     * Same as {@link #bulkLoad(java.util.Iterator) } except that tree identifiers are given by caller,
+     * and {@link TreeElementMapper} is not informed.
+     *
+     * @param identifiers data tree identifiers, all strictly positive.
+     * @param coordinates data boundaries, at same index than their identifier.
+     * @throws IllegalStateException if Tree is not empty.
+     * @throws IllegalArgumentException if tables have different lengths, if an identifier is not strictly positive
+     * or if coordinates contain NaN value.
+     * @throws StoreIndexException if problem during Node writing.
+     */
+    public void bulkLoad(final int[] identifiers, final double[][] coordinates) throws StoreIndexException {
+        ArgumentChecks.ensureNonNull("bulkLoad : identifiers", identifiers);
+        ArgumentChecks.ensureNonNull("bulkLoad : coordinates", coordinates);
+        if (identifiers.length != coordinates.length)
+            throw new IllegalArgumentException("bulkLoad : identifiers and coordinates should have same length.");
+        ensureEmpty();
+        final int boundLength = crs.getCoordinateSystem().getDimension() << 1;
+        int maxIdentifier = 0;
+        for (int i = 0; i < identifiers.length; i++) {
+            ArgumentChecks.ensureStrictlyPositive("bulkLoad : identifier", identifiers[i]);
+            ArgumentChecks.ensureNonNull("bulkLoad : coordinates", coordinates[i]);
+            if (coordinates[i].length != boundLength)
+                throw new IllegalArgumentException("bulkLoad : coordinates length should be "+boundLength+". Found : "+coordinates[i].length);
+            for (double d : coordinates[i])
+                if (Double.isNaN(d))
+                    throw new IllegalArgumentException("coordinates contain at least one NAN value");
+            maxIdentifier = Math.max(maxIdentifier, identifiers[i]);
+        }
+        setRoot(null);
+        packTree(identifiers, coordinates, identifiers.length);
+        treeIdentifier = Math.max(treeIdentifier, maxIdentifier + 1);
+    }
+
+    /**
+     * Throw an {@link IllegalStateException} if Tree already contains some data.
+     */
+    private void ensureEmpty() {
+        final Node root = getRoot();
+        if (root != null && !root.isEmpty())
+            throw new IllegalStateException("bulkLoad : Tree should be empty.");
+    }
+
+    /**
+     * Build Tree Nodes from bottom to top, from the {@code length} first data of given tables.<br/><br/>
+     *
+     * Root Node is created first to own the identifier 1, expected by Tree readers.
+     * Then each leaf is created just before its data, to write them sequentialy.
+     *
+     * @param identifiers data tree identifiers.
+     * @param coordinates data boundaries.
+     * @param length data number.
+     * @throws StoreIndexException if problem during Node writing.
+     */
+    private void packTree(final int[] identifiers, final double[][] coordinates, final int length) throws StoreIndexException {
+        if (length == 0) return;
+        final int maxElts = getMaxElements();
+        try {
+            final Node root = createNode(null, (length <= maxElts) ? IS_LEAF : IS_OTHER, 0, 0, 0);
+            assert root.getNodeId() == 1 : "bulkLoad : root Node identifier should be 1. Found : "+root.getNodeId();
+            final int[] order = new int[length];
+            for (int i = 0; i < length; i++) order[i] = i;
+            SortTileRecursive.sort(coordinates, order, 0, length, maxElts);
+            if (length <= maxElts) {
+                for (int i = 0; i < length; i++) {
+                    root.addChild(createNode(coordinates[order[i]], IS_DATA, root.getNodeId(), 0, -identifiers[order[i]]));
+                }
+            } else {
+                //-- leaves
+                Node[] level = new Node[(length + maxElts - 1) / maxElts];
+                for (int l = 0, i = 0; i < length; i += maxElts) {
+                    final Node leaf = createNode(null, IS_LEAF, 0, 0, 0);
+                    for (int j = i, s = Math.min(i + maxElts, length); j < s; j++) {
+                        leaf.addChild(createNode(coordinates[order[j]], IS_DATA, leaf.getNodeId(), 0, -identifiers[order[j]]));
+                    }
+                    level[l++] = leaf;
+                }
+                //-- branches, until they can be stored within root
+                while (level.length > maxElts) {
+                    final int levelLength = level.length;
+                    final double[][] levelBounds = new double[levelLength][];
+                    final int[] levelOrder = new int[levelLength];
+                    for (int i = 0; i < levelLength; i++) {
+                        levelBounds[i] = level[i].getBoundary();
+                        levelOrder[i]  = i;
+                    }
+                    SortTileRecursive.sort(levelBounds, levelOrder, 0, levelLength, maxElts);
+                    final Node[] upperLevel = new Node[(levelLength + maxElts - 1) / maxElts];
+                    for (int l = 0, i = 0; i < levelLength; i += maxElts) {
+                        final Node branch = createNode(null, IS_OTHER, 0, 0, 0);
+                        for (int j = i, s = Math.min(i + maxElts, levelLength); j < s; j++) {
+                            branch.addChild(level[levelOrder[j]]);
+                        }
+                        upperLevel[l++] = branch;
+                    }
+                    level = upperLevel;
+                }
+                for (final Node child : level) {
+                    root.addChild(child);
+                }
+            }
+            assert root.checkInternal() : "bulkLoad : root Node not conform.";
+            eltCompteur = length;
+            setRoot(root);
+        } catch (IOException ex) {
+            throw new StoreIndexException(this.getClass().getName()+" bulkLoad(), impossible to write Tree Nodes.", ex);
+        }
+    }
+
     /**
      * Insert data in the current {@link Node}.<br/><br/>
      *
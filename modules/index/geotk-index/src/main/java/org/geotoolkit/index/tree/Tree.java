@@ -44,6 +44,21 @@ public interface Tree<E> extends Closeable {
      */
     int[] searchID(final Envelope regionSearch) throws StoreIndexException;
 
+    /**
+     * Give each {@code Integer} tree identifier, from each stored datas which intersect {@code regionSearch} parameter,
+     * to {@code visitor}.<br/><br/>
+     *
+     * Contrary to {@link #searchID(org.opengis.geometry.Envelope) } no result table is built,
+     * and search stop as soon as visitor return {@code false}.
+     *
+     * @param regionSearch Define area of search.
+     * @param visitor object which receive each tree identifier.
+     * @return {@code false} if search has been stopped by visitor, else {@code true}.
+     * @throws StoreIndexException if problem during search on stored file.
+     * @see TreeIdentifierVisitor
+     */
+    boolean searchID(final Envelope regionSearch, final TreeIdentifierVisitor visitor) throws StoreIndexException;
+
     /**
      * Find all {@code Integer} tree identifiers, from each stored datas which
      * intersect {@code regionSearch} parameter and return an appropriate {@code Iterator} to travel them.
@@ -0,0 +1,38 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.tree;
+
+/**
+ * Receive each tree identifier from search results, one by one, without intermediary table or {@link Integer} boxing.
+ *
+ * <blockquote><font size=-1>
+ * <strong>NOTE: visitor should neither modify nor search again within visited Tree during {@link #visit(int) } call.</strong>
+ * </font></blockquote>
+ *
+ * @author Remi Marechal (Geomatys).
+ * @see Tree#searchID(org.opengis.geometry.Envelope, org.geotoolkit.index.tree.TreeIdentifierVisitor)
+ */
+public interface TreeIdentifierVisitor {
+
+    /**
+     * Called for each tree identifier from search results.
+     *
+     * @param treeIdentifier tree identifier of a stored data which intersect region search.
+     * @return {@code true} to continue search, or {@code false} to stop it immediately.
+     */
+    boolean visit(final int treeIdentifier);
+}
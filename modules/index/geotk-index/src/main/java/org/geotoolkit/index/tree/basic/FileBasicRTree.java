@@ -119,4 +119,25 @@ public final class FileBasicRTree<E> extends BasicRTree<E> {
             final int byteBufferLength) throws IOException, StoreIndexException, ClassNotFoundException {
         super(new TreeAccessFile(input, TreeUtilities.BASIC_NUMBER, TreeUtilities.VERSION_NUMBER, byteBufferLength), treeEltMap);
     }
+
+    /**
+     * Open a {@link BasicRTree} implementation from an already filled file from {@link Path} location
+     * which contain {@link BasicRTree} architecture.<br/><br/>
+     *
+     * Note : if {@code memoryMapped} is {@code true}, Tree is read-only and all Nodes are red from memory mapped file regions.
+     * In this mode, any number of threads may search within Tree concurrently without lock,
+     * whereas insertion or remove actions throw an {@link UnsupportedOperationException}.
+     *
+     * @param input File already filled by old {@link BasicRTree} implementation.
+     * @param treeEltMap object which store tree identifier and data.
+     * @param memoryMapped {@code true} to open Tree in read-only memory mapped mode.
+     * @throws IOException if problem during head reading from already filled file.
+     * @throws StoreIndexException if file isn't already filled by {@link BasicRTree} implementation.
+     * @throws ClassNotFoundException if there is a problem during {@link CoordinateReferenceSystem} invert serialization.
+     * @see BasicRTree
+     * @see TreeElementMapper
+     */
+    public FileBasicRTree(final Path input, final TreeElementMapper<E> treeEltMap, final boolean memoryMapped) throws IOException, StoreIndexException, ClassNotFoundException {
+        super(new TreeAccessFile(input, TreeUtilities.BASIC_NUMBER, TreeUtilities.VERSION_NUMBER, memoryMapped), treeEltMap);
+    }
 }
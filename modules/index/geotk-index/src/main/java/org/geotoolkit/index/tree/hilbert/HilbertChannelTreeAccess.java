@@ -17,6 +17,7 @@
 package org.geotoolkit.index.tree.hilbert;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 import org.apache.sis.util.ArraysExt;
 import org.geotoolkit.index.tree.Node;
@@ -30,7 +31,7 @@ import org.opengis.referencing.crs.CoordinateReferenceSystem;
  *
  * @author Remi Marechal (Geomatys).
  * @see #internalSearch(int) 
- * @see #readNode(int) 
+ * @see #decodeNode(java.nio.ByteBuffer, int, int)
  * @see #writeNode(org.geotoolkit.index.tree.Node) 
  */
 abstract strictfp class HilbertChannelTreeAccess extends ChannelTreeAccess {
@@ -61,6 +62,23 @@ abstract strictfp class HilbertChannelTreeAccess extends ChannelTreeAccess {
             throws IOException, ClassNotFoundException {
         super(channel, magicNumber, versionNumber, byteBufferLength, HILBERT_INT_NUMBER);
     }
+
+    /**
+     * Build a {@link Tree} from a already filled {@link Channel}, in other words, open in reading mode.
+     *
+     * @param channel {@link SeekableByteChannel} to read already filled object.
+     * @param magicNumber {@code Integer} single {@link Tree} code.
+     * @param versionNumber tree version.
+     * @param byteBufferLength length in Byte unit of the buffer which read and write on hard disk.
+     * @param memoryMapped {@code true} to open in read-only memory mapped mode.
+     * @throws IOException if problem during channel read / write action.
+     * @see ChannelTreeAccess#isMemoryMapped()
+     */
+    public HilbertChannelTreeAccess(final SeekableByteChannel channel, final int magicNumber,
+            final double versionNumber, final int byteBufferLength, final boolean memoryMapped)
+            throws IOException, ClassNotFoundException {
+        super(channel, magicNumber, versionNumber, byteBufferLength, HILBERT_INT_NUMBER, memoryMapped);
+    }
          
     //-------------------------- Writing mode ----------------------------------
     /**
@@ -120,19 +138,18 @@ abstract strictfp class HilbertChannelTreeAccess extends ChannelTreeAccess {
      * {@inheritDoc }.
      */
     @Override
-    public synchronized Node readNode(final int indexNode) throws IOException {
-        adjustBuffer(indexNode);
+    protected Node decodeNode(final ByteBuffer buffer, int offset, final int indexNode) {
         final double[] boundary = new double[boundLength];
-        for (int i = 0; i < boundLength; i++) {
-            boundary[i] = byteBuffer.getDouble();
+        for (int i = 0; i < boundLength; i++, offset += 8) {
+            boundary[i] = buffer.getDouble(offset);
         }
-        final byte properties         = byteBuffer.get();
-        final int parentId            = byteBuffer.getInt();
-        final int siblingId           = byteBuffer.getInt();
-        final int childId             = byteBuffer.getInt();
-        final int currentHilbertOrder = byteBuffer.getInt();
-        final int childCount          = byteBuffer.getInt();
-        final int dataCount           = byteBuffer.getInt();
+        final byte properties         = buffer.get(offset);
+        final int parentId            = buffer.getInt(offset + 1);
+        final int siblingId           = buffer.getInt(offset + 5);
+        final int childId             = buffer.getInt(offset + 9);
+        final int currentHilbertOrder = buffer.getInt(offset + 13);
+        final int childCount          = buffer.getInt(offset + 17);
+        final int dataCount           = buffer.getInt(offset + 21);
         final HilbertNode redNode = new HilbertNode(this, indexNode, boundary, properties, parentId, siblingId, childId);
         redNode.setCurrentHilbertOrder(currentHilbertOrder);
         redNode.setChildCount(childCount);
@@ -145,6 +162,7 @@ abstract strictfp class HilbertChannelTreeAccess extends ChannelTreeAccess {
      */
     @Override
     public synchronized void writeNode(final Node candidate) throws IOException {
+        ensureWritable();
         final int indexNode    = candidate.getNodeId();
         adjustBuffer(indexNode);
         double[] candidateBound = candidate.getBoundary();
@@ -167,6 +185,7 @@ abstract strictfp class HilbertChannelTreeAccess extends ChannelTreeAccess {
      */
     @Override
      public synchronized Node createNode(double[] boundary, byte properties, int parentId, int siblingId, int childId) {
+         ensureWritable();
          final int currentID = (!recycleID.isEmpty()) ? recycleID.remove(0) : nodeId++;
             return new HilbertNode(this, currentID, (boundary == null) ? nanBound : boundary, properties, parentId, siblingId, childId);
      }
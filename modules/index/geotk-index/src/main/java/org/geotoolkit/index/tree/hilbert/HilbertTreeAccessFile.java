@@ -17,6 +17,7 @@
 package org.geotoolkit.index.tree.hilbert;
 
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -59,6 +60,23 @@ final class HilbertTreeAccessFile extends HilbertChannelTreeAccess {
                 StandardOpenOption.WRITE), magicNumber, versionNumber, byteBufferLength);
     }
 
+    /**
+     * Build a read-only {@link Tree} from a already filled file at {@link Path} location,
+     * whose Nodes are red from memory mapped file regions.
+     *
+     * @param input {@code File} which already contains {@link Node} architecture.
+     * @param magicNumber {@code Integer} single {@link Tree} code.
+     * @param versionNumber tree version.
+     * @param memoryMapped {@code true} to open tree file in read-only memory mapped mode.
+     * @throws IOException if problem during read Node.
+     * @throws ClassNotFoundException if there is a problem during {@link CoordinateReferenceSystem} invert serialization.
+     */
+    HilbertTreeAccessFile(final Path input, final int magicNumber, final double versionNumber, final boolean memoryMapped) throws IOException, ClassNotFoundException {
+        super(memoryMapped ? FileChannel.open(input, StandardOpenOption.READ)
+                : Files.newByteChannel(input, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE),
+                magicNumber, versionNumber, DEFAULT_BUFFER_LENGTH, memoryMapped);
+    }
+
     /**
      * Build and insert {@link Node} architecture in a file at {@link Path} location.<br/>
      * If file is not empty, data within it will be overwrite.<br/>
@@ -14,6 +14,7 @@ import org.geotoolkit.index.tree.StoreIndexException;
 import org.geotoolkit.index.tree.Tree;
 import org.geotoolkit.index.tree.TreeElementMapper;
 import org.geotoolkit.index.tree.TreeIdentifierIterator;
+import org.geotoolkit.index.tree.TreeIdentifierVisitor;
 import org.geotoolkit.index.tree.star.StarRTree;
 import org.geotoolkit.internal.tree.TreeAccess;
 import org.geotoolkit.internal.tree.TreeAccessSQLByteArray;
@@ -63,6 +64,12 @@ public class PGTreeWrapper implements Tree {
         return rTree.searchID(regionSearch);
     }
 
+    @Override
+    public boolean searchID(Envelope regionSearch, TreeIdentifierVisitor visitor) throws StoreIndexException {
+        updateTree();
+        return rTree.searchID(regionSearch, visitor);
+    }
+
     @Override
     public TreeIdentifierIterator search(Envelope regionSearch) throws StoreIndexException {
         return rTree.search(regionSearch);
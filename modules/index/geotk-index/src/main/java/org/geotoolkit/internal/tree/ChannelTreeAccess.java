@@ -21,19 +21,27 @@ import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.Channel;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.util.Arrays;
 import org.apache.sis.referencing.CRS;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.opengis.util.FactoryException;
 import org.geotoolkit.index.tree.Node;
+import org.geotoolkit.index.tree.TreeIdentifierVisitor;
 import org.geotoolkit.index.tree.basic.SplitCase;
 import static org.geotoolkit.internal.tree.TreeUtilities.intersects;
 
 /**
  * {@link TreeAccess} implementation.<br/>
- * Store all {@link Node} architecture use by {@link Tree} into a {@link SeekableByteChannel}.
+ * Store all {@link Node} architecture use by {@link Tree} into a {@link SeekableByteChannel}.<br/><br/>
+ *
+ * In reading mode, {@link Node} architecture may also be memory mapped, see {@link #isMemoryMapped() }.
+ * In this case {@link TreeAccess} is read-only and Nodes are decoded directly from mapped file regions,
+ * which allow any number of threads to search within Tree without lock.
+ * Insertion and removal throw an {@link UnsupportedOperationException}, {@link #flush() } does nothing.
  *
  * @author Remi Marechal (Geomatys).
  */
@@ -82,6 +90,28 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
      */
     protected SeekableByteChannel inOutChannel;
 
+    /**
+     * Maximum length in Byte unit of each memory mapped region.
+     */
+    private static final int MAX_CHUNK_LENGTH = Integer.MAX_VALUE;
+
+    /**
+     * Memory mapped regions of the file which contain all {@link Node}, in identifier order.<br/>
+     * {@code null} if {@link TreeAccess} is not opened in memory mapped mode.
+     */
+    private final MappedByteBuffer[] mappedChunks;
+
+    /**
+     * Number of {@link Node} within each memory mapped region.<br/>
+     * A Node is never shared between two regions.
+     */
+    private final int nodePerChunk;
+
+    /**
+     * Number of {@link Node} stored within memory mapped regions.
+     */
+    private final long mappedNodeNumber;
+
     //------------------------- Reading mode -----------------------------------
     /**
      * Build a {@link Tree} from a already filled {@link Channel}, in other words, open in reading mode.<br/><br/>
@@ -97,7 +127,31 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
             final int magicNumber, final double versionNumber,
             final int byteBufferLength, final int integerNumberPerNode)
             throws IOException, ClassNotFoundException {
+        this(byteChannel, magicNumber, versionNumber, byteBufferLength, integerNumberPerNode, false);
+    }
+
+    /**
+     * Build a {@link Tree} from a already filled {@link Channel}, in other words, open in reading mode.<br/><br/>
+     *
+     * If {@code memoryMapped} is {@code true}, all file part after head is mapped in memory with
+     * {@link FileChannel#map(java.nio.channels.FileChannel.MapMode, long, long) } and {@link TreeAccess} is read-only.
+     *
+     * @param byteChannel {@link SeekableByteChannel} to read already filled object, should be a {@link FileChannel} in memory mapped mode.
+     * @param magicNumber {@code Integer} single {@link Tree} code.
+     * @param versionNumber tree version.
+     * @param byteBufferLength length in Byte unit of the buffer which read and write on hard disk.
+     * @param integerNumberPerNode integer number per Node which will be red/written during Node reading/writing process.
+     * @param memoryMapped {@code true} to open {@link TreeAccess} in read-only memory mapped mode.
+     * @throws IOException if problem during channel read / write action.
+     * @throws IllegalArgumentException if memoryMapped is {@code true} and byteChannel is not a {@link FileChannel}.
+     */
+    protected ChannelTreeAccess(final SeekableByteChannel byteChannel,
+            final int magicNumber, final double versionNumber,
+            final int byteBufferLength, final int integerNumberPerNode, final boolean memoryMapped)
+            throws IOException, ClassNotFoundException {
 
+        if (memoryMapped && !(byteChannel instanceof FileChannel))
+            throw new IllegalArgumentException("Memory mapped mode is only available from a FileChannel. Found : "+byteChannel.getClass().getName());
         inOutChannel = byteChannel;
         final ByteBuffer magicOrderBuffer = ByteBuffer.allocate(5);//-- a stipuler en bigendian
 //        magicOrderBuffer.order(ByteOrder.BIG_ENDIAN);//-- stand by byte order comportement
@@ -204,6 +258,25 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
         currentBufferPosition = beginPosition;
         writeBufferLimit = 0;
 
+        if (memoryMapped) {
+            final FileChannel fileChannel = (FileChannel) inOutChannel;
+            mappedNodeNumber = (fileChannel.size() - beginPosition) / nodeSize;
+            nodePerChunk     = MAX_CHUNK_LENGTH / nodeSize;
+            mappedChunks     = new MappedByteBuffer[(int) ((mappedNodeNumber + nodePerChunk - 1) / nodePerChunk)];
+            for (int c = 0; c < mappedChunks.length; c++) {
+                final long firstNode = (long) c * nodePerChunk;
+                final long chunkNodeNumber = Math.min(nodePerChunk, mappedNodeNumber - firstNode);
+                mappedChunks[c] = fileChannel.map(FileChannel.MapMode.READ_ONLY,
+                        beginPosition + firstNode * nodeSize, chunkNodeNumber * nodeSize);
+            }
+            root = (mappedNodeNumber == 0) ? null : this.readNode(1);
+            if (root != null && root.isEmpty()) root = null;
+            return;
+        }
+        mappedChunks     = null;
+        nodePerChunk     = 0;
+        mappedNodeNumber = 0;
+
         // root
         inOutChannel.position(currentBufferPosition);
         inOutChannel.read(byteBuffer);
@@ -323,10 +396,55 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
         currentBufferPosition = beginPosition;
         writeBufferLimit      = 0;
 
+        mappedChunks     = null;
+        nodePerChunk     = 0;
+        mappedNodeNumber = 0;
+
         // root
         root = null;
     }
 
+    /**
+     * Return {@code true} if this {@link TreeAccess} has been opened in read-only memory mapped mode, else {@code false}.
+     *
+     * @return {@code true} if Nodes are red from memory mapped file regions.
+     */
+    public boolean isMemoryMapped() {
+        return mappedChunks != null;
+    }
+
+    /**
+     * Throw an {@link UnsupportedOperationException} if this {@link TreeAccess} is opened in memory mapped mode.
+     */
+    protected final void ensureWritable() {
+        if (mappedChunks != null)
+            throw new UnsupportedOperationException("Tree opened in memory mapped mode is read-only.");
+    }
+
+    /**
+     * Return memory mapped region which contain {@link Node} at specified identifier.
+     *
+     * @param nodeID Node identifier.
+     * @return memory mapped region which contain Node.
+     * @throws IOException if Node identifier is out of mapped file.
+     */
+    private ByteBuffer mappedChunk(final int nodeID) throws IOException {
+        if (nodeID < 1 || nodeID > mappedNodeNumber)
+            throw new IOException("Node identifier "+nodeID+" is out of tree file. Node number : "+mappedNodeNumber);
+        return mappedChunks[(nodeID - 1) / nodePerChunk];
+    }
+
+    /**
+     * Return position of {@link Node} at specified identifier within its memory mapped region.
+     *
+     * @param nodeID Node identifier.
+     * @return Node position within its memory mapped region.
+     * @see #mappedChunk(int)
+     */
+    private int mappedOffset(final int nodeID) {
+        return ((nodeID - 1) % nodePerChunk) * nodeSize;
+    }
+
     /**
      * Adjust buffer position relative to filechanel which contain data,
      * and prepare bytebuffer position and limit for reading or writing action.
@@ -399,21 +517,144 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
         }
     }
 
+    /**
+     * {@inheritDoc }
+     * <br>
+     * In memory mapped mode, search is done without lock and without {@link Node} creation.
+     */
+    @Override
+    public int[] search(final int nodeID, final double[] regionSearch) throws IOException {
+        if (mappedChunks == null) return super.search(nodeID, regionSearch);
+        final IdentifierTable result = new IdentifierTable();
+        visit(nodeID, regionSearch, result, new int[32]);
+        return result.toArray();
+    }
+
+    /**
+     * {@inheritDoc }
+     * <br>
+     * Node attributs are red directly from buffer, so search create no {@link Node}.<br/>
+     * In memory mapped mode, search is done without lock and each call use its own small traversal stack.
+     */
+    @Override
+    public boolean search(final int nodeID, final double[] regionSearch, final TreeIdentifierVisitor visitor) throws IOException {
+        if (mappedChunks != null) return visit(nodeID, regionSearch, visitor, new int[32]);
+        synchronized (this) {
+            return visit(nodeID, regionSearch, visitor, visitStack);
+        }
+    }
+
+    /**
+     * Travel iteratively Tree from {@code nodeID} and give each stored value which intersect region search to visitor.
+     *
+     * @param nodeID Node identifier where search begin.
+     * @param regionSearch boundary of search region.
+     * @param visitor object which receive each stored value.
+     * @param stack Node identifier stack use to travel Tree.
+     * @return {@code false} if search has been stopped by visitor, else {@code true}.
+     * @throws IOException if problem during Node reading.
+     */
+    private boolean visit(final int nodeID, final double[] regionSearch, final TreeIdentifierVisitor visitor, int[] stack) throws IOException {
+        final boolean mapped  = mappedChunks != null;
+        final int dim         = boundLength >> 1;
+        final int siblingPos  = boundLength * 8 + 5;// step boundary, properties (1 byte) and parent ID (int : 4 bytes)
+        int stackLength       = 0;
+        stack[stackLength++]  = nodeID;
+        while (stackLength > 0) {
+            final int currentID = stack[--stackLength];
+            final ByteBuffer buff;
+            final int offset;
+            if (mapped) {
+                buff   = mappedChunk(currentID);
+                offset = mappedOffset(currentID);
+            } else {
+                adjustBuffer(currentID);
+                buff   = byteBuffer;
+                offset = byteBuffer.position();
+            }
+            final int sibling = buff.getInt(offset + siblingPos);
+            final int child   = buff.getInt(offset + siblingPos + 4);
+            if (stackLength + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length << 1);
+                if (!mapped) visitStack = stack;
+            }
+            if (sibling != 0) stack[stackLength++] = sibling;
+            //-- in place intersection, a NaN boundary (empty Hilbert cell) never intersects.
+            boolean intersect = true;
+            for (int i = 0; i < dim; i++) {
+                final double min = buff.getDouble(offset + (i << 3));
+                final double max = buff.getDouble(offset + ((i + dim) << 3));
+                if (!(min <= regionSearch[i + dim] && max >= regionSearch[i])) {
+                    intersect = false;
+                    break;
+                }
+            }
+            if (intersect) {
+                if (child > 0) {
+                    stack[stackLength++] = child;
+                } else {
+                    if (child == 0)
+                        throw new IllegalStateException("child index should never be 0.");
+                    if (!visitor.visit(-child)) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@link TreeIdentifierVisitor} which store all visited tree identifiers in a growing table.
+     */
+    private static final class IdentifierTable implements TreeIdentifierVisitor {
+        private int[] table = new int[100];
+        private int length;
+
+        @Override
+        public boolean visit(final int treeIdentifier) {
+            if (length == table.length) table = Arrays.copyOf(table, length << 1);
+            table[length++] = treeIdentifier;
+            return true;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(table, length);
+        }
+    }
+
     /**
      * {@inheritDoc }
      */
     @Override
     public Node readNode(int indexNode) throws IOException {
-        adjustBuffer(indexNode);
+        if (mappedChunks != null) {
+            return decodeNode(mappedChunk(indexNode), mappedOffset(indexNode), indexNode);
+        }
+        synchronized (this) {
+            adjustBuffer(indexNode);
+            return decodeNode(byteBuffer, byteBuffer.position(), indexNode);
+        }
+    }
+
+    /**
+     * Create {@link Node} from its attributs stored in buffer at specified position.<br/><br/>
+     *
+     * Note : only absolute get methods are used, buffer position is never modified.
+     *
+     * @param buffer buffer which contain Node attributs.
+     * @param offset position of first Node attribut within buffer.
+     * @param indexNode Node identifier.
+     * @return red Node.
+     */
+    protected Node decodeNode(final ByteBuffer buffer, int offset, final int indexNode) {
         final double[] boundary = new double[boundLength];
-        for (int i = 0; i < boundLength; i++) {
-            boundary[i] = byteBuffer.getDouble();
+        for (int i = 0; i < boundLength; i++, offset += 8) {
+            boundary[i] = buffer.getDouble(offset);
         }
-        final byte properties  = byteBuffer.get();
-        final int parentId     = byteBuffer.getInt();
-        final int siblingId    = byteBuffer.getInt();
-        final int childId      = byteBuffer.getInt();
-        final int childCount   = byteBuffer.getInt();
+        final byte properties  = buffer.get(offset);
+        final int parentId     = buffer.getInt(offset + 1);
+        final int siblingId    = buffer.getInt(offset + 5);
+        final int childId      = buffer.getInt(offset + 9);
+        final int childCount   = buffer.getInt(offset + 13);
         final Node redNode = new Node(this, indexNode, boundary, properties, parentId, siblingId, childId);
         redNode.setChildCount(childCount);
         return redNode;
@@ -424,6 +665,7 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
      */
     @Override
     public void writeNode(Node candidate) throws IOException {
+        ensureWritable();
         final int indexNode    = candidate.getNodeId();
         adjustBuffer(indexNode);
         writeBufferLimit = Math.max(writeBufferLimit, byteBuffer.limit());
@@ -444,6 +686,7 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
      */
     @Override
     public synchronized void removeNode(final Node candidate) {
+        ensureWritable();
         recycleID.add(candidate.getNodeId());
     }
 
@@ -452,6 +695,8 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
      */
     @Override
     public synchronized void rewind() throws IOException {
+        //-- nothing to rewind in read-only mode, tree root is only forgotten by caller.
+        if (mappedChunks != null) return;
         super.rewind();
         byteBuffer.position(0);
         byteBuffer.limit(writeBufferLimit);
@@ -486,9 +731,14 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
 
     /**
      * {@inheritDoc }
+     * <br>
+     * In memory mapped mode nothing has been written, this method does nothing,
+     * contrary to write operations which throw an {@link UnsupportedOperationException}.
      */
     @Override
     public void flush() throws IOException {
+        //-- called by close(), nothing to write in read-only mode
+        if (mappedChunks != null) return;
 
         byteBuffer.position(0);
         byteBuffer.limit(writeBufferLimit);
@@ -519,6 +769,15 @@ public abstract strictfp class ChannelTreeAccess extends TreeAccess {
         adjustBuffer(nodeId);
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Node createNode(double[] boundary, byte properties, int parentId, int siblingId, int childId) {
+        ensureWritable();
+        return super.createNode(boundary, properties, parentId, siblingId, childId);
+    }
+
     /**
      * {@inheritDoc }
      */
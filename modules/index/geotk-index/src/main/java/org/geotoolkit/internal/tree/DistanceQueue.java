@@ -0,0 +1,123 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.internal.tree;
+
+import java.util.Arrays;
+
+/**
+ * Priority queue of {@code int} values ordered by ascending distance, use by best-first nearest search.<br/><br/>
+ *
+ * Values and distances are stored in two parallel primitive tables organized as a binary heap,
+ * so no object is created per queued value.
+ *
+ * @author Remi Marechal (Geomatys).
+ */
+public final class DistanceQueue {
+
+    /**
+     * Queued distances, in heap order.
+     */
+    private double[] distances;
+
+    /**
+     * Queued values, in same order as distances.
+     */
+    private int[] values;
+
+    /**
+     * Number of queued values.
+     */
+    private int size;
+
+    /**
+     * Create an empty queue.
+     */
+    public DistanceQueue() {
+        distances = new double[64];
+        values    = new int[64];
+        size      = 0;
+    }
+
+    /**
+     * Return {@code true} if queue contain no value, else {@code false}.
+     *
+     * @return {@code true} if queue is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Add a value with its associate distance.
+     *
+     * @param distance distance use to order value.
+     * @param value queued value.
+     */
+    public void add(final double distance, final int value) {
+        if (size == values.length) {
+            distances = Arrays.copyOf(distances, size << 1);
+            values    = Arrays.copyOf(values, size << 1);
+        }
+        int i = size++;
+        while (i > 0) {
+            final int parent = (i - 1) >> 1;
+            if (distances[parent] <= distance) break;
+            distances[i] = distances[parent];
+            values[i]    = values[parent];
+            i = parent;
+        }
+        distances[i] = distance;
+        values[i]    = value;
+    }
+
+    /**
+     * Return smallest queued distance.
+     *
+     * @return smallest queued distance.
+     * @throws IllegalStateException if queue is empty.
+     */
+    public double peekDistance() {
+        if (size == 0) throw new IllegalStateException("Distance queue is empty.");
+        return distances[0];
+    }
+
+    /**
+     * Remove and return value associate to smallest distance.
+     *
+     * @return value associate to smallest distance.
+     * @throws IllegalStateException if queue is empty.
+     */
+    public int poll() {
+        if (size == 0) throw new IllegalStateException("Distance queue is empty.");
+        final int result      = values[0];
+        final double lastDist = distances[--size];
+        final int lastValue   = values[size];
+        int i = 0;
+        final int half = size >> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if (child + 1 < size && distances[child + 1] < distances[child]) child++;
+            if (lastDist <= distances[child]) break;
+            distances[i] = distances[child];
+            values[i]    = values[child];
+            i = child;
+        }
+        distances[i] = lastDist;
+        values[i]    = lastValue;
+        return result;
+    }
+}
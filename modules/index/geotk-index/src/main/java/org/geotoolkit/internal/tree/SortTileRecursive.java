@@ -0,0 +1,132 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.internal.tree;
+
+import org.apache.sis.util.ArgumentChecks;
+
+/**
+ * Sort-Tile-Recursive (STR) ordering used to pack a Tree from bottom to top.<br/><br/>
+ *
+ * Elements are sorted on the centroid of their first ordinate, cut in slices, then each slice
+ * is sorted on the next ordinate and so on until the last dimension.<br/>
+ * After sorting, each run of {@code nodeCapacity} consecutive elements forms a well packed {@link org.geotoolkit.index.tree.Node}.
+ *
+ * @author Remi Marechal (Geomatys).
+ */
+public final class SortTileRecursive {
+
+    /**
+     * Under this length, ranges are sorted by insertion.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private SortTileRecursive() {
+    }
+
+    /**
+     * Sort {@code order} table between {@code from} inclusive and {@code to} exclusive,
+     * in accordance with Sort-Tile-Recursive algorithm.<br/><br/>
+     *
+     * Note : only the {@code order} table is modified, {@code boundaries} is only red.
+     *
+     * @param boundaries boundary of each element, in tree format (all lower ordinates then all upper ordinates).
+     * @param order index of each element within boundaries table, which will be sorted.
+     * @param from first index (inclusive) of sorted range within order table.
+     * @param to last index (exclusive) of sorted range within order table.
+     * @param nodeCapacity maximum element number per Node.
+     */
+    public static void sort(final double[][] boundaries, final int[] order, final int from, final int to, final int nodeCapacity) {
+        ArgumentChecks.ensureNonNull("boundaries", boundaries);
+        ArgumentChecks.ensureNonNull("order", order);
+        ArgumentChecks.ensureStrictlyPositive("nodeCapacity", nodeCapacity);
+        if (to - from <= nodeCapacity) return;
+        final int dimension = boundaries[order[from]].length >> 1;
+        sort(boundaries, order, new double[order.length], from, to, 0, dimension, nodeCapacity);
+    }
+
+    /**
+     * Sort recursively a slice on the given ordinate, then cut it and sort sub-slices on next ordinate.
+     */
+    private static void sort(final double[][] boundaries, final int[] order, final double[] keys,
+            final int from, final int to, final int ordinate, final int dimension, final int nodeCapacity) {
+        final int length = to - from;
+        if (length <= nodeCapacity) return;
+        for (int i = from; i < to; i++) {
+            final double[] bound = boundaries[order[i]];
+            keys[i] = (bound[ordinate] + bound[ordinate + dimension]) * 0.5;
+        }
+        quickSort(keys, order, from, to - 1);
+        if (ordinate == dimension - 1) return;
+
+        final int pageNumber  = (length + nodeCapacity - 1) / nodeCapacity;
+        final int sliceNumber = (int) Math.ceil(Math.pow(pageNumber, 1.0 / (dimension - ordinate)));
+        final int sliceLength = nodeCapacity * ((pageNumber + sliceNumber - 1) / sliceNumber);
+        for (int s = from; s < to; s += sliceLength) {
+            sort(boundaries, order, keys, s, Math.min(s + sliceLength, to), ordinate + 1, dimension, nodeCapacity);
+        }
+    }
+
+    /**
+     * Sort keys table between {@code low} and {@code high} (both inclusive),
+     * applying same permutation on order table.
+     */
+    private static void quickSort(final double[] keys, final int[] order, int low, int high) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            //-- median of three pivot
+            final int mid = (low + high) >>> 1;
+            if (keys[mid]  < keys[low]) swap(keys, order, mid, low);
+            if (keys[high] < keys[low]) swap(keys, order, high, low);
+            if (keys[high] < keys[mid]) swap(keys, order, high, mid);
+            final double pivot = keys[mid];
+            int i = low, j = high;
+            while (i <= j) {
+                while (keys[i] < pivot) i++;
+                while (keys[j] > pivot) j--;
+                if (i <= j) swap(keys, order, i++, j--);
+            }
+            //-- recurse on smallest part to bound stack depth
+            if (j - low < high - i) {
+                quickSort(keys, order, low, j);
+                low = i;
+            } else {
+                quickSort(keys, order, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            final double key = keys[i];
+            final int value  = order[i];
+            int j = i - 1;
+            while (j >= low && keys[j] > key) {
+                keys[j + 1]  = keys[j];
+                order[j + 1] = order[j];
+                j--;
+            }
+            keys[j + 1]  = key;
+            order[j + 1] = value;
+        }
+    }
+
+    private static void swap(final double[] keys, final int[] order, final int i, final int j) {
+        final double k = keys[i];
+        keys[i] = keys[j];
+        keys[j] = k;
+        final int o = order[i];
+        order[i] = order[j];
+        order[j] = o;
+    }
+}
@@ -24,8 +24,10 @@ import java.util.List;
 import org.geotoolkit.index.tree.AbstractTree;
 import org.geotoolkit.index.tree.Node;
 import org.geotoolkit.index.tree.StoreIndexException;
+import org.geotoolkit.index.tree.TreeIdentifierVisitor;
 import org.geotoolkit.index.tree.basic.SplitCase;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import static org.geotoolkit.internal.tree.TreeUtilities.intersects;
 
 /**
  * Mechanic to store Tree architecture.<br/><br/>
@@ -82,6 +84,13 @@ public abstract class TreeAccess {
      * boundary of search region.
      */
     protected double[] regionSearch;
+
+    /**
+     * Node identifier stack re-used by each visitor search to travel Tree without recursion.
+     *
+     * @see #search(int, double[], org.geotoolkit.index.tree.TreeIdentifierVisitor)
+     */
+    protected int[] visitStack = new int[32];
     
     /**
      * Store treeIdentifier when user call close method from tree.
@@ -157,6 +166,37 @@ public abstract class TreeAccess {
      * @throws IOException if read or write Exception in {@link TreeAccessFile} implementation.
      */
     public abstract void internalSearch(int nodeID) throws IOException;
+
+    /**
+     * Give to {@code visitor} all value stored in Tree which intersect region search.<br/><br/>
+     *
+     * Tree is travelled iteratively with the re-used {@link #visitStack}, so search cost no allocation
+     * proportional to result number.
+     *
+     * @param nodeID Node identifier where search begin. Generaly begin at node identifier.
+     * @param regionSearch boundary of search region.
+     * @param visitor object which receive each stored value.
+     * @return {@code false} if search has been stopped by visitor, else {@code true}.
+     * @throws IOException if read Exception in {@link TreeAccessFile} implementation.
+     */
+    public synchronized boolean search(final int nodeID, final double[] regionSearch, final TreeIdentifierVisitor visitor) throws IOException {
+        int[] stack     = visitStack;
+        int stackLength = 0;
+        stack[stackLength++] = nodeID;
+        while (stackLength > 0) {
+            final Node candidate = readNode(stack[--stackLength]);
+            if (stackLength + 2 > stack.length) stack = visitStack = Arrays.copyOf(stack, stack.length << 1);
+            if (candidate.getSiblingId() != 0) stack[stackLength++] = candidate.getSiblingId();
+            if (!candidate.isEmpty() && intersects(candidate.getBoundary(), regionSearch, true)) {
+                if (candidate.isData()) {
+                    if (!visitor.visit(-candidate.getChildId())) return false;
+                } else {
+                    stack[stackLength++] = candidate.getChildId();
+                }
+            }
+        }
+        return true;
+    }
     
     /**
      * Read Node at specified Node identifier.
@@ -20,6 +20,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -98,9 +99,46 @@ public class TreeAccessFile extends ChannelTreeAccess {
      */
     protected TreeAccessFile(final Path input, final int magicNumber, final double versionNumber ,
             final int byteBufferLength, final int integerNumberPerNode) throws IOException, ClassNotFoundException {
-        super(Files.newByteChannel(input, StandardOpenOption.CREATE, StandardOpenOption.READ,
-                StandardOpenOption.WRITE),
-                magicNumber, versionNumber, byteBufferLength, integerNumberPerNode);
+        this(input, magicNumber, versionNumber, byteBufferLength, integerNumberPerNode, false);
+    }
+
+    /**
+     * Build a {@link TreeAccess} from an already filled file at {@link Path} location.<br/><br/>
+     *
+     * If {@code memoryMapped} is {@code true}, file is opened in read-only mode and all {@link Node}
+     * are red from memory mapped file regions, which permit concurrent search without lock.
+     *
+     * @param input {@code Path} which already contains {@link Node} architecture.
+     * @param magicNumber {@code Integer} single {@link Tree} code.
+     * @param versionNumber tree version.
+     * @param memoryMapped {@code true} to open tree file in read-only memory mapped mode.
+     * @throws IOException if problem during read or write Node.
+     * @throws ClassNotFoundException if there is a problem during {@link CoordinateReferenceSystem} invert serialization.
+     * @see ChannelTreeAccess#isMemoryMapped()
+     */
+    public TreeAccessFile(final Path input, final int magicNumber, final double versionNumber, final boolean memoryMapped)
+            throws IOException, ClassNotFoundException {
+        this(input, magicNumber, versionNumber, DEFAULT_BUFFER_LENGTH, INT_NUMBER, memoryMapped);
+    }
+
+    /**
+     * Build a {@link TreeAccess} from an already filled file at {@link Path} location.
+     *
+     * @param input {@code Path} which already contains {@link Node} architecture.
+     * @param magicNumber {@code Integer} single {@link Tree} code.
+     * @param versionNumber tree version.
+     * @param byteBufferLength length in Byte unit of the buffer which read and write on hard disk.
+     * @param integerNumberPerNode integer number per Node which will be red/written during Node reading/writing process.
+     * @param memoryMapped {@code true} to open tree file in read-only memory mapped mode.
+     * @throws IOException if problem during read or write Node.
+     * @throws ClassNotFoundException if there is a problem during {@link CoordinateReferenceSystem} invert serialization.
+     */
+    protected TreeAccessFile(final Path input, final int magicNumber, final double versionNumber ,
+            final int byteBufferLength, final int integerNumberPerNode, final boolean memoryMapped)
+            throws IOException, ClassNotFoundException {
+        super(memoryMapped ? FileChannel.open(input, StandardOpenOption.READ)
+                : Files.newByteChannel(input, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE),
+                magicNumber, versionNumber, byteBufferLength, integerNumberPerNode, memoryMapped);
     }
 
     /**
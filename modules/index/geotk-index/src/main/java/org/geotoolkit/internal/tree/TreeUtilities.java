@@ -158,6 +158,28 @@ public class TreeUtilities {
         return getDistanceBetween2Positions(getMedian(envelopA), getMedian(envelopB));
     }
     
+    /**
+     * Compute squared Euclidean minimum distance between two {@code Envelope} in dimension n.<br/>
+     * Returned value is 0 if envelopes intersect.
+     *
+     * <blockquote><font size=-1>
+     * <strong>NOTE: no argument check is done, method is called for each Node travelled during nearest search.</strong>
+     * </font></blockquote>
+     *
+     * @param envelopA
+     * @param envelopB
+     * @return squared minimum distance between envelopA and envelopB borders.
+     */
+    public static double getSquaredMinDistance(final double[] envelopA, final double[] envelopB) {
+        final int dim = envelopA.length >> 1;
+        double dist   = 0;
+        for (int i = 0; i < dim; i++) {
+            final double gap = Math.max(0, Math.max(envelopA[i] - envelopB[i + dim], envelopB[i] - envelopA[i + dim]));
+            dist += gap * gap;
+        }
+        return dist;
+    }
+
     /**
      * Compute general boundary of all {@code Envelope} passed in parameter.
      *
@@ -172,6 +172,46 @@ public abstract class AbstractTreeTest extends TreeTest {
         }
     }
 
+    /**
+     * Test if tree filled by bulk loading contain all elements, and stay conform after insertions.
+     */
+    @Test
+    public void bulkLoadTest() throws StoreIndexException, IOException {
+        tree.setRoot(null);
+        tEM.clear();
+        ((AbstractTree<double[]>) tree).bulkLoad(lData.iterator());
+        tree.flush();
+        assertTrue(tree.getElementsNumber() == lData.size());
+        tAF = ((AbstractTree)tree).getTreeAccess();
+        checkNode(tree.getRoot(), lData);
+
+        final GeneralEnvelope rG = new GeneralEnvelope(crs);
+        rG.setEnvelope(getExtent(lData));
+        final int[] tabSearch = tree.searchID(rG);
+        final TreeIdentifierIterator triter = tree.search(rG);
+        final int[] tabIterSearch = new int[tabSearch.length];
+        int tabID = 0;
+        while (triter.hasNext()) {
+            tabIterSearch[tabID++] = triter.nextInt();
+        }
+        assertTrue("comparison between tabSearch from iterator not equals with tabSearch", compareID(tabSearch, tabIterSearch));
+        assertTrue(compareLists(lData, Arrays.asList(getResult(tabSearch))));
+
+        try {
+            ((AbstractTree<double[]>) tree).bulkLoad(lData.iterator());
+            Assert.fail("bulk loading should fail on a filled tree.");
+        } catch (IllegalStateException ex) {
+            //ok
+        }
+
+        //-- packed tree should accept insertions and removals.
+        final double[] extra = createEntry(new double[dimension]);
+        tree.insert(extra);
+        assertTrue(tree.getElementsNumber() == lData.size() + 1);
+        assertTrue(tree.remove(extra));
+        assertTrue(tree.getElementsNumber() == lData.size());
+    }
+
     /**
      * Compare node properties from its children.<br/>
      * Compare Node boundary from its sub-Nodes boundary sum.<br/>
@@ -301,6 +341,79 @@ public abstract class AbstractTreeTest extends TreeTest {
         assertTrue(compareLists(lDataTemp, Arrays.asList(getResult(tabSearch))));
     }
 
+    /**
+     * Test search with {@link TreeIdentifierVisitor}, with and without early termination.
+     */
+    @Test
+    public void searchVisitorTest() throws StoreIndexException, IOException {
+        if (tree.getRoot() == null) insert();
+        final GeneralEnvelope rG = new GeneralEnvelope(crs);
+        rG.setEnvelope(getExtent(lData));
+
+        final int[] tabSearch = tree.searchID(rG);
+        final int[] tabVisitSearch = new int[tabSearch.length];
+        final int[] visitNumber = new int[1];
+        assertTrue(tree.searchID(rG, new TreeIdentifierVisitor() {
+            @Override
+            public boolean visit(int treeIdentifier) {
+                tabVisitSearch[visitNumber[0]++] = treeIdentifier;
+                return true;
+            }
+        }));
+        assertTrue("comparison between tabSearch from visitor not equals with tabSearch", compareID(tabSearch, tabVisitSearch));
+
+        //-- stop search after 3 results
+        visitNumber[0] = 0;
+        Assert.assertFalse(tree.searchID(rG, new TreeIdentifierVisitor() {
+            @Override
+            public boolean visit(int treeIdentifier) {
+                return ++visitNumber[0] < 3;
+            }
+        }));
+        Assert.assertEquals(3, visitNumber[0]);
+    }
+
+    /**
+     * Test k nearest neighbour and within distance search, compared with exhaustive distance computing.
+     */
+    @Test
+    public void searchNearestTest() throws StoreIndexException, IOException {
+        if (tree.getRoot() == null) insert();
+        final double[] position = new double[dimension << 1];
+        for (int d = 0; d < dimension; d++) {
+            position[d] = position[d + dimension] = (minMax[d+dimension]-minMax[d]) * Math.random() * Math.random() + minMax[d];
+        }
+        final GeneralEnvelope rG = new GeneralEnvelope(crs);
+        rG.setEnvelope(position);
+
+        final double[] refDistances = new double[lSize];
+        for (int i = 0; i < lSize; i++) {
+            refDistances[i] = Math.sqrt(getSquaredMinDistance(lData.get(i), position));
+        }
+        Arrays.sort(refDistances);
+
+        final int k = 10;
+        final double[][] nearest = getResult(((AbstractTree) tree).searchNearest(rG, k));
+        Assert.assertEquals(k, nearest.length);
+        for (int i = 0; i < k; i++) {
+            Assert.assertEquals(refDistances[i], Math.sqrt(getSquaredMinDistance(nearest[i], position)), 1E-9);
+        }
+
+        //-- distance between two reference distances to avoid rounding on result border
+        final double distance = (refDistances[lSize >> 1] + refDistances[(lSize >> 1) + 1]) / 2;
+        int refNumber = 0;
+        while (refNumber < lSize && refDistances[refNumber] <= distance) refNumber++;
+        final double[][] within = getResult(((AbstractTree) tree).searchWithinDistance(rG, distance));
+        Assert.assertEquals(refNumber, within.length);
+        double previous = 0;
+        for (double[] data : within) {
+            final double dist = Math.sqrt(getSquaredMinDistance(data, position));
+            assertTrue("results should be ordered by ascending distance", dist >= previous);
+            assertTrue(dist <= distance);
+            previous = dist;
+        }
+    }
+
      /**
      * Test query outside of tree area.
      *
@@ -0,0 +1,138 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.tree;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.sis.geometry.GeneralEnvelope;
+import org.geotoolkit.index.tree.star.FileStarRTree;
+import org.geotoolkit.referencing.crs.PredefinedCRS;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+/**
+ * Search concurrently a star RTree file of 1 000 000 boxes with 1, 4 and 16 threads,
+ * opened with the buffered {@link org.geotoolkit.internal.tree.TreeAccessFile}, where each search holds the file lock,
+ * and opened read-only memory mapped, where searches run without lock.<br/>
+ * Each thread run its part of 16 000 search windows covering 0.01% of data extent,
+ * throughput is given in searches per second.
+ *
+ * @author Remi Marechal (Geomatys).
+ */
+public class BenchMarkMemoryMappedTree {
+
+    private static final CoordinateReferenceSystem CRS = PredefinedCRS.CARTESIAN_2D;
+
+    private static final int NB_ELEMENTS = 1000000;
+    private static final int NB_SEARCHES = 16000;
+    private static final int NB_ITERATIONS = 3;
+
+    /**
+     * Maximum element number in each tree node.
+     */
+    private static final int MAX_ELEMENTS = 20;
+
+    /**
+     * Data and search windows are in [0 .. EXTENT] on each axis.
+     */
+    private static final double EXTENT = 100000;
+
+    private final GeneralEnvelope[] searches = new GeneralEnvelope[NB_SEARCHES];
+
+    @Test
+    @Ignore
+    public void benchSearchTest() throws Exception {
+        final Path file = createTree();
+
+        for (int nbThreads : new int[]{1, 4, 16}) {
+            Tree<double[]> tree = new FileStarRTree<>(file, new TreeElementMapperTest(CRS));
+            search("buffered", tree, nbThreads);
+            tree.close();
+
+            tree = new FileStarRTree<>(file, new TreeElementMapperTest(CRS), true);
+            search("memory mapped", tree, nbThreads);
+            tree.close();
+        }
+        Files.delete(file);
+    }
+
+    /**
+     * Write tree file with bulk loading and prepare search windows.
+     */
+    private Path createTree() throws Exception {
+        final Random random = new Random(42);
+        final int[] identifiers = new int[NB_ELEMENTS];
+        final double[][] entries = new double[NB_ELEMENTS][];
+        for (int i = 0; i < NB_ELEMENTS; i++) {
+            final double x = random.nextDouble() * EXTENT, y = random.nextDouble() * EXTENT;
+            identifiers[i] = i + 1;
+            entries[i] = new double[]{x, y, x + random.nextDouble() * 10, y + random.nextDouble() * 10};
+        }
+        final double size = EXTENT / 100;
+        for (int i = 0; i < NB_SEARCHES; i++) {
+            final double x = random.nextDouble() * (EXTENT - size), y = random.nextDouble() * (EXTENT - size);
+            searches[i] = new GeneralEnvelope(CRS);
+            searches[i].setEnvelope(x, y, x + size, y + size);
+        }
+
+        final Path file = Files.createTempFile("bench", "tree");
+        final FileStarRTree<double[]> tree = new FileStarRTree<>(file, MAX_ELEMENTS, CRS, new TreeElementMapperTest(CRS));
+        tree.bulkLoad(identifiers, entries);
+        tree.close();
+        return file;
+    }
+
+    private void search(final String name, final Tree<double[]> tree, final int nbThreads) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        try {
+            for (int i = 0; i < NB_ITERATIONS; i++) {
+                final long start = System.nanoTime();
+                final List<Future<Long>> futures = new ArrayList<>();
+                for (int t = 0; t < nbThreads; t++) {
+                    final int first = t;
+                    futures.add(executor.submit(new Callable<Long>() {
+                        @Override
+                        public Long call() throws Exception {
+                            long nbResults = 0;
+                            for (int s = first; s < NB_SEARCHES; s += nbThreads) {
+                                nbResults += tree.searchID(searches[s]).length;
+                            }
+                            return nbResults;
+                        }
+                    }));
+                }
+                long nbResults = 0;
+                for (Future<Long> future : futures) {
+                    nbResults += future.get();
+                }
+                final long time = (System.nanoTime() - start) / 1000000;
+                System.out.println("stats " + name + " " + nbThreads + " threads : " + NB_SEARCHES + " searches, "
+                        + nbResults + " results in " + time + " ms, " + (NB_SEARCHES * 1000L / Math.max(time, 1)) + " searches/s");
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
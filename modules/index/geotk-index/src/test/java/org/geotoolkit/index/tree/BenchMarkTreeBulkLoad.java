@@ -0,0 +1,163 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.tree;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.apache.sis.geometry.GeneralEnvelope;
+import org.geotoolkit.index.tree.hilbert.FileHilbertRTree;
+import org.geotoolkit.index.tree.hilbert.MemoryHilbertRTree;
+import org.geotoolkit.index.tree.star.FileStarRTree;
+import org.geotoolkit.index.tree.star.MemoryStarRTree;
+import org.geotoolkit.referencing.crs.PredefinedCRS;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+/**
+ * Fill star and Hilbert RTrees with 200 000 random boxes, once inserting them one by one
+ * and once with Sort-Tile-Recursive bulk loading, in memory and on file.<br/>
+ * Each filled tree is then queried with the same 1 000 search windows covering 1% of data extent,
+ * to compare search time on inserted and packed trees.
+ *
+ * @author Remi Marechal (Geomatys).
+ */
+public class BenchMarkTreeBulkLoad {
+
+    private static final CoordinateReferenceSystem CRS = PredefinedCRS.CARTESIAN_2D;
+
+    private static final int NB_ELEMENTS = 200000;
+    private static final int NB_SEARCHES = 1000;
+    private static final int NB_ITERATIONS = 3;
+
+    /**
+     * Maximum element number in each tree node.
+     */
+    private static final int MAX_ELEMENTS = 20;
+
+    /**
+     * Data and search windows are in [0 .. EXTENT] on each axis.
+     */
+    private static final double EXTENT = 100000;
+
+    private final int[] identifiers    = new int[NB_ELEMENTS];
+    private final double[][] entries   = new double[NB_ELEMENTS][];
+    private final GeneralEnvelope[] searches = new GeneralEnvelope[NB_SEARCHES];
+
+    public BenchMarkTreeBulkLoad() {
+        final Random random = new Random(42);
+        for (int i = 0; i < NB_ELEMENTS; i++) {
+            final double x = random.nextDouble() * EXTENT, y = random.nextDouble() * EXTENT;
+            identifiers[i] = i + 1;
+            entries[i] = new double[]{x, y, x + random.nextDouble() * 10, y + random.nextDouble() * 10};
+        }
+        final double size = EXTENT / 10;
+        for (int i = 0; i < NB_SEARCHES; i++) {
+            final double x = random.nextDouble() * (EXTENT - size), y = random.nextDouble() * (EXTENT - size);
+            searches[i] = new GeneralEnvelope(CRS);
+            searches[i].setEnvelope(x, y, x + size, y + size);
+        }
+    }
+
+    @Test
+    @Ignore
+    public void benchMemoryStarTest() throws Exception {
+        bench("memory star", new TreeFactory() {
+            @Override
+            AbstractTree<double[]> create() throws Exception {
+                return new MemoryStarRTree<>(MAX_ELEMENTS, CRS, new TreeElementMapperTest(CRS));
+            }
+        });
+    }
+
+    @Test
+    @Ignore
+    public void benchMemoryHilbertTest() throws Exception {
+        bench("memory hilbert", new TreeFactory() {
+            @Override
+            AbstractTree<double[]> create() throws Exception {
+                return new MemoryHilbertRTree<>(MAX_ELEMENTS, 2, CRS, new TreeElementMapperTest(CRS));
+            }
+        });
+    }
+
+    @Test
+    @Ignore
+    public void benchFileStarTest() throws Exception {
+        bench("file star", new TreeFactory() {
+            @Override
+            AbstractTree<double[]> create() throws Exception {
+                final Path file = Files.createTempFile("bench", "tree");
+                file.toFile().deleteOnExit();
+                return new FileStarRTree<>(file, MAX_ELEMENTS, CRS, new TreeElementMapperTest(CRS));
+            }
+        });
+    }
+
+    @Test
+    @Ignore
+    public void benchFileHilbertTest() throws Exception {
+        bench("file hilbert", new TreeFactory() {
+            @Override
+            AbstractTree<double[]> create() throws Exception {
+                final Path file = Files.createTempFile("bench", "tree");
+                file.toFile().deleteOnExit();
+                return new FileHilbertRTree<>(file, MAX_ELEMENTS, 2, CRS, new TreeElementMapperTest(CRS));
+            }
+        });
+    }
+
+    private void bench(final String name, final TreeFactory factory) throws Exception {
+        for (int i = 0; i < NB_ITERATIONS; i++) {
+            AbstractTree<double[]> tree = factory.create();
+            long start = System.nanoTime();
+            for (int k = 0; k < NB_ELEMENTS; k++) {
+                tree.insert(identifiers[k], entries[k]);
+            }
+            tree.flush();
+            System.out.println("stats " + name + " insert : " + NB_ELEMENTS + " elements in " + ((System.nanoTime() - start) / 1000000) + " ms");
+            search(name + " insert", tree);
+            tree.close();
+
+            tree = factory.create();
+            start = System.nanoTime();
+            tree.bulkLoad(identifiers, entries);
+            tree.flush();
+            System.out.println("stats " + name + " bulk load : " + NB_ELEMENTS + " elements in " + ((System.nanoTime() - start) / 1000000) + " ms");
+            search(name + " bulk load", tree);
+            tree.close();
+        }
+    }
+
+    private void search(final String name, final Tree<double[]> tree) throws Exception {
+        final long start = System.nanoTime();
+        long nbResults = 0;
+        for (GeneralEnvelope search : searches) {
+            nbResults += tree.searchID(search).length;
+        }
+        System.out.println("stats " + name + " search : " + NB_SEARCHES + " searches, " + nbResults
+                + " results in " + ((System.nanoTime() - start) / 1000000) + " ms");
+    }
+
+    /**
+     * Create a new empty tree for each build.
+     */
+    private static abstract class TreeFactory {
+        abstract AbstractTree<double[]> create() throws Exception;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.index.tree;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.sis.geometry.GeneralEnvelope;
+import org.geotoolkit.index.tree.basic.FileBasicRTree;
+import org.geotoolkit.index.tree.basic.SplitCase;
+import org.geotoolkit.index.tree.hilbert.FileHilbertRTree;
+import org.geotoolkit.index.tree.star.FileStarRTree;
+import org.geotoolkit.referencing.crs.PredefinedCRS;
+import org.junit.Test;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import static org.junit.Assert.*;
+
+/**
+ * Test read-only memory mapped opening of file trees, searched by several threads concurrently.
+ *
+ * @author Remi Marechal (Geomatys).
+ */
+public final class MemoryMappedTreeTest extends TreeTest {
+
+    /**
+     * Tree CRS.
+     */
+    private static final CoordinateReferenceSystem CRS = PredefinedCRS.CARTESIAN_2D;
+
+    /**
+     * Data number stored in each tested tree.
+     */
+    private static final int DATA_NUMBER = 2000;
+
+    /**
+     * Thread number which search concurrently within mapped tree.
+     */
+    private static final int THREAD_NUMBER = 8;
+
+    private final int[] identifiers   = new int[DATA_NUMBER];
+    private final double[][] entries  = new double[DATA_NUMBER][];
+    private final double[][] searches = new double[50][];
+
+    public MemoryMappedTreeTest() throws IOException {
+        for (int i = 0; i < DATA_NUMBER; i++) {
+            identifiers[i] = i + 1;
+            entries[i]     = createEntry(new double[]{Math.random() * 1000, Math.random() * 1000});
+        }
+        for (int i = 0; i < searches.length; i++) {
+            final double x = Math.random() * 1000, y = Math.random() * 1000;
+            searches[i] = new double[]{x, y, x + Math.random() * 200, y + Math.random() * 200};
+        }
+    }
+
+    @Test
+    public void basicTest() throws Exception {
+        final File treeFile = File.createTempFile("test", "tree", tempDir);
+        final FileBasicRTree<double[]> tree = new FileBasicRTree<>(treeFile.toPath(), 4, CRS, SplitCase.QUADRATIC, new TreeElementMapperTest(CRS));
+        tree.bulkLoad(identifiers, entries);
+        tree.close();
+        compare(new FileBasicRTree<>(treeFile.toPath(), new TreeElementMapperTest(CRS)),
+                new FileBasicRTree<>(treeFile.toPath(), new TreeElementMapperTest(CRS), true));
+    }
+
+    @Test
+    public void starTest() throws Exception {
+        final File treeFile = File.createTempFile("test", "tree", tempDir);
+        final FileStarRTree<double[]> tree = new FileStarRTree<>(treeFile.toPath(), 4, CRS, new TreeElementMapperTest(CRS));
+        for (int i = 0; i < DATA_NUMBER; i++) {
+            tree.insert(identifiers[i], entries[i]);
+        }
+        tree.close();
+        compare(new FileStarRTree<>(treeFile.toPath(), new TreeElementMapperTest(CRS)),
+                new FileStarRTree<>(treeFile.toPath(), new TreeElementMapperTest(CRS), true));
+    }
+
+    @Test
+    public void hilbertTest() throws Exception {
+        final File treeFile = File.createTempFile("test", "tree", tempDir);
+        final FileHilbertRTree<double[]> tree = new FileHilbertRTree<>(treeFile.toPath(), 4, 2, CRS, new TreeElementMapperTest(CRS));
+        for (int i = 0; i < DATA_NUMBER; i++) {
+            tree.insert(identifiers[i], entries[i]);
+        }
+        tree.close();
+        compare(new FileHilbertRTree<>(treeFile.toPath(), new TreeElementMapperTest(CRS)),
+                new FileHilbertRTree<>(treeFile.toPath(), new TreeElementMapperTest(CRS), true));
+    }
+
+    /**
+     * Compare search results from buffered and memory mapped opening of same tree file.
+     */
+    private void compare(final Tree<double[]> buffered, final Tree<double[]> mapped) throws Exception {
+        final List<int[]> expected = new ArrayList<>();
+        for (double[] search : searches) {
+            final int[] result = buffered.searchID(envelope(search));
+            Arrays.sort(result);
+            expected.add(result);
+        }
+        buffered.close();
+        assertEquals(DATA_NUMBER, mapped.getElementsNumber());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(THREAD_NUMBER);
+        try {
+            final List<Future<Boolean>> futures = new ArrayList<>();
+            for (int t = 0; t < THREAD_NUMBER; t++) {
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        for (int r = 0; r < 20; r++) {
+                            for (int i = 0; i < searches.length; i++) {
+                                final int[] result = mapped.searchID(envelope(searches[i]));
+                                Arrays.sort(result);
+                                if (!Arrays.equals(expected.get(i), result)) return false;
+
+                                final TreeIdentifierIterator iter = mapped.search(envelope(searches[i]));
+                                int count = 0;
+                                while (iter.hasNext()) {
+                                    if (Arrays.binarySearch(result, iter.nextInt()) < 0) return false;
+                                    count++;
+                                }
+                                if (count != result.length) return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue("concurrent search on memory mapped tree should give same results as buffered tree.", future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try {
+            mapped.insert(createEntry(new double[]{10, 10}));
+            fail("memory mapped tree should be read-only.");
+        } catch (UnsupportedOperationException ex) {
+            //ok
+        }
+        mapped.close();
+    }
+
+    private static GeneralEnvelope envelope(final double[] coordinates) {
+        final GeneralEnvelope env = new GeneralEnvelope(CRS);
+        env.setEnvelope(coordinates);
+        return env;
+    }
+}
@@ -16,10 +16,21 @@
  */
 package org.geotoolkit.processing.chain;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotoolkit.cql.CQL;
@@ -38,6 +49,8 @@ import org.geotoolkit.processing.chain.model.Constant;
 import org.geotoolkit.processing.chain.model.DataLink;
 import org.geotoolkit.processing.chain.model.Element;
 import org.geotoolkit.processing.chain.model.ElementCondition;
+import org.geotoolkit.processing.chain.model.FlowLink;
+import org.apache.sis.util.ArgumentChecks;
 import org.apache.sis.util.ObjectConverters;
 import org.apache.sis.util.UnconvertibleObjectException;
 import org.apache.sis.util.ObjectConverter;
@@ -58,8 +71,22 @@ public class ChainProcess extends AbstractProcess {
 
     protected static final Logger LOGGER = Logging.getLogger("org.geotoolkit.processing.chain");
 
-    private Process currentProcess;
+    /**
+     * Sub processes currently running.
+     */
+    private final Set<Process> runningProcesses = Collections.newSetFromMap(new ConcurrentHashMap<Process, Boolean>());
 
+    /**
+     * Sub processes completion queue of current execution, null when not running.
+     */
+    private volatile BlockingQueue<Completion> completions;
+
+    /**
+     * Lock used to wait while the process is paused.
+     */
+    private final Object pauseLock = new Object();
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
 
     public ChainProcess(final ChainProcessDescriptor desc, final ParameterValueGroup input) {
         super(desc, input);
@@ -73,23 +100,42 @@ public class ChainProcess extends AbstractProcess {
         return (ChainProcessDescriptor)super.getDescriptor();
     }
 
+    /**
+     * @return maximum number of sub processes executed at the same time.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the maximum number of sub processes executed at the same time.
+     * Default value is the number of available processors, 1 executes sub processes one after the other.
+     *
+     * @param parallelism strictly positive number of sub processes.
+     */
+    public void setParallelism(final int parallelism) {
+        ArgumentChecks.ensureStrictlyPositive("parallelism", parallelism);
+        this.parallelism = parallelism;
+    }
+
     /**
      * {@inheritDoc}
+     * <br/>
+     * Sub processes are executed as soon as all the elements they depend on, by execution
+     * or data links, are completed. Independent sub processes run concurrently in a pool
+     * of {@link #getParallelism() } threads. Branches of a conditional element which are not
+     * taken are skipped, with the elements only reachable through them.
      */
     @Override
     protected void execute() throws ProcessException {
 
         final Chain model = getDescriptor().getModel();
 
-        // processing progress
-        final float part = 100 / model.getElements().size();
-        int i = 1;
-
         final Collection<FlowNode> nodes = Flow.createFlow(model);
-        List<List<FlowNode>> ranked = Flow.sortByRank(nodes);
 
         //prepare all parameters for each process step
         final Map<Integer, ParameterValueGroup> configs = new HashMap<Integer, ParameterValueGroup>();
+        int nbProcess = 0;
 
         for (FlowNode node : nodes) {
             final Object obj = node.getObject();
@@ -108,6 +154,7 @@ public class ChainProcess extends AbstractProcess {
                     throw new ProcessException("Sub process "+element.getAuthority()+"."+element.getCode()+" not found.", this, ex);
                 }
                 configs.put(element.getId(), desc.getInputDescriptor().createValue());
+                nbProcess++;
             }  else if (obj instanceof ElementCondition) {
                 final ElementCondition element = (ElementCondition) obj;
                 if (element.getFailed().isEmpty() || element.getSuccess().isEmpty()) {
@@ -127,85 +174,212 @@ public class ChainProcess extends AbstractProcess {
             }
         }
 
+        //copy input params in children nodes
+        for(DataLink link : model.getInputLinks(Integer.MIN_VALUE)){
+            final Object value = inputParameters.parameter(link.getSourceCode()).getValue();
+            setValue(value, configs.get(link.getTargetId()).parameter(link.getTargetCode()));
+        }
+
+        //build dependency graph
+        final Map<FlowNode,NodeState> states = new HashMap<FlowNode,NodeState>();
+        final Map<Integer,NodeState> statesById = new HashMap<Integer,NodeState>();
+        for (FlowNode node : nodes) {
+            if (node.getObject() instanceof Element) {
+                final NodeState state = new NodeState(node);
+                states.put(node, state);
+                statesById.put(((Element) node.getObject()).getId(), state);
+            }
+        }
+        for (NodeState state : states.values()) {
+            for (FlowNode child : state.node.getChildren()) {
+                final NodeState childState = states.get(child);
+                childState.hasFlowParent = true;
+                childState.parents.add(state);
+                state.children.add(childState);
+            }
+        }
+        for (DataLink link : model.getDataLinks()) {
+            final NodeState source = statesById.get(link.getSourceId());
+            final NodeState target = statesById.get(link.getTargetId());
+            if (source != null && target != null && source != target) {
+                target.parents.add(source);
+                source.children.add(target);
+            }
+        }
+
+        final Deque<NodeState> ready = new ArrayDeque<NodeState>();
+        final NodeState begin = statesById.get(ElementProcess.BEGIN.getId());
+        for (NodeState state : states.values()) {
+            if (state.parents.isEmpty() && state != begin) {
+                ready.add(state);
+            }
+        }
+        int nbResolved = resolve(begin, true, Collections.<FlowLink>emptySet(), ready);
+
+        // processing progress
+        final float part = 100f / Math.max(1, nbProcess);
+        int nbCompleted = 0;
+
         // Will contain all the versions of processes used
         final StringBuilder processVersion = new StringBuilder();
 
-        //run processes in order
-        for (int j = 0; j < ranked.size(); j++) {
-            final List<FlowNode> rank = ranked.get(j);
-
-            for(FlowNode node : rank){
-                final Object obj = node.getObject();
-                if (obj == ElementProcess.BEGIN) {
-                    //copy input params in children nodes
-                    for(DataLink link : model.getInputLinks(Integer.MIN_VALUE)){
-                        final Object value = inputParameters.parameter(link.getSourceCode()).getValue();
-                        setValue(value, configs.get(link.getTargetId()).parameter(link.getTargetCode()));
-                    }
-                } else if (obj == ElementProcess.END) {
-                    // do nothing
+        //run processes as soon as they are ready
+        final BlockingQueue<Completion> queue = new LinkedBlockingQueue<Completion>();
+        completions = queue;
+        final ExecutorService executor = new ForkJoinPool(parallelism);
+        int running = 0;
+        try {
+            while (true) {
+                while (!ready.isEmpty()) {
+                    final NodeState state = ready.poll();
+                    final Object obj = state.node.getObject();
+
+                    if (obj instanceof ElementProcess) {
+                        // handle process cancel
+                        checkCanceled();
+                        // handle process pause
+                        waitWhilePaused(nbCompleted * part);
+                        checkCanceled();
+
+                        //execute process
+                        final ElementProcess element = (ElementProcess) obj;
+                        final ProcessDescriptor pdesc;
+                        try {
+                            pdesc = getProcessDescriptor(element);
+                        } catch (NoSuchIdentifierException ex) {
+                            throw new ProcessException("Sub process not found", this, ex);
+                        }
+                        final Process process = pdesc.createProcess(configs.get(element.getId()));
 
-                } else if(obj instanceof ElementProcess) {
-                    // handle process cancel
-                    if (isCanceled()) {
-                       throw new ProcessException("Process Canceled by user", this, null);
-                    }
-                    // handle process pause
-                    if (isPaused()) {
-                        fireProcessPaused(descriptor.getIdentifier().getCode() + " paused", i * part);
-                        while (isPaused()) {
-                            try {
-                                Thread.sleep(1000);
-                            } catch (InterruptedException ex) {
-                                LOGGER.log(Level.WARNING, "Interruption while process is in pause", ex);
-                            }
+                        // Fill process version with values coming from the current process.
+                        if (processVersion.length() > 0) {
+                            processVersion.append(", ");
                         }
-                        fireProcessResumed(descriptor.getIdentifier().getCode() + " resumed", i * part);
-                    }
+                        processVersion.append(pdesc.getIdentifier().getCode()).append(" ")
+                                .append(((AbstractProcessDescriptor)process.getDescriptor()).getVersion());
 
-                    //execute process
-                    final ElementProcess element = (ElementProcess) obj;
-                    final ParameterValueGroup config = configs.get(element.getId());
-                    final ProcessDescriptor pdesc;
-                    try {
-                        pdesc = getProcessDescriptor(element);
-                    } catch (NoSuchIdentifierException ex) {
-                        throw new ProcessException("Sub process not found", this, ex);
-                    }
-                    currentProcess = pdesc.createProcess(config);
+                        runningProcesses.add(process);
+                        executor.execute(new SubProcessTask(state, process, queue));
+                        running++;
+
+                    } else if (obj instanceof ElementCondition) {
+                        final ElementCondition condition = (ElementCondition) obj;
+                        final Boolean result = executeConditionalElement(condition, configs.get(condition.getId()));
+                        final Set<FlowLink> dropped = new HashSet<FlowLink>(result ? condition.getFailed() : condition.getSuccess());
+                        nbResolved += resolve(state, true, dropped, ready);
 
-                    final String processId = pdesc.getIdentifier().getCode();
-                    // Fill process version with values coming from the current process.
-                    if (processVersion.length() > 0) {
-                        processVersion.append(", ");
+                    } else {
+                        //end or manual element, nothing to execute
+                        nbResolved += resolve(state, true, Collections.<FlowLink>emptySet(), ready);
                     }
-                    processVersion.append(processId).append(" ")
-                            .append(((AbstractProcessDescriptor)currentProcess.getDescriptor()).getVersion());
+                }
 
-                    final ParameterValueGroup result = currentProcess.call();
-                    fireProgressing(pdesc.getIdentifier().getCode() + " completed", i * part, false);
-                    i++;
+                if (running == 0) break;
 
-                    //set result in children
-                    for(DataLink link : model.getInputLinks(element.getId())){
-                        final Object value = result.parameter(link.getSourceCode()).getValue();
-                        setValue(value, configs.get(link.getTargetId()).parameter(link.getTargetCode()));
-                    }
-                } else if (obj instanceof ElementCondition) {
-                    final ElementCondition condition = (ElementCondition) obj;
-                    final Boolean result = executeConditionalElement(condition, configs.get(condition.getId()));
+                final Completion completion;
+                try {
+                    completion = queue.take();
+                } catch (InterruptedException ex) {
+                    throw new ProcessException("Process interrupted", this, ex);
+                }
+                checkCanceled();
+                running--;
+                runningProcesses.remove(completion.process);
+                if (completion.error != null) {
+                    final Throwable error = completion.error;
+                    if (error instanceof ProcessException) throw (ProcessException) error;
+                    if (error instanceof RuntimeException) throw (RuntimeException) error;
+                    if (error instanceof Error) throw (Error) error;
+                    throw new ProcessException(error.getMessage(), this, error);
+                }
 
-                    final Chain updateModel = new Chain(model);
-                    if (result) {
-                        updateModel.getFlowLinks().removeAll(condition.getFailed());
-                    } else {
-                        updateModel.getFlowLinks().removeAll(condition.getSuccess());
+                nbCompleted++;
+                final ElementProcess element = (ElementProcess) completion.state.node.getObject();
+                fireProgressing(completion.process.getDescriptor().getIdentifier().getCode() + " completed in "
+                        + completion.duration + " ms", nbCompleted * part, false);
+
+                //set result in children
+                for(DataLink link : model.getInputLinks(element.getId())){
+                    final Object value = completion.result.parameter(link.getSourceCode()).getValue();
+                    setValue(value, configs.get(link.getTargetId()).parameter(link.getTargetCode()));
+                }
+                nbResolved += resolve(completion.state, true, Collections.<FlowLink>emptySet(), ready);
+            }
+        } finally {
+            completions = null;
+            //stop sub processes still running after a failure or a cancel
+            for (Process process : runningProcesses) {
+                if (process instanceof AbstractProcess) {
+                    ((AbstractProcess) process).cancelProcess();
+                }
+            }
+            runningProcesses.clear();
+            executor.shutdownNow();
+        }
+
+        if (nbResolved < states.size()) {
+            throw new ProcessException("Chain execution links contain a cycle.", this, null);
+        }
+    }
+
+    /**
+     * Mark a node as completed or skipped, update its children and collect the ones ready to run.
+     * Children whose execution links are all skipped or dropped are skipped too.
+     *
+     * @param state completed or skipped node
+     * @param completed true if node has been executed
+     * @param dropped execution links of this node which are not followed
+     * @param ready queue where to add nodes ready to run
+     * @return number of resolved nodes, including given one
+     */
+    private static int resolve(final NodeState state, final boolean completed, final Set<FlowLink> dropped,
+            final Deque<NodeState> ready) {
+        int nb = 1;
+        final List<FlowLink> links = state.node.getLinks();
+        final List<FlowNode> flowChildren = state.node.getChildren();
+        if (completed) {
+            for (int i = 0, n = flowChildren.size(); i < n; i++) {
+                if (!dropped.contains(links.get(i))) {
+                    for (NodeState child : state.children) {
+                        if (child.node == flowChildren.get(i)) child.activated = true;
                     }
-                    ranked = Flow.sortByRank(Flow.createFlow(updateModel));
                 }
             }
         }
+        for (NodeState child : state.children) {
+            if (++child.nbResolvedParents == child.parents.size()) {
+                if (!child.hasFlowParent || child.activated) {
+                    ready.add(child);
+                } else {
+                    nb += resolve(child, false, dropped, ready);
+                }
+            }
+        }
+        return nb;
+    }
 
+    private void checkCanceled() throws ProcessException {
+        if (isCanceled()) {
+            throw new ProcessException("Process Canceled by user", this, null);
+        }
+    }
+
+    /**
+     * Block until the process is resumed or canceled.
+     */
+    private void waitWhilePaused(final float progress) throws ProcessException {
+        if (!isPaused()) return;
+        fireProcessPaused(descriptor.getIdentifier().getCode() + " paused", progress);
+        synchronized (pauseLock) {
+            while (isPaused() && !isCanceled()) {
+                try {
+                    pauseLock.wait();
+                } catch (InterruptedException ex) {
+                    throw new ProcessException("Process interrupted while paused", this, ex);
+                }
+            }
+        }
+        fireProcessResumed(descriptor.getIdentifier().getCode() + " resumed", progress);
     }
 
     private boolean executeConditionalElement(final ElementCondition condition, final ParameterValueGroup inputs) throws ProcessException {
@@ -280,11 +454,32 @@ public class ChainProcess extends AbstractProcess {
         }
     }
 
+    /**
+     * Cancel this chain and all running sub processes.
+     */
     @Override
     public void cancelProcess() {
         super.cancelProcess();
-        if (currentProcess instanceof AbstractProcess) {
-            ((AbstractProcess)currentProcess).cancelProcess();
+        for (Process process : runningProcesses) {
+            if (process instanceof AbstractProcess) {
+                ((AbstractProcess)process).cancelProcess();
+            }
+        }
+        synchronized (pauseLock) {
+            pauseLock.notifyAll();
+        }
+        //wake up execution thread
+        final BlockingQueue<Completion> queue = completions;
+        if (queue != null) {
+            queue.offer(new Completion(null, null, null, null, 0));
+        }
+    }
+
+    @Override
+    public void resumeProcess() {
+        synchronized (pauseLock) {
+            super.resumeProcess();
+            pauseLock.notifyAll();
         }
     }
 
@@ -301,4 +496,70 @@ public class ChainProcess extends AbstractProcess {
         }
         return sb.toString();
     }
+
+    /**
+     * Scheduling state of a flow node.
+     */
+    private static final class NodeState {
+        private final FlowNode node;
+        /** Nodes which must be resolved before this one, by execution or data links. */
+        private final Set<NodeState> parents = new HashSet<NodeState>();
+        private final Set<NodeState> children = new LinkedHashSet<NodeState>();
+        private boolean hasFlowParent;
+        /** True if an execution link from a completed parent leads to this node. */
+        private boolean activated;
+        private int nbResolvedParents;
+
+        private NodeState(final FlowNode node) {
+            this.node = node;
+        }
+    }
+
+    /**
+     * Result of a sub process execution.
+     */
+    private static final class Completion {
+        private final NodeState state;
+        private final Process process;
+        private final ParameterValueGroup result;
+        private final Throwable error;
+        /** Execution time in milliseconds. */
+        private final long duration;
+
+        private Completion(NodeState state, Process process, ParameterValueGroup result, Throwable error, long duration) {
+            this.state = state;
+            this.process = process;
+            this.result = result;
+            this.error = error;
+            this.duration = duration;
+        }
+    }
+
+    /**
+     * Execute a sub process and post its result in the completion queue.
+     */
+    private static final class SubProcessTask implements Runnable {
+        private final NodeState state;
+        private final Process process;
+        private final BlockingQueue<Completion> queue;
+
+        private SubProcessTask(NodeState state, Process process, BlockingQueue<Completion> queue) {
+            this.state = state;
+            this.process = process;
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            final long start = System.nanoTime();
+            ParameterValueGroup result = null;
+            Throwable error = null;
+            try {
+                result = process.call();
+            } catch (Throwable ex) {
+                error = ex;
+            }
+            queue.add(new Completion(state, process, result, error, (System.nanoTime() - start) / 1000000));
+        }
+    }
 }
@@ -0,0 +1,239 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.processing.coverage.mathcalc;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.opengis.filter.expression.Add;
+import org.opengis.filter.expression.BinaryExpression;
+import org.opengis.filter.expression.Divide;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.Multiply;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.expression.Subtract;
+
+/**
+ * Math calc expression compiled in a tree of operations on rows of samples.<br/>
+ * Arithmetic operators, literals and coverage names are evaluated on whole {@code double[]} buffers,
+ * constant sub-expressions are computed once. Other expressions (functions) are evaluated sample by
+ * sample on a map view of the current samples.<br/>
+ * A compiled expression holds work buffers, it must not be used by several threads at the same time.
+ *
+ * @author Johann Sorel (Geomatys)
+ */
+final class CompiledExpression {
+
+    private final Node root;
+
+    private CompiledExpression(final Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Compile given expression.
+     *
+     * @param exp expression to compile.
+     * @param mapping coverage name for each source buffer.
+     * @return compiled expression.
+     */
+    static CompiledExpression compile(final Expression exp, final String[] mapping) {
+        final Map<String,Integer> indexes = new HashMap<>();
+        for (int i = mapping.length - 1; i >= 0; i--) {
+            //-- first coverage wins if a name is used twice, as in per sample evaluation --//
+            indexes.put(mapping[i], i);
+        }
+        return new CompiledExpression(compile(exp, indexes));
+    }
+
+    private static Node compile(final Expression exp, final Map<String,Integer> indexes) {
+        if (exp instanceof Literal) {
+            final Object value = ((Literal) exp).getValue();
+            if (value instanceof Number) {
+                return new Constant(((Number) value).doubleValue());
+            }
+            if (value != null) {
+                try {
+                    return new Constant(Double.parseDouble(value.toString()));
+                } catch (NumberFormatException ex) {
+                    //-- not a number, evaluated by the expression itself --//
+                }
+            }
+        } else if (exp instanceof PropertyName) {
+            final Integer index = indexes.get(((PropertyName) exp).getPropertyName());
+            //-- no coverage for this name --//
+            return (index == null) ? new Constant(Double.NaN) : new Source(index);
+        } else if (exp instanceof Add || exp instanceof Subtract || exp instanceof Multiply || exp instanceof Divide) {
+            final BinaryExpression binary = (BinaryExpression) exp;
+            final char operator = (exp instanceof Add) ? '+' : (exp instanceof Subtract) ? '-' : (exp instanceof Multiply) ? '*' : '/';
+            final Node left  = compile(binary.getExpression1(), indexes);
+            final Node right = compile(binary.getExpression2(), indexes);
+            if (left instanceof Constant && right instanceof Constant) {
+                return new Constant(Operation.apply(operator, ((Constant) left).value, ((Constant) right).value));
+            }
+            return new Operation(operator, left, right);
+        }
+        return new Fallback(exp, indexes);
+    }
+
+    /**
+     * Evaluate expression on {@code length} samples.
+     *
+     * @param sources samples of each coverage, in mapping order.
+     * @param length number of samples to evaluate.
+     * @param result destination of expression results.
+     */
+    void evaluate(final double[][] sources, final int length, final double[] result) {
+        root.evaluate(sources, length, result);
+    }
+
+    /**
+     * A node of compiled expression tree.
+     */
+    private static abstract class Node {
+        abstract void evaluate(double[][] sources, int length, double[] result);
+    }
+
+    private static final class Constant extends Node {
+        final double value;
+
+        Constant(final double value) {
+            this.value = value;
+        }
+
+        @Override
+        void evaluate(final double[][] sources, final int length, final double[] result) {
+            Arrays.fill(result, 0, length, value);
+        }
+    }
+
+    private static final class Source extends Node {
+        private final int index;
+
+        Source(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        void evaluate(final double[][] sources, final int length, final double[] result) {
+            System.arraycopy(sources[index], 0, result, 0, length);
+        }
+    }
+
+    /**
+     * Arithmetic operation, right operand is evaluated in a work buffer.
+     */
+    private static final class Operation extends Node {
+        private final char operator;
+        private final Node left, right;
+        private double[] buffer = new double[0];
+
+        Operation(final char operator, final Node left, final Node right) {
+            this.operator = operator;
+            this.left     = left;
+            this.right    = right;
+        }
+
+        static double apply(final char operator, final double a, final double b) {
+            switch (operator) {
+                case '+' : return a + b;
+                case '-' : return a - b;
+                case '*' : return a * b;
+                default  : return a / b;
+            }
+        }
+
+        @Override
+        void evaluate(final double[][] sources, final int length, final double[] result) {
+            left.evaluate(sources, length, result);
+            if (right instanceof Constant) {
+                final double b = ((Constant) right).value;
+                switch (operator) {
+                    case '+' : for (int i = 0; i < length; i++) result[i] += b; break;
+                    case '-' : for (int i = 0; i < length; i++) result[i] -= b; break;
+                    case '*' : for (int i = 0; i < length; i++) result[i] *= b; break;
+                    default  : for (int i = 0; i < length; i++) result[i] /= b; break;
+                }
+                return;
+            }
+            final double[] b;
+            if (right instanceof Source) {
+                b = sources[((Source) right).index];
+            } else {
+                if (buffer.length < length) buffer = new double[length];
+                right.evaluate(sources, length, buffer);
+                b = buffer;
+            }
+            switch (operator) {
+                case '+' : for (int i = 0; i < length; i++) result[i] += b[i]; break;
+                case '-' : for (int i = 0; i < length; i++) result[i] -= b[i]; break;
+                case '*' : for (int i = 0; i < length; i++) result[i] *= b[i]; break;
+                default  : for (int i = 0; i < length; i++) result[i] /= b[i]; break;
+            }
+        }
+    }
+
+    /**
+     * Expression evaluated sample by sample, coverage names are resolved on current samples.
+     */
+    private static final class Fallback extends Node {
+        private final Expression exp;
+        private final SamplePick pick;
+
+        Fallback(final Expression exp, final Map<String,Integer> indexes) {
+            this.exp  = exp;
+            this.pick = new SamplePick(indexes);
+        }
+
+        @Override
+        void evaluate(final double[][] sources, final int length, final double[] result) {
+            pick.sources = sources;
+            for (int i = 0; i < length; i++) {
+                pick.position = i;
+                final Double value = exp.evaluate(pick, Double.class);
+                result[i] = (value == null) ? Double.NaN : value;
+            }
+        }
+    }
+
+    /**
+     * Map view of the samples at current position.
+     */
+    private static final class SamplePick extends AbstractMap {
+        private final Map<String,Integer> indexes;
+        double[][] sources;
+        int position;
+
+        SamplePick(final Map<String,Integer> indexes) {
+            this.indexes = indexes;
+        }
+
+        @Override
+        public Object get(final Object key) {
+            final Integer index = indexes.get(String.valueOf(key));
+            return (index == null) ? Double.NaN : sources[index][position];
+        }
+
+        @Override
+        public Set entrySet() {
+            throw new UnsupportedOperationException("Not supported.");
+        }
+    }
+}
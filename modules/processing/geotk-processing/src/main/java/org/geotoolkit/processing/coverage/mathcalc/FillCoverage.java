@@ -22,9 +22,19 @@ import java.awt.Point;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
 import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
 import java.awt.image.SampleModel;
 import java.awt.image.WritableRaster;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.sis.geometry.GeneralDirectPosition;
 import org.apache.sis.geometry.GeneralEnvelope;
@@ -127,6 +137,10 @@ public class FillCoverage {
 
         //loop on all slices pieces
         final MathTransformFactory mathFactory = FactoryFinder.getMathTransformFactory(null);
+        if(evaluator instanceof BlockEvaluator){
+            fillBlocks(ite, outWriter, gg, mathFactory, gridToCrs, nbDim, (BlockEvaluator) evaluator);
+            return;
+        }
         while(ite.hasNext()){
             final HyperCubeIterator.HyperCube cube = ite.next();
             final int[] hcubeLower = cube.getLower();
@@ -158,6 +172,62 @@ public class FillCoverage {
             }catch(TransformException ex){
                 throw new CoverageStoreException(ex.getMessage(), ex);
             }
+            write(outWriter, gg, mathFactory, gridToCrs, nbDim, hcubeLower, zoneImage);
+        }
+
+    }
+
+    /**
+     * Fill slices pieces with a block evaluator.<br/>
+     * Pieces are evaluated in parallel by batches, then written in iteration order
+     * since coverage writers are not thread safe.
+     */
+    private static void fillBlocks(HyperCubeIterator ite, GridCoverageWriter outWriter, GeneralGridGeometry gg,
+            MathTransformFactory mathFactory, MathTransform gridToCrs, int nbDim, BlockEvaluator evaluator)
+            throws DataStoreException {
+        BlockWorkers workers = null;
+        try{
+            workers = new BlockWorkers(evaluator);
+            final List<int[]> lowers = new ArrayList<>();
+            final List<BufferedImage> images = new ArrayList<>();
+            final List<Block> blocks = new ArrayList<>();
+            while(ite.hasNext()){
+                while(ite.hasNext() && blocks.size()<workers.batchSize){
+                    final HyperCubeIterator.HyperCube cube = ite.next();
+                    final int[] hcubeLower = cube.getLower();
+                    final int[] hcubeUpper = cube.getUpper();
+                    final double[] gridCoord = new double[nbDim];
+                    for(int i=0;i<nbDim;i++){
+                        gridCoord[i] = hcubeLower[i];
+                    }
+                    final BufferedImage zoneImage = BufferedImages.createImage(
+                            hcubeUpper[0]-hcubeLower[0],
+                            hcubeUpper[1]-hcubeLower[1],
+                            1, DataBuffer.TYPE_DOUBLE);
+                    lowers.add(hcubeLower);
+                    images.add(zoneImage);
+                    blocks.add(new Block(gridToCrs, gridCoord, zoneImage.getRaster()));
+                }
+                workers.evaluate(blocks);
+                for(int i=0,n=images.size();i<n;i++){
+                    write(outWriter, gg, mathFactory, gridToCrs, nbDim, lowers.get(i), images.get(i));
+                }
+                lowers.clear();
+                images.clear();
+                blocks.clear();
+            }
+        }catch(TransformException | FactoryException ex){
+            throw new CoverageStoreException(ex.getMessage(), ex);
+        }finally{
+            if(workers != null) workers.dispose();
+        }
+    }
+
+    /**
+     * Write a slice piece.
+     */
+    private static void write(GridCoverageWriter outWriter, GeneralGridGeometry gg, MathTransformFactory mathFactory,
+            MathTransform gridToCrs, int nbDim, int[] hcubeLower, BufferedImage zoneImage) throws DataStoreException {
 
             //Calculate grid to crs of this zone
             final GeneralMatrix matrix = new GeneralMatrix(nbDim+1);
@@ -180,8 +250,6 @@ public class FillCoverage {
             final GridCoverage2D zoneCoverage = gcb.getGridCoverage2D();
             final GridCoverageWriteParam param = new GridCoverageWriteParam();
             outWriter.write(zoneCoverage, param);
-        }
-
     }
     
     /**
@@ -195,6 +263,11 @@ public class FillCoverage {
         
         final ColorModel cm = outRef.getColorModel();
         final SampleModel sm = outRef.getSampleModel();
+
+        if(evaluator instanceof BlockEvaluator && cm != null){
+            fillBlocks(outRef, (BlockEvaluator) evaluator, sm, cm);
+            return;
+        }
         
         for(Pyramid pyramid : outRef.getPyramidSet().getPyramids()){
             for(GridMosaic mosaic : pyramid.getMosaics()){
@@ -216,7 +289,144 @@ public class FillCoverage {
             }
         }
     }
-    
+
+    /**
+     * Fill pyramid tiles with a block evaluator.<br/>
+     * Tiles are evaluated in parallel by batches, then written in mosaic order.
+     */
+    private static void fillBlocks(PyramidalCoverageReference outRef, BlockEvaluator evaluator, SampleModel sm, ColorModel cm)
+            throws DataStoreException, TransformException, FactoryException {
+        BlockWorkers workers = null;
+        try{
+            workers = new BlockWorkers(evaluator);
+            final List<Point> indices = new ArrayList<>();
+            final List<BufferedImage> images = new ArrayList<>();
+            final List<Block> blocks = new ArrayList<>();
+            for(Pyramid pyramid : outRef.getPyramidSet().getPyramids()){
+                for(GridMosaic mosaic : pyramid.getMosaics()){
+                    final Dimension tileSize = mosaic.getTileSize();
+                    final SampleModel tileModel = sm.createCompatibleSampleModel(tileSize.width, tileSize.height);
+                    final double[] upperLeftGeo = mosaic.getUpperLeftCorner().getCoordinate();
+
+                    final Dimension gridSize = mosaic.getGridSize();
+                    for(int y=0;y<gridSize.height;y++){
+                        for(int x=0;x<gridSize.width;x++){
+                            final Point tile = new Point(x, y);
+                            final MathTransform gridToCRS = AbstractGridMosaic.getTileGridToCRS(mosaic, tile, PixelInCell.CELL_CENTER);
+                            final double[] gridCoord = new double[upperLeftGeo.length];
+                            gridToCRS.inverse().transform(upperLeftGeo, 0, gridCoord, 0, 1);
+                            gridCoord[0] = 0;
+                            gridCoord[1] = 0;
+                            final WritableRaster raster = Raster.createWritableRaster(tileModel, null);
+                            indices.add(tile);
+                            images.add(new BufferedImage(cm, raster, cm.isAlphaPremultiplied(), null));
+                            blocks.add(new Block(gridToCRS, gridCoord, raster));
+
+                            if(blocks.size() >= workers.batchSize || (y == gridSize.height-1 && x == gridSize.width-1)){
+                                workers.evaluate(blocks);
+                                for(int i=0,n=images.size();i<n;i++){
+                                    final Point idx = indices.get(i);
+                                    outRef.writeTile(pyramid.getId(), mosaic.getId(), idx.x, idx.y, images.get(i));
+                                }
+                                indices.clear();
+                                images.clear();
+                                blocks.clear();
+                            }
+                        }
+                    }
+                }
+            }
+        }finally{
+            if(workers != null) workers.dispose();
+        }
+    }
+
+    /**
+     * A raster to fill and its location in the grid.
+     */
+    private static final class Block {
+        private final MathTransform gridToCrs;
+        private final double[] gridCoord;
+        private final WritableRaster raster;
+
+        private Block(MathTransform gridToCrs, double[] gridCoord, WritableRaster raster) {
+            this.gridToCrs = gridToCrs;
+            this.gridCoord = gridCoord;
+            this.raster = raster;
+        }
+    }
+
+    /**
+     * Evaluate blocks in a pool of threads, each thread working with its own evaluator copy.
+     */
+    private static final class BlockWorkers {
+
+        /**
+         * Number of blocks to give to workers at once.
+         */
+        private final int batchSize;
+        private final ExecutorService executor;
+        private final BlockingQueue<BlockEvaluator> evaluators;
+
+        private BlockWorkers(BlockEvaluator evaluator) throws FactoryException {
+            final int nbThread = Runtime.getRuntime().availableProcessors();
+            evaluators = new ArrayBlockingQueue<>(nbThread);
+            evaluators.add(evaluator);
+            for(int i=1;i<nbThread;i++){
+                evaluators.add(evaluator.copy());
+            }
+            executor = (nbThread > 1) ? Executors.newFixedThreadPool(nbThread) : null;
+            batchSize = nbThread * 4;
+        }
+
+        private void evaluate(List<Block> blocks) throws DataStoreException, TransformException {
+            if(executor == null){
+                final BlockEvaluator evaluator = evaluators.peek();
+                for(Block block : blocks){
+                    evaluator.evaluate(block.gridToCrs, block.gridCoord, block.raster);
+                }
+                return;
+            }
+
+            final List<Future<Object>> futures = new ArrayList<>(blocks.size());
+            for(final Block block : blocks){
+                futures.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        final BlockEvaluator evaluator = evaluators.take();
+                        try{
+                            evaluator.evaluate(block.gridToCrs, block.gridCoord, block.raster);
+                        }finally{
+                            evaluators.add(evaluator);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            try{
+                for(Future<Object> future : futures){
+                    future.get();
+                }
+            }catch(InterruptedException ex){
+                Thread.currentThread().interrupt();
+                throw new CoverageStoreException(ex.getMessage(), ex);
+            }catch(ExecutionException ex){
+                final Throwable cause = ex.getCause();
+                if(cause instanceof TransformException) throw (TransformException) cause;
+                if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if(cause instanceof Error) throw (Error) cause;
+                throw new CoverageStoreException(cause.getMessage(), cause);
+            }finally{
+                for(Future<Object> future : futures){
+                    future.cancel(true);
+                }
+            }
+        }
+
+        private void dispose() {
+            if(executor != null) executor.shutdownNow();
+        }
+    }
 
     /**
      *
@@ -235,4 +445,27 @@ public class FillCoverage {
 
     }
 
+    /**
+     * Sample evaluator able to fill a whole raster at once.<br/>
+     * When given evaluator implements this interface, blocks are filled in parallel,
+     * each thread using its own {@link #copy() } of the evaluator.
+     */
+    public static interface BlockEvaluator extends SampleEvaluator {
+
+        /**
+         * Evaluate the new sample values of the first band of given raster.
+         *
+         * @param gridToCrs , transform from grid coordinates to geographic coordinates.
+         * @param gridCoord , grid coordinates of the raster first pixel, in all grid dimensions.
+         * Pixel (x,y) of the raster is at grid coordinates (gridCoord[0]+x, gridCoord[1]+y, gridCoord[2], ...).
+         * @param raster , raster to fill.
+         * @throws TransformException if grid coordinates can not be transformed.
+         */
+        void evaluate(MathTransform gridToCrs, double[] gridCoord, WritableRaster raster) throws TransformException;
+
+        @Override
+        BlockEvaluator copy() throws FactoryException;
+
+    }
+
 }
@@ -0,0 +1,242 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.processing.coverage.mathcalc;
+
+import java.awt.Rectangle;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.logging.Level;
+
+import org.apache.sis.geometry.GeneralDirectPosition;
+import org.apache.sis.referencing.operation.transform.MathTransforms;
+import org.apache.sis.util.logging.Logging;
+import org.geotoolkit.coverage.grid.GridCoverage2D;
+import org.geotoolkit.referencing.CRS;
+import org.opengis.coverage.CannotEvaluateException;
+import org.opengis.coverage.Coverage;
+import org.opengis.filter.expression.Expression;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
+
+/**
+ * Math calc evaluator working on rows of samples.<br/>
+ * The expression is compiled once, for each row of a block the geographic coordinates of all pixels
+ * are computed with one transform call, then each source coverage is sampled for the whole row :
+ * {@link GridCoverage2D} sources are read directly from their image with nearest neighbor
+ * interpolation, like {@link GridCoverage2D#evaluate(DirectPosition, double[]) }, other coverages are
+ * evaluated at each position. Points outside a source coverage give {@code NaN}.<br/>
+ * An evaluator must not be used by several threads at the same time, use {@link #copy() }.
+ *
+ * @author Johann Sorel (Geomatys)
+ */
+public class MathCalcBlockEvaluator implements FillCoverage.BlockEvaluator {
+
+    private final Coverage[] coverages;
+    private final String[] mapping;
+    private final Expression exp;
+    private final CoordinateReferenceSystem crs;
+
+    private final CompiledExpression compiled;
+    private final SourceSampler[] samplers;
+
+    /**
+     * Work buffers : grid coordinates, geographic coordinates, source samples and results of a row.
+     */
+    private double[] gridCoords = new double[0];
+    private double[] crsCoords  = new double[0];
+    private final double[][] sources;
+    private double[] result = new double[0];
+
+    public MathCalcBlockEvaluator(Coverage[] coverages, String[] mapping,
+            Expression exp, CoordinateReferenceSystem crs) throws FactoryException {
+        this.coverages = coverages;
+        this.mapping   = mapping;
+        this.exp       = exp;
+        this.crs       = crs;
+        this.compiled  = CompiledExpression.compile(exp, mapping);
+        this.samplers  = new SourceSampler[coverages.length];
+        for (int i = 0; i < coverages.length; i++) {
+            samplers[i] = new SourceSampler(coverages[i], crs);
+        }
+        this.sources = new double[coverages.length][0];
+    }
+
+    @Override
+    public void evaluate(DirectPosition position, double[] sampleBuffer) {
+        final int dim = position.getDimension();
+        ensureCapacity(1, dim);
+        for (int i = 0; i < dim; i++) {
+            crsCoords[i] = position.getOrdinate(i);
+        }
+        evaluate(crsCoords, 1);
+        sampleBuffer[0] = result[0];
+    }
+
+    @Override
+    public void evaluate(MathTransform gridToCrs, double[] gridCoord, WritableRaster raster) throws TransformException {
+        final int width   = raster.getWidth();
+        final int height  = raster.getHeight();
+        final int gridDim = gridCoord.length;
+        ensureCapacity(width, Math.max(gridDim, gridToCrs.getTargetDimensions()));
+
+        for (int x = 0, i = 0; x < width; x++, i += gridDim) {
+            System.arraycopy(gridCoord, 0, gridCoords, i, gridDim);
+            gridCoords[i] += x;
+        }
+        for (int y = 0; y < height; y++) {
+            for (int i = 1, n = width * gridDim; i < n; i += gridDim) {
+                gridCoords[i] = gridCoord[1] + y;
+            }
+            gridToCrs.transform(gridCoords, 0, crsCoords, 0, width);
+            evaluate(crsCoords, width);
+            raster.setSamples(raster.getMinX(), raster.getMinY() + y, width, 1, 0, result);
+        }
+    }
+
+    /**
+     * Sample all sources at given geographic coordinates and evaluate expression.
+     */
+    private void evaluate(final double[] coords, final int length) {
+        for (int i = 0; i < samplers.length; i++) {
+            if (sources[i].length < length) sources[i] = new double[length];
+            samplers[i].sample(coords, length, sources[i]);
+        }
+        compiled.evaluate(sources, length, result);
+    }
+
+    private void ensureCapacity(final int length, final int dimension) {
+        if (gridCoords.length < length * dimension) gridCoords = new double[length * dimension];
+        if (crsCoords.length  < length * dimension) crsCoords  = new double[length * dimension];
+        if (result.length < length) result = new double[length];
+    }
+
+    @Override
+    public MathCalcBlockEvaluator copy() throws FactoryException {
+        return new MathCalcBlockEvaluator(coverages, mapping, exp, crs);
+    }
+
+    /**
+     * Read source coverage samples at given geographic coordinates.
+     */
+    private static final class SourceSampler {
+
+        private final Coverage coverage;
+
+        /**
+         * Transform from geographic coordinates to coverage CRS or, for {@link GridCoverage2D},
+         * to image pixel center coordinates.
+         */
+        private final MathTransform transform;
+        private final int targetDim;
+
+        /**
+         * Image of {@link GridCoverage2D} source, null for other coverages.
+         */
+        private final RenderedImage image;
+        private final Rectangle bounds;
+        private Raster tile;
+
+        private final GeneralDirectPosition position;
+        private final double[] sampleBuffer;
+        private double[] coords = new double[0];
+
+        SourceSampler(final Coverage coverage, final CoordinateReferenceSystem crs) throws FactoryException {
+            this.coverage = coverage;
+            MathTransform toGrid = null;
+            if (coverage instanceof GridCoverage2D) {
+                final GridCoverage2D coverage2D = (GridCoverage2D) coverage;
+                try {
+                    toGrid = MathTransforms.concatenate(
+                            CRS.findMathTransform(crs, coverage2D.getCoordinateReferenceSystem2D()),
+                            coverage2D.getGridGeometry().getGridToCRS2D().inverse());
+                } catch (FactoryException | TransformException ex) {
+                    //-- no direct transform to image, evaluate coverage at each position --//
+                    Logging.getLogger("org.geotoolkit.processing.coverage.mathcalc").log(Level.FINE, ex.getMessage(), ex);
+                }
+            }
+            if (toGrid != null) {
+                this.transform = toGrid;
+                this.image     = ((GridCoverage2D) coverage).getRenderedImage();
+                this.bounds    = new Rectangle(image.getMinX(), image.getMinY(), image.getWidth(), image.getHeight());
+                this.position  = null;
+            } else {
+                this.transform = CRS.findMathTransform(crs, coverage.getCoordinateReferenceSystem());
+                this.image     = null;
+                this.bounds    = null;
+                this.position  = new GeneralDirectPosition(coverage.getCoordinateReferenceSystem());
+            }
+            this.targetDim    = transform.getTargetDimensions();
+            this.sampleBuffer = new double[coverage.getNumSampleDimensions()];
+        }
+
+        /**
+         * Read first sample dimension of {@code length} points.
+         */
+        void sample(final double[] crsCoords, final int length, final double[] values) {
+            if (coords.length < length * targetDim) coords = new double[length * targetDim];
+            try {
+                transform.transform(crsCoords, 0, coords, 0, length);
+            } catch (TransformException ex) {
+                Logging.getLogger("org.geotoolkit.processing.coverage.mathcalc").log(Level.WARNING, ex.getMessage(), ex);
+                Arrays.fill(values, 0, length, Double.NaN);
+                return;
+            }
+            if (image != null) {
+                for (int i = 0, c = 0; i < length; i++, c += targetDim) {
+                    final double fx = coords[c];
+                    final double fy = coords[c + 1];
+                    values[i] = Double.NaN;
+                    if (Double.isNaN(fx) || Double.isNaN(fy)) continue;
+                    final int x = (int) Math.round(fx);
+                    final int y = (int) Math.round(fy);
+                    if (!bounds.contains(x, y)) continue;
+                    if (tile == null || x < tile.getMinX() || x >= tile.getMinX() + tile.getWidth()
+                                     || y < tile.getMinY() || y >= tile.getMinY() + tile.getHeight()) {
+                        tile = image.getTile(toTileIndex(x, image.getTileGridXOffset(), image.getTileWidth()),
+                                             toTileIndex(y, image.getTileGridYOffset(), image.getTileHeight()));
+                    }
+                    values[i] = tile.getSampleDouble(x, y, 0);
+                }
+            } else {
+                for (int i = 0, c = 0; i < length; i++, c += targetDim) {
+                    for (int d = 0; d < targetDim; d++) {
+                        position.setOrdinate(d, coords[c + d]);
+                    }
+                    try {
+                        coverage.evaluate(position, sampleBuffer);
+                        values[i] = sampleBuffer[0];
+                    } catch (CannotEvaluateException ex) {
+                        values[i] = Double.NaN;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns index of the tile containing given pixel coordinate.
+         */
+        private static int toTileIndex(final int coord, final int tileGridOffset, final int tileSize) {
+            final int c = coord - tileGridOffset;
+            return (c >= 0) ? c / tileSize : -((tileSize - 1 - c) / tileSize);
+        }
+    }
+}
@@ -90,9 +90,9 @@ public class MathCalcProcess extends AbstractProcess {
         }
         
         // prepare dynamic pick object
-        final MathCalcCoverageEvaluator evaluator;
+        final MathCalcBlockEvaluator evaluator;
         try {
-            evaluator = new MathCalcCoverageEvaluator(inCoverages,inMapping,exp,gg.getCoordinateReferenceSystem());
+            evaluator = new MathCalcBlockEvaluator(inCoverages,inMapping,exp,gg.getCoordinateReferenceSystem());
         } catch (FactoryException ex) {
             throw new ProcessException(ex.getMessage(), this, ex);
         }
@@ -0,0 +1,274 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.processing.coverage.statistics;
+
+import org.apache.sis.util.ArgumentChecks;
+
+/**
+ * Single pass statistics of one band values.<br/>
+ * Accumulates count, minimum, maximum, mean and variance (Welford algorithm), and an approximate
+ * distribution of the values which does not need the value range in advance.<br/>
+ * Accumulators computed on different parts of the data can be combined with {@link #merge(BandAccumulator) }
+ * (Chan et al. algorithm for the variance), which allows to compute statistics of tiles in parallel.<br/>
+ * <br/>
+ * The distribution is stored in {@value #SKETCH_SIZE} bins whose width is a power of two, aligned on
+ * multiples of this width. When a value falls outside the bins, the width is doubled as many times as
+ * needed, merging adjacent bins. The error on quantiles and histograms is bounded by the bin width,
+ * which is at most the values range divided by {@code 2047}.<br/>
+ * <br/>
+ * An accumulator is not thread safe.
+ *
+ * @author Johann Sorel (Geomatys)
+ */
+public class BandAccumulator {
+
+    /**
+     * Number of bins of the distribution sketch.
+     */
+    public static final int SKETCH_SIZE = 4096;
+
+    /**
+     * Smallest bin width.
+     */
+    private static final double MIN_WIDTH = 0x1p-1000;
+
+    private long count = 0;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double mean = 0;
+    /** Sum of squared differences to the mean. */
+    private double m2 = 0;
+
+    /**
+     * Distribution sketch : bins[i] counts values in [(binOffset+i)*binWidth, (binOffset+i+1)*binWidth[.
+     * Null until the first value.
+     */
+    private long[] bins;
+    private double binWidth;
+    private double invBinWidth;
+    private long binOffset;
+    /** Range covered by the bins, cached for fast tests. */
+    private double binsLow, binsHigh;
+
+    /**
+     * Add a value, NaN and infinite values must be filtered by caller.
+     *
+     * @param value finite value
+     */
+    public void add(final double value) {
+        if (value < binsLow || value >= binsHigh || bins == null) {
+            ensureRange(Math.min(value, min), Math.max(value, max), binWidth);
+        }
+        bins[(int) ((long) Math.floor(value * invBinWidth) - binOffset)]++;
+
+        if (value < min) min = value;
+        if (value > max) max = value;
+        count++;
+        final double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * Combine statistics of given accumulator in this one.
+     * Given accumulator is not modified.
+     *
+     * @param other accumulator to merge, not null
+     */
+    public void merge(final BandAccumulator other) {
+        ArgumentChecks.ensureNonNull("other", other);
+        if (other.count == 0) return;
+        if (count == 0) {
+            count = other.count;
+            min = other.min;
+            max = other.max;
+            mean = other.mean;
+            m2 = other.m2;
+            bins = other.bins.clone();
+            setBins(other.binWidth, other.binOffset);
+            return;
+        }
+
+        //-- distribution : bring this sketch to a width able to hold both ranges --//
+        final double lo = Math.min(min, other.min);
+        final double hi = Math.max(max, other.max);
+        ensureRange(lo, hi, Math.max(binWidth, other.binWidth));
+        final int shift = Math.getExponent(binWidth) - Math.getExponent(other.binWidth);
+        final long[] otherBins = other.bins;
+        for (int i = 0; i < otherBins.length; i++) {
+            if (otherBins[i] != 0) {
+                bins[(int) (shift(other.binOffset + i, shift) - binOffset)] += otherBins[i];
+            }
+        }
+
+        //-- moments --//
+        final long n = count + other.count;
+        final double delta = other.mean - mean;
+        mean += delta * other.count / n;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / n);
+        count = n;
+        min = lo;
+        max = hi;
+    }
+
+    /**
+     * Enlarge the sketch bins until they cover given range.
+     *
+     * @param width minimum bin width, a power of two, ignored if there is no bin yet.
+     */
+    private void ensureRange(final double lo, final double hi, double width) {
+        //-- bin indexes must stay exact in double precision, widths stay normal numbers --//
+        final double minWidth = Math.max(Math.max((hi - lo) / (SKETCH_SIZE - 2), MIN_WIDTH),
+                Math.scalb(1.0, Math.getExponent(Math.max(Math.abs(lo), Math.abs(hi))) - 50));
+        if (bins == null) width = Math.scalb(1.0, Math.getExponent(minWidth));
+        while (width < minWidth) width *= 2;
+        final long first = (long) Math.floor(lo / width);
+
+        if (bins == null) {
+            bins = new long[SKETCH_SIZE];
+            setBins(width, first);
+        } else if (width != binWidth || lo < binsLow || hi >= binsHigh) {
+            relocate(width, first);
+        }
+    }
+
+    /**
+     * Move bins counts to a new bin width and offset.
+     * New bins must contain all current values.
+     */
+    private void relocate(final double width, final long offset) {
+        final int shift = Math.getExponent(width) - Math.getExponent(binWidth);
+        final long[] newBins = new long[SKETCH_SIZE];
+        for (int i = 0; i < SKETCH_SIZE; i++) {
+            if (bins[i] != 0) {
+                newBins[(int) (shift(binOffset + i, shift) - offset)] += bins[i];
+            }
+        }
+        bins = newBins;
+        setBins(width, offset);
+    }
+
+    /**
+     * Index of the bin containing given bin once the width is multiplied by 2<sup>shift</sup>.
+     */
+    private static long shift(final long index, final int shift) {
+        return (shift < Long.SIZE) ? index >> shift : (index < 0 ? -1 : 0);
+    }
+
+    private void setBins(final double width, final long offset) {
+        binWidth    = width;
+        invBinWidth = 1.0 / width;
+        binOffset   = offset;
+        binsLow     = offset * width;
+        binsHigh    = (offset + SKETCH_SIZE) * width;
+    }
+
+    /**
+     * @return number of accumulated values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return minimum value, NaN if no value
+     */
+    public double getMinimum() {
+        return (count == 0) ? Double.NaN : min;
+    }
+
+    /**
+     * @return maximum value, NaN if no value
+     */
+    public double getMaximum() {
+        return (count == 0) ? Double.NaN : max;
+    }
+
+    /**
+     * @return mean value, NaN if no value
+     */
+    public double getMean() {
+        return (count == 0) ? Double.NaN : mean;
+    }
+
+    /**
+     * @param allPopulation true if values are the whole population, false if they are a sample of it.
+     * @return variance, NaN if no value (or only one value for a sample).
+     */
+    public double getVariance(final boolean allPopulation) {
+        final long n = allPopulation ? count : count - 1;
+        return (n <= 0) ? Double.NaN : m2 / n;
+    }
+
+    /**
+     * @param allPopulation true if values are the whole population, false if they are a sample of it.
+     * @return standard deviation, NaN if no value (or only one value for a sample).
+     */
+    public double getStandardDeviation(final boolean allPopulation) {
+        return Math.sqrt(getVariance(allPopulation));
+    }
+
+    /**
+     * Approximate quantile, values are assumed evenly distributed inside each sketch bin.
+     *
+     * @param p quantile probability, between 0 and 1
+     * @return approximate quantile, NaN if no value
+     */
+    public double getQuantile(final double p) {
+        ArgumentChecks.ensureBetween("p", 0.0, 1.0, p);
+        if (count == 0) return Double.NaN;
+        final double rank = p * count;
+        long cumul = 0;
+        for (int i = 0; i < SKETCH_SIZE; i++) {
+            final long c = bins[i];
+            if (c != 0 && cumul + c >= rank) {
+                final double value = (binOffset + i + (rank - cumul) / c) * binWidth;
+                return Math.max(min, Math.min(max, value));
+            }
+            cumul += c;
+        }
+        return max;
+    }
+
+    /**
+     * Compute an histogram of given range from the distribution sketch.<br/>
+     * Bins are computed like {@link NumericHistogram} : values equal to the range maximum
+     * are counted in the last bin, values outside the range are ignored.
+     * Each sketch bin is counted in the histogram bin containing its center.
+     *
+     * @param nbBins number of histogram bins
+     * @param lower histogram range minimum
+     * @param upper histogram range maximum
+     * @return histogram
+     */
+    public long[] getHistogram(final int nbBins, final double lower, final double upper) {
+        ArgumentChecks.ensureStrictlyPositive("nbBins", nbBins);
+        final long[] histogram = new long[nbBins];
+        if (count == 0) return histogram;
+        final double binSize = (upper - lower) / nbBins;
+        for (int i = 0; i < SKETCH_SIZE; i++) {
+            if (bins[i] == 0) continue;
+            final double center = Math.max(min, Math.min(max, (binOffset + i + 0.5) * binWidth));
+            if (center < lower || center > upper) continue;
+            int bin = (binSize > 0) ? (int) ((center - lower) / binSize) : 0;
+            if (bin >= nbBins) bin = nbBins - 1;
+            histogram[bin] += bins[i];
+        }
+        return histogram;
+    }
+
+}
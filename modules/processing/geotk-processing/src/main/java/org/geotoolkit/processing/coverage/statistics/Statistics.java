@@ -25,8 +25,6 @@ import org.geotoolkit.coverage.io.CoverageStoreException;
 import org.geotoolkit.coverage.io.GridCoverageReadParam;
 import org.geotoolkit.coverage.io.GridCoverageReader;
 import org.geotoolkit.image.internal.SampleType;
-import org.geotoolkit.image.iterator.PixelIterator;
-import org.geotoolkit.image.iterator.PixelIteratorFactory;
 import org.geotoolkit.utility.parameter.ParametersExt;
 import org.geotoolkit.processing.AbstractProcess;
 import org.geotoolkit.process.ProcessException;
@@ -42,13 +40,25 @@ import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.opengis.referencing.operation.MathTransform;
 import org.opengis.referencing.operation.TransformException;
 
-import java.awt.Dimension;
+import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.image.Raster;
 import java.awt.image.RenderedImage;
 import java.awt.image.SampleModel;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.sis.util.ArgumentChecks;
 import org.geotoolkit.coverage.grid.ViewType;
+import org.opengis.metadata.spatial.PixelOrientation;
+import org.opengis.referencing.datum.PixelInCell;
 
 import static org.geotoolkit.parameter.Parameters.getOrCreate;
 import static org.geotoolkit.parameter.Parameters.value;
@@ -70,6 +80,11 @@ import org.opengis.geometry.Envelope;
  */
 public class Statistics extends AbstractProcess {
 
+    /**
+     * Number of rows read at once in streaming mode.
+     */
+    private static final int STRIP_HEIGHT = 1024;
+
     public Statistics(final RenderedImage image, boolean excludeNoData){
         this(toParameters(image, null, null, null, 0, excludeNoData));
     }
@@ -206,162 +221,368 @@ public class Statistics extends AbstractProcess {
         return value(OUTCOVERAGE, out);
     }
 
+    /**
+     * Run Statistics process with a GridCoverageReader and return ImageStatistics.
+     * The coverage is read and analysed by strips of rows, only one strip is loaded at a time.
+     *
+     * @param reader GridCoverageReader
+     * @param imageIdx image index to read
+     * @param excludeNoData exclude no-data flag
+     * @param subsampling analyse one pixel every {@code subsampling} columns and rows
+     * @return ImageStatistics
+     * @throws ProcessException
+     */
+    public static ImageStatistics analyse(GridCoverageReader reader, int imageIdx, boolean excludeNoData, int subsampling)
+            throws ProcessException {
+        final ParameterValueGroup params = toParameters(null, null, null, reader, imageIdx, excludeNoData);
+        ParametersExt.getOrCreateValue(params, SUBSAMPLING.getName().getCode()).setValue(subsampling);
+        ParametersExt.getOrCreateValue(params, STREAMING.getName().getCode()).setValue(true);
+        org.geotoolkit.process.Process process = new Statistics(params);
+        ParameterValueGroup out = process.call();
+        return value(OUTCOVERAGE, out);
+    }
+
     @Override
     protected void execute() throws ProcessException {
 
         final RenderedImage inImage = value(IMAGE, inputParameters);
         final boolean excludeNoData = value(EXCLUDE_NO_DATA, inputParameters);
+        final Integer subsamplingParam = value(SUBSAMPLING, inputParameters);
+        final int subsampling = (subsamplingParam == null) ? 1 : subsamplingParam;
+        if (subsampling < 1) {
+            throw new ProcessException("Subsampling must be strictly positive, found "+subsampling, this, null);
+        }
+        final Boolean streaming = value(STREAMING, inputParameters);
 
         fireProgressing("Pre-analysing", 0f, false);
-        final RenderedImage image;
-        final ImageStatistics sc;
+        ImageStatistics sc;
+        final BandAccumulator[] accumulators;
         if (inImage != null) {
-            image = inImage;
-
-            final SampleModel sm = image.getSampleModel();
+            final SampleModel sm = inImage.getSampleModel();
             final SampleType sampleType = SampleType.valueOf(sm.getDataType());
             final int nbBands = sm.getNumBands();
             //create empty statistic object
             sc = new ImageStatistics(nbBands, sampleType);
             getOrCreate(OUTCOVERAGE, outputParameters).setValue(sc);
+            accumulators = accumulate(inImage, null, getNoData(sc, excludeNoData), subsampling);
 
         } else {
 
             final GridCoverage2D inCoverage = value(COVERAGE, inputParameters);
-            GridCoverage2D candidate = null;
-            if (inCoverage != null) {
-                candidate = inCoverage;
-            } else {
-                final GridCoverageReader reader = value(READER, inputParameters);
-                final Integer imageIdx = value(IMAGE_IDX, inputParameters);
+            GridCoverageReader reader = value(READER, inputParameters);
+            Integer imageIdx = value(IMAGE_IDX, inputParameters);
+            final CoverageReference ref = value(REF, inputParameters);
+
+            if (inCoverage == null && Boolean.TRUE.equals(streaming) && (reader != null || ref != null)) {
+                //read and analyse coverage by strips
+                try {
+                    if (reader == null || imageIdx == null) {
+                        reader = ref.acquireReader();
+                        imageIdx = ref.getImageIndex();
+                        try {
+                            accumulators = accumulateStrips(reader, imageIdx, excludeNoData, subsampling);
+                        } finally {
+                            ref.recycle(reader);
+                        }
+                    } else {
+                        accumulators = accumulateStrips(reader, imageIdx, excludeNoData, subsampling);
+                    }
+                } catch (CoverageStoreException | TransformException e) {
+                    throw new ProcessException(e.getMessage(), this, e);
+                }
+                sc = value(OUTCOVERAGE, outputParameters);
 
-                if (reader != null && imageIdx != null) {
+            } else {
+                GridCoverage2D candidate = null;
+                if (inCoverage != null) {
+                    candidate = inCoverage;
+                } else if (reader != null && imageIdx != null) {
                     candidate = getCoverage(reader, imageIdx);
-                } else {
-                    final CoverageReference ref = value(REF, inputParameters);
-                    if (ref != null) {
-                        candidate = getCoverage(ref);
-                    }
+                } else if (ref != null) {
+                    candidate = getCoverage(ref);
                 }
-            }
 
-            if(candidate instanceof GridCoverage2D){
-                //we want the statistics on the real data values
-                candidate = ((GridCoverage2D)candidate).view(ViewType.GEOPHYSICS);
-            }
+                if (candidate == null) {
+                    throw new ProcessException("Null Coverage.", this, null);
+                }
 
-            if (candidate == null) {
-                throw new ProcessException("Null Coverage.", this, null);
+                //we want the statistics on the real data values
+                //TODO extract view as process input parameter.
+                candidate = candidate.view(ViewType.GEOPHYSICS);
+                sc = createStatistics(candidate);
+                fireProgressing("Pre-analysing finished", 10f, true);
+                fireProgressing("Start range/histogram computing", 10f, true);
+                accumulators = accumulate(candidate.getRenderedImage(), null, getNoData(sc, excludeNoData), subsampling);
             }
+        }
 
-            //TODO extract view as process input parameter.
-            //candidate = candidate.view(ViewType.GEOPHYSICS);
-            image = candidate.getRenderedImage();
+        //copy statistics in band container
+        final ImageStatistics.Band[] bands = sc.getBands();
+        for(int i=0;i<bands.length;i++){
+            final BandAccumulator acc = accumulators[i];
+            bands[i].setMin(acc.getMinimum());
+            bands[i].setMax(acc.getMaximum());
+            bands[i].setMean(acc.getMean());
+            bands[i].setStd(acc.getStandardDeviation(true));
+            bands[i].setHistogram(acc.getHistogram(getNbBins(bands[i].getDataType()), acc.getMinimum(), acc.getMaximum()));
+        }
+        fireProgressing("Statistics computed", 100f, true);
+    }
 
-            final SampleModel sm = image.getSampleModel();
-            final SampleType sampleType = SampleType.valueOf(sm.getDataType());
-            final int nbBands = sm.getNumBands();
-            sc = new ImageStatistics(nbBands, sampleType);
+    /**
+     * Create empty statistics of coverage bands, with no-data values and names, and set it as process output.
+     */
+    private ImageStatistics createStatistics(GridCoverage2D coverage) {
+        final SampleModel sm = coverage.getRenderedImage().getSampleModel();
+        final SampleType sampleType = SampleType.valueOf(sm.getDataType());
+        final int nbBands = sm.getNumBands();
+        final ImageStatistics sc = new ImageStatistics(nbBands, sampleType);
+
+        final GridSampleDimension[] sampleDimensions = coverage.getSampleDimensions();
+        //add no data values and name on bands
+        for (int i = 0; i < sampleDimensions.length; i++) {
+            sc.getBand(i).setNoData(sampleDimensions[i].getNoDataValues());
+            sc.getBand(i).setName(sampleDimensions[i].getDescription().toString());
+        }
+        getOrCreate(OUTCOVERAGE, outputParameters).setValue(sc);
+        return sc;
+    }
 
-            final GridSampleDimension[] sampleDimensions = candidate.getSampleDimensions();
-            //add no data values and name on bands
-            for (int i = 0; i < sampleDimensions.length; i++) {
-                sc.getBand(i).setNoData(sampleDimensions[i].getNoDataValues());
-                sc.getBand(i).setName(sampleDimensions[i].getDescription().toString());
+    /**
+     * @return sorted no-data values of each band, or null if no-data are not excluded.
+     */
+    private static double[][] getNoData(ImageStatistics sc, boolean excludeNoData) {
+        if (!excludeNoData) return null;
+        final ImageStatistics.Band[] bands = sc.getBands();
+        final double[][] noDatas = new double[bands.length][];
+        for (int i = 0; i < bands.length; i++) {
+            final double[] noData = bands[i].getNoData();
+            if (noData != null && noData.length > 0) {
+                noDatas[i] = noData.clone();
+                Arrays.sort(noDatas[i]);
             }
-
-            getOrCreate(OUTCOVERAGE, outputParameters).setValue(sc);
-            fireProgressing("Pre-analysing finished", 10f, true);
-            fireProgressing("Start range/histogram computing", 10f, true);
         }
+        return noDatas;
+    }
 
-        final ImageStatistics.Band[] bands = sc.getBands();
-        final org.apache.sis.math.Statistics[] stats = new org.apache.sis.math.Statistics[bands.length];
-        for(int i=0;i<bands.length;i++) stats[i] = new org.apache.sis.math.Statistics("stats");
-        int nbBands = bands.length;
-
-        //optimization for GridMosaicRenderedImage impl
-        NumericHistogram[] histo = new NumericHistogram[nbBands];
-        if (image instanceof GridMosaicRenderedImage) {
-            final GridMosaicRenderedImage mosaicImage = (GridMosaicRenderedImage) image;
-            final GridMosaic gridMosaic = mosaicImage.getGridMosaic();
-            final Dimension gridSize = gridMosaic.getGridSize();
-
-            int startX = 0;
-            int startY = 0;
-            int endX = gridSize.width;
-            int endY = gridSize.height;
-            int totalTiles = gridSize.width * gridSize.height;
-
-            final Rectangle dataArea = gridMosaic.getDataArea();
-            if (dataArea != null) {
-                startX = dataArea.x;
-                startY = dataArea.y;
-                endX = dataArea.x + dataArea.width;
-                endY = dataArea.y + dataArea.height;
-                totalTiles = dataArea.width * dataArea.height;
+    /**
+     * Read coverage by strips of rows and accumulate statistics of each strip.
+     * Statistics output is created from the first strip.
+     */
+    private BandAccumulator[] accumulateStrips(GridCoverageReader reader, int imageIdx, boolean excludeNoData, int subsampling)
+            throws CoverageStoreException, TransformException, ProcessException {
+        final GeneralGridGeometry gridGeometry = reader.getGridGeometry(imageIdx);
+        final CoordinateReferenceSystem crs = gridGeometry.getCoordinateReferenceSystem();
+        final MathTransform gridToCRS = gridGeometry.getGridToCRS(PixelInCell.CELL_CORNER);
+        final GridEnvelope extent = gridGeometry.getExtent();
+        final int dim = extent.getDimension();
+
+        //strips height is a multiple of subsampling to keep rows alignment
+        final int stripHeight = ((STRIP_HEIGHT + subsampling - 1) / subsampling) * subsampling;
+        final int minY = extent.getLow(1);
+        final int maxY = extent.getHigh(1) + 1;
+
+        ImageStatistics sc = null;
+        double[][] noData = null;
+        BandAccumulator[] result = null;
+        //TODO analyse CRS to find lat/lon dimension position in extent envelope.
+        for (int y = minY; y < maxY; y += stripHeight) {
+            final GeneralEnvelope stripExtent = new GeneralEnvelope(dim);
+            stripExtent.setRange(0, extent.getLow(0), extent.getHigh(0) + 1);
+            stripExtent.setRange(1, y, Math.min(maxY, y + stripHeight));
+            for (int i = 2; i < dim; i++) {
+                stripExtent.setRange(i, extent.getLow(i), extent.getLow(i) + 1);
             }
+            final GeneralEnvelope stripEnv = new GeneralEnvelope(CRS.transform(gridToCRS, stripExtent));
+            stripEnv.setCoordinateReferenceSystem(crs);
 
-            //analyse each tiles of GridMosaicRenderedImage
-            Raster tile;
-            PixelIterator pix;
-            int step = 1;
-            for (int y = startY; y < endY; y++) {
-                for (int x = startX; x < endX; x++) {
-                    if (!gridMosaic.isMissing(x,y)) {
-                        tile = mosaicImage.getTile(x, y);
-                        pix = PixelIteratorFactory.createDefaultIterator(tile);
+            final GridCoverageReadParam readParam = new GridCoverageReadParam();
+            readParam.setEnvelope(stripEnv);
+            readParam.setDeferred(true);
+            readParam.setCoordinateReferenceSystem(crs);
+            final GridCoverage2D strip = CoverageUtilities.firstSlice(reader.read(imageIdx, readParam)).view(ViewType.GEOPHYSICS);
+            if (sc == null) {
+                sc = createStatistics(strip);
+                noData = getNoData(sc, excludeNoData);
+            }
 
-                        analyseRange(pix, stats, bands, excludeNoData);
-                        pix.rewind();
+            //only analyse strip rows, reader may return a larger image
+            final RenderedImage image = strip.getRenderedImage();
+            final GeneralEnvelope stripEnv2D = new GeneralEnvelope(strip.getCoordinateReferenceSystem2D());
+            stripEnv2D.setRange(0, stripEnv.getMinimum(0), stripEnv.getMaximum(0));
+            stripEnv2D.setRange(1, stripEnv.getMinimum(1), stripEnv.getMaximum(1));
+            final Envelope gridEnv = CRS.transform(
+                    strip.getGridGeometry().getGridToCRS2D(PixelOrientation.UPPER_LEFT).inverse(), stripEnv2D);
+            final int x0 = (int) Math.round(gridEnv.getMinimum(0));
+            final int y0 = (int) Math.round(gridEnv.getMinimum(1));
+            final Rectangle area = new Rectangle(x0, y0,
+                    (int) Math.round(gridEnv.getMaximum(0)) - x0,
+                    (int) Math.round(gridEnv.getMaximum(1)) - y0);
+
+            final BandAccumulator[] stripAccumulators = accumulate(image, area, noData, subsampling);
+            if (result == null) {
+                result = stripAccumulators;
+            } else {
+                for (int b = 0; b < result.length; b++) {
+                    result[b].merge(stripAccumulators[b]);
+                }
+            }
+            fireProgressing("Histogram progressing", 10f + 90f * (y + stripHeight - minY) / (maxY - minY), true);
+        }
 
-                        mergeHistograms(histo, analyseHistogram(pix, bands, stats, excludeNoData));
+        if (result == null) {
+            throw new ProcessException("Empty coverage.", this, null);
+        }
+        return result;
+    }
 
-                        updateBands(bands, histo);
-                        fireProgressing("Histogram progressing", (step/totalTiles)*0.9f, true);
+    /**
+     * Compute statistics of image samples.<br/>
+     * Tiles are analysed in parallel, each worker thread accumulates values of its tiles, then
+     * workers results are merged. NaN and infinite values are ignored.
+     * For {@link GridMosaicRenderedImage}, missing tiles are skipped.
+     *
+     * @param image image to analyse
+     * @param area image area to analyse, null for the whole image
+     * @param noData sorted no-data values to ignore for each band, null to keep all values
+     * @param subsampling analyse one pixel every {@code subsampling} columns and rows, starting at area origin
+     * @return accumulated statistics of each band
+     * @throws CancellationException if current thread is interrupted
+     */
+    public static BandAccumulator[] accumulate(final RenderedImage image, Rectangle area,
+            final double[][] noData, final int subsampling) {
+        ArgumentChecks.ensureNonNull("image", image);
+        ArgumentChecks.ensureStrictlyPositive("subsampling", subsampling);
+        final Rectangle bounds = new Rectangle(image.getMinX(), image.getMinY(), image.getWidth(), image.getHeight());
+        area = (area == null) ? bounds : area.intersection(bounds);
+        final int nbBands = image.getSampleModel().getNumBands();
+
+        //list tiles to analyse
+        final List<Point> tiles = new ArrayList<>();
+        if (!area.isEmpty()) {
+            final GridMosaic mosaic = (image instanceof GridMosaicRenderedImage) ? ((GridMosaicRenderedImage) image).getGridMosaic() : null;
+            final int tileWidth = image.getTileWidth();
+            final int tileHeight = image.getTileHeight();
+            final int minTx = toTileIndex(area.x - image.getTileGridXOffset(), tileWidth);
+            final int minTy = toTileIndex(area.y - image.getTileGridYOffset(), tileHeight);
+            final int maxTx = toTileIndex(area.x + area.width  - 1 - image.getTileGridXOffset(), tileWidth);
+            final int maxTy = toTileIndex(area.y + area.height - 1 - image.getTileGridYOffset(), tileHeight);
+            for (int ty = minTy; ty <= maxTy; ty++) {
+                for (int tx = minTx; tx <= maxTx; tx++) {
+                    if (mosaic == null || !mosaic.isMissing(tx, ty)) {
+                        tiles.add(new Point(tx, ty));
                     }
-                    step++;
                 }
             }
+        }
 
-        } else {
-            //standard image
-            final PixelIterator pix = PixelIteratorFactory.createDefaultIterator(image);
-
-            //get min/max
-            analyseRange(pix, stats, bands, excludeNoData);
-            fireProgressing("Start histogram computing", 55f, true);
-
-            //reset iterator
-            pix.rewind();
-
-            //compute histogram
-            histo = analyseHistogram(pix, bands, stats, excludeNoData);
-            updateBands(bands, histo);
+        final int nbThread = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), tiles.size()));
+        final AtomicInteger next = new AtomicInteger();
+        final List<TileWorker> workers = new ArrayList<>(nbThread);
+        for (int i = 0; i < nbThread; i++) {
+            workers.add(new TileWorker(image, area, tiles, next, noData, subsampling, nbBands));
         }
 
-        //copy statistics in band container
-        for(int i=0;i<bands.length;i++){
-            bands[i].setMin(stats[i].minimum());
-            bands[i].setMax(stats[i].maximum());
-            bands[i].setMean(stats[i].mean());
-            bands[i].setStd(stats[i].standardDeviation(true));
+        if (nbThread == 1) {
+            workers.get(0).call();
+        } else {
+            final ExecutorService executor = Executors.newFixedThreadPool(nbThread);
+            try {
+                for (Future<Object> future : executor.invokeAll(workers)) {
+                    future.get();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException(ex.getMessage());
+            } catch (ExecutionException ex) {
+                final Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw new IllegalStateException(cause);
+            } finally {
+                executor.shutdownNow();
+            }
         }
 
+        //merge workers results
+        final BandAccumulator[] result = workers.get(0).accumulators;
+        for (int i = 1; i < nbThread; i++) {
+            for (int b = 0; b < nbBands; b++) {
+                result[b].merge(workers.get(i).accumulators[b]);
+            }
+        }
+        return result;
     }
 
-    private void updateBands(ImageStatistics.Band[] bands, NumericHistogram[] histo) {
-        for (int i = 0; i < bands.length; i++) {
-            bands[i].setHistogram(histo[i].getHist());
-        }
+    /**
+     * Returns index of the tile containing given pixel coordinate (relative to tile grid offset).
+     */
+    private static int toTileIndex(final int coord, final int tileSize) {
+        return (coord >= 0) ? coord / tileSize : -((tileSize - 1 - coord) / tileSize);
     }
 
-    private void mergeHistograms(NumericHistogram[] histo, NumericHistogram[] tileHisto) {
+    /**
+     * Accumulate statistics of tiles taken from a shared list.
+     */
+    private static final class TileWorker implements Callable<Object> {
+
+        private final RenderedImage image;
+        private final Rectangle area;
+        private final List<Point> tiles;
+        private final AtomicInteger next;
+        private final double[][] noData;
+        private final int subsampling;
+        private final BandAccumulator[] accumulators;
+
+        private TileWorker(RenderedImage image, Rectangle area, List<Point> tiles, AtomicInteger next,
+                double[][] noData, int subsampling, int nbBands) {
+            this.image = image;
+            this.area = area;
+            this.tiles = tiles;
+            this.next = next;
+            this.noData = noData;
+            this.subsampling = subsampling;
+            this.accumulators = new BandAccumulator[nbBands];
+            for (int b = 0; b < nbBands; b++) {
+                accumulators[b] = new BandAccumulator();
+            }
+        }
 
-        for (int i = 0; i < histo.length; i++) {
-            NumericHistogram histo1 = histo[i];
-            NumericHistogram histo2 = tileHisto[i];
-            histo[i] = mergeHistograms(histo1, histo2);
+        @Override
+        public Object call() {
+            double[] row = new double[0];
+            for (int i = next.getAndIncrement(); i < tiles.size(); i = next.getAndIncrement()) {
+                final Point index = tiles.get(i);
+                final Raster tile = image.getTile(index.x, index.y);
+                if (tile == null) continue;
+                final Rectangle zone = area.intersection(tile.getBounds());
+                if (zone.isEmpty()) continue;
+
+                //first column and row aligned on subsampling grid
+                final int startX = area.x + ((zone.x - area.x + subsampling - 1) / subsampling) * subsampling;
+                final int startY = area.y + ((zone.y - area.y + subsampling - 1) / subsampling) * subsampling;
+                final int endX = zone.x + zone.width;
+                final int endY = zone.y + zone.height;
+                if (startX >= endX) continue;
+                final int width = endX - startX;
+                if (row.length < width) row = new double[width];
+
+                for (int y = startY; y < endY; y += subsampling) {
+                    for (int b = 0; b < accumulators.length; b++) {
+                        final BandAccumulator acc = accumulators[b];
+                        final double[] bandNoData = (noData != null) ? noData[b] : null;
+                        tile.getSamples(startX, y, width, 1, b, row);
+                        for (int x = 0; x < width; x += subsampling) {
+                            final double d = row[x];
+                            if (Double.isNaN(d) || Double.isInfinite(d)) continue;
+                            //remove noData from stats
+                            if (bandNoData != null && Arrays.binarySearch(bandNoData, d) >= 0) continue;
+                            acc.add(d);
+                        }
+                    }
+                }
+            }
+            return null;
         }
     }
 
@@ -398,84 +619,6 @@ public class Statistics extends AbstractProcess {
         return resultHisto;
     }
 
-    private void analyseRange(final PixelIterator pix, final org.apache.sis.math.Statistics[] stats,
-                              final ImageStatistics.Band[] bands, final boolean excludeNoData) {
-        //first pass to compute min/max values
-        double [][] noDatas = null;
-        if (excludeNoData) {
-            noDatas = new double[bands.length][];
-            for (int i = 0; i < bands.length; i++) {
-                noDatas[i] = bands[i].getNoData();
-            }
-        }
-
-        int b = 0;
-        while (pix.next()) {
-            final double d = pix.getSampleDouble();
-            if (Double.isNaN(d) || Double.isInfinite(d)) {
-                continue;
-            }
-
-            //remove noData from stats
-            if (noDatas != null && noDatas[b] != null && Arrays.binarySearch(noDatas[b], d) >= 0) {
-                continue;
-            }
-
-            stats[b].accept(d);
-
-            //reset b to loop on first band
-            if (++b == stats.length) b = 0;
-        }
-    }
-
-    /**
-     * Analyse each pixels using a PixelIterator
-     * @param pix PixelIterator
-     * @param bands
-     * @param excludeNoData
-     */
-    private NumericHistogram[] analyseHistogram(final PixelIterator pix, final ImageStatistics.Band[] bands,
-                                                org.apache.sis.math.Statistics[] stats, final boolean excludeNoData) {
-
-        int nbBands = bands.length;
-        final NumericHistogram[] histograms = new NumericHistogram[nbBands];
-        for (int i = 0; i < nbBands; i++) {
-            int nbBins = getNbBins(bands[i].getDataType());
-            histograms[i] = new NumericHistogram(nbBins, stats[i].minimum(), stats[i].maximum());
-        }
-
-        //reset iterator
-        pix.rewind();
-
-        //second pass to compute histogram
-        // this int permit to loop on images band.
-        int b = 0;
-        if (excludeNoData) {
-            while (pix.next()) {
-                final double d = pix.getSampleDouble();
-
-                //add value if not NaN or is flag as no-data
-                if (!Double.isNaN(d) &&
-                        (bands[b].getNoData() == null || !(Arrays.binarySearch(bands[b].getNoData(), d) >= 0))) {
-                    histograms[b].addValue(d);
-                }
-
-                //reset b to loop on first band
-                if (++b == nbBands) b = 0;
-            }
-        } else {
-            //iter on each pixel band by band to add values on each band.
-            while (pix.next()) {
-                final double d = pix.getSampleDouble();
-                histograms[b].addValue(d);
-
-                //reset b to loop on first band
-                if (++b == nbBands) b = 0;
-            }
-        }
-        return histograms;
-    }
-
     private int getNbBins(SampleType dataType) {
         if (dataType != null && dataType.equals(SampleType.BYTE)) {
             return 255;
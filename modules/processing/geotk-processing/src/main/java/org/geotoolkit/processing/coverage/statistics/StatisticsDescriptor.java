@@ -108,11 +108,31 @@ public class StatisticsDescriptor extends AbstractProcessDescriptor {
             .setRequired(true)
             .create(Boolean.class, true);
 
+    /*
+     * Subsampling step, same on columns and rows
+     */
+    public static final String IN_SUBSAMPLING_PARAM_NAME = "inSubsampling";
+    public static final ParameterDescriptor<Integer> SUBSAMPLING = new ParameterBuilder()
+            .addName(IN_SUBSAMPLING_PARAM_NAME)
+            .setRemarks("Analyse one pixel every n columns and rows, 1 to analyse all pixels")
+            .setRequired(false)
+            .create(Integer.class, 1);
+
+    /*
+     * Flag to read reader or reference inputs by strips
+     */
+    public static final String IN_STREAMING_PARAM_NAME = "inStreaming";
+    public static final ParameterDescriptor<Boolean> STREAMING = new ParameterBuilder()
+            .addName(IN_STREAMING_PARAM_NAME)
+            .setRemarks("Read coverage reader or reference inputs by strips of rows, analysed one after the other")
+            .setRequired(false)
+            .create(Boolean.class, false);
+
 
     /**Input parameters */
     public static final ParameterDescriptorGroup INPUT_DESC =
             new ParameterBuilder().addName("InputParameters").createGroup(
-                    IMAGE, COVERAGE, REF, READER, IMAGE_IDX, EXCLUDE_NO_DATA);
+                    IMAGE, COVERAGE, REF, READER, IMAGE_IDX, EXCLUDE_NO_DATA, SUBSAMPLING, STREAMING);
 
     /*
      * Coverage result
@@ -24,6 +24,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.sis.util.logging.Logging;
+import org.geotoolkit.feature.Feature;
 import org.geotoolkit.feature.type.FeatureType;
 import org.opengis.util.GenericName;
 import org.opengis.filter.Filter;
@@ -35,9 +36,15 @@ import org.apache.sis.storage.DataStoreException;
 
 import org.geotoolkit.data.FeatureStore;
 import org.geotoolkit.data.FeatureCollection;
+import org.geotoolkit.data.FeatureIterator;
+import org.geotoolkit.data.FeatureStoreRuntimeException;
+import org.geotoolkit.data.FeatureStoreUtilities;
+import org.geotoolkit.data.SplittableFeatureStore;
+import org.geotoolkit.data.memory.WrapFeatureCollection;
 import org.geotoolkit.data.query.Query;
 import org.geotoolkit.data.query.QueryBuilder;
 import org.geotoolkit.data.session.Session;
+import org.geotoolkit.factory.Hints;
 import org.geotoolkit.filter.DefaultPropertyName;
 import org.geotoolkit.filter.visitor.DuplicatingFilterVisitor;
 import org.geotoolkit.parameter.Parameters;
@@ -82,6 +89,7 @@ public class Copy extends AbstractProcess {
         // Type name can be removed, it's embedded in the query param.
         final String typenameParam  = value(TYPE_NAME,    inputParameters);
         final Query queryParam      = value(QUERY, inputParameters);
+        final Boolean parallel      = value(PARALLEL,     inputParameters);
 
         final boolean doCommit = targetSS == null;
 
@@ -143,7 +151,7 @@ public class Copy extends AbstractProcess {
                     query = queryParam != null ? queryParam : QueryBuilder.all(n);
                 }
 
-                insert(n, sourceSS, targetSS, query, eraseParam, newVersion);
+                insert(n, sourceSS, targetSS, query, eraseParam, newVersion, Boolean.TRUE.equals(parallel));
             } catch (DataStoreException ex) {
                 throw new ProcessException(ex.getMessage(), this, ex);
             }
@@ -182,7 +190,7 @@ public class Copy extends AbstractProcess {
     }
 
     private void insert(GenericName name, final Session sourceSS, final Session targetSS, Query query,
-                        final boolean erase, final boolean newVersion) throws DataStoreException{
+                        final boolean erase, final boolean newVersion, final boolean parallel) throws DataStoreException{
 
         FeatureType type = sourceSS.getFeatureStore().getFeatureType(name);
 
@@ -193,7 +201,16 @@ public class Copy extends AbstractProcess {
             builder.setFilter(newFilter);
             query = builder.buildQuery();
         }
-        final FeatureCollection collection = sourceSS.getFeatureCollection(query);
+        final FeatureCollection sourceCollection = sourceSS.getFeatureCollection(query);
+        FeatureCollection collection = sourceCollection;
+
+        //read source with several threads if possible.
+        //split readers read the store directly, session changes would be ignored.
+        final FeatureStore sourceStore = sourceSS.getFeatureStore();
+        if (parallel && !sourceSS.hasPendingChanges() && sourceStore instanceof SplittableFeatureStore
+                && ((SplittableFeatureStore) sourceStore).isSplittable(query)) {
+            collection = new ParallelFeatureCollection(sourceCollection, (SplittableFeatureStore) sourceStore, query);
+        }
 
         //get the real FeatureType of collection (in case of reprojection, CRS is different).
         type = collection.getFeatureType();
@@ -226,7 +243,7 @@ public class Copy extends AbstractProcess {
 
         //Logging
         final StringBuilder logMsg = new StringBuilder("Insert ");
-        logMsg.append(collection.size()).append(" features ");
+        logMsg.append(sourceCollection.size()).append(" features ");
         logMsg.append("in type ").append(name.tip().toString());
         logMsg.append(" [");
         if (erase) {
@@ -240,6 +257,39 @@ public class Copy extends AbstractProcess {
         targetSS.addFeatures(name, collection);
     }
 
+    /**
+     * Feature collection iterating on a split reader with several threads.
+     * Features order is not preserved.<br/>
+     * Features are read from the store, the source session must not have pending changes.
+     */
+    private static class ParallelFeatureCollection extends WrapFeatureCollection {
+
+        private final SplittableFeatureStore store;
+        private final Query query;
+
+        private ParallelFeatureCollection(final FeatureCollection original,
+                final SplittableFeatureStore store, final Query query) {
+            super(original);
+            this.store = store;
+            this.query = query;
+        }
+
+        @Override
+        public FeatureIterator iterator(final Hints hints) throws FeatureStoreRuntimeException {
+            try {
+                return FeatureStoreUtilities.parallel(store.getSplitFeatureReader(query),
+                        Runtime.getRuntime().availableProcessors());
+            } catch (DataStoreException ex) {
+                throw new FeatureStoreRuntimeException(ex);
+            }
+        }
+
+        @Override
+        protected Feature modify(final Feature original) throws FeatureStoreRuntimeException {
+            return original;
+        }
+    }
+
     /**
      * Override BBox filters if property name equals to * to set name form
      * default geometry name in given FeatureType.
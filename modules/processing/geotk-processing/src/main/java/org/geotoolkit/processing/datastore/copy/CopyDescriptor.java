@@ -42,6 +42,8 @@ import org.opengis.parameter.ParameterValueGroup;
  *     <li>QUERY "query" query to use to retrieve the feature collection. Support wildcard '*'
  *     for retrieve all FeatureType of input FeatureStore and another wildcard '*' in BBOX filter query
  *     to use default geometry name to filter features.</li>
+ *     <li>PARALLEL "parallel" read source features with several threads if the source store supports it
+ *     and the source session has no pending changes. Features order is not preserved.</li>
  * </ul>
  * outputs : none
  * <ul>
@@ -125,12 +127,21 @@ public final class CopyDescriptor extends VectorDescriptor {
             .setRequired(false)
             .create(Query.class, null);
 
+    /**
+     * Optional - read source features with several threads.
+     */
+    public static final ParameterDescriptor<Boolean> PARALLEL = new ParameterBuilder()
+            .addName("parallel")
+            .setRemarks("Read source features with several threads if the source store supports it and the source session has no pending changes. Features order is not preserved.")
+            .setRequired(false)
+            .create(Boolean.class, false);
+
     /**
      * Input Parameters
      */
     public static final ParameterDescriptorGroup INPUT_DESC =
             new ParameterBuilder().addName("InputParameters").createGroup(
-                    SOURCE_STORE, TARGET_STORE, TARGET_SESSION, ERASE, NEW_VERSION, TYPE_NAME, QUERY);
+                    SOURCE_STORE, TARGET_STORE, TARGET_SESSION, ERASE, NEW_VERSION, TYPE_NAME, QUERY, PARALLEL);
 
     /**
      * Optional - create version
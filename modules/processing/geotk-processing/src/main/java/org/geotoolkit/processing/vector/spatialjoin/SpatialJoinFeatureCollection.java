@@ -33,6 +33,11 @@ public class SpatialJoinFeatureCollection extends WrapFeatureCollection {
     private final FeatureCollection sourceFC;
     private final boolean method;
 
+    /**
+     * Index on source FeatureCollection geometries, built on first join then re-used.
+     */
+    private SpatialJoinIndex sourceIndex;
+
     /**
      * Create the new
      * @param sourceFC the source FeatureCollection
@@ -62,6 +67,18 @@ public class SpatialJoinFeatureCollection extends WrapFeatureCollection {
      */
     @Override
     protected Feature modify(final Feature original) {
-        return SpatialJoinProcess.join(original, newFeatureType, sourceFC, method);
+        return SpatialJoinProcess.join(original, newFeatureType, getSourceIndex(),
+                sourceFC.getFeatureType().getCoordinateReferenceSystem(), method);
+    }
+
+    /**
+     * Return the index on source FeatureCollection geometries, reading source collection only once.
+     * @return source index
+     */
+    private synchronized SpatialJoinIndex getSourceIndex() {
+        if (sourceIndex == null) {
+            sourceIndex = new SpatialJoinIndex(sourceFC);
+        }
+        return sourceIndex;
     }
 }
@@ -0,0 +1,155 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.processing.vector.spatialjoin;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+import com.vividsolutions.jts.index.strtree.ItemBoundable;
+import com.vividsolutions.jts.index.strtree.ItemDistance;
+import com.vividsolutions.jts.index.strtree.STRtree;
+import java.util.List;
+import org.geotoolkit.data.FeatureCollection;
+import org.geotoolkit.data.FeatureIterator;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.Property;
+import org.geotoolkit.feature.type.GeometryDescriptor;
+
+/**
+ * In memory R-tree over all source feature geometries, built once and probed for each target feature.<br/>
+ * Index is immutable once built, so it can be probed by several threads concurrently.
+ *
+ * @author Quentin Boileau
+ * @module pending
+ */
+final class SpatialJoinIndex {
+
+    /**
+     * Compute exact distance between two indexed source geometries.
+     */
+    private static final ItemDistance GEOMETRY_DISTANCE = new ItemDistance() {
+        @Override
+        public double distance(final ItemBoundable item1, final ItemBoundable item2) {
+            return ((Entry) item1.getItem()).geometry.distance(((Entry) item2.getItem()).geometry);
+        }
+    };
+
+    /**
+     * Indexed source feature geometry.
+     */
+    private static final class Entry {
+        /**
+         * Position of source feature within source collection iteration order,
+         * use to keep the first feature when many features give same result.
+         */
+        private final int order;
+        private final Feature feature;
+        private final Geometry geometry;
+
+        private Entry(final int order, final Feature feature, final Geometry geometry) {
+            this.order    = order;
+            this.feature  = feature;
+            this.geometry = geometry;
+        }
+    }
+
+    private final STRtree tree;
+
+    /**
+     * Read all source features and index each of their geometries.
+     *
+     * @param sourceFC the source FeatureCollection
+     */
+    SpatialJoinIndex(final FeatureCollection sourceFC) {
+        tree = new STRtree();
+        final FeatureIterator iter = sourceFC.iterator(null);
+        try {
+            int order = 0;
+            while (iter.hasNext()) {
+                final Feature feature = iter.next();
+                for (final Property property : feature.getProperties()) {
+                    if (property.getDescriptor() instanceof GeometryDescriptor) {
+                        final Geometry geom = (Geometry) property.getValue();
+                        if (geom != null && !geom.isEmpty()) {
+                            tree.insert(geom.getEnvelopeInternal(), new Entry(order, feature, geom));
+                        }
+                    }
+                }
+                order++;
+            }
+        } finally {
+            iter.close();
+        }
+        //-- build now, lazy build on first query is not thread safe.
+        tree.build();
+    }
+
+    /**
+     * Return the source Feature with the biggest intersection area with the geometry.
+     * If there is many Feature with the same area, the first in source collection order is returned.
+     *
+     * @param targetGeometry target geometry, in source CRS.
+     * @return the Feature, or {@code null} if no source Feature intersect target geometry.
+     */
+    Feature biggestIntersection(final Geometry targetGeometry) {
+        if (tree.size() == 0 || targetGeometry == null || targetGeometry.isEmpty()) return null;
+        final List candidates = tree.query(targetGeometry.getEnvelopeInternal());
+        if (candidates.isEmpty()) return null;
+        final PreparedGeometry prepared = PreparedGeometryFactory.prepare(targetGeometry);
+
+        Entry best  = null;
+        double area = 0.0;
+        for (final Object candidate : candidates) {
+            final Entry entry = (Entry) candidate;
+            if (!prepared.intersects(entry.geometry)) continue;
+            final double computeArea = targetGeometry.intersection(entry.geometry).getArea();
+            if (best == null || computeArea > area || (computeArea == area && entry.order < best.order)) {
+                best = entry;
+                area = computeArea;
+            }
+        }
+        return (best == null) ? null : best.feature;
+    }
+
+    /**
+     * Return the source Feature nearest of the geometry.
+     * If there is many Feature at the same distance, the first in source collection order is returned.
+     *
+     * @param targetGeometry target geometry, in source CRS.
+     * @return the Feature, or {@code null} if source collection is empty.
+     */
+    Feature nearest(final Geometry targetGeometry) {
+        if (tree.size() == 0 || targetGeometry == null || targetGeometry.isEmpty()) return null;
+        final Envelope targetEnv = targetGeometry.getEnvelopeInternal();
+        final Entry nearest = (Entry) tree.nearestNeighbour(targetEnv, new Entry(-1, null, targetGeometry), GEOMETRY_DISTANCE);
+        if (nearest == null) return null;
+
+        //-- find all features at the same distance to keep the first one, as without index.
+        final double dist = targetGeometry.distance(nearest.geometry);
+        final Envelope searchEnv = new Envelope(targetEnv);
+        searchEnv.expandBy(dist);
+        Entry best = nearest;
+        for (final Object candidate : tree.query(searchEnv)) {
+            final Entry entry = (Entry) candidate;
+            if (entry.order < best.order && targetGeometry.distance(entry.geometry) <= dist) {
+                best = entry;
+            }
+        }
+        return best.feature;
+    }
+}
@@ -18,22 +18,16 @@ package org.geotoolkit.processing.vector.spatialjoin;
 
 import com.vividsolutions.jts.geom.Geometry;
 
-import java.util.ArrayList;
 import java.util.Iterator;
 
 import java.util.logging.Level;
 import org.geotoolkit.data.FeatureCollection;
-import org.geotoolkit.data.FeatureIterator;
 import org.geotoolkit.feature.AttributeDescriptorBuilder;
 import org.geotoolkit.feature.AttributeTypeBuilder;
 import org.geotoolkit.feature.FeatureTypeBuilder;
 import org.geotoolkit.feature.FeatureUtilities;
 import org.geotoolkit.geometry.jts.JTS;
 import org.geotoolkit.processing.AbstractProcess;
-import org.geotoolkit.process.ProcessDescriptor;
-import org.geotoolkit.process.ProcessException;
-import org.geotoolkit.processing.vector.intersect.IntersectDescriptor;
-import org.geotoolkit.processing.vector.nearest.NearestDescriptor;
 
 import org.geotoolkit.feature.Feature;
 import org.geotoolkit.feature.Property;
@@ -43,8 +37,11 @@ import org.geotoolkit.feature.type.FeatureType;
 import org.geotoolkit.feature.type.GeometryDescriptor;
 import org.geotoolkit.feature.type.PropertyDescriptor;
 import org.geotoolkit.processing.vector.VectorDescriptor;
+import org.geotoolkit.processing.vector.VectorProcessUtils;
 import org.opengis.parameter.ParameterValueGroup;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.util.FactoryException;
 
 import org.apache.sis.util.logging.Logging;
 import static org.geotoolkit.parameter.Parameters.*;
@@ -80,7 +77,7 @@ public class SpatialJoinProcess extends AbstractProcess {
     }
 
     /**
-     * This function join target Feature with another Feature form a source FeatureCollection.
+     * This function join target Feature with another Feature from an index built on source FeatureCollection.
      *
      * If boolean <code>method</code> is true, the method used is Intersect, else it's Nearest.
      *
@@ -95,12 +92,13 @@ public class SpatialJoinProcess extends AbstractProcess {
      *
      * @param target the target Feature
      * @param newType the concatenated FeatureType
-     * @param sourceFC the source FeatureCollection
+     * @param sourceIndex index of all source FeatureCollection geometries
+     * @param sourceCRS the source geometries CRS, target geometries are re-projected into it, may be null
      * @param method the used method. True -> Intersect, False -> Nearest
      * @return the joined feature
      */
     static Feature join(final Feature target, final FeatureType newType,
-            final FeatureCollection sourceFC, final boolean method) {
+            final SpatialJoinIndex sourceIndex, final CoordinateReferenceSystem sourceCRS, final boolean method) {
 
         Feature resultFeature = FeatureUtilities.defaultFeature(newType, target.getIdentifier().getID());
 
@@ -109,67 +107,29 @@ public class SpatialJoinProcess extends AbstractProcess {
             resultFeature.getProperty(targetProperty.getName()).setValue(targetProperty.getValue());
         }
 
-        ProcessDescriptor desc;
-        org.geotoolkit.process.Process proc;
-        ParameterValueGroup in;
-        ArrayList<Feature> featureOutArray;
-
         //for each target feature geometry
         for (final Property property : target.getProperties()) {
             if (property.getDescriptor() instanceof GeometryDescriptor) {
-                final Geometry targetGeometry = (Geometry) property.getValue();
+                Geometry targetGeometry = (Geometry) property.getValue();
                 final GeometryDescriptor geomDesc = (GeometryDescriptor) property.getDescriptor();
                 final CoordinateReferenceSystem geomCRS = geomDesc.getCoordinateReferenceSystem();
 
                 JTS.setCRS(targetGeometry, geomCRS);//add CRS to the used data geometry
-                //use intersect method
-                if (method) {
-                    desc = IntersectDescriptor.INSTANCE;
-                    in = desc.getInputDescriptor().createValue();
-                    in.parameter(IntersectDescriptor.FEATURE_IN.getName().getCode()).setValue(sourceFC);
-                    in.parameter(IntersectDescriptor.GEOMETRY_IN.getName().getCode()).setValue(targetGeometry);
-                    proc = desc.createProcess(in);
-
-                } else {//use nearest method
-                    desc = NearestDescriptor.INSTANCE;
-                    in = desc.getInputDescriptor().createValue();
-                    in.parameter(NearestDescriptor.FEATURE_IN.getName().getCode()).setValue(sourceFC);
-                    in.parameter(NearestDescriptor.GEOMETRY_IN.getName().getCode()).setValue(targetGeometry);
-                    proc = desc.createProcess(in);
-                }
-
-                //run it
-                final FeatureCollection featureOut;
-                try {
-                    featureOut = (FeatureCollection) proc.call().parameter("feature_out").getValue();
-                } catch (ProcessException ex) {
-                    Logging.getLogger("org.geotoolkit.processing.vector.spatialjoin").log(Level.WARNING, null, ex);
-                    return null;
-                }
-
-                featureOutArray = new ArrayList<Feature>(featureOut);
-
-                if (method) {//intersect method
-
-                    if (featureOutArray.isEmpty()) { //no intersection
-                        return resultFeature;
-                    } else {
-
-                        if (featureOutArray.size() > 1) { //more than one intersection
-                            final Feature biggestFeature = biggestIntersection(featureOut, targetGeometry);
-                            resultFeature = copyAttributes(target, biggestFeature, newType);
-                        } else {// only one intersection
-                            resultFeature = copyAttributes(target, featureOutArray.get(0), newType);
-                        }
+                if (sourceCRS != null && geomCRS != null) {
+                    try {
+                        targetGeometry = VectorProcessUtils.repojectGeometry(sourceCRS, geomCRS, targetGeometry);
+                    } catch (TransformException | FactoryException ex) {
+                        Logging.getLogger("org.geotoolkit.processing.vector.spatialjoin").log(Level.WARNING, null, ex);
+                        return null;
                     }
+                }
 
-                } else {//nearest method
-                    if (featureOutArray.isEmpty()) {
-                        return resultFeature;
-                    } else {
-                        resultFeature = copyAttributes(target, featureOutArray.get(0), newType);
-                    }
+                final Feature sourceFeature = (method) ? sourceIndex.biggestIntersection(targetGeometry)
+                                                       : sourceIndex.nearest(targetGeometry);
+                if (sourceFeature == null) {
+                    return resultFeature;
                 }
+                resultFeature = copyAttributes(target, sourceFeature, newType);
             }
         }
 
@@ -205,47 +165,6 @@ public class SpatialJoinProcess extends AbstractProcess {
         return resultFeature;
     }
 
-    /**
-     * Return the Feature with the biggest intersection area with the geometry.
-     * If there is many Feature with the same area, the function return th first founded.
-     * @param outFC
-     * @param intersectGeometry
-     * @return the Feature
-     */
-    static Feature biggestIntersection(final FeatureCollection outFC, final Geometry intersectGeometry) {
-        double area = 0.0;
-
-        final ArrayList<Feature> listID = new ArrayList<Feature>();
-
-        final FeatureIterator iter = outFC.iterator(null);
-        try{
-            while (iter.hasNext()) {
-                final Feature feature = iter.next();
-                for (final Property property : feature.getProperties()) {
-                    if (property.getDescriptor() instanceof GeometryDescriptor) {
-
-                        final Geometry geom = (Geometry) property.getValue();
-
-                        final double computeArea = intersectGeometry.intersection(geom).getArea();
-                        if (computeArea > area) {
-                            listID.clear();
-                            area = computeArea;
-                            listID.add(feature);
-
-                        } else {
-                            if (computeArea == area) {
-                                listID.add(feature);
-                            }
-                        }
-                    }
-                }
-            }
-        }finally{
-            iter.close();
-        }
-        return listID.get(0);
-    }
-
     /**
      * Create a new FeatureType with the target FeatureType and adding
      * source attributes except the GeometryDescriptor
@@ -18,10 +18,15 @@ package org.geotoolkit.processing.chain;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import javax.xml.bind.JAXBException;
 import org.geotoolkit.process.ProcessDescriptor;
+import org.geotoolkit.process.ProcessEvent;
 import org.geotoolkit.process.Process;
 import org.geotoolkit.process.ProcessException;
 import org.geotoolkit.processing.chain.model.Chain;
@@ -30,6 +35,7 @@ import org.geotoolkit.processing.chain.model.Constant;
 import org.geotoolkit.processing.chain.model.ElementCondition;
 import org.geotoolkit.processing.chain.model.FlowLink;
 import org.geotoolkit.processing.chain.model.Parameter;
+import org.geotoolkit.processing.ProcessListenerAdapter;
 import org.junit.Test;
 import static org.junit.Assert.*;
 import static org.geotoolkit.processing.chain.model.Element.*;
@@ -112,6 +118,61 @@ public class ChainProcessTest extends org.geotoolkit.test.TestBase {
         return chain;
     }
 
+    private Chain createParallelChain(final int nbBranch){
+        //produce a chain equivalent to : r_i = ($a + i) * 10 , for each branch i
+        final Chain chain = new Chain("parallelChain");
+        int id = 1;
+
+        final Parameter a = chain.addInputParameter("a", Double.class, "desc",1,1,null);
+        final Constant c10 = chain.addConstant(id++, Double.class, 10d);
+
+        for (int i = 0; i < nbBranch; i++) {
+            final Parameter r = chain.addOutputParameter("r"+i, Double.class, "desc",1,1,null);
+            final Constant ci = chain.addConstant(id++, Double.class, (double) i);
+            final ElementProcess add = chain.addProcessElement(id++, "demo", "add");
+            final ElementProcess multi = chain.addProcessElement(id++, "demo", "multiply");
+
+            chain.addFlowLink(BEGIN.getId(), add.getId());
+            chain.addFlowLink(add.getId(), multi.getId());
+            chain.addFlowLink(multi.getId(), END.getId());
+
+            chain.addDataLink(BEGIN.getId(), a.getCode(), add.getId(), "first");
+            chain.addDataLink(ci.getId(), "", add.getId(), "second");
+            chain.addDataLink(add.getId(), "result", multi.getId(), "first");
+            chain.addDataLink(c10.getId(), "", multi.getId(), "second");
+            chain.addDataLink(multi.getId(), "result", END.getId(), r.getCode());
+        }
+
+        return chain;
+    }
+
+    private Chain createBlockingChain(final int nbBranch, final boolean sequential){
+        //produce a chain returning r_i = $a with blocking processes,
+        //in independent branches or one after the other
+        final Chain chain = new Chain("blockingChain");
+        int id = 1;
+
+        final Parameter a = chain.addInputParameter("a", Double.class, "desc",1,1,null);
+        ElementProcess previous = null;
+        for (int i = 0; i < nbBranch; i++) {
+            final Parameter r = chain.addOutputParameter("r"+i, Double.class, "desc",1,1,null);
+            final ElementProcess block = chain.addProcessElement(id++, "demo", "block");
+
+            if (sequential && previous != null) {
+                chain.addFlowLink(previous.getId(), block.getId());
+                chain.addDataLink(previous.getId(), "result", block.getId(), "value");
+            } else {
+                chain.addFlowLink(BEGIN.getId(), block.getId());
+                chain.addDataLink(BEGIN.getId(), a.getCode(), block.getId(), "value");
+            }
+            chain.addFlowLink(block.getId(), END.getId());
+            chain.addDataLink(block.getId(), "result", END.getId(), r.getCode());
+            previous = block;
+        }
+
+        return chain;
+    }
+
     @Test
     public void testSimpleChain() throws ProcessException{
 
@@ -230,4 +291,183 @@ public class ChainProcessTest extends org.geotoolkit.test.TestBase {
 
     }
 
+    @Test
+    public void testParallelChain() throws ProcessException{
+
+        final int nbBranch = 12;
+        final Chain chain = createParallelChain(nbBranch);
+
+        //process registries to use
+        final Set<MockProcessRegistry> registries = Collections.singleton(new MockProcessRegistry());
+
+        //create a process descriptor to use it like any process.
+        final ProcessDescriptor desc = new ChainProcessDescriptor(chain, MockProcessRegistry.IDENTIFICATION, registries);
+
+        for (int parallelism : new int[]{1, 4}) {
+            final ParameterValueGroup input = desc.getInputDescriptor().createValue();
+            input.parameter("a").setValue(5d);
+
+            final ChainProcess process = (ChainProcess) desc.createProcess(input);
+            process.setParallelism(parallelism);
+
+            //each sub process completion is reported with its execution time
+            final List<String> tasks = Collections.synchronizedList(new ArrayList<String>());
+            process.addListener(new ProcessListenerAdapter() {
+                @Override
+                public void progressing(final ProcessEvent event) {
+                    tasks.add(String.valueOf(event.getTask()));
+                }
+            });
+            final ParameterValueGroup result = process.call();
+
+            for (int i = 0; i < nbBranch; i++) {
+                assertEquals((5d + i) * 10d, result.parameter("r"+i).doubleValue(), 0.000001);
+            }
+            assertEquals(nbBranch * 2, tasks.size());
+            for (String task : tasks) {
+                assertTrue(task, task.matches("(add|multiply) completed in \\d+ ms"));
+            }
+        }
+    }
+
+    /**
+     * Independent branches must run at the same time : each blocking process
+     * waits until all of them have started.
+     */
+    @Test
+    public void testParallelBranchesOverlap() throws Exception{
+        final int nbBranch = 3;
+        final ChainProcess process = createBlockingProcess(createBlockingChain(nbBranch, false), nbBranch);
+        MockBlockingDescriptor.reset(nbBranch);
+
+        final ChainRunner runner = new ChainRunner(process);
+        runner.start();
+        try {
+            assertTrue("Branches did not run concurrently",
+                    MockBlockingDescriptor.started.await(10, TimeUnit.SECONDS));
+        } finally {
+            MockBlockingDescriptor.release.countDown();
+            runner.join(10000);
+        }
+
+        assertFalse(runner.isAlive());
+        assertNull(runner.error);
+        for (int i = 0; i < nbBranch; i++) {
+            assertEquals(5d, runner.result.parameter("r"+i).doubleValue(), 0.000001);
+        }
+    }
+
+    /**
+     * Canceling the chain must stop running sub processes and end the chain execution.
+     */
+    @Test
+    public void testCancelChain() throws Exception{
+        final int nbBranch = 2;
+        final ChainProcess process = createBlockingProcess(createBlockingChain(nbBranch, false), nbBranch);
+        MockBlockingDescriptor.reset(nbBranch);
+
+        final ChainRunner runner = new ChainRunner(process);
+        runner.start();
+        try {
+            assertTrue(MockBlockingDescriptor.started.await(10, TimeUnit.SECONDS));
+            process.cancelProcess();
+            runner.join(10000);
+            assertFalse(runner.isAlive());
+            assertNull(runner.result);
+            assertTrue(runner.error instanceof ProcessException);
+
+            //sub processes stop asynchronously
+            for (int i = 0; i < 1000 && MockBlockingDescriptor.canceled.get() < nbBranch; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(nbBranch, MockBlockingDescriptor.canceled.get());
+        } finally {
+            MockBlockingDescriptor.release.countDown();
+        }
+    }
+
+    /**
+     * A paused chain must not start new sub processes until resumed.
+     */
+    @Test
+    public void testPauseResumeChain() throws Exception{
+        final ChainProcess process = createBlockingProcess(createBlockingChain(2, true), 4);
+        MockBlockingDescriptor.reset(2);
+
+        final CountDownLatch paused = new CountDownLatch(1);
+        final CountDownLatch resumed = new CountDownLatch(1);
+        process.addListener(new ProcessListenerAdapter() {
+            @Override
+            public void paused(final ProcessEvent event) {
+                paused.countDown();
+            }
+            @Override
+            public void resumed(final ProcessEvent event) {
+                resumed.countDown();
+            }
+        });
+
+        final ChainRunner runner = new ChainRunner(process);
+        runner.start();
+        try {
+            //wait for the first process, pause, then let it complete
+            for (int i = 0; i < 1000 && MockBlockingDescriptor.started.getCount() == 2; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, MockBlockingDescriptor.started.getCount());
+            process.pauseProcess();
+            MockBlockingDescriptor.release.countDown();
+
+            assertTrue(paused.await(10, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            assertEquals("Second process started while paused", 1, MockBlockingDescriptor.started.getCount());
+
+            process.resumeProcess();
+            assertTrue(resumed.await(10, TimeUnit.SECONDS));
+            runner.join(10000);
+        } finally {
+            MockBlockingDescriptor.release.countDown();
+            process.resumeProcess();
+        }
+
+        assertFalse(runner.isAlive());
+        assertNull(runner.error);
+        assertEquals(0, MockBlockingDescriptor.started.getCount());
+        assertEquals(5d, runner.result.parameter("r0").doubleValue(), 0.000001);
+        assertEquals(5d, runner.result.parameter("r1").doubleValue(), 0.000001);
+    }
+
+    private ChainProcess createBlockingProcess(final Chain chain, final int parallelism){
+        final Set<MockProcessRegistry> registries = Collections.singleton(new MockProcessRegistry());
+        final ProcessDescriptor desc = new ChainProcessDescriptor(chain, MockProcessRegistry.IDENTIFICATION, registries);
+        final ParameterValueGroup input = desc.getInputDescriptor().createValue();
+        input.parameter("a").setValue(5d);
+        final ChainProcess process = (ChainProcess) desc.createProcess(input);
+        process.setParallelism(parallelism);
+        return process;
+    }
+
+    /**
+     * Execute a process in its own thread.
+     */
+    private static final class ChainRunner extends Thread {
+        private final Process process;
+        private volatile ParameterValueGroup result;
+        private volatile Throwable error;
+
+        private ChainRunner(final Process process) {
+            this.process = process;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                result = process.call();
+            } catch (Throwable ex) {
+                error = ex;
+            }
+        }
+    }
+
 }
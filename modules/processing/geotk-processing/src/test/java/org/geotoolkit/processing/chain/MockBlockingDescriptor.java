@@ -0,0 +1,115 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.processing.chain;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.sis.parameter.ParameterBuilder;
+import org.apache.sis.util.iso.SimpleInternationalString;
+import org.geotoolkit.process.Process;
+import org.geotoolkit.process.ProcessDescriptor;
+import org.geotoolkit.process.ProcessException;
+import org.geotoolkit.processing.AbstractProcess;
+import org.geotoolkit.processing.AbstractProcessDescriptor;
+import org.opengis.parameter.ParameterDescriptor;
+import org.opengis.parameter.ParameterDescriptorGroup;
+import org.opengis.parameter.ParameterValueGroup;
+
+/**
+ * Process returning its input value once released, used to test chain scheduling.
+ * <br/>
+ * Each execution counts down {@link #started}, then waits for {@link #release}.
+ * A canceled or interrupted execution stops waiting and fails, cancels are counted in {@link #canceled}.
+ */
+public class MockBlockingDescriptor extends AbstractProcessDescriptor{
+
+    public static final String NAME = "block";
+
+    public static final ParameterDescriptor<Double> VALUE = new ParameterBuilder()
+            .addName("value")
+            .setRequired(true)
+            .create(Double.class, null);
+    public static final ParameterDescriptorGroup INPUT_DESC = new ParameterBuilder()
+            .addName("InputParameters")
+            .createGroup(VALUE);
+
+    public static final ParameterDescriptor<Double> RESULT = new ParameterBuilder()
+            .addName("result")
+            .setRequired(true)
+            .create(Double.class, null);
+    public static final ParameterDescriptorGroup OUTPUT_DESC = new ParameterBuilder()
+            .addName("OutputParameters")
+            .createGroup(RESULT);
+
+    /** Counted down when an execution starts. */
+    public static volatile CountDownLatch started = new CountDownLatch(0);
+    /** Executions complete once this latch is released. */
+    public static volatile CountDownLatch release = new CountDownLatch(0);
+    /** Number of executions stopped by a cancel. */
+    public static final AtomicInteger canceled = new AtomicInteger();
+
+    /** Instance */
+    public static final ProcessDescriptor INSTANCE = new MockBlockingDescriptor();
+
+    private MockBlockingDescriptor() {
+        super(NAME, MockProcessRegistry.IDENTIFICATION,
+                new SimpleInternationalString(""),INPUT_DESC, OUTPUT_DESC);
+    }
+
+    /**
+     * Reset test state.
+     *
+     * @param nbStarted number of executions expected to start
+     */
+    public static void reset(final int nbStarted) {
+        started = new CountDownLatch(nbStarted);
+        release = new CountDownLatch(1);
+        canceled.set(0);
+    }
+
+    @Override
+    public Process createProcess(final ParameterValueGroup input) {
+        return new BlockingProcess(this, input);
+    }
+
+    public class BlockingProcess extends AbstractProcess {
+
+        public BlockingProcess(final ProcessDescriptor descriptor, final ParameterValueGroup input) {
+            super(descriptor, input);
+        }
+
+        @Override
+        protected void execute() throws ProcessException {
+            started.countDown();
+            try {
+                while (!release.await(10, TimeUnit.MILLISECONDS)) {
+                    if (isCanceled()) {
+                        canceled.incrementAndGet();
+                        throw new ProcessException("Canceled", this, null);
+                    }
+                }
+            } catch (InterruptedException ex) {
+                if (isCanceled()) canceled.incrementAndGet();
+                throw new ProcessException("Interrupted", this, ex);
+            }
+            final Object value = inputParameters.parameter(VALUE.getName().getCode()).getValue();
+            outputParameters.parameter(RESULT.getName().getCode()).setValue(value);
+        }
+    }
+
+}
@@ -27,6 +27,7 @@ import java.util.*;
 
 import org.apache.sis.geometry.GeneralDirectPosition;
 import org.apache.sis.internal.referencing.GeodeticObjectBuilder;
+import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
 import org.apache.sis.referencing.CommonCRS;
 import org.apache.sis.storage.DataStoreException;
 import org.geotoolkit.storage.coverage.CoverageStore;
@@ -40,6 +41,7 @@ import org.geotoolkit.coverage.grid.GridCoverageBuilder;
 import org.geotoolkit.coverage.grid.ViewType;
 import org.geotoolkit.coverage.io.GridCoverageReader;
 import org.geotoolkit.coverage.memory.MPCoverageStore;
+import org.geotoolkit.cql.CQL;
 import org.geotoolkit.util.NamesExt;
 import org.opengis.util.GenericName;
 import org.geotoolkit.geometry.GeneralEnvelope;
@@ -49,8 +51,10 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.opengis.coverage.Coverage;
 import org.opengis.coverage.grid.GridCoverage;
+import org.opengis.filter.expression.Expression;
 import org.opengis.geometry.Envelope;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
 
 /**
  *
@@ -217,6 +221,85 @@ public class MathCalcTest extends org.geotoolkit.test.TestBase {
 
     }
 
+    /**
+     * Block evaluation must give the same values than per sample evaluation,
+     * for arithmetic operators and functions.
+     */
+    @Test
+    public void blockEvaluatorTest() throws Exception{
+        final CoordinateReferenceSystem crs = CommonCRS.WGS84.defaultGeographic();
+        final GeneralEnvelope env = new GeneralEnvelope(crs);
+        env.setRange(0, 0, 51.2);
+        env.setRange(1, 0, 30.0);
+        final Coverage[] coverages = new Coverage[]{
+            createGradientCoverage2D(env, 512, 300, 1),
+            createGradientCoverage2D(env, 512, 300, -3)};
+        final String[] mapping = new String[]{"A","B"};
+        final Expression exp = CQL.parseExpression("abs(A - B) * 2 + A / (B + 0.5) - 3 * 4");
+
+        final MathCalcBlockEvaluator blockEvaluator = new MathCalcBlockEvaluator(coverages, mapping, exp, crs);
+        final MathCalcCoverageEvaluator sampleEvaluator = new MathCalcCoverageEvaluator(coverages, mapping, exp, crs);
+
+        //grid not aligned on coverages pixels
+        final MathTransform gridToCrs = new AffineTransform2D(0.073, 0, 0, -0.061, 0.513, 29.7);
+        final WritableRaster raster = BufferedImages.createImage(300, 200, 1, DataBuffer.TYPE_DOUBLE).getRaster();
+        blockEvaluator.evaluate(gridToCrs, new double[]{100, 250}, raster);
+
+        final GeneralDirectPosition position = new GeneralDirectPosition(crs);
+        final double[] expected = new double[1];
+        for(int y=0;y<raster.getHeight();y++){
+            for(int x=0;x<raster.getWidth();x++){
+                gridToCrs.transform(new GeneralDirectPosition(100+x, 250+y), position);
+                sampleEvaluator.evaluate(position, expected);
+                Assert.assertEquals("at ("+x+" "+y+")", expected[0], raster.getSampleDouble(x, y, 0), 0.0);
+            }
+        }
+    }
+
+    /**
+     * Test math calc on a mosaic of several tiles, tiles are filled in parallel.
+     */
+    @Test
+    public void multiTilesTest() throws Exception{
+        final int width = 512;
+        final int height = 300;
+
+        final CoordinateReferenceSystem crs = CommonCRS.WGS84.defaultGeographic();
+        final GeneralEnvelope env = new GeneralEnvelope(crs);
+        env.setRange(0, 0, 51.2);
+        env.setRange(1, 0, 30.0);
+        final GridCoverage2D baseCoverage = createGradientCoverage2D(env, width, height, 0);
+
+        //create output coverage ref
+        final MPCoverageStore store = new MPCoverageStore();
+        final PyramidalCoverageReference outRef = (PyramidalCoverageReference) store.create(NamesExt.create("test"));
+        outRef.setPackMode(ViewType.GEOPHYSICS);
+        outRef.setSampleDimensions(Collections.singletonList(new GridSampleDimension("data")));
+        outRef.setSampleModel(baseCoverage.getRenderedImage().getSampleModel());
+        outRef.setColorModel(baseCoverage.getRenderedImage().getColorModel());
+        final Pyramid pyramid = outRef.createPyramid(crs);
+        final GeneralDirectPosition corner = new GeneralDirectPosition(crs);
+        corner.setCoordinate(env.getMinimum(0), env.getMaximum(1));
+        outRef.createMosaic(pyramid.getId(), new Dimension(8, 5), new Dimension(64, 60), corner, 0.1);
+
+        final MathCalcProcess process = new MathCalcProcess(
+                new Coverage[]{baseCoverage},
+                "A*2+1",
+                new String[]{"A"},
+                outRef);
+        process.call();
+
+        final GridCoverageReader reader = outRef.acquireReader();
+        final GridCoverage2D result = (GridCoverage2D)reader.read(0, null);
+        outRef.recycle(reader);
+        final Raster resultRaster = result.getRenderedImage().getData();
+        for(int x=0;x<width;x++){
+            for(int y=0;y<height;y++){
+                Assert.assertEquals("at ("+x+" "+y+")", (x + y*1000)*2+1, resultRaster.getSampleFloat(x, y, 0), DELTA);
+            }
+        }
+    }
+
     /**
      * 4D calc test
      * @throws Exception
@@ -364,6 +447,24 @@ public class MathCalcTest extends org.geotoolkit.test.TestBase {
         return baseGcb1.getGridCoverage2D();
     }
 
+    /**
+     * Create a coverage where each pixel value is (x + y*1000 + offset).
+     */
+    private static GridCoverage2D createGradientCoverage2D(Envelope env, int width, int height, float offset){
+        final BufferedImage baseImage = BufferedImages.createImage(width, height, 1 , DataBuffer.TYPE_FLOAT);
+        final WritableRaster baseRaster = baseImage.getRaster();
+        for(int x=0;x<width;x++){
+            for(int y=0;y<height;y++){
+                baseRaster.setSample(x, y, 0, x + y*1000 + offset);
+            }
+        }
+        final GridCoverageBuilder gcb = new GridCoverageBuilder();
+        gcb.setName("gradient");
+        gcb.setRenderedImage(baseImage);
+        gcb.setEnvelope(env);
+        return gcb.getGridCoverage2D();
+    }
+
     private static BufferedImage createRenderedImage(int width, int height, float fillValue1, float fillValue2){
         final BufferedImage baseImage = BufferedImages.createImage(width, height, 1 , DataBuffer.TYPE_FLOAT);
         final WritableRaster baseRaster1 = baseImage.getRaster();
@@ -0,0 +1,126 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.processing.coverage.statistics;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test {@link BandAccumulator} single pass statistics and merging.
+ *
+ * @author Johann Sorel (Geomatys)
+ */
+public class BandAccumulatorTest extends org.geotoolkit.test.TestBase {
+
+    private static double[] createValues() {
+        final Random random = new Random(12);
+        final double[] values = new double[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i % 3 == 0) ? random.nextGaussian() * 50 + 1000 : random.nextDouble() * 1e4 - 300;
+        }
+        return values;
+    }
+
+    /**
+     * Statistics of merged accumulators must be the same than statistics of a single accumulator.
+     */
+    @Test
+    public void mergeTest() {
+        final double[] values = createValues();
+        final BandAccumulator single = new BandAccumulator();
+        final BandAccumulator[] parts = new BandAccumulator[7];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = new BandAccumulator();
+        }
+        for (int i = 0; i < values.length; i++) {
+            single.add(values[i]);
+            parts[(i / 1000) % parts.length].add(values[i]);
+        }
+        final BandAccumulator merged = new BandAccumulator();
+        for (BandAccumulator part : parts) {
+            merged.merge(part);
+        }
+
+        double mean = 0;
+        for (double v : values) mean += v;
+        mean /= values.length;
+        double variance = 0;
+        for (double v : values) variance += (v - mean) * (v - mean);
+        variance /= values.length;
+        final double[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        for (BandAccumulator acc : new BandAccumulator[]{single, merged}) {
+            Assert.assertEquals(values.length, acc.getCount());
+            Assert.assertEquals(sorted[0], acc.getMinimum(), 0.0);
+            Assert.assertEquals(sorted[sorted.length - 1], acc.getMaximum(), 0.0);
+            Assert.assertEquals(mean, acc.getMean(), 1e-9);
+            Assert.assertEquals(variance, acc.getVariance(true), 1e-6);
+        }
+        Assert.assertArrayEquals(single.getHistogram(100, sorted[0], sorted[sorted.length - 1]),
+                                 merged.getHistogram(100, sorted[0], sorted[sorted.length - 1]));
+
+        //quantiles error is bounded by sketch bins width
+        final double tolerance = (sorted[sorted.length - 1] - sorted[0]) / 2047;
+        for (double p : new double[]{0.1, 0.25, 0.5, 0.75, 0.9}) {
+            Assert.assertEquals(sorted[(int) (p * sorted.length)], merged.getQuantile(p), 2 * tolerance);
+        }
+        Assert.assertEquals(sorted[0], merged.getQuantile(0), 0.0);
+        Assert.assertEquals(sorted[sorted.length - 1], merged.getQuantile(1), 0.0);
+    }
+
+    /**
+     * Values with very different magnitudes, and empty accumulators.
+     */
+    @Test
+    public void rangeTest() {
+        final BandAccumulator acc = new BandAccumulator();
+        Assert.assertTrue(Double.isNaN(acc.getMean()));
+        Assert.assertTrue(Double.isNaN(acc.getQuantile(0.5)));
+        acc.add(0);
+        acc.add(1e-200);
+        acc.add(1e300);
+        acc.add(-5e299);
+        acc.merge(new BandAccumulator());
+        Assert.assertEquals(4, acc.getCount());
+        Assert.assertEquals(-5e299, acc.getMinimum(), 0.0);
+        Assert.assertEquals(1e300, acc.getMaximum(), 0.0);
+
+        final BandAccumulator copy = new BandAccumulator();
+        copy.merge(acc);
+        Assert.assertEquals(4, copy.getCount());
+        Assert.assertEquals(acc.getMean(), copy.getMean(), 0.0);
+        Assert.assertArrayEquals(new long[]{3, 1}, copy.getHistogram(2, -5e299, 1e300));
+    }
+
+    /**
+     * Integer values must fall in their own histogram bin.
+     */
+    @Test
+    public void histogramTest() {
+        final BandAccumulator acc = new BandAccumulator();
+        final long[] expected = new long[255];
+        for (int i = 0; i < 10000; i++) {
+            final int v = (i * 7) % 256;
+            acc.add(v);
+            expected[Math.min(v, 254)]++;
+        }
+        Assert.assertArrayEquals(expected, acc.getHistogram(255, 0, 255));
+    }
+}
@@ -21,6 +21,7 @@ import org.apache.sis.geometry.GeneralEnvelope;
 import org.apache.sis.referencing.CommonCRS;
 import org.geotoolkit.coverage.grid.GridCoverage2D;
 import org.geotoolkit.coverage.grid.GridCoverageBuilder;
+import org.geotoolkit.coverage.memory.MemoryCoverageReader;
 import org.geotoolkit.image.internal.SampleType;
 import org.geotoolkit.process.ProcessDescriptor;
 import org.geotoolkit.process.ProcessException;
@@ -77,6 +78,86 @@ public class StatisticsTest extends org.geotoolkit.test.TestBase {
         Assert.assertTrue(8l == band0.getDistribution().get(100d));
     }
 
+    @Test
+    public void executionTestMoments() throws NoSuchIdentifierException, ProcessException {
+        final ProcessDescriptor desc = ProcessFinder.getProcessDescriptor("coverage", "statistic");
+        final ParameterValueGroup procparams = desc.getInputDescriptor().createValue();
+        procparams.parameter("inCoverage").setValue(coverage);
+        ImageStatistics.Band band0 = ((ImageStatistics) desc.createProcess(procparams).call()
+                .parameter("outStatistic").getValue()).getBands()[0];
+
+        final double mean = 1000d / 9d;
+        final double std = Math.sqrt((8 * (100 - mean) * (100 - mean) + (200 - mean) * (200 - mean)) / 9d);
+        Assert.assertEquals(mean, band0.getMean(), 1e-9);
+        Assert.assertEquals(std, band0.getStd(), 1e-9);
+
+        //one pixel every 2 columns and rows, central pixel is skipped
+        procparams.parameter("inSubsampling").setValue(2);
+        band0 = ((ImageStatistics) desc.createProcess(procparams).call()
+                .parameter("outStatistic").getValue()).getBands()[0];
+        Assert.assertEquals(100d, band0.getMin(), 0d);
+        Assert.assertEquals(100d, band0.getMax(), 0d);
+        Assert.assertEquals(100d, band0.getMean(), 0d);
+    }
+
+    /**
+     * Streaming analyse reads the coverage by strips of rows, check it gives the same
+     * result as the in memory analyse on a coverage higher than a strip.
+     * The memory reader returns the whole coverage for each strip, so rows outside
+     * the requested strip must be ignored.
+     */
+    @Test
+    public void executionTestStreaming() throws ProcessException {
+        final int width = 7;
+        final int height = 2500;
+        final float[][] values = new float[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                values[y][x] = (x * 7 + y * 13) % 1000;
+            }
+        }
+        final GeneralEnvelope bigEnv = new GeneralEnvelope(CommonCRS.WGS84.normalizedGeographic());
+        bigEnv.setRange(0, 0, width);
+        bigEnv.setRange(1, 0, height / 100d);
+        final GridCoverageBuilder builder = new GridCoverageBuilder();
+        builder.setEnvelope(bigEnv);
+        builder.setRenderedImage(values);
+        final GridCoverage2D big = builder.getGridCoverage2D();
+        final MemoryCoverageReader reader = new MemoryCoverageReader(big);
+
+        for (int subsampling : new int[]{1, 3}) {
+            double sum = 0;
+            long count = 0;
+            for (int y = 0; y < height; y += subsampling) {
+                for (int x = 0; x < width; x += subsampling) {
+                    sum += values[y][x];
+                    count++;
+                }
+            }
+
+            final ParameterValueGroup params = StatisticsDescriptor.INSTANCE.getInputDescriptor().createValue();
+            params.parameter("inCoverage").setValue(big);
+            params.parameter("inSubsampling").setValue(subsampling);
+            final ImageStatistics.Band expected = ((ImageStatistics) StatisticsDescriptor.INSTANCE.createProcess(params)
+                    .call().parameter("outStatistic").getValue()).getBands()[0];
+            final ImageStatistics.Band streamed = Statistics.analyse(reader, 0, false, subsampling).getBands()[0];
+
+            Assert.assertEquals(count, sum(expected.getHistogram()));
+            Assert.assertEquals(count, sum(streamed.getHistogram()));
+            Assert.assertEquals(sum / count, expected.getMean(), 1e-6);
+            Assert.assertEquals(sum / count, streamed.getMean(), 1e-6);
+            Assert.assertEquals(expected.getMin(), streamed.getMin(), 0d);
+            Assert.assertEquals(expected.getMax(), streamed.getMax(), 0d);
+            Assert.assertEquals(expected.getStd(), streamed.getStd(), 1e-6);
+        }
+    }
+
+    private static long sum(final long[] histogram) {
+        long sum = 0;
+        for (long v : histogram) sum += v;
+        return sum;
+    }
+
     @Test
     public void performanceTest() {
         double max = 100000.0;
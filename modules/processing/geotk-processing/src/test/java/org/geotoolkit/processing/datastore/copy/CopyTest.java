@@ -0,0 +1,216 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.processing.datastore.copy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.apache.sis.storage.DataStoreException;
+import org.geotoolkit.data.FeatureReader;
+import org.geotoolkit.data.FeatureStore;
+import org.geotoolkit.data.FeatureStoreRuntimeException;
+import org.geotoolkit.data.SplitFeatureReader;
+import org.geotoolkit.data.SplittableFeatureStore;
+import org.geotoolkit.data.memory.MemoryFeatureStore;
+import org.geotoolkit.data.query.Query;
+import org.geotoolkit.data.query.QueryBuilder;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.FeatureTypeBuilder;
+import org.geotoolkit.feature.FeatureUtilities;
+import org.geotoolkit.feature.type.FeatureType;
+import org.geotoolkit.process.ProcessDescriptor;
+import org.geotoolkit.process.ProcessFinder;
+import org.geotoolkit.processing.datastore.DatastoreProcessingRegistry;
+import org.junit.Test;
+import org.opengis.parameter.ParameterValueGroup;
+import org.opengis.util.GenericName;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test copy process.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public class CopyTest extends org.geotoolkit.test.TestBase {
+
+    private static final int NB_FEATURES = 500;
+
+    @Test
+    public void findProcessTest() throws Exception {
+        assertNotNull(ProcessFinder.getProcessDescriptor(DatastoreProcessingRegistry.NAME, CopyDescriptor.NAME));
+    }
+
+    /**
+     * Parallel copy must produce the same features as a sequential copy.
+     */
+    @Test
+    public void testParallelCopy() throws Exception {
+        final SplittableMemoryStore source = createSource();
+
+        final MemoryFeatureStore sequential = new MemoryFeatureStore();
+        copy(source, sequential, false);
+        assertEquals(0, source.nbSplitReaders);
+
+        final MemoryFeatureStore parallel = new MemoryFeatureStore();
+        copy(source, parallel, true);
+        assertTrue(source.nbSplitReaders > 0);
+
+        final List<String> expected = values(sequential);
+        assertEquals(NB_FEATURES, expected.size());
+        assertEquals(expected, values(parallel));
+    }
+
+    private static void copy(final FeatureStore source, final FeatureStore target, final boolean parallel) throws Exception {
+        final ProcessDescriptor desc = ProcessFinder.getProcessDescriptor(DatastoreProcessingRegistry.NAME, CopyDescriptor.NAME);
+        final ParameterValueGroup in = desc.getInputDescriptor().createValue();
+        in.parameter(CopyDescriptor.SOURCE_STORE.getName().getCode()).setValue(source);
+        in.parameter(CopyDescriptor.TARGET_STORE.getName().getCode()).setValue(target);
+        in.parameter(CopyDescriptor.ERASE.getName().getCode()).setValue(true);
+        in.parameter(CopyDescriptor.NEW_VERSION.getName().getCode()).setValue(false);
+        in.parameter(CopyDescriptor.PARALLEL.getName().getCode()).setValue(parallel);
+        desc.createProcess(in).call();
+    }
+
+    private static SplittableMemoryStore createSource() throws DataStoreException {
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("copied");
+        ftb.add("att_string", String.class);
+        ftb.add("att_int", Integer.class);
+        final FeatureType type = ftb.buildSimpleFeatureType();
+
+        final SplittableMemoryStore store = new SplittableMemoryStore();
+        store.createFeatureType(type.getName(), type);
+        final List<Feature> features = new ArrayList<>();
+        for (int i = 0; i < NB_FEATURES; i++) {
+            final Feature feature = FeatureUtilities.defaultFeature(type, "copied." + i);
+            feature.setPropertyValue("att_string", "value" + i);
+            feature.setPropertyValue("att_int", i);
+            features.add(feature);
+        }
+        store.addFeatures(type.getName(), features);
+        return store;
+    }
+
+    /**
+     * Sorted attribute values of all features in the store, order of copied features is not preserved.
+     */
+    private static List<String> values(final FeatureStore store) throws DataStoreException {
+        final GenericName name = store.getNames().iterator().next();
+        final List<String> values = new ArrayList<>();
+        final FeatureReader reader = store.getFeatureReader(QueryBuilder.all(name));
+        try {
+            while (reader.hasNext()) {
+                final Feature feature = reader.next();
+                values.add(feature.getPropertyValue("att_string") + "|" + feature.getPropertyValue("att_int"));
+            }
+        } finally {
+            reader.close();
+        }
+        Collections.sort(values);
+        return values;
+    }
+
+    /**
+     * Memory store which can read features with several threads.
+     */
+    private static final class SplittableMemoryStore extends MemoryFeatureStore implements SplittableFeatureStore {
+
+        private int nbSplitReaders = 0;
+
+        @Override
+        public boolean isSplittable(final Query query) {
+            return query.getSortBy() == null || query.getSortBy().length == 0;
+        }
+
+        @Override
+        public SplitFeatureReader getSplitFeatureReader(final Query query) throws DataStoreException {
+            nbSplitReaders++;
+            final FeatureReader reader = getFeatureReader(query);
+            final FeatureType type = reader.getFeatureType();
+            final List<Feature> features = new ArrayList<>();
+            try {
+                while (reader.hasNext()) {
+                    features.add(FeatureUtilities.copy(reader.next()));
+                }
+            } finally {
+                reader.close();
+            }
+            return new ListSplitReader(type, features, 0, features.size());
+        }
+    }
+
+    /**
+     * Split reader on a range of a feature list.
+     */
+    private static final class ListSplitReader implements SplitFeatureReader {
+
+        private final FeatureType type;
+        private final List<Feature> features;
+        private int index;
+        private int end;
+
+        private ListSplitReader(final FeatureType type, final List<Feature> features, final int start, final int end) {
+            this.type = type;
+            this.features = features;
+            this.index = start;
+            this.end = end;
+        }
+
+        @Override
+        public SplitFeatureReader trySplit() throws FeatureStoreRuntimeException {
+            if (end - index < 2) return null;
+            final int middle = index + (end - index) / 2;
+            final ListSplitReader part = new ListSplitReader(type, features, middle, end);
+            end = middle;
+            return part;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public FeatureType getFeatureType() {
+            return type;
+        }
+
+        @Override
+        public boolean hasNext() throws FeatureStoreRuntimeException {
+            return index < end;
+        }
+
+        @Override
+        public Feature next() throws FeatureStoreRuntimeException {
+            if (!hasNext()) throw new NoSuchElementException();
+            return features.get(index++);
+        }
+
+        @Override
+        public void close() throws FeatureStoreRuntimeException {
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -0,0 +1,181 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.processing.vector.spatialjoin;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.geotoolkit.data.FeatureCollection;
+import org.geotoolkit.data.FeatureIterator;
+import org.geotoolkit.data.FeatureStoreUtilities;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.FeatureTypeBuilder;
+import org.geotoolkit.feature.FeatureUtilities;
+import org.geotoolkit.feature.type.FeatureType;
+import org.geotoolkit.referencing.CRS;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Join 1 000 000 points with 100 000 square polygons using the source index,
+ * compared with a nested loop testing every source geometry for each target,
+ * which is how the process worked before the index.<br/>
+ * The nested loop is run on the first 1 000 targets only, total time is extrapolated.
+ * Features need a heap of about 2Gb.
+ *
+ * @author Johann Sorel (Geomatys)
+ */
+public class BenchMarkSpatialJoin {
+
+    private static final int NB_POLYGONS = 100000;
+    private static final int NB_POINTS = 1000000;
+    private static final int NB_SCANNED = 1000;
+    private static final int NB_ITERATIONS = 3;
+
+    /**
+     * Polygons are 10x10 squares on a 316x316 grid, points are randomly placed on the grid extent.
+     */
+    private static final int GRID = (int) Math.sqrt(NB_POLYGONS);
+    private static final double CELL = 10;
+
+    private static final GeometryFactory GF = new GeometryFactory();
+
+    private final FeatureCollection polygons;
+    private final FeatureCollection points;
+
+    public BenchMarkSpatialJoin() throws Exception {
+        polygons = createPolygons();
+        points = createPoints();
+    }
+
+    @Test
+    @Ignore
+    public void benchIntersectTest() {
+        for (int i = 0; i < NB_ITERATIONS; i++) {
+            join(true);
+        }
+    }
+
+    @Test
+    @Ignore
+    public void benchNearestTest() {
+        for (int i = 0; i < NB_ITERATIONS; i++) {
+            join(false);
+        }
+    }
+
+    @Test
+    @Ignore
+    public void benchNestedLoopTest() {
+        final List<Geometry> sources = geometries(polygons, Integer.MAX_VALUE);
+        final List<Geometry> targets = geometries(points, NB_SCANNED);
+        for (int i = 0; i < NB_ITERATIONS; i++) {
+            final long start = System.nanoTime();
+            int nbJoined = 0;
+            for (Geometry target : targets) {
+                for (Geometry source : sources) {
+                    if (source.intersects(target)) {
+                        nbJoined++;
+                        break;
+                    }
+                }
+            }
+            final long time = (System.nanoTime() - start) / 1000000;
+            System.out.println("stats nested loop : " + targets.size() + " targets, " + nbJoined + " joined in "
+                    + time + " ms, about " + (time * (NB_POINTS / NB_SCANNED) / 1000) + " s for " + NB_POINTS + " targets");
+        }
+    }
+
+    /**
+     * Join all points, the source index is built by the first iteration over the result.
+     */
+    private void join(final boolean intersect) {
+        final long start = System.nanoTime();
+        final FeatureCollection result = new SpatialJoinFeatureCollection(polygons, points, intersect);
+        int count = 0;
+        final FeatureIterator ite = result.iterator();
+        try {
+            while (ite.hasNext()) {
+                ite.next();
+                count++;
+            }
+        } finally {
+            ite.close();
+        }
+        final long time = (System.nanoTime() - start) / 1000000;
+        System.out.println("stats index " + (intersect ? "intersect" : "nearest") + " : " + count
+                + " targets joined in " + time + " ms");
+    }
+
+    private static FeatureCollection createPolygons() throws Exception {
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("polygons");
+        ftb.add("cell", Integer.class);
+        ftb.add("geom", Geometry.class, CRS.decode("EPSG:3395"));
+        ftb.setDefaultGeometry("geom");
+        final FeatureType type = ftb.buildFeatureType();
+
+        final FeatureCollection collection = FeatureStoreUtilities.collection("polygons", type);
+        for (int y = 0; y < GRID; y++) {
+            for (int x = 0; x < GRID; x++) {
+                final int cell = y * GRID + x;
+                final Feature feature = FeatureUtilities.defaultFeature(type, "polygon-" + cell);
+                feature.getProperty("cell").setValue(cell);
+                feature.getProperty("geom").setValue(GF.toGeometry(new Envelope(x * CELL, (x + 1) * CELL, y * CELL, (y + 1) * CELL)));
+                collection.add(feature);
+            }
+        }
+        return collection;
+    }
+
+    private static FeatureCollection createPoints() throws Exception {
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("points");
+        ftb.add("value", Integer.class);
+        ftb.add("geom", Geometry.class, CRS.decode("EPSG:3395"));
+        ftb.setDefaultGeometry("geom");
+        final FeatureType type = ftb.buildFeatureType();
+
+        final Random random = new Random(42);
+        final double span = GRID * CELL;
+        final FeatureCollection collection = FeatureStoreUtilities.collection("points", type);
+        for (int i = 0; i < NB_POINTS; i++) {
+            final Feature feature = FeatureUtilities.defaultFeature(type, "point-" + i);
+            feature.getProperty("value").setValue(i);
+            feature.getProperty("geom").setValue(GF.createPoint(new Coordinate(random.nextDouble() * span, random.nextDouble() * span)));
+            collection.add(feature);
+        }
+        return collection;
+    }
+
+    private static List<Geometry> geometries(final FeatureCollection collection, final int limit) {
+        final List<Geometry> geometries = new ArrayList<>();
+        final FeatureIterator ite = collection.iterator();
+        try {
+            while (ite.hasNext() && geometries.size() < limit) {
+                geometries.add((Geometry) ite.next().getDefaultGeometryProperty().getValue());
+            }
+        } finally {
+            ite.close();
+        }
+        return geometries;
+    }
+}
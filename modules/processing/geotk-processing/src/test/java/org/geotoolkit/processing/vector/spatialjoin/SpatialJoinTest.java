@@ -22,9 +22,11 @@ import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import com.vividsolutions.jts.geom.LinearRing;
+import java.util.Random;
 
 import org.geotoolkit.data.FeatureStoreUtilities;
 import org.geotoolkit.data.FeatureCollection;
+import org.geotoolkit.data.FeatureIterator;
 import org.geotoolkit.feature.FeatureTypeBuilder;
 import org.geotoolkit.feature.FeatureUtilities;
 import org.geotoolkit.feature.FeatureBuilder;
@@ -506,4 +508,113 @@ public class SpatialJoinTest extends AbstractProcessTest {
 
         return featureList;
     }
+
+    /**
+     * Compare indexed intersection search with a scan of all source features.
+     */
+    @Test
+    public void testIndexIntersectionMatchesScan() throws FactoryException {
+        final FeatureCollection sources = buildRandomSources(true);
+        final SpatialJoinIndex index = new SpatialJoinIndex(sources);
+        final Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            final Geometry target = randomBox(random);
+            assertEquals(id(scanIntersection(sources, target)), id(index.biggestIntersection(target)));
+        }
+    }
+
+    /**
+     * Compare indexed nearest search with a scan of all source features.
+     */
+    @Test
+    public void testIndexNearestMatchesScan() throws FactoryException {
+        final FeatureCollection sources = buildRandomSources(false);
+        final SpatialJoinIndex index = new SpatialJoinIndex(sources);
+        final Random random = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            final Geometry target = (i % 2 == 0) ? randomBox(random)
+                    : geometryFactory.createPoint(new Coordinate(random.nextInt(60), random.nextInt(60)));
+            assertEquals(id(scanNearest(sources, target)), id(index.nearest(target)));
+        }
+    }
+
+    /**
+     * Source features on an integer grid, many of them give equal areas or distances.
+     */
+    private static FeatureCollection buildRandomSources(final boolean boxes) throws FactoryException {
+        type = createSimpleType2();
+        final FeatureCollection featureList = FeatureStoreUtilities.collection("source", type);
+        final Random random = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            final Feature feature = FeatureUtilities.defaultFeature(type, "id-" + i);
+            feature.getProperty("type").setValue("T" + i);
+            feature.getProperty("age").setValue(i);
+            feature.getProperty("geom1").setValue(boxes ? randomBox(random)
+                    : geometryFactory.createPoint(new Coordinate(random.nextInt(50), random.nextInt(50))));
+            featureList.add(feature);
+        }
+        return featureList;
+    }
+
+    private static String id(final Feature feature) {
+        return (feature == null) ? null : feature.getIdentifier().getID();
+    }
+
+    private static Geometry randomBox(final Random random) {
+        final int x = random.nextInt(50);
+        final int y = random.nextInt(50);
+        final int w = 1 + random.nextInt(6);
+        final int h = 1 + random.nextInt(6);
+        final LinearRing ring = geometryFactory.createLinearRing(new Coordinate[]{
+            new Coordinate(x, y), new Coordinate(x + w, y), new Coordinate(x + w, y + h),
+            new Coordinate(x, y + h), new Coordinate(x, y)});
+        return geometryFactory.createPolygon(ring, null);
+    }
+
+    /**
+     * Intersection result without index : intersecting feature with biggest intersection area,
+     * first one in collection order for equal areas.
+     */
+    private static Feature scanIntersection(final FeatureCollection sources, final Geometry target) {
+        Feature best = null;
+        double area = 0.0;
+        final FeatureIterator ite = sources.iterator();
+        try {
+            while (ite.hasNext()) {
+                final Feature feature = ite.next();
+                final Geometry geom = (Geometry) feature.getProperty("geom1").getValue();
+                if (!target.intersects(geom)) continue;
+                final double computeArea = target.intersection(geom).getArea();
+                if (best == null || computeArea > area) {
+                    best = feature;
+                    area = computeArea;
+                }
+            }
+        } finally {
+            ite.close();
+        }
+        return best;
+    }
+
+    /**
+     * Nearest result without index : first feature in collection order at the smallest distance.
+     */
+    private static Feature scanNearest(final FeatureCollection sources, final Geometry target) {
+        Feature best = null;
+        double dist = Double.POSITIVE_INFINITY;
+        final FeatureIterator ite = sources.iterator();
+        try {
+            while (ite.hasNext()) {
+                final Feature feature = ite.next();
+                final double d = target.distance((Geometry) feature.getProperty("geom1").getValue());
+                if (d < dist) {
+                    best = feature;
+                    dist = d;
+                }
+            }
+        } finally {
+            ite.close();
+        }
+        return best;
+    }
 }
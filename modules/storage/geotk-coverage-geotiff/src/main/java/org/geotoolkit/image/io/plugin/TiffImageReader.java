@@ -46,6 +46,7 @@ import java.awt.image.DataBufferFloat;
 import java.awt.image.DataBufferDouble;
 import java.awt.image.IndexColorModel;
 import java.lang.reflect.Array;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Path;
@@ -374,13 +375,19 @@ public class TiffImageReader extends SpatialImageReader {
     }
 
     /**
-     * Return true if the current layer is a thumbnail else false.
+     * Return true if the current layer is a thumbnail else false.<br/>
+     * Tiled reduced resolution layers are internal overviews, as written in cloud optimized geotiff,
+     * they are not considered as thumbnails but as images.
+     *
      * @return true if the current layer is a thumbnail else false.
      */
     private boolean isThumbnail() {
         final Map newSubFil = headProperties.get(NewSubfileType);
         if (newSubFil == null) return false;
-        return ((long[]) newSubFil.get(ATT_VALUE))[0] != 0;
+        final long subfileType = ((long[]) newSubFil.get(ATT_VALUE))[0];
+        if (subfileType == 0) return false;
+        //-- bit 0 : reduced resolution version of an other image --//
+        return (subfileType & 1) == 0 || headProperties.get(TileWidth) == null;
     }
 
     /**
@@ -2060,6 +2067,9 @@ public class TiffImageReader extends SpatialImageReader {
         if (compression == 32773) {
             assert stripOffsets != null : "with compression 32773 (packbits) : image should be writen in strip offset use case.";
             readFromStrip32773(image.getRaster(), param, srcRegion, dstRegion);
+        } else if ((compression == 5 || compression == 8)
+                && readWithTileDecoder(image.getRaster(), param, srcRegion, dstRegion)) {
+            //-- blocks decoded concurrently from file positional reads --//
         } else if (compression == 5) {
             if (stripOffsets != null) {
                 readFromStripLZW(image.getRaster(), param, srcRegion, dstRegion);
@@ -2777,6 +2787,74 @@ public class TiffImageReader extends SpatialImageReader {
         throw new IOException("Deflate strip tiff not supported.");
     }
 
+    /**
+     * Read LZW or Deflate compressed tiles or strips with a {@link TiffTileDecoder}, if possible.<br/>
+     * Blocks intersecting source region are read with positional reads on the file channel
+     * and decompressed concurrently into the given raster.<br/>
+     * This way is only possible when input is a file, samples are pixel interleaved with a size
+     * matching raster data type, and neither source nor destination bands are defined.
+     *
+     * @param  raster    The raster where to store the pixel values.
+     * @param  param     Parameters used to control the reading process, or {@code null}.
+     * @param  srcRegion The region to read in source image.
+     * @param  dstRegion The region to write in the given raster.
+     * @return {@code true} if the raster has been filled, {@code false} if the current layer
+     *         should be read sequentially from image stream.
+     * @throws IOException If an error occurred while reading the image.
+     */
+    private boolean readWithTileDecoder(final WritableRaster raster, final ImageReadParam param,
+            final Rectangle srcRegion, final Rectangle dstRegion) throws IOException {
+        if (!(channel instanceof FileChannel) || imageStream == null) return false;
+
+        final int sourceXSubsampling, sourceYSubsampling;
+        if (param != null) {
+            if (param.getSourceBands() != null || param.getDestinationBands() != null) return false;
+            sourceXSubsampling = param.getSourceXSubsampling();
+            sourceYSubsampling = param.getSourceYSubsampling();
+        } else {
+            sourceXSubsampling = 1;
+            sourceYSubsampling = 1;
+        }
+        if (raster.getNumBands() != samplesPerPixel) return false;
+
+        //-- samples size should match raster data type --//
+        final int dataType = raster.getSampleModel().getDataType();
+        final int bitPerSample = (int) bitsPerSample[0];
+        for (long bps : bitsPerSample) {
+            if (bps != bitPerSample) return false;
+        }
+        if (bitPerSample != DataBuffer.getDataTypeSize(dataType)) return false;
+
+        //-- fillOrder --//
+        final Map<String, Object> fillOrder = headProperties.get(FillOrder);
+        if (fillOrder != null && ((long[]) fillOrder.get(ATT_VALUE)) [0] != 1) return false;
+
+        //-- planar configuration --//
+        final Map<String, Object> planarConfig = headProperties.get(PlanarConfiguration);
+        if (planarConfig != null && samplesPerPixel > 1 && ((short[]) planarConfig.get(ATT_VALUE)) [0] != 1) return false;
+
+        //-- predictor, horizontal differencing only on integer samples --//
+        final Map<String, Object> predictor = headProperties.get(Predictor);
+        final long predic = (predictor != null) ? ((long[]) predictor.get(ATT_VALUE)) [0] : 1;
+        if (predic != 1 && (predic != 2 || dataType == DataBuffer.TYPE_FLOAT || dataType == DataBuffer.TYPE_DOUBLE)) return false;
+
+        final long origin = (currentInput instanceof FileInputStream) ? fileChannelPositionBegin : 0;
+        final TiffTileDecoder decoder;
+        if (stripOffsets != null) {
+            //-- strips are considered as tiles of image width --//
+            final int stripHeight = (rowsPerStrip > 0) ? Math.min(rowsPerStrip, imageHeight) : imageHeight;
+            decoder = new TiffTileDecoder((FileChannel) channel, origin, compression, predic == 2,
+                    imageStream.getByteOrder(), imageWidth, stripHeight, imageWidth, imageHeight,
+                    samplesPerPixel, bitPerSample, stripOffsets, stripByteCounts);
+        } else {
+            decoder = new TiffTileDecoder((FileChannel) channel, origin, compression, predic == 2,
+                    imageStream.getByteOrder(), tileWidth, tileHeight, imageWidth, imageHeight,
+                    samplesPerPixel, bitPerSample, tileOffsets, tileByteCounts);
+        }
+        decoder.read(raster, srcRegion, dstRegion, sourceXSubsampling, sourceYSubsampling);
+        return true;
+    }
+
     /**
      * Read next data of {@code codeLZWLength} bits length from current {@code ImageInputStream input}.
      *
@@ -3617,7 +3695,10 @@ public class TiffImageReader extends SpatialImageReader {
         final long bitpersampl = bitsPerSample[0];
 
         final int sourceScanTileStride     = tileWidth * pixelLength;
-        final int sourceScanTileByteStride = (tileWidth * (int)bitpersampl)/ Byte.SIZE;
+        final int sourceScanTileByteStride = (sourceScanTileStride * (int) bitpersampl) / Byte.SIZE;
+
+        //-- decompressed samples are stored in file byte order --//
+        final boolean bigEndian = rasterStream.getByteOrder() == ByteOrder.BIG_ENDIAN;
 
         //-- Inflate decompressor
         final Inflater inflater              = new Inflater(false);
@@ -3712,7 +3793,7 @@ public class TiffImageReader extends SpatialImageReader {
                         for (int i = 0; i < unCompressedTileByteLength; i++) {
                             //-- build sample in relation with bits per samples --//
                             final long val = decompressedData[i] & 0x000000FFL;
-                            dataContainer  = dataContainer | (val << maskCount);
+                            dataContainer  = (bigEndian) ? (dataContainer << Byte.SIZE) | val : dataContainer | (val << maskCount);
                             maskCount     += Byte.SIZE;
 
                             //-- if a sample is built --//
@@ -17,24 +17,104 @@
 package org.geotoolkit.image.io.plugin;
 
 import javax.imageio.ImageWriter;
+import org.apache.sis.util.ArgumentChecks;
 import org.geotoolkit.image.io.SpatialImageWriteParam;
 
 /**
  * A specific implementation of {@link SpatialImageWriteParam} adapted with
  * {@link TiffImageWriter} image writer use.
  *
- * /!\ {@linkplain #setSourceBands(int[])} method will have no impact on image writing for now.
+ * /!\ {@linkplain #setSourceBands(int[])} method will have no impact on image writing for now.<br/><br/>
+ *
+ * In cloud optimized mode, see {@link #setCloudOptimized(boolean) }, image is written by tiles
+ * (256 x 256 if tiling is not explicitly set), followed by internal reduced resolution overviews.
+ * All image file directories are written at the file head.
  *
  * @author Remi Marechal (Geomatys).
  */
 public class TiffImageWriteParam extends SpatialImageWriteParam {
 
+    /**
+     * Define if image is written as a cloud optimized geotiff.
+     */
+    private boolean cloudOptimized = false;
+
+    /**
+     * Define if horizontal differencing predictor is applied on integer samples before Deflate compression.
+     */
+    private boolean predictor = true;
+
+    /**
+     * Number of threads which compress tiles.
+     */
+    private int compressionThreads = Runtime.getRuntime().availableProcessors();
+
     public TiffImageWriteParam(ImageWriter writer) {
         super(writer);
         canOffsetTiles      = false;
         canWriteCompressed  = true;
         canWriteProgressive = false;
         canWriteTiles       = true;
-        compressionTypes    = new String[]{"LZW", "PackBits"};
+        compressionTypes    = new String[]{"LZW", "PackBits", "Deflate"};
+    }
+
+    /**
+     * Returns {@code true} if image will be written as a cloud optimized geotiff.
+     *
+     * @return {@code true} if cloud optimized layout is used.
+     */
+    public boolean isCloudOptimized() {
+        return cloudOptimized;
+    }
+
+    /**
+     * Set if image will be written as a cloud optimized geotiff.<br/>
+     * Image is tiled, reduced resolution overviews are generated during the same pass
+     * until an overview fit in a single tile, and all image file directories are written before tiles data.<br/>
+     * Source region, subsampling and destination offset are not supported in this mode.
+     *
+     * @param cloudOptimized {@code true} to write a cloud optimized geotiff.
+     */
+    public void setCloudOptimized(final boolean cloudOptimized) {
+        this.cloudOptimized = cloudOptimized;
+    }
+
+    /**
+     * Returns {@code true} if horizontal differencing predictor is used with Deflate compression.
+     *
+     * @return {@code true} if predictor is used.
+     */
+    public boolean isPredictor() {
+        return predictor;
+    }
+
+    /**
+     * Set if horizontal differencing predictor (tiff predictor 2) is used with Deflate compression.<br/>
+     * Predictor is only applied on integer samples, floating point samples are always written without predictor.
+     *
+     * @param predictor {@code true} to use predictor.
+     */
+    public void setPredictor(final boolean predictor) {
+        this.predictor = predictor;
+    }
+
+    /**
+     * Returns number of threads used to compress tiles.
+     *
+     * @return number of threads used to compress tiles.
+     */
+    public int getCompressionThreads() {
+        return compressionThreads;
+    }
+
+    /**
+     * Set number of threads used to compress tiles with Deflate compression.<br/>
+     * Default value is the number of available processors.
+     *
+     * @param compressionThreads number of threads, strictly positive.
+     */
+    public void setCompressionThreads(final int compressionThreads) {
+        ArgumentChecks.ensureStrictlyPositive("compressionThreads", compressionThreads);
+        this.compressionThreads = compressionThreads;
     }
 }
@@ -120,6 +120,13 @@ public class TiffImageWriter extends SpatialImageWriter {
      */
     private final static String packbits = "PackBits";
 
+    /**
+     * String use to determinate Deflate compression type.
+     *
+     * @see TiffImageWriteParam#compressionTypes
+     */
+    private final static String deflate  = "Deflate";
+
     /**
      * Size of data structures in standard TIFF files ({@code SIZE_*}) and in big TIFF files
      * ({@code SIZE_BIG_*}). In standard TIFF, the size of structures for counting the number
@@ -409,6 +416,8 @@ public class TiffImageWriter extends SpatialImageWriter {
 
         assert compObj != null;
         final int comp = ((short[]) compObj.get(ATT_VALUE))[0];
+        if (comp == 8)
+            throw new IllegalStateException("Pixels replacement is not supported with Deflate compression. layer index : "+layerIndex);
         assert comp == 1 || comp == 5 || comp == 32773 : "compression of current layer is not supported. layer index : "+layerIndex+" compression value : "+compression;
 
         compression = comp;
@@ -1018,14 +1027,7 @@ public class TiffImageWriter extends SpatialImageWriter {
                 /*
                  * If an image has already been writen we stipulate next ifd position.
                  */
-                final int offset = (int) (channel.getStreamPosition());
-                channel.seek(ifdPosition[1]);
-
-                if (isBigTIFF) channel.writeLong(offset);
-                else channel.writeInt(offset);
-
-                channel.seek(offset);
-                ifdPosition[0] = offset;
+                linkNextIFD(ifdPosition);
             }
         } else {
             isBigTIFF = isBigTiff(image);
@@ -1044,19 +1046,233 @@ public class TiffImageWriter extends SpatialImageWriter {
          */
         open(ifdPosition);
 
-        //-- add image properties in a Map in attempt to writing. --//
-        addImageProperties(image, headProperties, param);
+        if (isWrittenByEncodedTiles(param)) {
+            writeByEncodedTiles(image, headProperties, param, ifdPosition);
+        } else {
+            //-- add image properties in a Map in attempt to writing. --//
+            addImageProperties(image, headProperties, param);
 
-        //-- write all image properties. --//
-        //-- write tiff tags --//
-        writeTags(headProperties, ifdPosition);
-        //-- write image raster(s) data --//
-        writeImage(image, headProperties, param);
+            //-- write all image properties. --//
+            //-- write tiff tags --//
+            writeTags(headProperties, ifdPosition);
+            //-- write image raster(s) data --//
+            writeImage(image, headProperties, param);
+            addLayerProperties(headProperties);
+        }
+        this.headProperties = null;
+    }
+
+    /**
+     * Store properties of the last written layer, to allow pixels replacement later.
+     *
+     * @param properties properties of the written layer.
+     */
+    private void addLayerProperties(final Map<Integer, Map> properties) {
         if (metaIndex == metaHeads.length) {
             metaHeads = Arrays.copyOf(metaHeads, metaHeads.length << 1);
         }
-        metaHeads[metaIndex++] = headProperties;
-        this.headProperties = null;
+        metaHeads[metaIndex++] = properties;
+    }
+
+    /**
+     * Write current stream position as next IFD position of the precedently written layer,
+     * and define it as the IFD position of the next written layer.
+     *
+     * @param ifdPosition table of length 2 where ifdPosition[0] contain chanel position of current image datas beginning
+     *                    and ifdPosition[1] contain chanel position where to write the nextIFD offset.
+     * @throws IOException if problem during writing.
+     */
+    private void linkNextIFD(final long[] ifdPosition) throws IOException {
+        final long offset = channel.getStreamPosition();
+        channel.seek(ifdPosition[1]);
+
+        if (isBigTIFF) channel.writeLong(offset);
+        else channel.writeInt((int) offset);
+
+        channel.seek(offset);
+        ifdPosition[0] = offset;
+    }
+
+    /**
+     * Returns {@code true} if image is written by {@link TiledPyramidWriter}, which means
+     * with Deflate compression or as a cloud optimized geotiff.
+     *
+     * @param param properties to write image or null.
+     * @return {@code true} if image tiles are encoded by {@link TiffTileEncoder}.
+     */
+    private static boolean isWrittenByEncodedTiles(final ImageWriteParam param) {
+        if (param == null) return false;
+        if (param instanceof TiffImageWriteParam && ((TiffImageWriteParam) param).isCloudOptimized()) return true;
+        return param.canWriteCompressed()
+            && param.getCompressionMode() == ImageWriteParam.MODE_EXPLICIT
+            && deflate.equalsIgnoreCase(param.getCompressionType());
+    }
+
+    /**
+     * Write image by tiles encoded on a worker pool, followed by its reduced resolution overviews in cloud optimized mode.<br/>
+     * All image file directories, tile offsets and tile byte counts tables are written before tiles data,
+     * overview image file directories are flagged as reduced resolution images (NewSubfileType = 1).<br/>
+     * Tiles are 256 x 256 if tiling is not explicitly set in param.
+     *
+     * @param image image which will be written.
+     * @param headProperties image properties, may already contain metadata properties.
+     * @param param properties to write image, not null.
+     * @param ifdPosition table of length 2 where ifdPosition[0] contain chanel position of current image datas beginning
+     *                    and ifdPosition[1] contain chanel position where to write the nextIFD offset.
+     * @throws IOException if problem during writing.
+     * @throws IllegalArgumentException if param ask a source region, a subsampling, a destination offset
+     *                                  or a compression other than Deflate, or if sample size is not a multiple of 8 bits.
+     */
+    private void writeByEncodedTiles(final RenderedImage image, final Map<Integer, Map> headProperties,
+                                     final ImageWriteParam param, final long[] ifdPosition) throws IOException {
+        final Point destOffset = param.getDestinationOffset();
+        if (param.getSourceRegion() != null
+                || param.getSourceXSubsampling() != 1 || param.getSourceYSubsampling() != 1
+                || param.getSubsamplingXOffset() != 0 || param.getSubsamplingYOffset() != 0
+                || (destOffset != null && (destOffset.x != 0 || destOffset.y != 0))) {
+            throw new IllegalArgumentException("Source region, subsampling and destination offset are not supported "
+                    + "with Deflate compression or in cloud optimized mode.");
+        }
+
+        int tileWidth  = 256;
+        int tileHeight = 256;
+        if (param.canWriteTiles() && param.getTilingMode() == ImageWriteParam.MODE_EXPLICIT) {
+            try {
+                tileWidth  = param.getTileWidth();
+                tileHeight = param.getTileHeight();
+            } catch (IllegalStateException ex) {
+                //-- tiling not set, keep default tile size --//
+            }
+        }
+        if (tileWidth % 16 != 0 || tileHeight % 16 != 0)
+            throw new IllegalStateException("To be in accordance with tiff specification tile width and height must be multiple of 16. "
+                    + "Current tile size = "+tileWidth+" x "+tileHeight);
+
+        addImageProperties(image, headProperties, param);
+        if (compression != 1 && compression != 8)
+            throw new IllegalArgumentException("Only Deflate compression or no compression are supported in cloud optimized mode. Found compression : "+compression);
+        if (bitPerSample % Byte.SIZE != 0)
+            throw new IllegalArgumentException("Tiles encoding needs samples size multiple of 8 bits. Found bits per sample : "+bitPerSample);
+
+        //-- tiles are always pixel interleaved --//
+        headProperties.remove(RowsPerStrip);
+        headProperties.remove(StripByteCounts);
+        headProperties.remove(StripOffsets);
+        addProperty(PlanarConfiguration, TYPE_USHORT, 1, new short[]{1}, headProperties);
+
+        final TiffImageWriteParam tiffParam = (param instanceof TiffImageWriteParam) ? (TiffImageWriteParam) param : null;
+        final boolean cloudOptimized = tiffParam != null && tiffParam.isCloudOptimized();
+        final boolean predictor      = compression == 8 && (tiffParam == null || tiffParam.isPredictor());
+        final int threads            = (tiffParam != null) ? tiffParam.getCompressionThreads() : Runtime.getRuntime().availableProcessors();
+
+        final SampleModel sm = image.getSampleModel();
+        final TiffTileEncoder encoder = new TiffTileEncoder(sm.getDataType(), sm.getNumBands(),
+                tileWidth, tileHeight, compression, predictor, currentBO);
+        if (encoder.usePredictor()) {
+            addProperty(Predictor, TYPE_USHORT, 1, new short[]{2}, headProperties);
+        } else {
+            headProperties.remove(Predictor);
+        }
+
+        final TiledPyramidWriter pyramid = new TiledPyramidWriter(image, tileWidth, tileHeight, cloudOptimized, encoder, threads);
+        try {
+            final int numLevels = pyramid.getNumLevels();
+            final Map<Integer, Map>[] levelProperties = new Map[numLevels];
+            final long[] byteCountPositions = new long[numLevels];
+            final long[] offsetPositions    = new long[numLevels];
+
+            //-- all image file directories at file head --//
+            for (int l = 0; l < numLevels; l++) {
+                final Map<Integer, Map> properties;
+                if (l == 0) {
+                    properties = headProperties;
+                } else {
+                    linkNextIFD(ifdPosition);
+                    properties = new TreeMap<>();
+                    addOverviewProperties(headProperties, pyramid.getWidth(l), pyramid.getHeight(l), properties);
+                }
+                currentImgTW    = tileWidth;
+                currentImgTH    = tileHeight;
+                currentImgNumXT = pyramid.getNumXTiles(l);
+                currentImgNumYT = pyramid.getNumYTiles(l);
+                addTileOffsetsProperties(tileWidth, tileHeight, currentImgNumXT, currentImgNumYT, properties);
+                writeTags(properties, ifdPosition);
+                byteCountPositions[l] = byteCountTagPosition;
+                offsetPositions[l]    = offsetTagPosition;
+                levelProperties[l]    = properties;
+            }
+
+            //-- reserve tile byte counts and offsets tables after image file directories --//
+            final short arrayType = (isBigTIFF) ? TYPE_ULONG : TYPE_UINT;
+            final long[] arrayPositions = new long[numLevels];
+            for (int l = 0; l < numLevels; l++) {
+                arrayPositions[l] = channel.getStreamPosition();
+                channel.write(new byte[2 * pyramid.getNumXTiles(l) * pyramid.getNumYTiles(l) * TYPE_SIZE[arrayType]]);
+            }
+
+            //-- tiles data --//
+            pyramid.write(channel);
+            final long endPosition = channel.getStreamPosition();
+
+            for (int l = 0; l < numLevels; l++) {
+                final long[] offsets    = pyramid.getTileOffsets(l);
+                final long[] byteCounts = pyramid.getTileByteCounts(l);
+                final Object offsetArray, byteCountArray;
+                if (isBigTIFF) {
+                    offsetArray    = offsets;
+                    byteCountArray = byteCounts;
+                } else {
+                    final int[] offs = new int[offsets.length];
+                    final int[] bcs  = new int[byteCounts.length];
+                    for (int i = 0; i < offs.length; i++) {
+                        offs[i] = (int) offsets[i];
+                        bcs[i]  = (int) byteCounts[i];
+                    }
+                    offsetArray    = offs;
+                    byteCountArray = bcs;
+                }
+                channel.seek(arrayPositions[l]);
+                writeByteCountAndOffsets(byteCountPositions[l], arrayType, byteCountArray, offsetPositions[l], arrayType, offsetArray);
+                //-- add current offset array in current properties --//
+                addProperty(TileOffsets, arrayType, offsets.length, offsetArray, levelProperties[l]);
+                addLayerProperties(levelProperties[l]);
+            }
+            channel.seek(endPosition);
+        } finally {
+            pyramid.dispose();
+        }
+    }
+
+    /**
+     * Add properties of a reduced resolution overview in the given {@link Map}.<br/>
+     * Overview shares sample, color and compression properties of its full resolution image.
+     *
+     * @param imageProperties full resolution image properties.
+     * @param width overview width.
+     * @param height overview height.
+     * @param properties {@link Map} where overview properties are stored.
+     */
+    private void addOverviewProperties(final Map<Integer, Map> imageProperties, final int width, final int height,
+                                       final Map<Integer, Map> properties) {
+        //-- reduced resolution image --//
+        addProperty(NewSubfileType, TYPE_UINT, 1, new int[]{1}, properties);
+
+        if (width > 0xFFFF) {
+            addProperty(ImageWidth, TYPE_INT, 1, new int[]{width}, properties);
+        } else {
+            addProperty(ImageWidth, TYPE_USHORT, 1, new short[]{(short) width}, properties);
+        }
+        if (height > 0xFFFF) {
+            addProperty(ImageLength, TYPE_INT, 1, new int[]{height}, properties);
+        } else {
+            addProperty(ImageLength, TYPE_USHORT, 1, new short[]{(short) height}, properties);
+        }
+
+        for (final int tag : new int[]{SamplesPerPixel, BitsPerSample, SampleFormat, PhotometricInterpretation,
+                                       ColorMap, Compression, PlanarConfiguration, Predictor}) {
+            final Map tagAttributs = imageProperties.get(tag);
+            if (tagAttributs != null) properties.put(tag, tagAttributs);
+        }
     }
 
     /**
@@ -1478,6 +1694,8 @@ public class TiffImageWriter extends SpatialImageWriter {
                     compression = 5;
                 } else if (packbits.equalsIgnoreCase(comp)) {
                     compression = 32773;
+                } else if (deflate.equalsIgnoreCase(comp)) {
+                    compression = 8;
                 } else {
                     throw new IllegalStateException("the compression type : "+comp+". Is not known. Impossible to write image.");
                 }
@@ -3387,7 +3605,7 @@ public class TiffImageWriter extends SpatialImageWriter {
                 case TYPE_INT  :
                 case TYPE_UINT : {
                     final int dataCount = dataSize / Integer.SIZE;
-                    assert count == dataCount;
+                    assert count <= dataCount;
                     for (int i = 0; i < dataCount; i++) {
                         if (i < count) {
                             final int in = Array.getInt(value, i);
@@ -0,0 +1,483 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.image.io.plugin;
+
+import java.awt.Rectangle;
+import java.awt.image.DataBuffer;
+import java.awt.image.WritableRaster;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import javax.imageio.IIOException;
+import org.apache.sis.util.collection.BackingStoreException;
+
+/**
+ * Decode LZW (tiff compression 5) or Deflate (tiff compression 8) compressed tiles or strips
+ * concurrently into a destination raster.<br/>
+ * Blocks intersecting the read region are located from the offsets table and read with positional
+ * {@link FileChannel#read(java.nio.ByteBuffer, long) } calls, so worker threads never share a stream position.
+ * Each worker decompresses its blocks into reused buffers, LZW decoding uses flat tables
+ * without allocation for each dictionary entry.<br/><br/>
+ *
+ * Samples must be pixel interleaved (planar configuration 1), with a size multiple of 8 bits,
+ * and destination raster must have one band for each sample.
+ *
+ * @author Remi Marechal (Geomatys).
+ */
+final class TiffTileDecoder {
+
+    /**
+     * Particularity code LZW.
+     */
+    private static final int LZW_CLEAR_CODE = 256;
+    private static final int LZW_EOI_CODE   = 257;
+    private static final int LZW_MAX_CODE   = 4096;
+
+    /**
+     * Pool shared by all readers, threads are daemon.
+     */
+    private static final ForkJoinPool POOL = new ForkJoinPool();
+
+    /**
+     * Channel from which blocks are read.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Channel position of the tiff file beginning, added to each block offset.
+     */
+    private final long origin;
+
+    /**
+     * Tiff compression, 5 (LZW) or 8 (Deflate).
+     */
+    private final int compression;
+
+    /**
+     * {@code true} if horizontal differencing (tiff predictor 2) has been applied on samples.
+     */
+    private final boolean predictor;
+
+    /**
+     * Byte order of samples, same as tiff file byte order.
+     */
+    private final ByteOrder byteOrder;
+
+    /**
+     * Block (tile or strip) dimensions and number of blocks in each direction.
+     */
+    private final int blockWidth, blockHeight, numXBlocks, numYBlocks;
+
+    /**
+     * Image dimension, used to define strip heights.
+     */
+    private final int imageHeight;
+
+    /**
+     * Number of samples for each pixel.
+     */
+    private final int samplesPerPixel;
+
+    /**
+     * Size of each sample in byte.
+     */
+    private final int sampleSize;
+
+    /**
+     * Position and byte number of each block.
+     */
+    private final long[] offsets, byteCounts;
+
+    /**
+     * Build a decoder for the current layer.
+     *
+     * @param channel channel from which blocks are read.
+     * @param origin channel position of the tiff file beginning.
+     * @param compression tiff compression, 5 (LZW) or 8 (Deflate).
+     * @param predictor {@code true} if horizontal differencing has been applied.
+     * @param byteOrder tiff file byte order.
+     * @param blockWidth tile width or image width for strips.
+     * @param blockHeight tile height or rows per strip.
+     * @param imageWidth image width.
+     * @param imageHeight image height.
+     * @param samplesPerPixel number of samples for each pixel.
+     * @param bitsPerSample size of each sample in bits, multiple of 8.
+     * @param offsets position of each block.
+     * @param byteCounts byte number of each block.
+     */
+    TiffTileDecoder(final FileChannel channel, final long origin, final int compression, final boolean predictor,
+            final ByteOrder byteOrder, final int blockWidth, final int blockHeight, final int imageWidth,
+            final int imageHeight, final int samplesPerPixel, final int bitsPerSample,
+            final long[] offsets, final long[] byteCounts) {
+        assert compression == 5 || compression == 8 : compression;
+        assert bitsPerSample % Byte.SIZE == 0 : bitsPerSample;
+        this.channel         = channel;
+        this.origin          = origin;
+        this.compression     = compression;
+        this.predictor       = predictor;
+        this.byteOrder       = byteOrder;
+        this.blockWidth      = blockWidth;
+        this.blockHeight     = blockHeight;
+        this.numXBlocks      = (imageWidth  + blockWidth  - 1) / blockWidth;
+        this.numYBlocks      = (imageHeight + blockHeight - 1) / blockHeight;
+        this.imageHeight     = imageHeight;
+        this.samplesPerPixel = samplesPerPixel;
+        this.sampleSize      = bitsPerSample / Byte.SIZE;
+        this.offsets         = offsets;
+        this.byteCounts      = byteCounts;
+    }
+
+    /**
+     * Read source region of the current layer into destination region of the given raster.
+     *
+     * @param raster destination raster.
+     * @param srcRegion region to read in source image.
+     * @param dstRegion region to write in raster.
+     * @param sourceXSubsampling subsampling in x direction.
+     * @param sourceYSubsampling subsampling in y direction.
+     * @throws IOException if problem during block reading or decompression.
+     */
+    void read(final WritableRaster raster, final Rectangle srcRegion, final Rectangle dstRegion,
+              final int sourceXSubsampling, final int sourceYSubsampling) throws IOException {
+        if (srcRegion.isEmpty()) return;
+        final int minBX = srcRegion.x / blockWidth;
+        final int minBY = srcRegion.y / blockHeight;
+        final int maxBX = (srcRegion.x + srcRegion.width  + blockWidth  - 1) / blockWidth;
+        final int maxBY = (srcRegion.y + srcRegion.height + blockHeight - 1) / blockHeight;
+        final int[] blocks = new int[(maxBX - minBX) * (maxBY - minBY)];
+        int n = 0;
+        for (int by = minBY; by < maxBY; by++) {
+            for (int bx = minBX; bx < maxBX; bx++) {
+                blocks[n++] = by * numXBlocks + bx;
+            }
+        }
+        final Task task = new Task(raster, srcRegion, dstRegion, sourceXSubsampling, sourceYSubsampling, blocks, 0, n,
+                Math.max(1, n / (POOL.getParallelism() * 4)));
+        try {
+            if (n == 1) {
+                task.decode();
+            } else {
+                POOL.invoke(task);
+            }
+        } catch (BackingStoreException ex) {
+            throw ex.unwrapOrRethrow(IOException.class);
+        }
+    }
+
+    /**
+     * Decode a range of blocks, split while the range is larger than threshold.
+     */
+    private final class Task extends RecursiveAction {
+
+        private final WritableRaster raster;
+        private final Rectangle srcRegion, dstRegion;
+        private final int xSubsampling, ySubsampling;
+        private final int[] blocks;
+        private final int lower, upper, threshold;
+
+        Task(final WritableRaster raster, final Rectangle srcRegion, final Rectangle dstRegion,
+             final int xSubsampling, final int ySubsampling, final int[] blocks,
+             final int lower, final int upper, final int threshold) {
+            this.raster       = raster;
+            this.srcRegion    = srcRegion;
+            this.dstRegion    = dstRegion;
+            this.xSubsampling = xSubsampling;
+            this.ySubsampling = ySubsampling;
+            this.blocks       = blocks;
+            this.lower        = lower;
+            this.upper        = upper;
+            this.threshold    = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (upper - lower > threshold) {
+                final int mid = (lower + upper) >>> 1;
+                invokeAll(new Task(raster, srcRegion, dstRegion, xSubsampling, ySubsampling, blocks, lower, mid, threshold),
+                          new Task(raster, srcRegion, dstRegion, xSubsampling, ySubsampling, blocks, mid, upper, threshold));
+                return;
+            }
+            try {
+                decode();
+            } catch (IOException ex) {
+                throw new BackingStoreException(ex);
+            }
+        }
+
+        /**
+         * Decode all blocks of this task sequentially, reusing work buffers.
+         */
+        void decode() throws IOException {
+            final int rowLength = blockWidth * samplesPerPixel;
+            final byte[] data   = new byte[rowLength * blockHeight * sampleSize];
+            byte[] compressed   = new byte[0];
+            int[] entryOffsets  = null, entryLengths = null;
+            Inflater inflater   = null;
+            if (compression == 5) {
+                entryOffsets = new int[LZW_MAX_CODE];
+                entryLengths = new int[LZW_MAX_CODE];
+            } else {
+                inflater = new Inflater();
+            }
+            final int dataType = raster.getSampleModel().getDataType();
+            final int dstWidth = (srcRegion.width + xSubsampling - 1) / xSubsampling;
+            final Object row, samples;
+            switch (dataType) {
+                case DataBuffer.TYPE_FLOAT  : row = new float[rowLength];  samples = new float[dstWidth * samplesPerPixel];  break;
+                case DataBuffer.TYPE_DOUBLE : row = new double[rowLength]; samples = new double[dstWidth * samplesPerPixel]; break;
+                default                     : row = new int[rowLength];    samples = new int[dstWidth * samplesPerPixel];    break;
+            }
+            try {
+                for (int i = lower; i < upper; i++) {
+                    final int block = blocks[i];
+                    final int length = (int) byteCounts[block];
+                    if (compressed.length < length) compressed = new byte[length];
+                    readFully(compressed, length, offsets[block]);
+
+                    final int decoded;
+                    if (inflater != null) {
+                        decoded = inflate(inflater, compressed, length, data);
+                    } else {
+                        decoded = decodeLZW(compressed, length, data, entryOffsets, entryLengths);
+                    }
+                    copy(block, data, decoded, dataType, row, samples);
+                }
+            } finally {
+                if (inflater != null) inflater.end();
+            }
+        }
+
+        /**
+         * Copy decoded block rows which intersect source region into raster.
+         */
+        private void copy(final int block, final byte[] data, final int decoded, final int dataType,
+                          final Object row, final Object samples) {
+            final int bx = block % numXBlocks;
+            final int by = block / numXBlocks;
+            final int blockMinX = bx * blockWidth;
+            final int blockMinY = by * blockHeight;
+            //-- last strip may be shorter than others --//
+            final int blockRows = Math.min(blockHeight, imageHeight - blockMinY);
+
+            final int srcMaxX = srcRegion.x + srcRegion.width;
+            final int srcMaxY = srcRegion.y + srcRegion.height;
+            int minX = Math.max(srcRegion.x, blockMinX);
+            int minY = Math.max(srcRegion.y, blockMinY);
+            final int maxX = Math.min(srcMaxX, blockMinX + blockWidth);
+            final int maxY = Math.min(srcMaxY, blockMinY + blockRows);
+            //-- align on subsampling grid --//
+            minX += (xSubsampling - (minX - srcRegion.x) % xSubsampling) % xSubsampling;
+            minY += (ySubsampling - (minY - srcRegion.y) % ySubsampling) % ySubsampling;
+            if (minX >= maxX || minY >= maxY) return;
+
+            final int width     = (maxX - minX + xSubsampling - 1) / xSubsampling;
+            final int dstX      = dstRegion.x + (minX - srcRegion.x) / xSubsampling;
+            final int rowLength = blockWidth * samplesPerPixel;
+            final int rowBytes  = rowLength * sampleSize;
+            final ByteBuffer buffer = ByteBuffer.wrap(data, 0, decoded);
+            buffer.order(byteOrder);
+
+            for (int y = minY; y < maxY; y += ySubsampling) {
+                final int rowOffset = (y - blockMinY) * rowBytes;
+                final int dstY = dstRegion.y + (y - srcRegion.y) / ySubsampling;
+                final int firstSample = (minX - blockMinX) * samplesPerPixel;
+                final int step = xSubsampling * samplesPerPixel;
+                switch (dataType) {
+                    case DataBuffer.TYPE_FLOAT : {
+                        final float[] r = (float[]) row;
+                        final float[] s = (float[]) samples;
+                        for (int i = 0; i < rowLength; i++) r[i] = getFloat(buffer, rowOffset + i * sampleSize);
+                        for (int x = 0, k = firstSample, d = 0; x < width; x++, k += step) {
+                            for (int b = 0; b < samplesPerPixel; b++) s[d++] = r[k + b];
+                        }
+                        raster.setPixels(dstX, dstY, width, 1, s);
+                        break;
+                    }
+                    case DataBuffer.TYPE_DOUBLE : {
+                        final double[] r = (double[]) row;
+                        final double[] s = (double[]) samples;
+                        for (int i = 0; i < rowLength; i++) r[i] = getDouble(buffer, rowOffset + i * sampleSize);
+                        for (int x = 0, k = firstSample, d = 0; x < width; x++, k += step) {
+                            for (int b = 0; b < samplesPerPixel; b++) s[d++] = r[k + b];
+                        }
+                        raster.setPixels(dstX, dstY, width, 1, s);
+                        break;
+                    }
+                    default : {
+                        final int[] r = (int[]) row;
+                        final int[] s = (int[]) samples;
+                        for (int i = 0; i < rowLength; i++) r[i] = getInt(buffer, rowOffset + i * sampleSize);
+                        if (predictor) {
+                            for (int i = samplesPerPixel; i < rowLength; i++) r[i] += r[i - samplesPerPixel];
+                        }
+                        for (int x = 0, k = firstSample, d = 0; x < width; x++, k += step) {
+                            for (int b = 0; b < samplesPerPixel; b++) s[d++] = normalize(r[k + b], dataType);
+                        }
+                        raster.setPixels(dstX, dstY, width, 1, s);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns integer sample value at the given byte position, 0 if position is after decoded data.
+     */
+    private int getInt(final ByteBuffer buffer, final int position) {
+        if (position + sampleSize > buffer.limit()) return 0;
+        switch (sampleSize) {
+            case 1  : return buffer.get(position);
+            case 2  : return buffer.getShort(position);
+            default : return buffer.getInt(position);
+        }
+    }
+
+    private float getFloat(final ByteBuffer buffer, final int position) {
+        return (position + sampleSize > buffer.limit()) ? 0 : buffer.getFloat(position);
+    }
+
+    private double getDouble(final ByteBuffer buffer, final int position) {
+        return (position + sampleSize > buffer.limit()) ? 0 : buffer.getDouble(position);
+    }
+
+    /**
+     * Bring back an accumulated integer sample into the range of raster data type.
+     */
+    private static int normalize(final int value, final int dataType) {
+        switch (dataType) {
+            case DataBuffer.TYPE_BYTE   : return value & 0xFF;
+            case DataBuffer.TYPE_USHORT : return value & 0xFFFF;
+            case DataBuffer.TYPE_SHORT  : return (short) value;
+            default                     : return value;
+        }
+    }
+
+    /**
+     * Read {@code length} bytes at the given block offset with a positional read.
+     */
+    private void readFully(final byte[] dest, final int length, final long offset) throws IOException {
+        final ByteBuffer bb = ByteBuffer.wrap(dest, 0, length);
+        long position = origin + offset;
+        while (bb.hasRemaining()) {
+            final int n = channel.read(bb, position);
+            if (n < 0) throw new EOFException("Unexpected end of tiff file at position : "+position);
+            position += n;
+        }
+    }
+
+    /**
+     * Uncompress Deflate data.
+     *
+     * @return number of uncompressed bytes.
+     */
+    private static int inflate(final Inflater inflater, final byte[] input, final int length, final byte[] output)
+            throws IOException {
+        inflater.reset();
+        inflater.setInput(input, 0, length);
+        int n = 0;
+        try {
+            while (n < output.length) {
+                final int r = inflater.inflate(output, n, output.length - n);
+                if (r <= 0) break;
+                n += r;
+            }
+        } catch (DataFormatException ex) {
+            throw new IIOException("Invalid Deflate compressed data.", ex);
+        }
+        return n;
+    }
+
+    /**
+     * Uncompress LZW data as defined in tiff specification.<br/>
+     * Dictionary entries are not copied : each entry is defined by the position and the length
+     * of its bytes in the already decoded output, because an entry is always the previously decoded
+     * string followed by the first byte decoded after it.
+     *
+     * @param input compressed bytes.
+     * @param length number of compressed bytes.
+     * @param output destination of uncompressed bytes, decoding stops when it is full.
+     * @param entryOffsets work array of length 4096, position of each dictionary entry in output.
+     * @param entryLengths work array of length 4096, length of each dictionary entry.
+     * @return number of uncompressed bytes.
+     * @throws IOException if compressed data are invalid.
+     */
+    static int decodeLZW(final byte[] input, final int length, final byte[] output,
+                         final int[] entryOffsets, final int[] entryLengths) throws IOException {
+        final long numBits = (long) length * Byte.SIZE;
+        final int capacity = output.length;
+        long bitPos    = 0;
+        int codeLength = 9;
+        int nextCode   = 258;
+        int pos        = 0;
+        int oldPos     = -1;
+        int oldLength  = 0;
+
+        while (pos < capacity && bitPos + codeLength <= numBits) {
+            //-- read code, most significant bit first --//
+            final int byteIndex = (int) (bitPos >>> 3);
+            int bits = (input[byteIndex] & 0xFF) << 16;
+            if (byteIndex + 1 < length) bits |= (input[byteIndex + 1] & 0xFF) << 8;
+            if (byteIndex + 2 < length) bits |=  input[byteIndex + 2] & 0xFF;
+            final int code = (bits >>> (24 - (int) (bitPos & 7) - codeLength)) & ((1 << codeLength) - 1);
+            bitPos += codeLength;
+
+            if (code == LZW_EOI_CODE) break;
+            if (code == LZW_CLEAR_CODE) {
+                codeLength = 9;
+                nextCode   = 258;
+                oldPos     = -1;
+                continue;
+            }
+
+            final int start = pos;
+            final int entryLength;
+            if (code < LZW_CLEAR_CODE) {
+                output[pos] = (byte) code;
+                entryLength = 1;
+            } else if (code < nextCode && code > LZW_EOI_CODE) {
+                entryLength = entryLengths[code];
+                System.arraycopy(output, entryOffsets[code], output, pos, Math.min(entryLength, capacity - pos));
+            } else if (code == nextCode && oldPos >= 0) {
+                //-- entry not yet in dictionary : previous string followed by its first byte --//
+                entryLength = oldLength + 1;
+                System.arraycopy(output, oldPos, output, pos, Math.min(oldLength, capacity - pos));
+                if (pos + oldLength < capacity) output[pos + oldLength] = output[oldPos];
+            } else {
+                throw new IIOException("Invalid LZW code : "+code+" at bit position : "+(bitPos - codeLength));
+            }
+
+            if (oldPos >= 0 && nextCode < LZW_MAX_CODE) {
+                entryOffsets[nextCode] = oldPos;
+                entryLengths[nextCode] = oldLength + 1;
+                nextCode++;
+                //-- code length increases one code early, as in tiff specification --//
+                if (nextCode == 511 || nextCode == 1023 || nextCode == 2047) codeLength++;
+            }
+            oldPos    = start;
+            oldLength = entryLength;
+            pos      += entryLength;
+        }
+        return Math.min(pos, capacity);
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.image.io.plugin;
+
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Encode a tile of a {@link Raster} into tiff tile bytes.<br/>
+ * Samples are written pixel interleaved (planar configuration 1) in the given byte order,
+ * tile part outside raster is filled by zero.<br/>
+ * If asked, horizontal differencing (tiff predictor 2) is applied on each tile row,
+ * then bytes are compressed with Deflate (tiff compression 8).<br/><br/>
+ *
+ * Encoder holds no state between two tiles and may be used by several threads at the same time.
+ *
+ * @author Remi Marechal (Geomatys).
+ */
+final class TiffTileEncoder {
+
+    /**
+     * {@link DataBuffer} type of encoded samples.
+     */
+    private final int dataType;
+
+    /**
+     * Number of samples for each pixel.
+     */
+    private final int numBands;
+
+    /**
+     * Size in byte of each sample.
+     */
+    private final int sampleSize;
+
+    /**
+     * Tile dimensions in pixels.
+     */
+    private final int tileWidth;
+    private final int tileHeight;
+
+    /**
+     * Tiff compression, 1 for no compression or 8 for Deflate.
+     */
+    private final int compression;
+
+    /**
+     * {@code true} to apply horizontal differencing on integer samples.
+     */
+    private final boolean predictor;
+
+    /**
+     * Byte order of destination tiff file.
+     */
+    private final ByteOrder byteOrder;
+
+    /**
+     * Build an encoder.
+     *
+     * @param dataType {@link DataBuffer} type of raster samples.
+     * @param numBands number of samples for each pixel.
+     * @param tileWidth tile width in pixels.
+     * @param tileHeight tile height in pixels.
+     * @param compression tiff compression, 1 (none) or 8 (Deflate).
+     * @param predictor {@code true} to apply horizontal differencing, ignored for floating point samples.
+     * @param byteOrder byte order of destination tiff file.
+     * @throws IllegalArgumentException if data type or compression are not supported.
+     */
+    TiffTileEncoder(final int dataType, final int numBands, final int tileWidth, final int tileHeight,
+                    final int compression, final boolean predictor, final ByteOrder byteOrder) {
+        switch (dataType) {
+            case DataBuffer.TYPE_BYTE   : sampleSize = 1; break;
+            case DataBuffer.TYPE_SHORT  :
+            case DataBuffer.TYPE_USHORT : sampleSize = 2; break;
+            case DataBuffer.TYPE_INT    :
+            case DataBuffer.TYPE_FLOAT  : sampleSize = 4; break;
+            case DataBuffer.TYPE_DOUBLE : sampleSize = 8; break;
+            default : throw new IllegalArgumentException("Unsupported data buffer type : "+dataType);
+        }
+        if (compression != 1 && compression != 8)
+            throw new IllegalArgumentException("Unsupported tile compression : "+compression);
+        this.dataType    = dataType;
+        this.numBands    = numBands;
+        this.tileWidth   = tileWidth;
+        this.tileHeight  = tileHeight;
+        this.compression = compression;
+        this.predictor   = predictor && dataType != DataBuffer.TYPE_FLOAT && dataType != DataBuffer.TYPE_DOUBLE;
+        this.byteOrder   = byteOrder;
+    }
+
+    /**
+     * Returns {@code true} if horizontal differencing is applied on samples.
+     */
+    boolean usePredictor() {
+        return predictor;
+    }
+
+    /**
+     * Encode tile which upper left corner is at ({@code minX}, {@code minY}) raster coordinates.
+     *
+     * @param raster source raster.
+     * @param minX tile minimum x coordinate in raster.
+     * @param minY tile minimum y coordinate in raster.
+     * @return tile bytes as they should be written in tiff file.
+     */
+    byte[] encode(final Raster raster, final int minX, final int minY) {
+        final int width  = Math.min(tileWidth,  raster.getMinX() + raster.getWidth()  - minX);
+        final int height = Math.min(tileHeight, raster.getMinY() + raster.getHeight() - minY);
+        final int rowLength = tileWidth * numBands;
+        final int length    = width * numBands;
+        final ByteBuffer buffer = ByteBuffer.allocate(rowLength * tileHeight * sampleSize);
+        buffer.order(byteOrder);
+
+        switch (dataType) {
+            case DataBuffer.TYPE_FLOAT : {
+                final float[] row = new float[rowLength];
+                for (int y = 0; y < height; y++) {
+                    raster.getPixels(minX, minY + y, width, 1, row);
+                    for (int i = 0; i < rowLength; i++) buffer.putFloat(row[i]);
+                }
+                break;
+            }
+            case DataBuffer.TYPE_DOUBLE : {
+                final double[] row = new double[rowLength];
+                for (int y = 0; y < height; y++) {
+                    raster.getPixels(minX, minY + y, width, 1, row);
+                    for (int i = 0; i < rowLength; i++) buffer.putDouble(row[i]);
+                }
+                break;
+            }
+            default : {
+                final int[] row = new int[rowLength];
+                for (int y = 0; y < height; y++) {
+                    raster.getPixels(minX, minY + y, width, 1, row);
+                    //-- tile padding, getPixels only fill raster part --//
+                    Arrays.fill(row, length, rowLength, 0);
+                    if (predictor) {
+                        for (int i = rowLength - 1; i >= numBands; i--) row[i] -= row[i - numBands];
+                    }
+                    switch (sampleSize) {
+                        case 1  : for (int i = 0; i < rowLength; i++) buffer.put((byte) row[i]);       break;
+                        case 2  : for (int i = 0; i < rowLength; i++) buffer.putShort((short) row[i]); break;
+                        default : for (int i = 0; i < rowLength; i++) buffer.putInt(row[i]);           break;
+                    }
+                }
+                break;
+            }
+        }
+        //-- rows under raster are left to zero --//
+        final byte[] data = buffer.array();
+        return (compression == 8) ? deflate(data) : data;
+    }
+
+    /**
+     * Compress given bytes with Deflate algorithm.
+     *
+     * @param data uncompressed bytes.
+     * @return compressed bytes.
+     */
+    private static byte[] deflate(final byte[] data) {
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            byte[] result = new byte[Math.max(64, data.length >>> 2)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == result.length) result = Arrays.copyOf(result, length << 1);
+                length += deflater.deflate(result, length, result.length - length);
+            }
+            return Arrays.copyOf(result, length);
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,465 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.image.io.plugin;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.DataBuffer;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import javax.imageio.stream.ImageOutputStream;
+import org.apache.sis.util.logging.Logging;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Write an image and its reduced resolution overviews by encoded tiles.<br/>
+ * Source image is read once, by rows of tiles. Each row is encoded on a worker pool
+ * and downsampled by 2 into the next overview, which is encoded and downsampled in turn
+ * when its own row of tiles is complete. Overviews are generated until one of them fits in a single tile.<br/>
+ * Overviews are computed by averaging 2 x 2 pixels, or by nearest neighbor for indexed color images.<br/><br/>
+ *
+ * Encoded tiles are written in tile order by the calling thread : full resolution tiles directly
+ * into destination stream, overview tiles into a temporary file for each overview level,
+ * appended to the destination stream after full resolution tiles.
+ *
+ * @author Remi Marechal (Geomatys).
+ */
+final class TiledPyramidWriter {
+
+    /**
+     * Maximum number of tiles waiting to be written for each worker thread.
+     */
+    private static final int PENDING_BY_THREAD = 4;
+
+    /**
+     * Source image.
+     */
+    private final RenderedImage image;
+
+    /**
+     * Encoder shared by all worker threads.
+     */
+    private final TiffTileEncoder encoder;
+
+    /**
+     * Tile dimensions in pixels, same for all levels.
+     */
+    private final int tileWidth;
+    private final int tileHeight;
+
+    /**
+     * {@code true} to compute overviews by nearest neighbor instead of average.
+     */
+    private final boolean nearest;
+
+    /**
+     * {@code true} if floating point samples, NaN values are ignored during average.
+     */
+    private final boolean floatingPoint;
+
+    /**
+     * Full resolution level at index 0, followed by overviews.
+     */
+    private final PyramidLevel[] levels;
+
+    /**
+     * Worker pool which encode tiles.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Encoded tiles in submission order, waiting to be written.
+     */
+    private final ArrayDeque<PendingTile> pending = new ArrayDeque<>();
+
+    /**
+     * Maximum size of {@link #pending} queue.
+     */
+    private final int maxPending;
+
+    /**
+     * Destination stream, set during {@link #write(javax.imageio.stream.ImageOutputStream) }.
+     */
+    private ImageOutputStream output;
+
+    /**
+     * Build a pyramid writer.
+     *
+     * @param image source image.
+     * @param tileWidth tile width in pixels.
+     * @param tileHeight tile height in pixels, must be even.
+     * @param overviews {@code true} to generate overviews, {@code false} to only write full resolution.
+     * @param encoder tile encoder.
+     * @param threads number of worker threads.
+     */
+    TiledPyramidWriter(final RenderedImage image, final int tileWidth, final int tileHeight,
+                       final boolean overviews, final TiffTileEncoder encoder, final int threads) {
+        assert tileHeight % 2 == 0 : "tile height should be even : "+tileHeight;
+        this.image         = image;
+        this.tileWidth     = tileWidth;
+        this.tileHeight    = tileHeight;
+        this.encoder       = encoder;
+        this.nearest       = image.getColorModel() instanceof IndexColorModel;
+        final int dataType = image.getSampleModel().getDataType();
+        this.floatingPoint = dataType == DataBuffer.TYPE_FLOAT || dataType == DataBuffer.TYPE_DOUBLE;
+
+        int width  = image.getWidth();
+        int height = image.getHeight();
+        int numLevels = 1;
+        if (overviews) {
+            while (width > tileWidth || height > tileHeight) {
+                width  = (width  + 1) >> 1;
+                height = (height + 1) >> 1;
+                numLevels++;
+            }
+        }
+        levels = new PyramidLevel[numLevels];
+        width  = image.getWidth();
+        height = image.getHeight();
+        for (int l = 0; l < numLevels; l++) {
+            levels[l] = new PyramidLevel(width, height);
+            width  = (width  + 1) >> 1;
+            height = (height + 1) >> 1;
+        }
+        executor   = Executors.newFixedThreadPool(threads);
+        maxPending = threads * PENDING_BY_THREAD;
+    }
+
+    /**
+     * Returns number of levels, full resolution included.
+     */
+    int getNumLevels() {
+        return levels.length;
+    }
+
+    /**
+     * Returns image width of the given level.
+     */
+    int getWidth(final int level) {
+        return levels[level].width;
+    }
+
+    /**
+     * Returns image height of the given level.
+     */
+    int getHeight(final int level) {
+        return levels[level].height;
+    }
+
+    /**
+     * Returns number of tiles in x direction of the given level.
+     */
+    int getNumXTiles(final int level) {
+        return levels[level].numXTiles;
+    }
+
+    /**
+     * Returns number of tiles in y direction of the given level.
+     */
+    int getNumYTiles(final int level) {
+        return levels[level].numYTiles;
+    }
+
+    /**
+     * Returns position of each tile of the given level in destination stream, in row major order.
+     * Only valid after {@link #write(javax.imageio.stream.ImageOutputStream) }.
+     */
+    long[] getTileOffsets(final int level) {
+        return levels[level].offsets;
+    }
+
+    /**
+     * Returns byte number of each tile of the given level, in row major order.
+     * Only valid after {@link #write(javax.imageio.stream.ImageOutputStream) }.
+     */
+    long[] getTileByteCounts(final int level) {
+        return levels[level].byteCounts;
+    }
+
+    /**
+     * Read source image, encode and write tiles of all levels at the current position of the given stream.
+     * Full resolution tiles are written first, followed by overview tiles from the largest to the smallest overview.
+     *
+     * @param output destination stream.
+     * @throws IOException if problem during tile encoding or writing.
+     */
+    void write(final ImageOutputStream output) throws IOException {
+        this.output = output;
+        try {
+            for (int l = 1; l < levels.length; l++) {
+                final PyramidLevel level = levels[l];
+                level.spillPath = Files.createTempFile("overview", ".tiles");
+                level.spill     = FileChannel.open(level.spillPath, READ, WRITE);
+            }
+
+            final PyramidLevel base = levels[0];
+            final int minX = image.getMinX();
+            final int minY = image.getMinY();
+            for (int y = 0; y < base.height; y += tileHeight) {
+                final int height = Math.min(tileHeight, base.height - y);
+                final Raster strip = image.getData(new Rectangle(minX, minY + y, base.width, height));
+                writeStrip(0, strip.createTranslatedChild(0, y));
+            }
+            flush(0);
+
+            //-- append overviews --//
+            final byte[] buffer = new byte[65536];
+            final ByteBuffer bb = ByteBuffer.wrap(buffer);
+            for (int l = 1; l < levels.length; l++) {
+                final PyramidLevel level = levels[l];
+                final long origin = output.getStreamPosition();
+                for (int i = 0; i < level.offsets.length; i++) {
+                    level.offsets[i] += origin;
+                }
+                level.spill.position(0);
+                for (;;) {
+                    bb.clear();
+                    final int n = level.spill.read(bb);
+                    if (n < 0) break;
+                    output.write(buffer, 0, n);
+                }
+            }
+        } finally {
+            this.output = null;
+        }
+    }
+
+    /**
+     * Release worker threads and delete temporary files.
+     */
+    void dispose() {
+        executor.shutdownNow();
+        for (final PyramidLevel level : levels) {
+            try {
+                if (level.spill != null) level.spill.close();
+                if (level.spillPath != null) Files.deleteIfExists(level.spillPath);
+            } catch (IOException ex) {
+                Logging.getLogger("org.geotoolkit.image.io.plugin").log(Level.WARNING, null, ex);
+            }
+            level.spill     = null;
+            level.spillPath = null;
+        }
+    }
+
+    /**
+     * Submit encoding of all tiles of a complete row of tiles, then downsample it into the next level.
+     *
+     * @param level index of the strip level.
+     * @param strip row of tiles, raster coordinates are level image coordinates.
+     */
+    private void writeStrip(final int level, final Raster strip) throws IOException {
+        final PyramidLevel lvl = levels[level];
+        final int minY = strip.getMinY();
+        assert minY % tileHeight == 0;
+        final int tileIndexOffset = (minY / tileHeight) * lvl.numXTiles;
+        for (int tx = 0; tx < lvl.numXTiles; tx++) {
+            final int minX = tx * tileWidth;
+            final Future<byte[]> data = executor.submit(new Callable<byte[]>() {
+                @Override
+                public byte[] call() {
+                    return encoder.encode(strip, minX, minY);
+                }
+            });
+            pending.add(new PendingTile(level, tileIndexOffset + tx, data));
+            flush(maxPending);
+        }
+        if (level + 1 < levels.length) {
+            downsample(strip, level + 1);
+        }
+    }
+
+    /**
+     * Reduce by 2 the given strip into the current strip of the given level.
+     * When the level strip is complete it is written in turn.
+     *
+     * @param source strip from previous level.
+     * @param level index of the destination level.
+     */
+    private void downsample(final Raster source, final int level) throws IOException {
+        final PyramidLevel lvl = levels[level];
+        final int numBands = source.getNumBands();
+        final int srcWidth = source.getWidth();
+        final int srcMaxY  = source.getMinY() + source.getHeight();
+        final int minY     = source.getMinY() >> 1;
+        final int maxY     = (srcMaxY + 1) >> 1;
+        if (lvl.strip == null) {
+            final SampleModel sm = image.getSampleModel().createCompatibleSampleModel(lvl.width,
+                    Math.min(tileHeight, lvl.height - lvl.stripY));
+            lvl.strip = Raster.createWritableRaster(sm, new Point(0, lvl.stripY));
+            if (lvl.row0 == null) {
+                lvl.row0 = new double[srcWidth * numBands];
+                lvl.row1 = new double[srcWidth * numBands];
+                lvl.row  = new double[lvl.width * numBands];
+            }
+        }
+        assert minY >= lvl.stripY && maxY <= lvl.stripY + lvl.strip.getHeight();
+
+        final double[] row0 = lvl.row0;
+        final double[] row1 = lvl.row1;
+        final double[] row  = lvl.row;
+        for (int y = minY; y < maxY; y++) {
+            final int srcY = y << 1;
+            final boolean hasRow1 = srcY + 1 < srcMaxY;
+            source.getPixels(0, srcY, srcWidth, 1, row0);
+            if (hasRow1) source.getPixels(0, srcY + 1, srcWidth, 1, row1);
+            for (int x = 0; x < lvl.width; x++) {
+                final int s0 = (x << 1) * numBands;
+                final boolean hasCol1 = (x << 1) + 1 < srcWidth;
+                for (int b = 0; b < numBands; b++) {
+                    final int d = x * numBands + b;
+                    if (nearest) {
+                        row[d] = row0[s0 + b];
+                        continue;
+                    }
+                    double sum = 0;
+                    int n = 0;
+                    double v = row0[s0 + b];
+                    if (!Double.isNaN(v)) {sum += v; n++;}
+                    if (hasCol1) {
+                        v = row0[s0 + numBands + b];
+                        if (!Double.isNaN(v)) {sum += v; n++;}
+                    }
+                    if (hasRow1) {
+                        v = row1[s0 + b];
+                        if (!Double.isNaN(v)) {sum += v; n++;}
+                        if (hasCol1) {
+                            v = row1[s0 + numBands + b];
+                            if (!Double.isNaN(v)) {sum += v; n++;}
+                        }
+                    }
+                    if (n == 0) {
+                        row[d] = Double.NaN;
+                    } else {
+                        row[d] = (floatingPoint) ? sum / n : Math.floor(sum / n + 0.5);
+                    }
+                }
+            }
+            lvl.strip.setPixels(0, y, lvl.width, 1, row);
+        }
+
+        if (maxY == lvl.strip.getMinY() + lvl.strip.getHeight()) {
+            //-- strip is complete, a new raster is used for next strip because tiles are encoded asynchronously --//
+            final Raster strip = lvl.strip;
+            lvl.strip   = null;
+            lvl.stripY += tileHeight;
+            writeStrip(level, strip);
+        }
+    }
+
+    /**
+     * Write encoded tiles in submission order until at most {@code limit} tiles are waiting.
+     *
+     * @param limit maximum number of waiting tiles.
+     */
+    private void flush(final int limit) throws IOException {
+        while (pending.size() > limit) {
+            final PendingTile tile = pending.poll();
+            final byte[] data;
+            try {
+                data = tile.data.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while encoding tiles.");
+            } catch (ExecutionException ex) {
+                final Throwable cause = ex.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                throw new IOException(cause);
+            }
+            final PyramidLevel level = levels[tile.level];
+            if (level.spill == null) {
+                level.offsets[tile.index] = output.getStreamPosition();
+                output.write(data);
+            } else {
+                level.offsets[tile.index] = level.spill.position();
+                final ByteBuffer bb = ByteBuffer.wrap(data);
+                while (bb.hasRemaining()) level.spill.write(bb);
+            }
+            level.byteCounts[tile.index] = data.length;
+        }
+    }
+
+    /**
+     * Description and writing state of a pyramid level.
+     */
+    private final class PyramidLevel {
+        final int width;
+        final int height;
+        final int numXTiles;
+        final int numYTiles;
+        final long[] offsets;
+        final long[] byteCounts;
+
+        /**
+         * Temporary file and channel where overview tiles are written, {@code null} for full resolution.
+         */
+        Path spillPath;
+        FileChannel spill;
+
+        /**
+         * Row of tiles currently filled by downsampling, and its minimum y coordinate.
+         */
+        WritableRaster strip;
+        int stripY;
+
+        /**
+         * Work arrays used by downsampling.
+         */
+        double[] row0, row1, row;
+
+        PyramidLevel(final int width, final int height) {
+            this.width  = width;
+            this.height = height;
+            numXTiles   = (width  + tileWidth  - 1) / tileWidth;
+            numYTiles   = (height + tileHeight - 1) / tileHeight;
+            offsets     = new long[numXTiles * numYTiles];
+            byteCounts  = new long[numXTiles * numYTiles];
+        }
+    }
+
+    /**
+     * Tile submitted to worker pool.
+     */
+    private static final class PendingTile {
+        final int level;
+        final int index;
+        final Future<byte[]> data;
+
+        PendingTile(final int level, final int index, final Future<byte[]> data) {
+            this.level = level;
+            this.index = index;
+            this.data  = data;
+        }
+    }
+}
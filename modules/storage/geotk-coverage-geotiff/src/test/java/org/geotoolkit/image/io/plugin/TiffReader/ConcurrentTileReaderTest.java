@@ -0,0 +1,157 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.image.io.plugin.TiffReader;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.stream.ImageInputStream;
+import org.geotoolkit.coverage.io.CoverageIO;
+import org.geotoolkit.image.internal.ImageUtils;
+import org.geotoolkit.image.internal.SampleType;
+import org.geotoolkit.image.io.plugin.TiffImageReader;
+import org.geotoolkit.image.io.plugin.TiffImageWriteParam;
+import org.geotoolkit.image.io.plugin.TiffImageWriter;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test that LZW or Deflate compressed tiles and strips, read concurrently from a file input,
+ * give exactly the same result than sequential reading from an {@link ImageInputStream} input.
+ *
+ * @author Remi Marechal (Geomatys).
+ */
+public class ConcurrentTileReaderTest extends org.geotoolkit.test.TestBase {
+
+    private final Random random = new Random(42);
+
+    private final Path file;
+
+    public ConcurrentTileReaderTest() throws IOException {
+        file = Files.createTempFile("concurrentTiles", ".tiff");
+    }
+
+    @After
+    public void deleteTempFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private BufferedImage createImage(final SampleType sampleType, final int numBands) {
+        final BufferedImage image = ImageUtils.createScaledInterleavedImage(431, 317, sampleType, numBands);
+        final WritableRaster raster = image.getRaster();
+        for (int y = 0; y < 317; y++) {
+            for (int x = 0; x < 431; x++) {
+                for (int b = 0; b < numBands; b++) {
+                    //-- repeated values with some noise, to build long LZW strings --//
+                    raster.setSample(x, y, b, (x / 7 + y / 5 + b) % 120 + random.nextInt(3));
+                }
+            }
+        }
+        return image;
+    }
+
+    private void write(final BufferedImage image, final String compression, final boolean tiled) throws IOException {
+        final TiffImageWriter writer = new TiffImageWriter(null);
+        final TiffImageWriteParam param = (TiffImageWriteParam) writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionType(compression);
+        if (tiled) {
+            param.setTilingMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setTiling(64, 48, 0, 0);
+        }
+        writer.setOutput(file);
+        writer.write(image, param);
+        writer.dispose();
+    }
+
+    /**
+     * Read image from file input (concurrent decoding) and from image stream input (sequential decoding),
+     * with and without region and subsampling, and compare both results.
+     */
+    private void compare(final BufferedImage image) throws IOException {
+        final ImageReadParam subsampled = new ImageReadParam();
+        subsampled.setSourceRegion(new Rectangle(37, 21, 300, 250));
+        subsampled.setSourceSubsampling(3, 2, 1, 0);
+
+        for (ImageReadParam param : new ImageReadParam[]{null, subsampled}) {
+            final TiffImageReader concurrent = new TiffImageReader(null);
+            concurrent.setInput(file.toFile());
+            final Raster result = concurrent.read(0, param).getData();
+            concurrent.dispose();
+
+            final TiffImageReader sequential = new TiffImageReader(null);
+            try (ImageInputStream input = CoverageIO.createImageInputStream(file)) {
+                sequential.setInput(input);
+                checkEquals(sequential.read(0, param).getData(), result);
+            }
+            sequential.dispose();
+        }
+        checkEquals(image.getData(), readFile(null));
+    }
+
+    private Raster readFile(final ImageReadParam param) throws IOException {
+        final TiffImageReader reader = new TiffImageReader(null);
+        reader.setInput(file);
+        final Raster result = reader.read(0, param).getData();
+        reader.dispose();
+        return result;
+    }
+
+    @Test
+    public void lzwTilesTest() throws IOException {
+        final BufferedImage image = createImage(SampleType.BYTE, 3);
+        write(image, "LZW", true);
+        compare(image);
+    }
+
+    @Test
+    public void lzwStripsTest() throws IOException {
+        final BufferedImage image = createImage(SampleType.USHORT, 2);
+        write(image, "LZW", false);
+        compare(image);
+    }
+
+    @Test
+    public void deflateTilesTest() throws IOException {
+        final BufferedImage image = createImage(SampleType.FLOAT, 1);
+        write(image, "Deflate", true);
+        compare(image);
+    }
+
+    private static void checkEquals(final Raster expected, final Raster result) {
+        assertEquals(expected.getWidth(),    result.getWidth());
+        assertEquals(expected.getHeight(),   result.getHeight());
+        assertEquals(expected.getNumBands(), result.getNumBands());
+        final int numBands = expected.getNumBands();
+        final double[] exp = new double[numBands];
+        final double[] res = new double[numBands];
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertArrayEquals("pixel ("+x+", "+y+")", expected.getPixel(x, y, exp), result.getPixel(x, y, res), 0);
+            }
+        }
+    }
+}
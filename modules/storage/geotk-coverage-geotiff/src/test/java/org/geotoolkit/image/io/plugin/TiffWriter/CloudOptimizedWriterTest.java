@@ -0,0 +1,217 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.image.io.plugin.TiffWriter;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import javax.imageio.ImageWriteParam;
+import org.geotoolkit.image.internal.ImageUtils;
+import org.geotoolkit.image.internal.SampleType;
+import org.geotoolkit.image.io.plugin.TiffImageReader;
+import org.geotoolkit.image.io.plugin.TiffImageWriteParam;
+import org.geotoolkit.image.io.plugin.TiffImageWriter;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cloud optimized geotiff writing : Deflate compressed tiles with internal overviews
+ * read back as additional images by {@link TiffImageReader}.
+ *
+ * @author Remi Marechal (Geomatys).
+ */
+public class CloudOptimizedWriterTest extends org.geotoolkit.test.TestBase {
+
+    private final Random random = new Random(42);
+
+    private final Path file;
+
+    public CloudOptimizedWriterTest() throws IOException {
+        file = Files.createTempFile("cog", ".tiff");
+    }
+
+    @After
+    public void deleteTempFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private TiffImageWriteParam createParam(final TiffImageWriter writer, final boolean cloudOptimized) {
+        final TiffImageWriteParam param = (TiffImageWriteParam) writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionType("Deflate");
+        param.setCloudOptimized(cloudOptimized);
+        param.setCompressionThreads(3);
+        return param;
+    }
+
+    private void write(final RenderedImage image, final ImageWriteParam param, final TiffImageWriter writer) throws IOException {
+        writer.setOutput(file);
+        writer.write(image, param);
+        writer.dispose();
+    }
+
+    /**
+     * RGB image with overviews, overviews average 2 x 2 pixels.
+     */
+    @Test
+    public void rgbOverviewsTest() throws IOException {
+        final BufferedImage image = ImageUtils.createRGBInterleavedImage(600, 500, SampleType.BYTE);
+        final WritableRaster raster = image.getRaster();
+        for (int y = 0; y < 500; y++) {
+            for (int x = 0; x < 600; x++) {
+                for (int b = 0; b < 3; b++) {
+                    //-- smooth values with some noise, to test predictor --//
+                    raster.setSample(x, y, b, ((x + y * b) / 4 + random.nextInt(4)) & 0xFF);
+                }
+            }
+        }
+
+        final TiffImageWriter writer = new TiffImageWriter(null);
+        final TiffImageWriteParam param = createParam(writer, true);
+        param.setTilingMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setTiling(128, 128, 0, 0);
+        write(image, param, writer);
+
+        final TiffImageReader reader = new TiffImageReader(null);
+        reader.setInput(file);
+        //-- 600 x 500, 300 x 250, 150 x 125, 75 x 63 --//
+        assertEquals(4, reader.getNumImages(true));
+        assertEquals(0, reader.getNumThumbnails(0));
+        final int[] widths  = new int[]{600, 300, 150, 75};
+        final int[] heights = new int[]{500, 250, 125, 63};
+        for (int i = 0; i < 4; i++) {
+            assertEquals(widths[i],  reader.getWidth(i));
+            assertEquals(heights[i], reader.getHeight(i));
+        }
+
+        checkEquals(image.getData(), reader.read(0).getData());
+
+        final Raster overview = reader.read(1).getData();
+        for (int y = 0; y < 250; y++) {
+            for (int x = 0; x < 300; x++) {
+                for (int b = 0; b < 3; b++) {
+                    final double sum = raster.getSample(2*x, 2*y, b)   + raster.getSample(2*x+1, 2*y, b)
+                                     + raster.getSample(2*x, 2*y+1, b) + raster.getSample(2*x+1, 2*y+1, b);
+                    assertEquals(Math.floor(sum / 4 + 0.5), overview.getSample(x, y, b), 0);
+                }
+            }
+        }
+
+        //-- last overview, last row average 2 pixels of 125 rows overview --//
+        final Raster previous = reader.read(2).getData();
+        final Raster last     = reader.read(3).getData();
+        final double sum = previous.getSample(148, 124, 0) + previous.getSample(149, 124, 0);
+        assertEquals(Math.floor(sum / 2 + 0.5), last.getSample(74, 62, 0), 0);
+        reader.dispose();
+    }
+
+    /**
+     * Float image, no predictor and NaN values ignored in overviews.
+     */
+    @Test
+    public void floatOverviewsTest() throws IOException {
+        final BufferedImage image = ImageUtils.createScaledInterleavedImage(301, 270, SampleType.FLOAT, 1);
+        final WritableRaster raster = image.getRaster();
+        for (int y = 0; y < 270; y++) {
+            for (int x = 0; x < 301; x++) {
+                raster.setSample(x, y, 0, random.nextFloat() * 1000);
+            }
+        }
+        raster.setSample(0, 0, 0, Float.NaN);
+
+        final TiffImageWriter writer = new TiffImageWriter(null);
+        write(image, createParam(writer, true), writer);
+
+        final TiffImageReader reader = new TiffImageReader(null);
+        reader.setInput(file);
+        //-- 301 x 270, 151 x 135 --//
+        assertEquals(2, reader.getNumImages(true));
+        assertEquals(151, reader.getWidth(1));
+        assertEquals(135, reader.getHeight(1));
+        checkEquals(image.getData(), reader.read(0).getData());
+
+        final Raster overview = reader.read(1).getData();
+        final double expected = ((double) raster.getSampleFloat(1, 0, 0) + raster.getSampleFloat(0, 1, 0) + raster.getSampleFloat(1, 1, 0)) / 3;
+        assertEquals((float) expected, overview.getSampleFloat(0, 0, 0), 0);
+        //-- last column average 2 pixels --//
+        final double expectedLast = ((double) raster.getSampleFloat(300, 0, 0) + raster.getSampleFloat(300, 1, 0)) / 2;
+        assertEquals((float) expectedLast, overview.getSampleFloat(150, 0, 0), 0);
+        reader.dispose();
+    }
+
+    /**
+     * Deflate without cloud optimized mode only write full resolution image.
+     */
+    @Test
+    public void deflateWithoutOverviewsTest() throws IOException {
+        final BufferedImage image = ImageUtils.createScaledInterleavedImage(530, 290, SampleType.SHORT, 2);
+        final WritableRaster raster = image.getRaster();
+        for (int y = 0; y < 290; y++) {
+            for (int x = 0; x < 530; x++) {
+                raster.setSample(x, y, 0, random.nextInt(65536) - 32768);
+                raster.setSample(x, y, 1, x - y);
+            }
+        }
+        final TiffImageWriter writer = new TiffImageWriter(null);
+        write(image, createParam(writer, false), writer);
+
+        final TiffImageReader reader = new TiffImageReader(null);
+        reader.setInput(file);
+        assertEquals(1, reader.getNumImages(true));
+        checkEquals(image.getData(), reader.read(0).getData());
+        reader.dispose();
+    }
+
+    /**
+     * Source region is not supported in cloud optimized mode.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void sourceRegionTest() throws IOException {
+        final BufferedImage image = ImageUtils.createRGBInterleavedImage(300, 300, SampleType.BYTE);
+        final TiffImageWriter writer = new TiffImageWriter(null);
+        final TiffImageWriteParam param = createParam(writer, true);
+        param.setSourceRegion(new Rectangle(10, 10, 100, 100));
+        try {
+            write(image, param, writer);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static void checkEquals(final Raster expected, final Raster result) {
+        assertEquals(expected.getWidth(),    result.getWidth());
+        assertEquals(expected.getHeight(),   result.getHeight());
+        assertEquals(expected.getNumBands(), result.getNumBands());
+        assertEquals(expected.getDataBuffer().getDataType(), result.getDataBuffer().getDataType());
+        final int numBands = expected.getNumBands();
+        final double[] exp = new double[numBands];
+        final double[] res = new double[numBands];
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertArrayEquals("pixel ("+x+", "+y+")", expected.getPixel(x, y, exp), result.getPixel(x, y, res), 0);
+            }
+        }
+    }
+}
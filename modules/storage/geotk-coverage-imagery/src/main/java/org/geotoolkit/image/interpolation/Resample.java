@@ -19,12 +19,18 @@ package org.geotoolkit.image.interpolation;
 import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
 import java.awt.image.DataBuffer;
+import java.awt.image.MultiPixelPackedSampleModel;
 import java.awt.image.RenderedImage;
 import java.awt.image.WritableRenderedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import org.apache.sis.geometry.Envelope2D;
 import org.apache.sis.geometry.GeneralEnvelope;
 import org.apache.sis.util.ArgumentChecks;
 import org.apache.sis.geometry.Envelopes;
+import org.apache.sis.util.collection.BackingStoreException;
 import org.geotoolkit.image.io.large.WritableLargeRenderedImage;
 import org.geotoolkit.image.iterator.PixelIterator;
 import org.geotoolkit.image.iterator.PixelIteratorFactory;
@@ -65,6 +71,17 @@ public class Resample {
      */
     private final Interpolation interpol;
 
+    /**
+     * Source image, interpolation case and lanczos window used to create {@link #interpol}.<br/>
+     * Used to create an interpolation for each parallel task, {@code null} source if resample
+     * has been created from an {@link Interpolation} instance.
+     *
+     * @see #fillImage(java.util.concurrent.ForkJoinPool)
+     */
+    private final RenderedImage imageSrc;
+    private final InterpolationCase interpolationCase;
+    private final int lanczosWindow;
+
     /**
      * Image number bands.<br/>
      * Note : source and target image have same bands number.
@@ -282,6 +299,9 @@ public class Resample {
         //-- interpolation creation --//
         PixelIterator pix = PixelIteratorFactory.createDefaultIterator(imageSrc);
         interpol          = Interpolation.create(pix, interpolation, lanczosWindow, rbc, fillValue);
+        this.imageSrc          = imageSrc;
+        this.interpolationCase = interpolation;
+        this.lanczosWindow     = lanczosWindow;
 
         this.rbc   = rbc;
         this.clamp = getClamp(imageDest.getSampleModel().getDataType());
@@ -336,6 +356,9 @@ public class Resample {
         this.destIterator              = PixelIteratorFactory.createDefaultWriteableIterator(this.imageDest, this.imageDest, resampleArea);
         this.destToSourceMathTransform = mathTransform;
         this.interpol                  = interpol;
+        this.imageSrc                  = null;
+        this.interpolationCase         = null;
+        this.lanczosWindow             = 0;
         srcCoords  = new double[2];
         destCoords = new double[2];
         this.rbc   = rbc;
@@ -359,277 +382,304 @@ public class Resample {
      * @throws TransformException
      */
     private void fillImageByGrid() throws TransformException {
+        for (final Rectangle tileArea : getTileAreas(destIterator.getBoundary(true))) {
+            fillAreaByGrid(destIterator, interpol, theGrid, tileArea, tileArea.y, tileArea.y + tileArea.height);
+        }
+    }
 
-        final double[] theGridArray  = theGrid.getGrid();
-        final int stepX              = theGrid.getStepX();
-        final int stepY              = theGrid.getStepY();
-        final int minGridX           = theGrid.getMinGridX();
-        final int minGridY           = theGrid.getMinGridY();
-        final int minGridXIndex      = theGrid.getMinGridXIndex();
-        final int minGridYIndex      = theGrid.getMinGridYIndex();
-
-        //-- destination area traveled by destination iterator.
-        Rectangle rectBound  = destIterator.getBoundary(true);
-
-        //-- destination raster dimensions.
-        final int tileWidth  = imageDest.getTileWidth();
-        final int tileHeight = imageDest.getTileHeight();
+    /**
+     * Fill the given rows of a destination raster area from pre-computed grid.<br/>
+     * Grid cells are always followed from the first row of the raster area, so filling a raster
+     * area in several row strips gives exactly the same samples than filling it at once.
+     *
+     * @param destIter iterator on destination pixels, positioned before the first pixel of the rows to fill.
+     * @param interp interpolation used by calling thread.
+     * @param grid source positions grid.
+     * @param tileArea intersection between a destination raster and the resampled area.
+     * @param rowMin first row to fill, inclusive.
+     * @param rowMax last row to fill, exclusive.
+     * @throws TransformException
+     */
+    private void fillAreaByGrid(final PixelIterator destIter, final Interpolation interp, final ResampleGrid grid,
+            final Rectangle tileArea, final int rowMin, final int rowMax) throws TransformException {
 
-        //-- destination raster index which will be traveled.
-        final int destMinRastXIndex = imageDest.getMinTileX() + (rectBound.x - imageDest.getMinX()) / tileWidth;
-        final int destMinRastYIndex = imageDest.getMinTileY() + (rectBound.y - imageDest.getMinY()) / tileHeight;
-        final int destMaxRastX      = imageDest.getMinTileX() + (rectBound.x + rectBound.width + tileWidth - 1) / tileWidth;
-        final int destMaxRastY      = imageDest.getMinTileY() + (rectBound.y + rectBound.height + tileHeight - 1) / tileHeight;
+        final double[] theGridArray  = grid.getGrid();
+        final int stepX              = grid.getStepX();
+        final int stepY              = grid.getStepY();
+        final int minGridX           = grid.getMinGridX();
+        final int minGridY           = grid.getMinGridY();
+        final int minGridXIndex      = grid.getMinGridXIndex();
+        final int minGridYIndex      = grid.getMinGridYIndex();
 
         //-- grid dimensions.
-        final int gridWidth         = theGrid.getGridWidth();
-        final int gridHeight        = theGrid.getGridHeight();
+        final int gridWidth         = grid.getGridWidth();
+        final int gridHeight        = grid.getGridHeight();
         final int gridLineStride    = gridWidth << 1;
 
-        //-- current raster coordinate in Y direction.
-        int rY    = destMinRastYIndex * tileHeight;
-        int rMaxY = rY + tileHeight;
+        //-- intersection between current raster and area traveled by destination iterator.
+        final int interMinRastX = tileArea.x;
+        final int interMinRastY = tileArea.y;
+        final int interMaxRastX = tileArea.x + tileArea.width;
+        final int interMaxRastY = tileArea.y + tileArea.height;
+
+        //-- define minimum and maximum needed grid index in Y direction.
+        final int gCMinY = (int) ((interMinRastY - minGridY) / stepY) + minGridYIndex;
+        /*
+         * Max grid index in Y direction equal Math.ceil(intersectionY / stepY) + 1.
+         * With + 1 because gridHeight = sub-division on Y axis + 1;
+         */
+        final int gCMaxY = (int) ((interMaxRastY - minGridY + stepY - 1) / stepY) + minGridYIndex + 1;
+        assert gCMaxY <= gridHeight : "Computed max grid index should be lesser or equal than grid height. Expected max grid index : "+gridHeight+", found : "+gCMaxY;
+
+        //-- define minimum and maximum needed grid index in X direction.
+        final int gCMinX = (int) ((interMinRastX - minGridX) / stepX) + minGridXIndex;
+        /*
+         * Max grid index in X direction equal Math.ceil(intersectionX / stepX) + 1.
+         * With + 1 because gridWidth = sub-division on X axis + 1;
+         */
+        final int gCMaxX = (int) ((interMaxRastX - minGridX + stepX - 1) / stepX) + minGridXIndex + 1;
+        assert gCMaxX <= gridWidth : "Computed max grid index in X direction should be lesser or equal than grid width. Expected max grid index : "+gridWidth+", found : "+gCMaxX;
+
+        //------------------------- grid working -------------------------//
+        //-- index des points a interpoler dans la grille
+        int id10, id11;
+        double v00X, v10X, v01X, v11X;
+        double v00Y, v10Y, v01Y, v11Y;
+
+        //-- travel destination pixel coordinates.
+        //-- intersection between area iterated on raster and current grid cell projected into raster space.
+        final int interMinY = StrictMath.max(interMinRastY, gCMinY * stepY);
+        final int interMinX = StrictMath.max(interMinRastX, gCMinX * stepX);
+
+        final int interMaxY = StrictMath.min(interMaxRastY, gCMaxY * stepY);
+        final int interMaxX = StrictMath.min(interMaxRastX, gCMaxX * stepX);
+
+        //-- define grid array index.
+        int rowId0 = gCMinY * gridLineStride + (gCMinX << 1);
+        int maxRowId0 = (gCMaxY - 2) * gridLineStride + (gCMinX << 1);
+        int rowId1 = rowId0 + gridLineStride;
+
+        int py = interMinY;
+
+        //-- Define pixel coordinate in Y direction to pass at next grid cell.
+        int nextGIdY = (gCMinY + 1) * stepY;// + (stepY >>> 1);
+
+        //-- current grid index in X direction.
+        int gx = gCMinX;
+        //-- current grid index in Y direction.
+        int gy = gCMinY;
+
+        while (py < interMaxY) {
+            if (py == nextGIdY) {
+                rowId0 += gridLineStride;
+                rowId0 = StrictMath.min(rowId0, maxRowId0);
+                rowId1 = rowId0 + gridLineStride;
+                gy = StrictMath.min(++gy, gridHeight - 2);
+                nextGIdY += stepY;
+            }
+            //-- rows outside of requested strip only follow the grid.
+            if (py < rowMin) {
+                py++;
+                continue;
+            }
+            if (py >= rowMax) break;
 
-        for (int idRy = destMinRastYIndex; idRy < destMaxRastY; idRy++) {
+            id10 = rowId0 + 2;
+            id11 = rowId1 + 2;
+            gx   = gCMinX;
+            int px = interMinX;
 
-            //-- define intersection between current raster and area traveled by destination iterator in Y direction.
-            final int interMinRastY = StrictMath.max(rY, rectBound.y);
-            final int interMaxRastY = StrictMath.min(rMaxY, rectBound.y + rectBound.height);
+            //-- Define pixel coordinate in X direction to pass at next grid cell.
+            int nextGIdX = (gCMinX + 1) * stepX;// + (stepX >>> 1);
 
-            //-- define minimum and maximum needed grid index in Y direction.
-            final int gCMinY = (int) ((interMinRastY - minGridY) / stepY) + minGridYIndex;
             /*
-             * Max grid index in Y direction equal Math.ceil(intersectionY / stepY) + 1.
-             * With + 1 because gridHeight = sub-division on Y axis + 1;
+             * To define source image coordinate we use bilinear interpolation
+             * from precedently computed values from grid.
+             * Bilinear interpolation is computing like follow in 3 steps.
+             * First we compute "A" value from v00 and v01 (grid values),
+             * t0y which is v00 position in grid and ty the destination
+             * pixel coordinate projected into grid space by followed formula : A = (ty - t0y) * (v10 - v00) + v00.
+             *
+             * Secondly, with the same formula we compute B.
+             *
+             * And finally, we compute coordinates by same precedently formula
+             * with precedently computing results A and B but on X axis.
+             *
+             * P = (tX - t0X) * (B - A) + A
+             *
+             *              t0X           tX
+             *               |            |            |
+             *             ____           |          ____
+             *   t0y ------|v00|--------- C ---------|v10|----
+             *               |            |            |
+             *               |            |            |
+             *               |            |            |
+             *               |            |            |
+             *      ty ----  A ---------- P ---------- B-----
+             *               |            |            |
+             *               |            |            |
+             *               |            |            |
+             *               |            |            |
+             *             ____           |          ____
+             *       ------|v01|--------- D ---------|v11|----
+             *               |            |            |
+             *
+             * During iteration in X direction into the grid we note that v00 become v10 and v01 -> v11, and thereby A = B.
+             * To avoid some of unneccessary computing we affect B to A and
+             * we just re-compute B value and only interpolation in X direction (C and D values).
              */
-            final int gCMaxY = (int) ((interMaxRastY - minGridY + stepY - 1) / stepY) + minGridYIndex + 1;
-            assert gCMaxY <= gridHeight : "Computed max grid index should be lesser or equal than grid height. Expected max grid index : "+gridHeight+", found : "+gCMaxY;
-
-            //-- current raster coordinate in X direction.
-            int rX    = destMinRastXIndex * tileWidth;
-            int rMaxX = rX + tileWidth;
-
-            for (int idRx = destMinRastXIndex; idRx < destMaxRastX; idRx++) {
-
-                //-- define intersection between current raster and area traveled by destination iterator in X direction.
-                final int interMinRastX = StrictMath.max(rX, rectBound.x);
-                final int interMaxRastX = StrictMath.min(rMaxX, rectBound.x + rectBound.width);
-
-                //-- define minimum and maximum needed grid index in X direction.
-                final int gCMinX = (int) (interMinRastX - minGridY / stepX) + minGridXIndex;
-                /*
-                 * Max grid index in X direction equal Math.ceil(intersectionX / stepX) + 1.
-                 * With + 1 because gridWidth = sub-division on X axis + 1;
-                 */
-                final int gCMaxX = (int) ((interMaxRastX - minGridX + stepX - 1) / stepX) + minGridXIndex + 1;
-                assert gCMaxX <= gridWidth : "Computed max grid index in X direction should be lesser or equal than grid width. Expected max grid index : "+gridWidth+", found : "+gCMaxX;
-
-                //------------------------- grid working -------------------------//
-                //-- index des points a interpoler dans la grille
-                int id10, id11;
-                double v00X, v10X, v01X, v11X;
-                double v00Y, v10Y, v01Y, v11Y;
-
-                //-- travel destination pixel coordinates.
-                //-- intersection between area iterated on raster and current grid cell projected into raster space.
-                final int interMinY = StrictMath.max(interMinRastY, gCMinY * stepY);
-                final int interMinX = StrictMath.max(interMinRastX, gCMinX * stepX);
-
-                final int interMaxY = StrictMath.min(interMaxRastY, gCMaxY * stepY);
-                final int interMaxX = StrictMath.min(interMaxRastX, gCMaxX * stepX);
-
-                //-- define grid array index.
-                int rowId0 = gCMinY * gridLineStride + (gCMinX << 1);
-                int maxRowId0 = (gCMaxY - 2) * gridLineStride + (gCMinX << 1);
-                int rowId1 = rowId0 + gridLineStride;
-
-                int py = interMinY;
-
-                //-- Define pixel coordinate in Y direction to pass at next grid cell.
-                int nextGIdY = (gCMinY + 1) * stepY;// + (stepY >>> 1);
-
-                //-- current grid index in X direction.
-                int gx = gCMinX;
-                //-- current grid index in Y direction.
-                int gy = gCMinY;
-
-                while (py < interMaxY) {
-                    if (py == nextGIdY) {
-                        rowId0 += gridLineStride;
-                        rowId0 = StrictMath.min(rowId0, maxRowId0);
-                        rowId1 = rowId0 + gridLineStride;
-                        gy = StrictMath.min(++gy, gridHeight - 2);
-                        nextGIdY += stepY;
+            //-- vX
+            v00X = theGridArray[rowId0];     v10X = theGridArray[id10];
+            v01X = theGridArray[rowId1];     v11X = theGridArray[id11];
+
+            //-- vY
+            v00Y = theGridArray[rowId0 | 1]; v10Y = theGridArray[id10 | 1];
+            v01Y = theGridArray[rowId1 | 1]; v11Y = theGridArray[id11 | 1];
+
+
+            //-- destination image pixel coordinate into grid space in Y direction.
+            final double destY = (py + imageDest.getMinY()) / ((double) stepY);
+
+            final double ty_t0y = (destY - gy); //-- ty - toy
+
+            //-- constant value on X source coordinate.
+            double coeff0X = ty_t0y * (v01X - v00X);
+            double coeff1X = ty_t0y * (v11X - v10X);
+
+            //-- constant value on Y source coordinate.
+            double coeff0Y = ty_t0y * (v01Y - v00Y);
+            double coeff1Y = ty_t0y * (v11Y - v10Y);
+
+            while (px < interMaxX) {
+                if (px == nextGIdX) {
+                    nextGIdX += stepX;
+                    if (++gx <= gridWidth - 2) {
+
+                        id10 += 2;
+                        id11 += 2;
+
+                        v00X = v10X;
+                        v01X = v11X;
+                        v10X = theGridArray[id10];
+                        v11X = theGridArray[id11];
+
+                        v00Y = v10Y;
+                        v01Y = v11Y;
+                        v10Y = theGridArray[id10 | 1];
+                        v11Y = theGridArray[id11 | 1];
+
+                        //-- coefficient exchange
+                        //-- on destination X axis coordinate
+                        coeff0X = coeff1X;
+                        coeff1X = ty_t0y * (v11X - v10X);
+                        //-- on destination Y axis coordinate
+                        coeff0Y = coeff1Y;
+                        coeff1Y = ty_t0y * (v11Y - v10Y);
+                    } else {
+                        gx--;
+                    }
+                }
+
+                //-- coordinate interpolation
+                final double destX = (px + imageDest.getMinX()) / ((double) stepX); //-- remonter cette addition pour eviter n *
+
+                final double tx_t0x = (destX - gx);//-- tx - t0x
+
+                //-- Compute interpolation from destination image pixel coordinate and
+                //-- computed source coordinates from grid.
+                //-- interpolation on X coordinates
+                final double srcX = tx_t0x * (coeff1X + v10X - v00X) + (1 - tx_t0x) * coeff0X + v00X;
+
+                //-- interpolation on Y coordinates
+                final double srcY = tx_t0x * (coeff1Y + v10Y - v00Y) + (1 - tx_t0x) * coeff0Y + v00Y;
+
+                int band = 0;
+                //-- pixel value interpolation
+                //-- if destination coordinate transformation is out of source boundary.
+                if (!interp.checkInterpolate(srcX, srcY)) {
+                    while (band < numBands && destIter.next()) {
+                        if (fillValue != null) destIter.setSampleDouble(fillValue[band]);
+                        band++;
                     }
-                    id10 = rowId0 + 2;
-                    id11 = rowId1 + 2;
-                    gx   = gCMinX;
-                    int px = interMinX;
-
-                    //-- Define pixel coordinate in X direction to pass at next grid cell.
-                    int nextGIdX = (gCMinX + 1) * stepX;// + (stepX >>> 1);
-
-                    /*
-                     * To define source image coordinate we use bilinear interpolation
-                     * from precedently computed values from grid.
-                     * Bilinear interpolation is computing like follow in 3 steps.
-                     * First we compute "A" value from v00 and v01 (grid values),
-                     * t0y which is v00 position in grid and ty the destination
-                     * pixel coordinate projected into grid space by followed formula : A = (ty - t0y) * (v10 - v00) + v00.
-                     *
-                     * Secondly, with the same formula we compute B.
-                     *
-                     * And finally, we compute coordinates by same precedently formula
-                     * with precedently computing results A and B but on X axis.
-                     *
-                     * P = (tX - t0X) * (B - A) + A
-                     *
-                     *              t0X           tX
-                     *               |            |            |
-                     *             ____           |          ____
-                     *   t0y ------|v00|--------- C ---------|v10|----
-                     *               |            |            |
-                     *               |            |            |
-                     *               |            |            |
-                     *               |            |            |
-                     *      ty ----  A ---------- P ---------- B-----
-                     *               |            |            |
-                     *               |            |            |
-                     *               |            |            |
-                     *               |            |            |
-                     *             ____           |          ____
-                     *       ------|v01|--------- D ---------|v11|----
-                     *               |            |            |
-                     *
-                     * During iteration in X direction into the grid we note that v00 become v10 and v01 -> v11, and thereby A = B.
-                     * To avoid some of unneccessary computing we affect B to A and
-                     * we just re-compute B value and only interpolation in X direction (C and D values).
-                     */
-                    //-- vX
-                    v00X = theGridArray[rowId0];     v10X = theGridArray[id10];
-                    v01X = theGridArray[rowId1];     v11X = theGridArray[id11];
-
-                    //-- vY
-                    v00Y = theGridArray[rowId0 | 1]; v10Y = theGridArray[id10 | 1];
-                    v01Y = theGridArray[rowId1 | 1]; v11Y = theGridArray[id11 | 1];
-
-
-                    //-- destination image pixel coordinate into grid space in Y direction.
-                    final double destY = (py + imageDest.getMinY()) / ((double) stepY);
-
-                    final double ty_t0y = (destY - gy); //-- ty - toy
-
-                    //-- constant value on X source coordinate.
-                    double coeff0X = ty_t0y * (v01X - v00X);
-                    double coeff1X = ty_t0y * (v11X - v10X);
-
-                    //-- constant value on Y source coordinate.
-                    double coeff0Y = ty_t0y * (v01Y - v00Y);
-                    double coeff1Y = ty_t0y * (v11Y - v10Y);
-
-                    while (px < interMaxX) {
-                        if (px == nextGIdX) {
-                            nextGIdX += stepX;
-                            if (++gx <= gridWidth - 2) {
-
-                                id10 += 2;
-                                id11 += 2;
-
-                                v00X = v10X;
-                                v01X = v11X;
-                                v10X = theGridArray[id10];
-                                v11X = theGridArray[id11];
-
-                                v00Y = v10Y;
-                                v01Y = v11Y;
-                                v10Y = theGridArray[id10 | 1];
-                                v11Y = theGridArray[id11 | 1];
-
-                                //-- coefficient exchange
-                                //-- on destination X axis coordinate
-                                coeff0X = coeff1X;
-                                coeff1X = ty_t0y * (v11X - v10X);
-                                //-- on destination Y axis coordinate
-                                coeff0Y = coeff1Y;
-                                coeff1Y = ty_t0y * (v11Y - v10Y);
-                            } else {
-                                gx--;
-                            }
-                        }
-
-                        //-- coordinate interpolation
-                        final double destX = (px + imageDest.getMinX()) / ((double) stepX); //-- remonter cette addition pour eviter n *
-
-                        final double tx_t0x = (destX - gx);//-- tx - t0x
-
-                        //-- Compute interpolation from destination image pixel coordinate and
-                        //-- computed source coordinates from grid.
-                        //-- interpolation on X coordinates
-                        final double srcX = tx_t0x * (coeff1X + v10X - v00X) + (1 - tx_t0x) * coeff0X + v00X;
-
-                        //-- interpolation on Y coordinates
-                        final double srcY = tx_t0x * (coeff1Y + v10Y - v00Y) + (1 - tx_t0x) * coeff0Y + v00Y;
-
-                        int band = 0;
-                        //-- pixel value interpolation
-                        //-- if destination coordinate transformation is out of source boundary.
-                        if (!interpol.checkInterpolate(srcX, srcY)) {
-                            while (band < numBands && destIterator.next()) {
-                                if (fillValue != null) destIterator.setSampleDouble(fillValue[band]);
-                                band++;
-                            }
-                        } else {
-                            while (band < numBands && destIterator.next()) {
-                                double sample = interpol.interpolate(srcX, srcY, band++);
-                                if (clamp != null) sample = XMath.clamp(sample, clamp[0], clamp[1]);
-                                destIterator.setSampleDouble(sample);
-                            }
-                        }
-                        px++;
+                } else {
+                    while (band < numBands && destIter.next()) {
+                        double sample = interp.interpolate(srcX, srcY, band++);
+                        if (clamp != null) sample = XMath.clamp(sample, clamp[0], clamp[1]);
+                        destIter.setSampleDouble(sample);
                     }
-                    py++;
                 }
+                px++;
+            }
+            py++;
+        }
+    }
 
-                //------------------------- grid working -------------------------//
-                rX += tileWidth;
-                rMaxX += tileWidth;
+    /**
+     * Returns intersections between destination rasters and the given area,
+     * in the order destination rasters are traveled by the default iterator.
+     *
+     * @param area destination area to split.
+     * @return intersections between destination rasters and area.
+     */
+    private List<Rectangle> getTileAreas(final Rectangle area) {
+        final int tileWidth  = imageDest.getTileWidth();
+        final int tileHeight = imageDest.getTileHeight();
+        final int offsetX    = imageDest.getTileGridXOffset();
+        final int offsetY    = imageDest.getTileGridYOffset();
+
+        final int minTileX = (int) StrictMath.floor((area.x - offsetX) / (double) tileWidth);
+        final int minTileY = (int) StrictMath.floor((area.y - offsetY) / (double) tileHeight);
+        final int maxTileX = (int) StrictMath.floor((area.x + area.width  - 1 - offsetX) / (double) tileWidth);
+        final int maxTileY = (int) StrictMath.floor((area.y + area.height - 1 - offsetY) / (double) tileHeight);
+
+        final List<Rectangle> areas = new ArrayList<>();
+        for (int ty = minTileY; ty <= maxTileY; ty++) {
+            for (int tx = minTileX; tx <= maxTileX; tx++) {
+                final Rectangle tile  = new Rectangle(offsetX + tx * tileWidth, offsetY + ty * tileHeight, tileWidth, tileHeight);
+                final Rectangle inter = tile.intersection(area);
+                if (!inter.isEmpty()) areas.add(inter);
             }
-            rY    += tileHeight;
-            rMaxY += tileHeight;
         }
+        return areas;
     }
 
     /**
      * Fill image without any grid, all pixels coordinates are transform by given {@link MathTransform}.
      *
+     * @param destIter iterator on destination pixels to fill.
+     * @param interp interpolation used by calling thread.
+     * @param destCoordToSource affine transform from destination to source pixel coordinates.
      * @throws TransformException
      */
-    private void fillImageByAffineTransform(AffineTransform destCoordToSource) throws TransformException {
+    private void fillImageByAffineTransform(final PixelIterator destIter, final Interpolation interp,
+            final AffineTransform destCoordToSource) throws TransformException {
+        final double[] destPoint = new double[2];
+        final double[] srcPoint  = new double[2];
         int band;
-        while (destIterator.next()) {
+        while (destIter.next()) {
             band = 0;
             //-- Compute source coordinate from destination coordinate and mathtransform.
-            destCoords[0] = destIterator.getX();
-            destCoords[1] = destIterator.getY();
-            destCoordToSource.transform(destCoords, 0, srcCoords, 0, 1);
+            destPoint[0] = destIter.getX();
+            destPoint[1] = destIter.getY();
+            destCoordToSource.transform(destPoint, 0, srcPoint, 0, 1);
 
             //-- if destination coordinate transformation is out of source boundary.
-            if (!interpol.checkInterpolate(srcCoords[0], srcCoords[1])) {
+            if (!interp.checkInterpolate(srcPoint[0], srcPoint[1])) {
 
-                if (fillValue != null) destIterator.setSampleDouble(fillValue[band]); //Todo : find a way to avoid code duplication
+                if (fillValue != null) destIter.setSampleDouble(fillValue[band]); //Todo : find a way to avoid code duplication
                 while (++band < numBands) {
-                    destIterator.next();
-                    if (fillValue != null) destIterator.setSampleDouble(fillValue[band]);
+                    destIter.next();
+                    if (fillValue != null) destIter.setSampleDouble(fillValue[band]);
                 }
             } else {
-                double sample = interpol.interpolate(srcCoords[0], srcCoords[1], band);//Todo : find a way to avoid code duplication
+                double sample = interp.interpolate(srcPoint[0], srcPoint[1], band);//Todo : find a way to avoid code duplication
                 if (clamp != null) sample = XMath.clamp(sample, clamp[0], clamp[1]);
-                destIterator.setSampleDouble(sample);
+                destIter.setSampleDouble(sample);
                 while (++band < numBands) {
-                    destIterator.next();
-                    sample = interpol.interpolate(srcCoords[0], srcCoords[1], band);
+                    destIter.next();
+                    sample = interp.interpolate(srcPoint[0], srcPoint[1], band);
                     if (clamp != null) sample = XMath.clamp(sample, clamp[0], clamp[1]);
-                    destIterator.setSampleDouble(sample);
+                    destIter.setSampleDouble(sample);
                 }
             }
         }
@@ -638,33 +688,37 @@ public class Resample {
     /**
      * Fill image without any grid, all pixels coordinates are transform by given {@link MathTransform}.
      *
+     * @param destIter iterator on destination pixels to fill.
+     * @param interp interpolation used by calling thread.
      * @throws TransformException
      */
-    private void fillImageByTransform() throws TransformException {
+    private void fillImageByTransform(final PixelIterator destIter, final Interpolation interp) throws TransformException {
+        final double[] destPoint = new double[2];
+        final double[] srcPoint  = new double[2];
         int band;
-        while (destIterator.next()) {
+        while (destIter.next()) {
             band = 0;
             //-- Compute source coordinate from destination coordinate and mathtransform.
-            destCoords[0] = destIterator.getX();
-            destCoords[1] = destIterator.getY();
-            destToSourceMathTransform.transform(destCoords, 0, srcCoords, 0, 1);
+            destPoint[0] = destIter.getX();
+            destPoint[1] = destIter.getY();
+            destToSourceMathTransform.transform(destPoint, 0, srcPoint, 0, 1);
 
             //-- if destination coordinate transformation is out of source boundary.
-            if (!interpol.checkInterpolate(srcCoords[0], srcCoords[1])) {
-                if (fillValue != null) destIterator.setSampleDouble(fillValue[band]);  //Todo : find a way to avoid code duplication
+            if (!interp.checkInterpolate(srcPoint[0], srcPoint[1])) {
+                if (fillValue != null) destIter.setSampleDouble(fillValue[band]);  //Todo : find a way to avoid code duplication
                 while (++band < numBands) {
-                    destIterator.next();
-                    if (fillValue != null) destIterator.setSampleDouble(fillValue[band]);
+                    destIter.next();
+                    if (fillValue != null) destIter.setSampleDouble(fillValue[band]);
                 }
             } else {
-                double sample = interpol.interpolate(srcCoords[0], srcCoords[1], band);  //Todo : find a way to avoid code duplication
+                double sample = interp.interpolate(srcPoint[0], srcPoint[1], band);  //Todo : find a way to avoid code duplication
                 if (clamp != null) sample = XMath.clamp(sample, clamp[0], clamp[1]);
-                destIterator.setSampleDouble(sample);
+                destIter.setSampleDouble(sample);
                 while (++band < numBands) {
-                    destIterator.next();
-                    sample = interpol.interpolate(srcCoords[0], srcCoords[1], band);
+                    destIter.next();
+                    sample = interp.interpolate(srcPoint[0], srcPoint[1], band);
                     if (clamp != null) sample = XMath.clamp(sample, clamp[0], clamp[1]);
-                    destIterator.setSampleDouble(sample);
+                    destIter.setSampleDouble(sample);
                 }
             }
         }
@@ -679,7 +733,7 @@ public class Resample {
                 final GridFactory gridFact = new GridFactory(0.125);
                 final Object object = gridFact.create((MathTransform2D) destToSourceMathTransform, destIterator.getBoundary(false));
                 if (object instanceof AffineTransform) {
-                    fillImageByAffineTransform((AffineTransform) object);
+                    fillImageByAffineTransform(destIterator, interpol, (AffineTransform) object);
                 } else {
                     theGrid = (ResampleGrid) object;
                     fillImageByGrid();
@@ -691,14 +745,125 @@ public class Resample {
                 //-- leave to fall back
             }
         }
-        fillImageByTransform();
+        fillImageByTransform(destIterator, interpol);
+    }
+
+    /**
+     * Fill destination image from source image pixel interpolation, sharing work between the threads of the given pool.<br/>
+     * Resampled area is split on destination rasters, and rasters are split in row strips when there are
+     * less rasters than pool threads. Each part is filled by a task owning its destination iterator and
+     * source interpolation, so the result is identical to {@link #fillImage() }.
+     *
+     * <blockquote><font size=-1>
+     * <strong>NOTE: when this object has been created from an {@link Interpolation} instance, the interpolation
+     * can not be duplicated for each task and the image is filled by calling thread.</strong>
+     * </font></blockquote>
+     *
+     * @param pool pool executing fill tasks.
+     * @throws TransformException
+     */
+    public void fillImage(final ForkJoinPool pool) throws TransformException {
+        ArgumentChecks.ensureNonNull("pool", pool);
+        if (imageSrc == null || pool.getParallelism() < 2) {
+            fillImage();
+            return;
+        }
+
+        Object fillMode = null;
+        if (destToSourceMathTransform instanceof MathTransform2D) {
+            try {
+                final GridFactory gridFact = new GridFactory(0.125);
+                fillMode = gridFact.create((MathTransform2D) destToSourceMathTransform, destIterator.getBoundary(false));
+                if (fillMode instanceof ResampleGrid) theGrid = (ResampleGrid) fillMode;
+            } catch (TransformException ex) {
+                //-- leave to fall back
+            } catch (ArithmeticException e) {
+                //-- leave to fall back
+            }
+        }
+
+        //-- split area on rasters, then rasters in row strips if needed.
+        final List<Rectangle> tileAreas = getTileAreas(destIterator.getBoundary(true));
+        final int parallelism = pool.getParallelism();
+        int nbStrips = 1;
+        if (tileAreas.size() < parallelism && !(imageDest.getSampleModel() instanceof MultiPixelPackedSampleModel)) {
+            //-- several pixels share the same data element with packed sample models, strips are not independent.
+            nbStrips = (4 * parallelism + tileAreas.size() - 1) / tileAreas.size();
+        }
+        final List<Rectangle[]> works = new ArrayList<>();
+        for (final Rectangle tileArea : tileAreas) {
+            final int stripHeight = (tileArea.height + nbStrips - 1) / nbStrips;
+            for (int y = tileArea.y, maxY = tileArea.y + tileArea.height; y < maxY; y += stripHeight) {
+                final Rectangle strip = new Rectangle(tileArea.x, y, tileArea.width, StrictMath.min(stripHeight, maxY - y));
+                works.add(new Rectangle[]{tileArea, strip});
+            }
+        }
+        if (works.isEmpty()) return;
+
+        try {
+            pool.invoke(new FillTask(fillMode, works, 0, works.size()));
+        } catch (BackingStoreException ex) {
+            throw ex.unwrapOrRethrow(TransformException.class);
+        }
+    }
+
+    /**
+     * Fill a range of destination parts, splitting the range until a single part remains.
+     * Each part is filled with its own destination iterator and source interpolation.
+     */
+    private final class FillTask extends RecursiveAction {
+
+        /**
+         * {@link ResampleGrid}, {@link AffineTransform} or {@code null} to transform all pixel coordinates.
+         */
+        private final Object fillMode;
+
+        /**
+         * Destination parts, as couples of raster area and row strip to fill in this raster area.
+         */
+        private final List<Rectangle[]> works;
+        private final int start;
+        private final int end;
+
+        private FillTask(final Object fillMode, final List<Rectangle[]> works, final int start, final int end) {
+            this.fillMode = fillMode;
+            this.works    = works;
+            this.start    = start;
+            this.end      = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > 1) {
+                final int middle = (start + end) >>> 1;
+                invokeAll(new FillTask(fillMode, works, start, middle),
+                          new FillTask(fillMode, works, middle, end));
+                return;
+            }
+            final Rectangle[] work   = works.get(start);
+            final Rectangle strip    = work[1];
+            final PixelIterator destIter = PixelIteratorFactory.createDefaultWriteableIterator(imageDest, imageDest, strip);
+            final Interpolation interp   = Interpolation.create(PixelIteratorFactory.createDefaultIterator(imageSrc),
+                                                                interpolationCase, lanczosWindow, rbc, fillValue);
+            try {
+                if (fillMode instanceof ResampleGrid) {
+                    fillAreaByGrid(destIter, interp, (ResampleGrid) fillMode, work[0], strip.y, strip.y + strip.height);
+                } else if (fillMode instanceof AffineTransform) {
+                    fillImageByAffineTransform(destIter, interp, (AffineTransform) fillMode);
+                } else {
+                    fillImageByTransform(destIter, interp);
+                }
+            } catch (TransformException ex) {
+                throw new BackingStoreException(ex);
+            }
+        }
     }
 
     /**
-     * Please use {@link #fillImageByTransform() } method.
+     * Please use {@link #fillImage() } method.
      *
      * @throws TransformException
-     * @deprecated replace by {@link #fillImageByTransform() }.
+     * @deprecated replace by {@link #fillImage() }.
      */
     @Deprecated
     public void fillImagePx() throws TransformException {
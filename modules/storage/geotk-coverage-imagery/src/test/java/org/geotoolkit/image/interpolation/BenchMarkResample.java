@@ -18,6 +18,7 @@ package org.geotoolkit.image.interpolation;
 
 import java.awt.image.BufferedImage;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import org.apache.sis.geometry.Envelope2D;
 import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
 import org.apache.sis.math.Statistics;
@@ -213,4 +214,53 @@ public class BenchMarkResample {
         System.out.println("stats mercator : "+stats);
 
     }
+
+    /**
+     * Compare sequential and parallel resampling for each interpolation, image size and thread number.
+     */
+    @Test
+    @Ignore
+    public void benchParallelTest() throws Exception {
+
+        final MathTransform invertLambert = lambertTransform.inverse();
+        final InterpolationCase[] interpolations = new InterpolationCase[]{InterpolationCase.NEIGHBOR,
+            InterpolationCase.BILINEAR, InterpolationCase.BICUBIC, InterpolationCase.LANCZOS};
+        final int[] sizes   = new int[]{500, 2000, 4000};
+        final int[] threads = new int[]{1, 2, 4, 8};
+
+        for (InterpolationCase interpolation : interpolations) {
+            for (int size : sizes) {
+                final BufferedImage dest = ImageUtils.createScaledBandedImage(size, size, SampleType.INTEGER, 1);
+                //-- keep same geographic area whatever the destination size.
+                final MathTransform destToSource = MathTransforms.concatenate(
+                        new AffineTransform2D(SRC_WIDTH / (double) size, 0, 0, SRC_HEIGHT / (double) size, 0, 0), invertLambert);
+
+                for (int nbThread : threads) {
+                    final ForkJoinPool pool = new ForkJoinPool(nbThread);
+                    final Statistics stats = new Statistics(interpolation+" "+size+"x"+size+" threads "+nbThread);
+                    try {
+                        int n = 0;
+                        while (n++ < 15) {
+                            final Resample resample = new Resample(destToSource, dest, source,
+                                    interpolation, ResampleBorderComportement.EXTRAPOLATION, new double[]{0});
+                            final long t0 = System.currentTimeMillis();
+                            if (nbThread == 1) {
+                                resample.fillImage();
+                            } else {
+                                resample.fillImage(pool);
+                            }
+                            final long t = System.currentTimeMillis() - t0;
+                            //-- first iterations are JIT warm up.
+                            if (n > 5) {
+                                stats.accept(t);
+                            }
+                        }
+                    } finally {
+                        pool.shutdown();
+                    }
+                    System.out.println("stats parallel : "+stats);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,183 @@
+/*
+ *    Geotoolkit.org - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.image.interpolation;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRenderedImage;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import javax.media.jai.TiledImage;
+import org.apache.sis.geometry.Envelope2D;
+import org.apache.sis.geometry.Envelopes;
+import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
+import org.apache.sis.referencing.operation.transform.MathTransforms;
+import org.geotoolkit.image.internal.ImageUtils;
+import org.geotoolkit.image.internal.SampleType;
+import org.geotoolkit.image.iterator.PixelIterator;
+import org.geotoolkit.image.iterator.PixelIteratorFactory;
+import org.geotoolkit.referencing.CRS;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.opengis.geometry.Envelope;
+import org.opengis.referencing.crs.ProjectedCRS;
+import org.opengis.referencing.operation.MathTransform;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test that {@link Resample#fillImage(java.util.concurrent.ForkJoinPool) } gives
+ * exactly the same result than sequential {@link Resample#fillImage() }.
+ *
+ * @author Remi Marechal (Geomatys).
+ */
+public class ResampleParallelTest extends org.geotoolkit.test.TestBase {
+
+    private static final int SRC_SIZE  = 150;
+    private static final int DEST_SIZE = 203;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    /**
+     * Transformation applicate to source or destination image to considered a pixel orientation center.
+     */
+    private static final MathTransform PIXEL_CENTER = new AffineTransform2D(1, 0, 0, 1, 0.5, 0.5);
+
+    private final BufferedImage source;
+
+    public ResampleParallelTest() {
+        source = ImageUtils.createScaledBandedImage(SRC_SIZE, SRC_SIZE, SampleType.FLOAT, 2);
+        final Random random = new Random(42);
+        final PixelIterator pix = PixelIteratorFactory.createDefaultWriteableIterator(source, source);
+        while (pix.next()) {
+            pix.setSampleDouble(random.nextDouble() * 1000);
+        }
+    }
+
+    @AfterClass
+    public static void shutdownPool() {
+        POOL.shutdown();
+    }
+
+    /**
+     * Destination to source transform through a Lambert projection, resample uses a grid.
+     */
+    private static MathTransform createProjectionTransform() throws Exception {
+        final ProjectedCRS crs = (ProjectedCRS) CRS.decode("EPSG:2154");
+        final MathTransform mt = crs.getConversionFromBase().getMathTransform();
+        final Envelope srcEnv  = new Envelope2D(crs.getBaseCRS(), 45, -8, 5, 16);
+        final Envelope destEnv = Envelopes.transform(mt, srcEnv);
+        final AffineTransform2D srcGridToCrs  = new AffineTransform2D(srcEnv.getSpan(0) / SRC_SIZE, 0, 0,
+                -srcEnv.getSpan(1) / SRC_SIZE, srcEnv.getMinimum(0), srcEnv.getMaximum(1));
+        final AffineTransform2D destGridToCrs = new AffineTransform2D(destEnv.getSpan(0) / DEST_SIZE, 0, 0,
+                -destEnv.getSpan(1) / DEST_SIZE, destEnv.getMinimum(0), destEnv.getMaximum(1));
+        final MathTransform srcToDest = MathTransforms.concatenate(
+                MathTransforms.concatenate(PIXEL_CENTER, srcGridToCrs), mt,
+                MathTransforms.concatenate(PIXEL_CENTER, destGridToCrs).inverse());
+        return srcToDest.inverse();
+    }
+
+    /**
+     * Destination to source affine transform.
+     */
+    private static MathTransform createAffineTransform() {
+        return new AffineTransform2D(0.7, 0.1, -0.05, 0.72, 3.5, -2.25);
+    }
+
+    private static WritableRenderedImage createSingleTileTarget() {
+        return ImageUtils.createScaledBandedImage(DEST_SIZE, DEST_SIZE, SampleType.FLOAT, 2);
+    }
+
+    private static WritableRenderedImage createTiledTarget() {
+        final SampleModel sm = ImageUtils.createScaledBandedImage(1, 1, SampleType.FLOAT, 2)
+                .getSampleModel().createCompatibleSampleModel(64, 48);
+        return new TiledImage(0, 0, DEST_SIZE, DEST_SIZE, 0, 0, sm, null);
+    }
+
+    private void compare(final MathTransform destToSource, final boolean tiled) throws Exception {
+        for (InterpolationCase interpolation : new InterpolationCase[]{InterpolationCase.NEIGHBOR,
+                InterpolationCase.BILINEAR, InterpolationCase.BICUBIC, InterpolationCase.LANCZOS}) {
+            final WritableRenderedImage sequential = tiled ? createTiledTarget() : createSingleTileTarget();
+            final WritableRenderedImage parallel   = tiled ? createTiledTarget() : createSingleTileTarget();
+
+            new Resample(destToSource, sequential, source, interpolation,
+                    ResampleBorderComportement.FILL_VALUE, new double[]{-1, -2}).fillImage();
+            new Resample(destToSource, parallel, source, interpolation,
+                    ResampleBorderComportement.FILL_VALUE, new double[]{-1, -2}).fillImage(POOL);
+
+            assertImageEquals(interpolation.name(), sequential, parallel);
+        }
+    }
+
+    private static void assertImageEquals(final String message, final WritableRenderedImage expected, final WritableRenderedImage result) {
+        final PixelIterator exp = PixelIteratorFactory.createRowMajorIterator(expected);
+        final PixelIterator res = PixelIteratorFactory.createRowMajorIterator(result);
+        boolean filled = false;
+        while (exp.next()) {
+            assertTrue(res.next());
+            final double value = exp.getSampleDouble();
+            assertEquals(message, Double.doubleToRawLongBits(value), Double.doubleToRawLongBits(res.getSampleDouble()));
+            filled |= value > 0;
+        }
+        assertFalse(res.next());
+        assertTrue(message + " : image should contain interpolated values.", filled);
+    }
+
+    /**
+     * Single raster image is split in row strips.
+     */
+    @Test
+    public void singleTileGridTest() throws Exception {
+        compare(createProjectionTransform(), false);
+    }
+
+    @Test
+    public void singleTileAffineTest() throws Exception {
+        compare(createAffineTransform(), false);
+    }
+
+    /**
+     * Tiled image is split on rasters.
+     */
+    @Test
+    public void tiledGridTest() throws Exception {
+        compare(createProjectionTransform(), true);
+    }
+
+    @Test
+    public void tiledAffineTest() throws Exception {
+        compare(createAffineTransform(), true);
+    }
+
+    /**
+     * Resample created from an interpolation instance is filled by calling thread.
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    public void interpolationInstanceTest() throws Exception {
+        final MathTransform destToSource = createProjectionTransform();
+        final WritableRenderedImage sequential = createSingleTileTarget();
+        final WritableRenderedImage parallel   = createSingleTileTarget();
+        new Resample(destToSource, sequential, source, InterpolationCase.BILINEAR,
+                ResampleBorderComportement.FILL_VALUE, new double[]{-1, -2}).fillImage();
+        final Interpolation interpol = Interpolation.create(PixelIteratorFactory.createDefaultIterator(source),
+                InterpolationCase.BILINEAR, 2, ResampleBorderComportement.FILL_VALUE, new double[]{-1, -2});
+        new Resample(destToSource, parallel, null, interpol, new double[]{-1, -2},
+                ResampleBorderComportement.FILL_VALUE).fillImage(POOL);
+        assertImageEquals("bilinear", sequential, parallel);
+    }
+}
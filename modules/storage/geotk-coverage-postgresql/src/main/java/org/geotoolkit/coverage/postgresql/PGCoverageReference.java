@@ -197,6 +197,7 @@ public class PGCoverageReference extends AbstractPyramidalCoverageReference {
             throw new DataStoreException(ex.getMessage(), ex);
         }finally{
             pgstore.closeSafe(cnx, stmt, rs);
+            removeCachedTiles(pyramidId, null);
             pyramidSet.mustUpdate();
         }
     }
@@ -298,6 +299,7 @@ public class PGCoverageReference extends AbstractPyramidalCoverageReference {
             throw new DataStoreException(ex.getMessage(), ex);
         }finally{
             pgstore.closeSafe(cnx, stmt, rs);
+            removeCachedTiles(pyramidId, mosaicId);
             pyramidSet.mustUpdate();
         }
     }
@@ -413,6 +415,7 @@ public class PGCoverageReference extends AbstractPyramidalCoverageReference {
             pgstore.closeSafe(cnx, selectStmt, rs);
             pgstore.closeSafe(insertStmt);
             pgstore.closeSafe(deleteStmt);
+            removeCachedTile(pyramidId, mosaicId, col, row);
         }
 
     }
@@ -437,6 +440,7 @@ public class PGCoverageReference extends AbstractPyramidalCoverageReference {
             throw new DataStoreException(ex.getMessage(), ex);
         }finally{
             pgstore.closeSafe(cnx, stmt, rs);
+            removeCachedTile(pyramidId, mosaicId, col, row);
             pyramidSet.mustUpdate();
         };
     }
@@ -155,6 +155,7 @@ public class MPCoverageReference extends AbstractPyramidalCoverageReference {
             final Pyramid py = it.next();
             if (pyramidId.equalsIgnoreCase(py.getId())) {
                 coll.remove(py);
+                removeCachedTiles(py.getId(), null);
                 break;
             }
         }
@@ -181,7 +182,8 @@ public class MPCoverageReference extends AbstractPyramidalCoverageReference {
         final List<GridMosaic> listGM = pyramid.getMosaics();
         for (int id = 0, len = listGM.size(); id < len; id++) {
             if (listGM.get(id).getId().equalsIgnoreCase(mosaicId)) {
-                listGM.remove(id);
+                final GridMosaic removed = listGM.remove(id);
+                removeCachedTiles(pyramid.getId(), removed.getId());
                 break;
             }
         }
@@ -205,6 +207,7 @@ public class MPCoverageReference extends AbstractPyramidalCoverageReference {
                     throw new IllegalArgumentException("Uncorrect image size ["+image.getWidth()+","+image.getHeight()+"] expecting size ["+tileSize.width+","+tileSize.height+"]");
                 }
                 gm.setTile(tileX, tileY, new MPTileReference(image, 0, new Point(tileX, tileY)));
+                removeCachedTile(pyram.getId(), gm.getId(), tileX, tileY);
                 return;
             }
         }
@@ -221,6 +224,7 @@ public class MPCoverageReference extends AbstractPyramidalCoverageReference {
             final MPGridMosaic gm = (MPGridMosaic)m;
             if (gm.getId().equalsIgnoreCase(mosaicId)) {
                 gm.setTile(tileX,tileY,null);
+                removeCachedTile(pyramid.getId(), gm.getId(), tileX, tileY);
                 return;
             }
         }
@@ -48,6 +48,7 @@ import org.geotoolkit.coverage.grid.ViewType;
 import org.geotoolkit.coverage.io.CoverageStoreException;
 import org.geotoolkit.coverage.io.GridCoverageReader;
 import org.geotoolkit.coverage.io.GridCoverageWriter;
+import org.geotoolkit.factory.Hints;
 import org.geotoolkit.image.io.XImageIO;
 import org.opengis.util.GenericName;
 import org.opengis.geometry.DirectPosition;
@@ -67,6 +68,16 @@ public abstract class AbstractPyramidalCoverageReference extends AbstractCoverag
 
     protected final int imageIndex;
 
+    /**
+     * Hints used by readers of this reference, see {@link TileCache#TILE_CACHE}.
+     */
+    private final Hints hints = new Hints();
+
+    /**
+     * Default scope of cached tiles, unique to this reference.
+     */
+    private final Object tileCacheScope = new Object();
+
     public AbstractPyramidalCoverageReference(CoverageStore store, GenericName name,int imageIndex) {
         super(store, name);
         this.imageIndex = imageIndex;
@@ -77,6 +88,64 @@ public abstract class AbstractPyramidalCoverageReference extends AbstractCoverag
         return imageIndex;
     }
 
+    /**
+     * Get reading hints, the returned object is modifiable.
+     * For example {@link TileCache#TILE_CACHE} enable a shared decoded tile cache.
+     *
+     * @return hints of this reference, never null.
+     */
+    public Hints getHints() {
+        return hints;
+    }
+
+    /**
+     * Get decoded tile cache enabled by {@link TileCache#TILE_CACHE} hint.
+     *
+     * @return shared tile cache, or {@code null} if not enabled.
+     */
+    public TileCache getTileCache() {
+        final Object cache = hints.get(TileCache.TILE_CACHE);
+        return (cache instanceof TileCache) ? (TileCache) cache : null;
+    }
+
+    /**
+     * Get the scope of pyramid and mosaic identifiers in the {@link TileCache}.<br/>
+     * Default scope is unique to this reference. References on a persistent pyramid may return
+     * a value identifying the pyramid storage, so that references opened on the same pyramid
+     * share their cached tiles.
+     *
+     * @return tile cache scope, never null, must implement equals and hashCode.
+     */
+    public Object getTileCacheScope() {
+        return tileCacheScope;
+    }
+
+    /**
+     * Remove a tile from the tile cache, if enabled.
+     * Writable references call this method when a tile is written or deleted.
+     *
+     * @param pyramidId pyramid identifier.
+     * @param mosaicId mosaic identifier.
+     * @param col tile column index.
+     * @param row tile row index.
+     */
+    protected void removeCachedTile(final String pyramidId, final String mosaicId, final int col, final int row) {
+        final TileCache cache = getTileCache();
+        if (cache != null) cache.remove(getTileCacheScope(), pyramidId, mosaicId, col, row);
+    }
+
+    /**
+     * Remove tiles of a mosaic or a pyramid from the tile cache, if enabled.
+     * Writable references call this method when several tiles, a mosaic or a pyramid are written or deleted.
+     *
+     * @param pyramidId pyramid identifier.
+     * @param mosaicId mosaic identifier, or {@code null} for all mosaics of the pyramid.
+     */
+    protected void removeCachedTiles(final String pyramidId, final String mosaicId) {
+        final TileCache cache = getTileCache();
+        if (cache != null) cache.remove(getTileCacheScope(), pyramidId, mosaicId);
+    }
+
     @Override
     public boolean isWritable() throws CoverageStoreException {
         return false;
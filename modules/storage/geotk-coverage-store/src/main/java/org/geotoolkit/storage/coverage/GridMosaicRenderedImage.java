@@ -48,6 +48,12 @@ public class GridMosaicRenderedImage implements RenderedImage {
      */
     private final Cache<Point,Raster> tileCache = new Cache<>(10, 12, true);
 
+    /**
+     * Shared decoded tile cache, may be null.
+     */
+    private final TileCache sharedCache;
+    private final Object sharedCacheScope;
+
     /**
      * The original mosaic to read
      */
@@ -83,14 +89,32 @@ public class GridMosaicRenderedImage implements RenderedImage {
      *        rectangle max max values are exclusive.
      */
     public GridMosaicRenderedImage(final GridMosaic mosaic, Rectangle gridRange){
+        this(mosaic, gridRange, null, null);
+    }
+
+    /**
+     * Constructor
+     * @param mosaic the mosaic to read as a rendered image
+     * @param gridRange the tile to include in the rendered image.
+     *        rectangle max max values are exclusive.
+     * @param sharedCache decoded tile cache shared with other images and readers,
+     *        or {@code null} to only keep a few tiles of this image.
+     * @param sharedCacheScope scope of pyramid identifiers in shared cache,
+     *        see {@link AbstractPyramidalCoverageReference#getTileCacheScope() }.
+     */
+    public GridMosaicRenderedImage(final GridMosaic mosaic, Rectangle gridRange, final TileCache sharedCache,
+            final Object sharedCacheScope){
         ArgumentChecks.ensureNonNull("mosaic", mosaic);
         ArgumentChecks.ensureNonNull("range", gridRange);
+        if (sharedCache != null) ArgumentChecks.ensureNonNull("sharedCacheScope", sharedCacheScope);
 
         if(mosaic.getGridSize().width == 0 || mosaic.getGridSize().height == 0){
             throw new IllegalArgumentException("Mosaic grid can not be empty.");
         }
         this.mosaic = mosaic;
         this.gridRange = gridRange;
+        this.sharedCache = sharedCache;
+        this.sharedCacheScope = sharedCacheScope;
 
         RenderedImage firstTile = getFirstTile();
         if (firstTile != null) {
@@ -113,7 +137,7 @@ public class GridMosaicRenderedImage implements RenderedImage {
                             firstTile = (RenderedImage) tile.getInput();
                         } else {
                             final ImageReader reader = tile.getImageReader();
-                            firstTile = reader.read(0);
+                            firstTile = reader.read(tile.getImageIndex());
                             reader.dispose();
                         }
                     }
@@ -319,9 +343,17 @@ public class GridMosaicRenderedImage implements RenderedImage {
                         if (tile.getInput() instanceof RenderedImage) {
                             buffer = ((RenderedImage)tile.getInput()).getData().getDataBuffer();
                         } else {
-                            final ImageReader reader = tile.getImageReader();
-                            buffer = reader.read(0).getData().getDataBuffer();
-                            reader.dispose();
+                            final String pyramidId = (sharedCache != null) ? mosaic.getPyramid().getId() : null;
+                            RenderedImage decoded = (sharedCache != null) ?
+                                    sharedCache.get(sharedCacheScope, pyramidId, mosaic.getId(), tileX, tileY) : null;
+                            if (decoded == null) {
+                                final ImageReader reader = tile.getImageReader();
+                                //-- same image as PyramidalModelReader, both share the decoded tile cache
+                                decoded = reader.read(tile.getImageIndex());
+                                reader.dispose();
+                                if (sharedCache != null) sharedCache.put(sharedCacheScope, pyramidId, mosaic.getId(), tileX, tileY, decoded);
+                            }
+                            buffer = decoded.getData().getDataBuffer();
                         }
                     }
                 }
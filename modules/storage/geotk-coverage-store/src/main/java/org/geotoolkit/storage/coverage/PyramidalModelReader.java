@@ -30,6 +30,11 @@ import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -40,6 +45,7 @@ import org.apache.sis.geometry.GeneralEnvelope;
 import org.apache.sis.internal.referencing.j2d.AffineTransform2D;
 import org.apache.sis.measure.NumberRange;
 import org.apache.sis.storage.DataStoreException;
+import org.apache.sis.util.ArgumentChecks;
 import org.apache.sis.util.logging.Logging;
 
 import org.geotoolkit.coverage.CoverageStack;
@@ -90,6 +96,30 @@ public class PyramidalModelReader extends GridCoverageReader{
 
     protected static final Logger LOGGER = Logging.getLogger("org.geotoolkit.storage.coverage");
 
+    /**
+     * Thread pool shared by all readers to decode tiles.<br/>
+     * Its size is the global limit of tiles decoded at the same time, see {@link #setGlobalParallelism(int) }.
+     */
+    private static final ThreadPoolExecutor TILE_EXECUTOR;
+    static {
+        final int nbThreads = Runtime.getRuntime().availableProcessors();
+        TILE_EXECUTOR = new ThreadPoolExecutor(nbThreads, nbThreads, 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                final Thread thread = new Thread(r, "PyramidalModelReader tile decoder");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        TILE_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Maximum number of tiles decoded at the same time by one read of this reader.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
     @Deprecated
     public PyramidalModelReader() {
         this.coverageFinder = new DefaultCoverageFinder();
@@ -99,6 +129,70 @@ public class PyramidalModelReader extends GridCoverageReader{
         this.coverageFinder = coverageFinder;
     }
 
+    /**
+     * Maximum number of tiles decoded at the same time by one read of this reader.
+     * A value of 1 decode all tiles in the calling thread.
+     *
+     * @return tile decoding parallelism
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set maximum number of tiles decoded at the same time by one read of this reader.
+     * Whatever this value, the number of tiles decoded at the same time by all readers
+     * is bounded by the global limit.
+     *
+     * @param parallelism tile decoding parallelism, 1 to decode all tiles in the calling thread.
+     * @see #setGlobalParallelism(int)
+     */
+    public void setParallelism(int parallelism) {
+        ArgumentChecks.ensureStrictlyPositive("parallelism", parallelism);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Set maximum number of tiles decoded at the same time by all readers.
+     * Default value is the number of available processors.
+     *
+     * @param parallelism global tile decoding parallelism.
+     */
+    public static synchronized void setGlobalParallelism(int parallelism) {
+        ArgumentChecks.ensureStrictlyPositive("parallelism", parallelism);
+        if (parallelism > TILE_EXECUTOR.getMaximumPoolSize()) {
+            TILE_EXECUTOR.setMaximumPoolSize(parallelism);
+            TILE_EXECUTOR.setCorePoolSize(parallelism);
+        } else {
+            TILE_EXECUTOR.setCorePoolSize(parallelism);
+            TILE_EXECUTOR.setMaximumPoolSize(parallelism);
+        }
+    }
+
+    /**
+     * Return decoded tile cache enabled on input reference by {@link TileCache#TILE_CACHE} hint.
+     *
+     * @return shared tile cache, or {@code null} if not enabled.
+     */
+    private TileCache getTileCache() {
+        if (ref instanceof AbstractPyramidalCoverageReference) {
+            return ((AbstractPyramidalCoverageReference) ref).getTileCache();
+        }
+        return null;
+    }
+
+    /**
+     * Return the scope of tiles in the decoded tile cache.
+     *
+     * @return cache scope, or {@code null} if the cache is not enabled.
+     */
+    private Object getTileCacheScope() {
+        if (ref instanceof AbstractPyramidalCoverageReference) {
+            return ((AbstractPyramidalCoverageReference) ref).getTileCacheScope();
+        }
+        return null;
+    }
+
     @Override
     public CoverageReference getInput() {
         return ref;
@@ -431,7 +525,7 @@ public class PyramidalModelReader extends GridCoverageReader{
         if (deferred) {
             //delay reading tiles
             image = new GridMosaicRenderedImage(mosaic, new Rectangle(
-                    (int)tileMinCol, (int)tileMinRow, (int)(tileMaxCol-tileMinCol), (int)(tileMaxRow-tileMinRow)));
+                    (int)tileMinCol, (int)tileMinRow, (int)(tileMaxCol-tileMinCol), (int)(tileMaxRow-tileMinRow)), getTileCache(), getTileCacheScope());
         } else {
             //tiles to render, coordinate in grid -> image offset
             final Collection<Point> candidates = new ArrayList<>();
@@ -473,90 +567,69 @@ public class PyramidalModelReader extends GridCoverageReader{
             } catch (DataStoreException ex) {
                 throw new CoverageStoreException(ex.getMessage(),ex);
             }
-            int i = 0;
-            while(true){
-                Object obj = null;
-                try {
-                    obj = queue.poll(100, TimeUnit.MILLISECONDS);
-                } catch (InterruptedException ex) {
-                    //not important
-                }
-
-                if(abortRequested){
-                    if(queue instanceof Cancellable){
-                        ((Cancellable)queue).cancel();
+            final TileAssembler assembler = new TileAssembler(mosaic, tileMinCol, tileMinRow, tileMaxCol, tileMaxRow, tileSize, currentViewType, getTileCache(), getTileCacheScope());
+            final int nbThreads = Math.max(1, Math.min(parallelism, candidates.size()));
+            //-- each running tile task hold one permit, this bound the number of tiles decoded at the same time by this read.
+            final Semaphore permits = new Semaphore(nbThreads);
+            try {
+                while(true){
+                    Object obj = null;
+                    try {
+                        obj = queue.poll(100, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException ex) {
+                        //not important
                     }
-                    break;
-                }
 
-                if(obj == GridMosaic.END_OF_QUEUE){
-                    break;
-                }
-
-                if(obj instanceof TileReference){
-                    final TileReference tile = (TileReference)obj;
-                    final Point position = tile.getPosition();
-                    final Point offset = new Point(
-                            (int)(position.x-tileMinCol)*tileSize.width,
-                            (int)(position.y-tileMinRow)*tileSize.height);
-
-                    final Object input = tile.getInput();
-                    RenderedImage tileImage = null;
-                    if(input instanceof RenderedImage){
-                        tileImage = (RenderedImage) input;
-                    }else{
-                        ImageReader reader = null;
-                        try {
-                            reader    = tile.getImageReader();
-                            tileImage = reader.read(tile.getImageIndex());
-                        } catch (IOException ex) {
-                            throw new CoverageStoreException(ex.getMessage(),ex);
-                        } finally {
-                            XImageIO.disposeSilently(reader);
+                    if(abortRequested || assembler.error != null){
+                        if(queue instanceof Cancellable){
+                            ((Cancellable)queue).cancel();
                         }
+                        break;
                     }
 
-                    //-- if photographic transform ARGB
-                    if (ViewType.PHOTOGRAPHIC.equals(currentViewType)) {
-                        //-- transform argb
-                        tileImage = forceAlpha(tileImage);
+                    if(obj == GridMosaic.END_OF_QUEUE){
+                        break;
                     }
 
-
-                    if (image == null) {
-                        ColorModel cm = null;
-                        SampleModel sm = null;
-                        if (ref instanceof PyramidalCoverageReference) {
-                            final PyramidalCoverageReference pyramRef = (PyramidalCoverageReference) ref;
-                            cm = pyramRef.getColorModel();
-                            sm = pyramRef.getSampleModel();
-                        }
-                        if(cm==null) {
-                            cm = tileImage.getColorModel();
+                    if(obj instanceof TileReference){
+                        final TileReference tile = (TileReference)obj;
+                        if (nbThreads == 1) {
+                            assembler.append(tile);
+                            continue;
                         }
-                        if(sm==null){
-                            //if sample model is null, we need to have a coherent relation with
-                            //the color model. we reuse the tile models.
-                            cm = tileImage.getColorModel();
-                            sm = tileImage.getSampleModel();
+                        permits.acquireUninterruptibly();
+                        try {
+                            TILE_EXECUTOR.execute(new Runnable() {
+                                @Override
+                                public void run() {
+                                    try {
+                                        if (!abortRequested && assembler.error == null) {
+                                            assembler.append(tile);
+                                        }
+                                    } catch (CoverageStoreException | RuntimeException ex) {
+                                        assembler.error = ex;
+                                    } finally {
+                                        permits.release();
+                                    }
+                                }
+                            });
+                        } catch (RejectedExecutionException ex) {
+                            permits.release();
+                            throw ex;
                         }
-                        sm = sm.createCompatibleSampleModel((int)(tileMaxCol-tileMinCol)*tileSize.width,
-                                                               (int)(tileMaxRow-tileMinRow)*tileSize.height);
-                        final WritableRaster raster = WritableRaster.createWritableRaster(sm, null);
-                        image = new BufferedImage(cm,raster,
-                                cm.isAlphaPremultiplied(), new Hashtable<>());
-                    }
-                    //-- write current read tile into destination image.
-                    final Rectangle tileBound = new Rectangle(offset.x, offset.y, tileImage.getWidth(), tileImage.getHeight());
-                    final PixelIterator destPix = PixelIteratorFactory.createDefaultWriteableIterator((BufferedImage)image, (BufferedImage)image, tileBound);
-                    final PixelIterator tilePix = PixelIteratorFactory.createDefaultIterator(tileImage);
-                    while(destPix.next()) {
-                        tilePix.next();
-                        destPix.setSampleDouble(tilePix.getSampleDouble());
                     }
-                    assert !tilePix.next();
                 }
+            } finally {
+                //-- wait for all running tile tasks
+                permits.acquireUninterruptibly(nbThreads);
+            }
+            final Exception error = assembler.error;
+            if (error instanceof CoverageStoreException) {
+                throw (CoverageStoreException) error;
+            } else if (error != null) {
+                throw (RuntimeException) error;
             }
+            image = assembler.getImage();
 
             if(image == null){
                 image = new BufferedImage(
@@ -588,6 +661,136 @@ public class PyramidalModelReader extends GridCoverageReader{
         return gcb.build();
     }
 
+    /**
+     * Decode tiles and write them into the destination image of a slice read.<br/>
+     * Tiles may be appended concurrently, each tile is written into its own area of the destination raster.
+     */
+    private final class TileAssembler {
+
+        private final GridMosaic mosaic;
+        private final int tileMinCol;
+        private final int tileMinRow;
+        private final int tileMaxCol;
+        private final int tileMaxRow;
+        private final Dimension tileSize;
+        private final ViewType viewType;
+
+        /**
+         * Shared decoded tile cache, may be null.
+         */
+        private final TileCache cache;
+        private final Object cacheScope;
+
+        /**
+         * Destination image, created from first decoded tile models.
+         */
+        private BufferedImage image;
+
+        /**
+         * First error raised by a tile task.
+         */
+        private volatile Exception error;
+
+        private TileAssembler(GridMosaic mosaic, int tileMinCol, int tileMinRow, int tileMaxCol, int tileMaxRow,
+                Dimension tileSize, ViewType viewType, TileCache cache, Object cacheScope) {
+            this.mosaic     = mosaic;
+            this.tileMinCol = tileMinCol;
+            this.tileMinRow = tileMinRow;
+            this.tileMaxCol = tileMaxCol;
+            this.tileMaxRow = tileMaxRow;
+            this.tileSize   = tileSize;
+            this.viewType   = viewType;
+            this.cache      = cache;
+            this.cacheScope = cacheScope;
+        }
+
+        /**
+         * Decode given tile and copy it at its place in destination image.
+         */
+        private void append(final TileReference tile) throws CoverageStoreException {
+            final Point position = tile.getPosition();
+            final Point offset = new Point(
+                    (int)(position.x-tileMinCol)*tileSize.width,
+                    (int)(position.y-tileMinRow)*tileSize.height);
+
+            final Object input = tile.getInput();
+            RenderedImage tileImage = null;
+            if(input instanceof RenderedImage){
+                tileImage = (RenderedImage) input;
+            }else{
+                final String pyramidId = (cache != null) ? mosaic.getPyramid().getId() : null;
+                tileImage = (cache != null) ? cache.get(cacheScope, pyramidId, mosaic.getId(), position.x, position.y) : null;
+                if (tileImage == null) {
+                    ImageReader reader = null;
+                    try {
+                        reader    = tile.getImageReader();
+                        tileImage = reader.read(tile.getImageIndex());
+                    } catch (IOException ex) {
+                        throw new CoverageStoreException(ex.getMessage(),ex);
+                    } finally {
+                        XImageIO.disposeSilently(reader);
+                    }
+                    if (cache != null) cache.put(cacheScope, pyramidId, mosaic.getId(), position.x, position.y, tileImage);
+                }
+            }
+
+            //-- if photographic transform ARGB
+            if (ViewType.PHOTOGRAPHIC.equals(viewType)) {
+                //-- transform argb
+                tileImage = forceAlpha(tileImage);
+            }
+
+            final BufferedImage destination = getImage(tileImage);
+
+            //-- write current read tile into destination image.
+            final Rectangle tileBound = new Rectangle(offset.x, offset.y, tileImage.getWidth(), tileImage.getHeight());
+            final PixelIterator destPix = PixelIteratorFactory.createDefaultWriteableIterator(destination, destination, tileBound);
+            final PixelIterator tilePix = PixelIteratorFactory.createDefaultIterator(tileImage);
+            while(destPix.next()) {
+                tilePix.next();
+                destPix.setSampleDouble(tilePix.getSampleDouble());
+            }
+            assert !tilePix.next();
+        }
+
+        /**
+         * Return destination image, creating it from given tile models if not yet done.
+         */
+        private synchronized BufferedImage getImage(final RenderedImage tileImage) {
+            if (image == null) {
+                ColorModel cm = null;
+                SampleModel sm = null;
+                if (ref instanceof PyramidalCoverageReference) {
+                    final PyramidalCoverageReference pyramRef = (PyramidalCoverageReference) ref;
+                    cm = pyramRef.getColorModel();
+                    sm = pyramRef.getSampleModel();
+                }
+                if(cm==null) {
+                    cm = tileImage.getColorModel();
+                }
+                if(sm==null){
+                    //if sample model is null, we need to have a coherent relation with
+                    //the color model. we reuse the tile models.
+                    cm = tileImage.getColorModel();
+                    sm = tileImage.getSampleModel();
+                }
+                sm = sm.createCompatibleSampleModel((int)(tileMaxCol-tileMinCol)*tileSize.width,
+                                                       (int)(tileMaxRow-tileMinRow)*tileSize.height);
+                final WritableRaster raster = WritableRaster.createWritableRaster(sm, null);
+                image = new BufferedImage(cm,raster,
+                        cm.isAlphaPremultiplied(), new Hashtable<>());
+            }
+            return image;
+        }
+
+        /**
+         * Return destination image, or {@code null} if no tile has been appended.
+         */
+        private synchronized BufferedImage getImage() {
+            return image;
+        }
+    }
+
      /**
      * Add an alpha band to the image and remove any black border if asked.
      *
@@ -0,0 +1,314 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.storage.coverage;
+
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import org.apache.sis.util.ArgumentChecks;
+import org.apache.sis.util.logging.Logging;
+import org.geotoolkit.factory.Hints;
+
+/**
+ * Cache of decoded mosaic tiles, shared by all readers and rendered images of pyramids which enable it.<br/>
+ * Cache size is bounded by the memory used by tile pixels, not by a number of tiles.
+ * When capacity is exceeded the least recently used tiles are removed first.
+ * <br/><br/>
+ * Cache is enabled on a pyramidal reference by setting the {@link #TILE_CACHE} hint,
+ * for example with the default cache :
+ * <pre>
+ * reference.getHints().put(TileCache.TILE_CACHE, TileCache.getDefault());
+ * </pre>
+ *
+ * Tiles are identified by a scope, the pyramid and mosaic identifiers and the tile position.
+ * The scope is given by the coverage reference, see {@link AbstractPyramidalCoverageReference#getTileCacheScope() },
+ * references remove modified tiles from the cache when writing or deleting them.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public final class TileCache implements TileCacheMXBean {
+
+    private static final Logger LOGGER = Logging.getLogger("org.geotoolkit.storage.coverage");
+
+    /**
+     * Hint key to enable a decoded tile cache on a {@link AbstractPyramidalCoverageReference}.
+     */
+    public static final Hints.Key TILE_CACHE = new Hints.Key(TileCache.class);
+
+    /**
+     * JVM wide cache, registered in platform MBean server.
+     */
+    private static TileCache DEFAULT;
+
+    /**
+     * Cached tiles in access order, least recently used first.
+     */
+    private final LinkedHashMap<Key,RenderedImage> tiles = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long capacity;
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Create a cache with given capacity.
+     *
+     * @param capacity maximum size of cached tiles, in bytes.
+     */
+    public TileCache(final long capacity) {
+        ArgumentChecks.ensurePositive("capacity", capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Return the JVM wide cache, its default capacity is a tenth of maximum heap size.<br/>
+     * This cache is registered in platform MBean server under name
+     * {@code org.geotoolkit.storage.coverage:type=TileCache}.
+     *
+     * @return default cache, never null.
+     */
+    public static synchronized TileCache getDefault() {
+        if (DEFAULT == null) {
+            DEFAULT = new TileCache(Runtime.getRuntime().maxMemory() / 10);
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(DEFAULT,
+                        new ObjectName("org.geotoolkit.storage.coverage:type=TileCache"));
+            } catch (JMException | SecurityException ex) {
+                LOGGER.log(Level.INFO, "Tile cache could not be registered in MBean server.", ex);
+            }
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Return cached tile.
+     *
+     * @param scope scope of pyramid identifiers, usually given by the coverage reference.
+     * @param pyramidId pyramid identifier.
+     * @param mosaicId mosaic identifier.
+     * @param col tile column index.
+     * @param row tile row index.
+     * @return cached decoded tile, or {@code null} if tile is not in cache.
+     */
+    public synchronized RenderedImage get(final Object scope, final String pyramidId, final String mosaicId,
+            final int col, final int row) {
+        final RenderedImage tile = tiles.get(new Key(scope, pyramidId, mosaicId, col, row));
+        if (tile == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return tile;
+    }
+
+    /**
+     * Store decoded tile, evicting least recently used tiles if capacity is exceeded.<br/>
+     * Tiles bigger than cache capacity are not stored.
+     *
+     * @param scope scope of pyramid identifiers, usually given by the coverage reference.
+     * @param pyramidId pyramid identifier.
+     * @param mosaicId mosaic identifier.
+     * @param col tile column index.
+     * @param row tile row index.
+     * @param tile decoded tile.
+     */
+    public synchronized void put(final Object scope, final String pyramidId, final String mosaicId,
+            final int col, final int row, final RenderedImage tile) {
+        ArgumentChecks.ensureNonNull("scope", scope);
+        ArgumentChecks.ensureNonNull("pyramidId", pyramidId);
+        ArgumentChecks.ensureNonNull("mosaicId", mosaicId);
+        ArgumentChecks.ensureNonNull("tile", tile);
+        final long tileSize = sizeOf(tile);
+        if (tileSize > capacity) return;
+        final RenderedImage previous = tiles.put(new Key(scope, pyramidId, mosaicId, col, row), tile);
+        if (previous != null) size -= sizeOf(previous);
+        size += tileSize;
+        evict();
+    }
+
+    /**
+     * Remove a cached tile.
+     *
+     * @param scope scope of pyramid identifiers, usually given by the coverage reference.
+     * @param pyramidId pyramid identifier.
+     * @param mosaicId mosaic identifier.
+     * @param col tile column index.
+     * @param row tile row index.
+     */
+    public synchronized void remove(final Object scope, final String pyramidId, final String mosaicId,
+            final int col, final int row) {
+        final RenderedImage previous = tiles.remove(new Key(scope, pyramidId, mosaicId, col, row));
+        if (previous != null) size -= sizeOf(previous);
+    }
+
+    /**
+     * Remove all cached tiles of a mosaic, or of all mosaics in a pyramid.
+     *
+     * @param scope scope of pyramid identifiers, usually given by the coverage reference.
+     * @param pyramidId pyramid identifier.
+     * @param mosaicId mosaic identifier, or {@code null} to remove tiles of all mosaics in the pyramid.
+     */
+    public synchronized void remove(final Object scope, final String pyramidId, final String mosaicId) {
+        final Iterator<Map.Entry<Key,RenderedImage>> ite = tiles.entrySet().iterator();
+        while (ite.hasNext()) {
+            final Map.Entry<Key,RenderedImage> entry = ite.next();
+            final Key key = entry.getKey();
+            if (key.scope.equals(scope) && key.pyramidId.equals(pyramidId)
+                    && (mosaicId == null || key.mosaicId.equals(mosaicId))) {
+                size -= sizeOf(entry.getValue());
+                ite.remove();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public synchronized void clear() {
+        tiles.clear();
+        size = 0;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public synchronized long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public synchronized void setCapacity(final long capacity) {
+        ArgumentChecks.ensurePositive("capacity", capacity);
+        this.capacity = capacity;
+        evict();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public synchronized int getTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Remove least recently used tiles until cache size fit in capacity.
+     */
+    private void evict() {
+        final Iterator<RenderedImage> ite = tiles.values().iterator();
+        while (size > capacity && ite.hasNext()) {
+            size -= sizeOf(ite.next());
+            ite.remove();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Return memory used by tile pixels, in bytes.
+     */
+    private static long sizeOf(final RenderedImage tile) {
+        final SampleModel sm = tile.getSampleModel();
+        long pixelBits = 0;
+        for (final int bits : sm.getSampleSize()) {
+            pixelBits += bits;
+        }
+        return ((long) tile.getWidth() * tile.getHeight() * pixelBits + 7) / 8;
+    }
+
+    /**
+     * Cached tile key, mosaic objects are not kept so they can be released by their store.
+     */
+    private static final class Key {
+        private final Object scope;
+        private final String pyramidId;
+        private final String mosaicId;
+        private final int col;
+        private final int row;
+
+        private Key(final Object scope, final String pyramidId, final String mosaicId, final int col, final int row) {
+            this.scope     = scope;
+            this.pyramidId = pyramidId;
+            this.mosaicId  = mosaicId;
+            this.col       = col;
+            this.row       = row;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) return false;
+            final Key other = (Key) obj;
+            return col == other.col && row == other.row
+                && scope.equals(other.scope)
+                && pyramidId.equals(other.pyramidId)
+                && mosaicId.equals(other.mosaicId);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = scope.hashCode();
+            hash = 31 * hash + pyramidId.hashCode();
+            hash = 31 * hash + mosaicId.hashCode();
+            return 31 * (31 * hash + col) + row;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.storage.coverage;
+
+/**
+ * Management interface of {@link TileCache}, exposed through JMX for the default cache.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public interface TileCacheMXBean {
+
+    /**
+     * @return maximum size of cached tiles, in bytes.
+     */
+    long getCapacity();
+
+    /**
+     * @param capacity maximum size of cached tiles, in bytes.
+     */
+    void setCapacity(long capacity);
+
+    /**
+     * @return current size of cached tiles, in bytes.
+     */
+    long getSize();
+
+    /**
+     * @return number of cached tiles.
+     */
+    int getTileCount();
+
+    /**
+     * @return number of requests answered by the cache.
+     */
+    long getHitCount();
+
+    /**
+     * @return number of requests not answered by the cache.
+     */
+    long getMissCount();
+
+    /**
+     * @return number of tiles removed to respect capacity.
+     */
+    long getEvictionCount();
+
+    /**
+     * Remove all cached tiles.
+     */
+    void clear();
+}
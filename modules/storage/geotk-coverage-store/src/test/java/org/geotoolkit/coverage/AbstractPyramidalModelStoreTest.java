@@ -44,6 +44,7 @@ import org.geotoolkit.storage.coverage.CoverageStore;
 import org.geotoolkit.storage.coverage.GridMosaic;
 import org.geotoolkit.storage.coverage.Pyramid;
 import org.geotoolkit.storage.coverage.PyramidalCoverageReference;
+import org.geotoolkit.storage.coverage.PyramidalModelReader;
 import org.junit.Test;
 import org.opengis.geometry.DirectPosition;
 import org.opengis.geometry.Envelope;
@@ -376,5 +377,30 @@ public abstract class AbstractPyramidalModelStoreTest extends org.geotoolkit.tes
         }
     }
 
+    /**
+     * Read the full Float image decoding tiles in calling thread and in parallel,
+     * both images should be equal.
+     * @throws Exception
+     */
+    @Test
+    public void readParallelTest() throws Exception{
+        //load the coverage store
+        getCoverageStore();
+        final CoverageReader reader = float1bCoverageRef.acquireReader();
+        assertTrue(reader instanceof PyramidalModelReader);
+        final PyramidalModelReader pmReader = (PyramidalModelReader) reader;
+
+        pmReader.setParallelism(1);
+        final Raster sequential = ((GridCoverage2D) pmReader.read(0, null)).getRenderedImage().getData();
+        pmReader.setParallelism(4);
+        final Raster parallel = ((GridCoverage2D) pmReader.read(0, null)).getRenderedImage().getData();
+        float1bCoverageRef.recycle(reader);
+
+        assertEquals(sequential.getWidth(), parallel.getWidth());
+        assertEquals(sequential.getHeight(), parallel.getHeight());
+        final float[] expected = sequential.getPixels(0, 0, sequential.getWidth(), sequential.getHeight(), (float[]) null);
+        final float[] result   = parallel.getPixels(0, 0, parallel.getWidth(), parallel.getHeight(), (float[]) null);
+        assertArrayEquals(expected, result, 0f);
+    }
 
 }
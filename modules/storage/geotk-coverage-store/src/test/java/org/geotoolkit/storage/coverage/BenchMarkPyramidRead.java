@@ -0,0 +1,139 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.storage.coverage;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import javax.imageio.spi.ImageReaderSpi;
+import org.apache.sis.geometry.GeneralDirectPosition;
+import org.apache.sis.storage.DataStoreException;
+import org.geotoolkit.coverage.grid.GridCoverage2D;
+import org.geotoolkit.coverage.memory.MPCoverageStore;
+import org.geotoolkit.referencing.CRS;
+import org.geotoolkit.util.NamesExt;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+/**
+ * Read a 20 224 x 20 224 pixels area of a pyramid made of 256x256 PNG files
+ * with {@link PyramidalModelReader}, decoding tiles with 1, 4 and 16 threads.<br/>
+ * Tiles are written in a temporary folder on first run, destination image needs a heap of about 1Gb.
+ *
+ * @author Johann Sorel (Geomatys)
+ */
+public class BenchMarkPyramidRead {
+
+    private static final int TILE_SIZE = 256;
+    private static final int GRID_SIZE = 79;
+    private static final int NB_ITERATIONS = 5;
+
+    @Test
+    @Ignore
+    public void benchReadTest() throws Exception {
+        final Path folder = createTiles();
+        final PyramidalCoverageReference ref = createReference(folder);
+
+        PyramidalModelReader.setGlobalParallelism(16);
+        for (int nbThreads : new int[]{1, 4, 16}) {
+            final PyramidalModelReader reader = (PyramidalModelReader) ref.acquireReader();
+            reader.setParallelism(nbThreads);
+            for (int i = 0; i < NB_ITERATIONS; i++) {
+                final long start = System.nanoTime();
+                final GridCoverage2D coverage = (GridCoverage2D) reader.read(0, null);
+                final long time = (System.nanoTime() - start) / 1000000;
+                System.out.println("stats " + nbThreads + " threads : " + coverage.getRenderedImage().getWidth()
+                        + "x" + coverage.getRenderedImage().getHeight() + " pixels in " + time + " ms");
+            }
+            ref.recycle(reader);
+        }
+    }
+
+    /**
+     * Write one gray scale PNG file for each tile.
+     */
+    private static Path createTiles() throws IOException {
+        final Path folder = Files.createTempDirectory("pyramid");
+        final BufferedImage tile = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_BYTE_GRAY);
+        final WritableRaster raster = tile.getRaster();
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                for (int y = 0; y < TILE_SIZE; y++) {
+                    for (int x = 0; x < TILE_SIZE; x++) {
+                        raster.setSample(x, y, 0, (x * col + y * row) & 0xFF);
+                    }
+                }
+                ImageIO.write(tile, "png", tileFile(folder, col, row).toFile());
+            }
+        }
+        return folder;
+    }
+
+    private static Path tileFile(final Path folder, final int col, final int row) {
+        return folder.resolve(col + "_" + row + ".png");
+    }
+
+    /**
+     * Memory pyramid with a single mosaic whose tiles are the PNG files.
+     */
+    private static PyramidalCoverageReference createReference(final Path folder) throws Exception {
+        final CoordinateReferenceSystem crs = CRS.decode("EPSG:3395");
+        final MPCoverageStore store = new MPCoverageStore();
+        final PyramidalCoverageReference ref = (PyramidalCoverageReference) store.create(NamesExt.create("bench"));
+        final BufferedImage sample = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_BYTE_GRAY);
+        ref.setColorModel(sample.getColorModel());
+        ref.setSampleModel(sample.getSampleModel());
+
+        final DefaultPyramid pyramid = (DefaultPyramid) ref.createPyramid(crs);
+        final GeneralDirectPosition upperLeft = new GeneralDirectPosition(crs);
+        upperLeft.setOrdinate(0, 0);
+        upperLeft.setOrdinate(1, 100.0 * GRID_SIZE * TILE_SIZE);
+        final ImageReaderSpi spi = ImageIO.getImageReadersByFormatName("png").next().getOriginatingProvider();
+        pyramid.getMosaicsInternal().add(new FileMosaic(pyramid, upperLeft, folder, spi));
+        return ref;
+    }
+
+    private static final class FileMosaic extends AbstractGridMosaic {
+
+        private final Path folder;
+        private final ImageReaderSpi spi;
+
+        private FileMosaic(final Pyramid pyramid, final GeneralDirectPosition upperLeft, final Path folder,
+                final ImageReaderSpi spi) {
+            super("0", pyramid, upperLeft, new Dimension(GRID_SIZE, GRID_SIZE), new Dimension(TILE_SIZE, TILE_SIZE), 100.0);
+            this.folder = folder;
+            this.spi = spi;
+        }
+
+        @Override
+        public boolean isMissing(final int col, final int row) {
+            return false;
+        }
+
+        @Override
+        public TileReference getTile(final int col, final int row, final Map hints) throws DataStoreException {
+            return new DefaultTileReference(spi, tileFile(folder, col, row).toFile(), 0, new Point(col, row));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.storage.coverage;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import org.apache.sis.geometry.GeneralDirectPosition;
+import org.apache.sis.referencing.CommonCRS;
+import org.geotoolkit.coverage.memory.MPCoverageStore;
+import org.geotoolkit.util.NamesExt;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link TileCache} size bound and eviction order.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public class TileCacheTest extends org.geotoolkit.test.TestBase {
+
+    /**
+     * Size in bytes of a 10x10 TYPE_INT_ARGB tile.
+     */
+    private static final long TILE_SIZE = 10 * 10 * 4;
+
+    private static final Object SCOPE = "scope";
+
+    private static BufferedImage createTile() {
+        return new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * Least recently used tiles must be evicted when byte capacity is exceeded.
+     */
+    @Test
+    public void evictionTest() {
+        final TileCache cache = new TileCache(3 * TILE_SIZE);
+        final BufferedImage tile00 = createTile();
+        cache.put(SCOPE, "p", "m", 0, 0, tile00);
+        cache.put(SCOPE, "p", "m", 1, 0, createTile());
+        cache.put(SCOPE, "p", "m", 2, 0, createTile());
+        assertEquals(3 * TILE_SIZE, cache.getSize());
+
+        //-- use first tile, second one become the least recently used.
+        assertSame(tile00, cache.get(SCOPE, "p", "m", 0, 0));
+        cache.put(SCOPE, "p", "m", 3, 0, createTile());
+        assertEquals(3, cache.getTileCount());
+        assertEquals(3 * TILE_SIZE, cache.getSize());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get(SCOPE, "p", "m", 1, 0));
+        assertSame(tile00, cache.get(SCOPE, "p", "m", 0, 0));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        //-- reduce capacity.
+        cache.setCapacity(TILE_SIZE);
+        assertEquals(1, cache.getTileCount());
+        assertSame(tile00, cache.get(SCOPE, "p", "m", 0, 0));
+
+        //-- tile bigger than capacity is not cached.
+        cache.put(SCOPE, "p", "m", 4, 0, new BufferedImage(20, 20, BufferedImage.TYPE_INT_ARGB));
+        assertNull(cache.get(SCOPE, "p", "m", 4, 0));
+        assertSame(tile00, cache.get(SCOPE, "p", "m", 0, 0));
+    }
+
+    /**
+     * Tiles are identified by scope, pyramid and mosaic identifiers.
+     */
+    @Test
+    public void removeMosaicTest() {
+        final TileCache cache = new TileCache(10 * TILE_SIZE);
+        cache.put(SCOPE, "p", "m1", 0, 0, createTile());
+        cache.put(SCOPE, "p", "m1", 1, 0, createTile());
+        cache.put(SCOPE, "p", "m2", 0, 0, createTile());
+        cache.put("other", "p", "m1", 0, 0, createTile());
+        assertNotSame(cache.get(SCOPE, "p", "m1", 0, 0), cache.get(SCOPE, "p", "m2", 0, 0));
+        assertNotSame(cache.get(SCOPE, "p", "m1", 0, 0), cache.get("other", "p", "m1", 0, 0));
+        //-- equal scopes share tiles.
+        assertNotNull(cache.get(new String("scope"), "p", "m1", 0, 0));
+
+        cache.remove(SCOPE, "p", "m1");
+        assertEquals(2, cache.getTileCount());
+        assertEquals(2 * TILE_SIZE, cache.getSize());
+        assertNull(cache.get(SCOPE, "p", "m1", 0, 0));
+        assertNotNull(cache.get(SCOPE, "p", "m2", 0, 0));
+        assertNotNull(cache.get("other", "p", "m1", 0, 0));
+
+        cache.remove(SCOPE, "p", null);
+        assertEquals(1, cache.getTileCount());
+        assertNull(cache.get(SCOPE, "p", "m2", 0, 0));
+
+        cache.clear();
+        assertEquals(0, cache.getTileCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    /**
+     * Writing or deleting tiles in a reference removes them from the cache.
+     */
+    @Test
+    public void writeInvalidationTest() throws Exception {
+        final MPCoverageStore store = new MPCoverageStore();
+        final AbstractPyramidalCoverageReference ref = (AbstractPyramidalCoverageReference) store.create(NamesExt.create("test"));
+        final TileCache cache = new TileCache(10 * TILE_SIZE);
+        ref.getHints().put(TileCache.TILE_CACHE, cache);
+        final Object scope = ref.getTileCacheScope();
+
+        final Pyramid pyramid = ref.createPyramid(CommonCRS.WGS84.normalizedGeographic());
+        final GeneralDirectPosition upperLeft = new GeneralDirectPosition(CommonCRS.WGS84.normalizedGeographic());
+        final GridMosaic mosaic = ref.createMosaic(pyramid.getId(), new Dimension(2, 1), new Dimension(10, 10), upperLeft, 1);
+        cache.put(scope, pyramid.getId(), mosaic.getId(), 0, 0, createTile());
+        cache.put(scope, pyramid.getId(), mosaic.getId(), 1, 0, createTile());
+
+        ref.writeTile(pyramid.getId(), mosaic.getId(), 0, 0, createTile());
+        assertNull(cache.get(scope, pyramid.getId(), mosaic.getId(), 0, 0));
+        assertNotNull(cache.get(scope, pyramid.getId(), mosaic.getId(), 1, 0));
+
+        ref.deleteTile(pyramid.getId(), mosaic.getId(), 1, 0);
+        assertNull(cache.get(scope, pyramid.getId(), mosaic.getId(), 1, 0));
+
+        cache.put(scope, pyramid.getId(), mosaic.getId(), 0, 0, createTile());
+        ref.deleteMosaic(pyramid.getId(), mosaic.getId());
+        assertEquals(0, cache.getTileCount());
+    }
+}
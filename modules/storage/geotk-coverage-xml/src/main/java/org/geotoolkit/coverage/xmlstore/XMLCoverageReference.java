@@ -289,6 +289,17 @@ public class XMLCoverageReference extends AbstractPyramidalCoverageReference {
         return mainfile.getParent().resolve(getId());
     }
 
+    /**
+     * Cached tiles are shared by references opened on the same pyramid folder.
+     *
+     * @return pyramid folder, or default scope if this reference is not initialized.
+     */
+    @Override
+    public Object getTileCacheScope() {
+        if (mainfile == null) return super.getTileCacheScope();
+        return getFolder().toAbsolutePath().normalize();
+    }
+
     @Override
     public XMLPyramidSet getPyramidSet() {
         return set;
@@ -780,6 +791,7 @@ public class XMLCoverageReference extends AbstractPyramidalCoverageReference {
         checkOrSetSampleColor(image);
 
         mosaic.writeTiles(image, area, onlyMissing, monitor);
+        removeCachedTiles(pyramid.getId(), mosaic.getId());
         if (!mosaic.cacheTileState && mosaic.tileExist != null) {
             save();
         }
@@ -65,6 +65,7 @@ import org.geotoolkit.internal.referencing.CRSUtilities;
 import org.geotoolkit.storage.coverage.AbstractGridMosaic;
 import org.geotoolkit.storage.coverage.DefaultTileReference;
 import org.geotoolkit.storage.coverage.GridMosaic;
+import org.geotoolkit.storage.coverage.TileCache;
 import org.geotoolkit.storage.coverage.TileReference;
 import org.opengis.coverage.PointOutsideCoverageException;
 import org.opengis.geometry.DirectPosition;
@@ -611,6 +612,7 @@ public class XMLMosaic implements GridMosaic {
             } finally {
                 bitsetLock.writeLock().unlock();
             }
+            removeCachedTile(col, row);
             return;
         }
 
@@ -632,6 +634,7 @@ public class XMLMosaic implements GridMosaic {
                 out = ImageIO.createImageOutputStream(tilePath);
             }
             writer.write(image);
+            removeCachedTile(col, row);
             if (tileExist != null) {
                 final int ti = getTileIndex(col, row);
                 bitsetLock.writeLock().lock();
@@ -660,6 +663,15 @@ public class XMLMosaic implements GridMosaic {
         }
     }
 
+    /**
+     * Remove a written tile from the decoded tile cache of the coverage reference, if enabled.
+     */
+    private void removeCachedTile(final int col, final int row) {
+        final XMLCoverageReference ref = pyramid.getPyramidSet().getRef();
+        final TileCache cache = ref.getTileCache();
+        if (cache != null) cache.remove(ref.getTileCacheScope(), pyramid.getId(), getId(), col, row);
+    }
+
      void writeTiles(final RenderedImage image, final Rectangle area, final boolean onlyMissing, final ProgressMonitor monitor) throws DataStoreException{
          
          try {
@@ -31,6 +31,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Connection;
 import java.sql.Date;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -504,6 +505,11 @@ public class MySQLDialect extends AbstractSQLDialect {
         throw new UnsupportedOperationException("Geometry types not supported in MySQL.");
     }
 
+    @Override
+    public void setGeometryParameter(PreparedStatement stmt, int index, Geometry value, int srid) throws SQLException, DataStoreException {
+        throw new UnsupportedOperationException("Geometry types not supported in MySQL.");
+    }
+
     @Override
     public void encodeCoverageValue(StringBuilder sql, Coverage value) throws DataStoreException {
         throw new UnsupportedOperationException("Coverage types not supported in MySQL.");
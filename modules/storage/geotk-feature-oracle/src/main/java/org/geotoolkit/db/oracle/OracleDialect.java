@@ -31,6 +31,7 @@ import java.math.BigDecimal;
 import java.sql.Blob;
 import java.sql.Connection;
 import java.sql.Date;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -530,6 +531,11 @@ public class OracleDialect extends AbstractSQLDialect{
         throw new DataStoreException("Not supported yet.");
     }
 
+    @Override
+    public void setGeometryParameter(PreparedStatement stmt, int index, Geometry value, int srid) throws SQLException, DataStoreException {
+        throw new DataStoreException("Not supported yet.");
+    }
+
     @Override
     public void encodeCoverageValue(StringBuilder sql, Coverage value) throws DataStoreException {
         throw new DataStoreException("Coverage type not supported.");
@@ -0,0 +1,289 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.osm;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.apache.sis.util.ArgumentChecks;
+
+/**
+ * Table of node locations stored in a memory mapped temporary file.<br/>
+ * Locations are stored as fixed point integers with a precision of 10<sup>-7</sup> degree,
+ * like in OSM database, so an entry uses 8 bytes in dense mode and 16 bytes in sparse mode.
+ * Only mapped file pages are used, the java heap usage does not depend on the number of nodes.
+ * <br/>
+ * Two modes are available :
+ * <ul>
+ *   <li>{@link Mode#SPARSE} : (id, location) entries sorted by id, found by binary search.
+ *   Best for extracts, where node ids are spread over the whole id range.</li>
+ *   <li>{@link Mode#DENSE} : locations indexed by id, direct access. Best when most ids of
+ *   the range are used, like in the planet file. Negative ids are not supported.</li>
+ * </ul>
+ * Nodes are added with {@link #put(long, double, double) }, then {@link #finish() } must be
+ * called before any {@link #get(long, double[], int) }. Puts are not thread safe,
+ * gets are once the store is finished.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public class NodeLocationStore implements Closeable {
+
+    public static enum Mode {
+        SPARSE,
+        DENSE
+    }
+
+    private static final double SCALE = 1e7;
+
+    /**
+     * Mapped segments size, a multiple of all entry sizes.
+     */
+    private static final int SEGMENT_SHIFT = 26;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final Mode mode;
+    private final int entrySize;
+    private final Path file;
+    private final FileChannel channel;
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    /**
+     * Number of entries in sparse mode, largest id + 1 in dense mode.
+     */
+    private long size = 0;
+    private long count = 0;
+    private long lastId = Long.MIN_VALUE;
+    private boolean sorted = true;
+    private boolean finished = false;
+
+    /**
+     * Create a store backed by a temporary file, deleted on {@link #close() }.
+     *
+     * @param mode storage mode
+     * @throws IOException if temporary file can not be created
+     */
+    public NodeLocationStore(final Mode mode) throws IOException {
+        this(mode, Files.createTempFile("osmnodes", ".bin"));
+    }
+
+    /**
+     * Create a store backed by given file, deleted on {@link #close() }.
+     *
+     * @param mode storage mode
+     * @param file work file, previous content is erased
+     * @throws IOException if file can not be opened
+     */
+    public NodeLocationStore(final Mode mode, final Path file) throws IOException {
+        ArgumentChecks.ensureNonNull("mode", mode);
+        ArgumentChecks.ensureNonNull("file", file);
+        this.mode = mode;
+        this.entrySize = (mode == Mode.DENSE) ? 8 : 16;
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return number of stored nodes
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Store a node location.
+     *
+     * @param id node identifier, positive in dense mode
+     * @param lat latitude in degrees
+     * @param lon longitude in degrees
+     * @throws IOException if file can not be extended
+     */
+    public void put(final long id, final double lat, final double lon) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Node store is finished.");
+        }
+        final long location = encode(lat, lon);
+        if (mode == Mode.DENSE) {
+            ArgumentChecks.ensurePositive("id", id);
+            final long offset = id * entrySize;
+            segment(offset).putLong((int) (offset & SEGMENT_MASK), location);
+            size = Math.max(size, id + 1);
+        } else {
+            final long offset = size * entrySize;
+            final MappedByteBuffer segment = segment(offset);
+            final int pos = (int) (offset & SEGMENT_MASK);
+            segment.putLong(pos, id);
+            segment.putLong(pos + 8, location);
+            size++;
+            if (id <= lastId) sorted = false;
+        }
+        lastId = id;
+        count++;
+    }
+
+    /**
+     * End of insertions, sort sparse entries if nodes were not added in id order.
+     */
+    public void finish() {
+        if (finished) return;
+        if (mode == Mode.SPARSE && !sorted) {
+            heapSort();
+        }
+        finished = true;
+    }
+
+    /**
+     * Get a node location.
+     *
+     * @param id node identifier
+     * @param coords array where to write longitude then latitude
+     * @param offset index of longitude in array
+     * @return false if there is no node for this id, array is unchanged
+     */
+    public boolean get(final long id, final double[] coords, final int offset) {
+        if (!finished) {
+            throw new IllegalStateException("Node store is not finished.");
+        }
+        final long location;
+        if (mode == Mode.DENSE) {
+            if (id < 0 || id >= size) return false;
+            location = readLong(id * entrySize);
+        } else {
+            long low = 0;
+            long high = size - 1;
+            long found = -1;
+            while (low <= high) {
+                final long mid = (low + high) >>> 1;
+                final long midId = readLong(mid * entrySize);
+                if (midId < id) {
+                    low = mid + 1;
+                } else if (midId > id) {
+                    high = mid - 1;
+                } else {
+                    found = mid;
+                    break;
+                }
+            }
+            if (found < 0) return false;
+            location = readLong(found * entrySize + 8);
+        }
+        if (location == 0) return false;
+        final int x = (int) location;
+        coords[offset]     = ((x > 0) ? x - 1 : x) / SCALE;
+        coords[offset + 1] = ((int) (location >> 32)) / SCALE;
+        return true;
+    }
+
+    /**
+     * Pack a location in a long : latitude in high bits, longitude in low bits.
+     * Longitude zero value is reserved for missing entries.
+     */
+    private static long encode(final double lat, final double lon) {
+        final int y = (int) Math.round(lat * SCALE);
+        int x = (int) Math.round(lon * SCALE);
+        x = (x >= 0) ? x + 1 : x;
+        return ((long) y << 32) | (x & 0xFFFFFFFFL);
+    }
+
+    private long readLong(final long offset) {
+        final int index = (int) (offset >>> SEGMENT_SHIFT);
+        if (index >= segments.length) return 0;
+        return segments[index].getLong((int) (offset & SEGMENT_MASK));
+    }
+
+    /**
+     * Returns segment containing given offset, mapping it if needed.
+     */
+    private MappedByteBuffer segment(final long offset) throws IOException {
+        final int index = (int) (offset >>> SEGMENT_SHIFT);
+        if (index >= segments.length) {
+            segments = Arrays.copyOf(segments, index + 1);
+        }
+        MappedByteBuffer segment = segments[index];
+        if (segment == null) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, (long) index << SEGMENT_SHIFT, 1L << SEGMENT_SHIFT);
+            segments[index] = segment;
+        }
+        return segment;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // in place sort of sparse entries, no heap memory used ////////////////////
+    ////////////////////////////////////////////////////////////////////////////
+
+    private void heapSort() {
+        for (long i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i, size);
+        }
+        for (long end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+    }
+
+    private void siftDown(long root, final long end) {
+        while (true) {
+            long child = 2 * root + 1;
+            if (child >= end) return;
+            if (child + 1 < end && idAt(child + 1) > idAt(child)) child++;
+            if (idAt(root) >= idAt(child)) return;
+            swap(root, child);
+            root = child;
+        }
+    }
+
+    private long idAt(final long entry) {
+        return readLong(entry * entrySize);
+    }
+
+    private void swap(final long i, final long j) {
+        final long oi = i * entrySize;
+        final long oj = j * entrySize;
+        final MappedByteBuffer si = segments[(int) (oi >>> SEGMENT_SHIFT)];
+        final MappedByteBuffer sj = segments[(int) (oj >>> SEGMENT_SHIFT)];
+        final int pi = (int) (oi & SEGMENT_MASK);
+        final int pj = (int) (oj & SEGMENT_MASK);
+        final long id = si.getLong(pi);
+        final long location = si.getLong(pi + 8);
+        si.putLong(pi, sj.getLong(pj));
+        si.putLong(pi + 8, sj.getLong(pj + 8));
+        sj.putLong(pj, id);
+        sj.putLong(pj + 8, location);
+    }
+
+    /**
+     * Release the mapped file and delete it.
+     */
+    @Override
+    public void close() throws IOException {
+        segments = new MappedByteBuffer[0];
+        size = 0;
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+}
@@ -0,0 +1,397 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.osm;
+
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.sis.storage.DataStoreException;
+import org.apache.sis.util.ArgumentChecks;
+import org.geotoolkit.data.AbstractFeatureStore;
+import org.geotoolkit.data.FeatureReader;
+import org.geotoolkit.data.FeatureStoreFactory;
+import org.geotoolkit.data.FeatureStoreRuntimeException;
+import org.geotoolkit.data.FeatureWriter;
+import org.geotoolkit.data.osm.model.Node;
+import org.geotoolkit.data.osm.model.Relation;
+import org.geotoolkit.data.osm.model.Way;
+import org.geotoolkit.data.osm.pbf.OSMPBFReader;
+import org.geotoolkit.data.osm.xml.OSMXMLReader;
+import org.geotoolkit.data.query.Query;
+import org.geotoolkit.data.query.QueryCapabilities;
+import org.geotoolkit.factory.Hints;
+import org.geotoolkit.feature.AttributeDescriptorBuilder;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.FeatureFactory;
+import org.geotoolkit.feature.FeatureTypeBuilder;
+import org.geotoolkit.feature.Property;
+import org.geotoolkit.feature.type.FeatureType;
+import org.geotoolkit.feature.type.GeometryDescriptor;
+import org.geotoolkit.feature.type.PropertyDescriptor;
+import org.geotoolkit.util.NamesExt;
+import org.opengis.filter.Filter;
+import org.opengis.filter.identity.FeatureId;
+import org.opengis.parameter.ParameterValueGroup;
+import org.opengis.util.GenericName;
+
+import static org.geotoolkit.data.osm.model.OSMModelConstants.*;
+
+/**
+ * OSM XML or PBF FeatureStore for large files, holds 3 feature types.
+ * - Node
+ * - Way, with a line geometry
+ * - relation
+ * <br/>
+ * At creation the file is read once to store node locations in a {@link NodeLocationStore},
+ * then each feature reader streams the file again : ways geometries are built on the fly
+ * from the node locations. Heap usage does not depend on the file size.
+ * Nodes without location are not stored, ways geometries skip unknown nodes.
+ * <br/>
+ * Files with a .pbf extension are read with {@link OSMPBFReader}, which decodes blocks
+ * in parallel, other files are read with {@link OSMXMLReader}.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public class OSMStreamFeatureStore extends AbstractFeatureStore {
+
+    private static final GeometryFactory GF = new GeometryFactory();
+    private static final FeatureFactory FF = FeatureFactory.LENIENT;
+
+    private static final FeatureType TYPE_WAY_GEOMETRY;
+    private static final GeometryDescriptor ATT_WAY_GEOMETRY;
+
+    static{
+        final AttributeDescriptorBuilder adb = new AttributeDescriptorBuilder();
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ATT_WAY_GEOMETRY = (GeometryDescriptor) adb.create(NamesExt.create(OSM_NAMESPACE, "geometry"), LineString.class, OSM_CRS, 0, 1, true, null);
+
+        ftb.copy(TYPE_WAY);
+        ftb.add(ATT_WAY_GEOMETRY);
+        ftb.setDefaultGeometry(ATT_WAY_GEOMETRY.getName());
+        TYPE_WAY_GEOMETRY = ftb.buildFeatureType();
+    }
+
+    private final Path input;
+    private final NodeLocationStore nodes;
+
+    /**
+     * Open given OSM XML or PBF file, node locations are stored in sparse mode.
+     *
+     * @param input OSM XML or PBF file
+     * @throws DataStoreException if file can not be read
+     */
+    public OSMStreamFeatureStore(final Path input) throws DataStoreException {
+        this(null, input, NodeLocationStore.Mode.SPARSE);
+    }
+
+    /**
+     * Open given OSM XML or PBF file.
+     *
+     * @param params store parameters, can be null
+     * @param input OSM XML or PBF file
+     * @param mode node locations storage mode
+     * @throws DataStoreException if file can not be read
+     */
+    public OSMStreamFeatureStore(final ParameterValueGroup params, final Path input,
+            final NodeLocationStore.Mode mode) throws DataStoreException {
+        super(params);
+        ArgumentChecks.ensureNonNull("input", input);
+        this.input = input;
+
+        //first pass : store node locations
+        NodeLocationStore store = null;
+        final Elements reader = new Elements(input);
+        try {
+            store = new NodeLocationStore(mode);
+            reader.open();
+            while (reader.hasNext()) {
+                final Object obj = reader.next();
+                if (obj instanceof Node) {
+                    final Node node = (Node) obj;
+                    if (!Double.isNaN(node.getLatitude()) && !Double.isNaN(node.getLongitude())) {
+                        store.put(node.getId(), node.getLatitude(), node.getLongitude());
+                    }
+                }
+            }
+            store.finish();
+        } catch (IOException | XMLStreamException ex) {
+            if (store != null) {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    ex.addSuppressed(e);
+                }
+            }
+            throw new DataStoreException(ex.getMessage(), ex);
+        } finally {
+            try {
+                reader.dispose();
+            } catch (IOException | XMLStreamException ex) {
+                getLogger().log(Level.WARNING, ex.getMessage(), ex);
+            }
+        }
+        this.nodes = store;
+    }
+
+    /**
+     * @return number of nodes with a location
+     */
+    public long getNodeCount() {
+        return nodes.getCount();
+    }
+
+    @Override
+    public FeatureStoreFactory getFactory() {
+        return null;
+    }
+
+    @Override
+    public Set<GenericName> getNames() throws DataStoreException {
+        final Set<GenericName> names = new HashSet<GenericName>();
+        names.add(TYPE_NODE.getName());
+        names.add(TYPE_WAY_GEOMETRY.getName());
+        names.add(TYPE_RELATION.getName());
+        return names;
+    }
+
+    @Override
+    public FeatureType getFeatureType(final GenericName typeName) throws DataStoreException {
+        if(TYPE_NODE.getName().equals(typeName)){
+            return TYPE_NODE;
+        }else if(TYPE_WAY_GEOMETRY.getName().equals(typeName)){
+            return TYPE_WAY_GEOMETRY;
+        }else if(TYPE_RELATION.getName().equals(typeName)){
+            return TYPE_RELATION;
+        }else{
+            throw new DataStoreException("No featureType for name : " + typeName);
+        }
+    }
+
+    @Override
+    public FeatureReader getFeatureReader(final Query query) throws DataStoreException {
+        final FeatureType ft = getFeatureType(query.getTypeName());
+        return handleRemaining(new OSMStreamReader(ft), query);
+    }
+
+    /**
+     * Build way feature with its geometry, null geometry if less than 2 nodes are known.
+     */
+    private Feature toFeature(final Way way) {
+        final List<Long> ids = way.getNodesIds();
+        double[] coords = new double[ids.size() * 2];
+        int nb = 0;
+        for (Long id : ids) {
+            if (nodes.get(id, coords, nb * 2)) nb++;
+        }
+        final Collection<Property> props = way.getProperties();
+        if (nb >= 2) {
+            if (nb < ids.size()) coords = Arrays.copyOf(coords, nb * 2);
+            final LineString line = GF.createLineString(PackedCoordinateSequenceFactory.DOUBLE_FACTORY.create(coords, 2));
+            props.add(FF.createGeometryAttribute(line, ATT_WAY_GEOMETRY, null, null));
+        }
+        return FF.createFeature(props, TYPE_WAY_GEOMETRY, Long.toString(way.getId()));
+    }
+
+    /**
+     * Release node locations file.
+     */
+    @Override
+    public void close() throws DataStoreException {
+        super.close();
+        try {
+            nodes.close();
+        } catch (IOException ex) {
+            throw new DataStoreException(ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public FeatureWriter getFeatureWriter(final GenericName typeName, final Filter filter, final Hints hints) throws DataStoreException {
+        throw new UnsupportedOperationException("Not yet.");
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // FALLTHROUGHT OR NOT IMPLEMENTED /////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public QueryCapabilities getQueryCapabilities() {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public void createFeatureType(final GenericName typeName, final FeatureType featureType) throws DataStoreException {
+        throw new DataStoreException("New schema creation not allowed on OSM files.");
+    }
+
+    @Override
+    public void deleteFeatureType(final GenericName typeName) throws DataStoreException {
+        throw new DataStoreException("Delete schema not allowed on OSM files.");
+    }
+
+    @Override
+    public void updateFeatureType(final GenericName typeName, final FeatureType featureType) throws DataStoreException {
+        throw new DataStoreException("Update schema not allowed on OSM files.");
+    }
+
+    @Override
+    public List<FeatureId> addFeatures(final GenericName groupName, final Collection<? extends Feature> newFeatures,
+            final Hints hints) throws DataStoreException {
+        return handleAddWithFeatureWriter(groupName, newFeatures, hints);
+    }
+
+    @Override
+    public void updateFeatures(final GenericName groupName, final Filter filter, final Map<? extends PropertyDescriptor, ? extends Object> values) throws DataStoreException {
+        handleUpdateWithFeatureWriter(groupName, filter, values);
+    }
+
+    @Override
+    public void removeFeatures(final GenericName groupName, final Filter filter) throws DataStoreException {
+        handleRemoveWithFeatureWriter(groupName, filter);
+    }
+
+    @Override
+    public void refreshMetaModel() {
+    }
+
+    /**
+     * Stream the OSM file, returning elements of one type.
+     */
+    private class OSMStreamReader implements FeatureReader {
+
+        private final FeatureType type;
+        private final Elements reader = new Elements(input);
+        private Feature current = null;
+
+        private OSMStreamReader(final FeatureType type) throws DataStoreException {
+            this.type = type;
+            try {
+                reader.open();
+            } catch (IOException | XMLStreamException ex) {
+                throw new DataStoreException(ex.getMessage(), ex);
+            }
+        }
+
+        @Override
+        public FeatureType getFeatureType() {
+            return type;
+        }
+
+        @Override
+        public Feature next() throws FeatureStoreRuntimeException {
+            read();
+            final Feature ob = current;
+            current = null;
+            if(ob == null){
+                throw new FeatureStoreRuntimeException("No more records.");
+            }
+            return ob;
+        }
+
+        @Override
+        public boolean hasNext() throws FeatureStoreRuntimeException {
+            read();
+            return current != null;
+        }
+
+        private void read() throws FeatureStoreRuntimeException {
+            if (current != null) return;
+            try {
+                while (current == null && reader.hasNext()) {
+                    final Object obj = reader.next();
+                    if (type == TYPE_NODE && obj instanceof Node) {
+                        current = (Node) obj;
+                    } else if (type == TYPE_WAY_GEOMETRY && obj instanceof Way) {
+                        current = toFeature((Way) obj);
+                    } else if (type == TYPE_RELATION && obj instanceof Relation) {
+                        current = (Relation) obj;
+                    }
+                }
+            } catch (IOException | XMLStreamException ex) {
+                throw new FeatureStoreRuntimeException(ex);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                reader.dispose();
+            } catch (IOException | XMLStreamException ex) {
+                throw new FeatureStoreRuntimeException(ex);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new FeatureStoreRuntimeException("Not supported on reader.");
+        }
+    }
+
+    /**
+     * Iterate on file elements with the XML or PBF reader, chosen by file extension.
+     */
+    private static final class Elements {
+
+        private final Path input;
+        private final OSMXMLReader xml;
+        private final OSMPBFReader pbf;
+
+        private Elements(final Path input) {
+            this.input = input;
+            if (input.getFileName().toString().toLowerCase(Locale.ENGLISH).endsWith(".pbf")) {
+                xml = null;
+                pbf = new OSMPBFReader();
+            } else {
+                xml = new OSMXMLReader();
+                pbf = null;
+            }
+        }
+
+        private void open() throws IOException, XMLStreamException {
+            if (pbf != null) pbf.setInput(input);
+            else xml.setInput(input);
+        }
+
+        private boolean hasNext() throws IOException, XMLStreamException {
+            return (pbf != null) ? pbf.hasNext() : xml.hasNext();
+        }
+
+        private Object next() throws IOException, XMLStreamException {
+            return (pbf != null) ? pbf.next() : xml.next();
+        }
+
+        private void dispose() throws IOException, XMLStreamException {
+            if (pbf != null) pbf.dispose();
+            else xml.dispose();
+        }
+    }
+
+}
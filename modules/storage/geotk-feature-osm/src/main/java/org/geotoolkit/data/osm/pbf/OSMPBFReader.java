@@ -0,0 +1,340 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.osm.pbf;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import org.apache.sis.util.ArgumentChecks;
+import org.geotoolkit.data.osm.model.Bound;
+import org.geotoolkit.data.osm.model.IdentifiedElement;
+import org.opengis.geometry.Envelope;
+
+/**
+ * Reader for OSM PBF files.<br/>
+ * Blobs are read sequentially from the input, data blocks are uncompressed and decoded by a pool
+ * of threads while the caller consumes the previous ones. Elements are returned in the file order,
+ * as the same {@link org.geotoolkit.data.osm.model.Node}, {@link org.geotoolkit.data.osm.model.Way}
+ * and {@link org.geotoolkit.data.osm.model.Relation} objects as the
+ * {@link org.geotoolkit.data.osm.xml.OSMXMLReader}.<br/>
+ * Only zlib compressed and raw blobs are supported.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public class OSMPBFReader {
+
+    private static final int MAX_HEADER_SIZE = 64 * 1024;
+    private static final int MAX_BLOB_SIZE = 32 * 1024 * 1024;
+
+    /**
+     * Features this reader can decode, files requiring other features are rejected.
+     */
+    private static final List<String> SUPPORTED_FEATURES = Arrays.asList(
+            "OsmSchema-V0.6", "DenseNodes", "HistoricalInformation");
+
+    private final int nbThreads;
+    private ExecutorService executor;
+    private DataInputStream stream;
+
+    /**
+     * Blocks being decoded, in file order.
+     */
+    private final Deque<Future<List<IdentifiedElement>>> pending = new ArrayDeque<>();
+    private Iterator<IdentifiedElement> block = Collections.<IdentifiedElement>emptyIterator();
+    private boolean endOfFile;
+    private Envelope envelope;
+
+    /**
+     * Create a reader decoding blocks with as many threads as available processors.
+     */
+    public OSMPBFReader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param nbThreads number of threads decoding blocks
+     */
+    public OSMPBFReader(final int nbThreads) {
+        ArgumentChecks.ensureStrictlyPositive("nbThreads", nbThreads);
+        this.nbThreads = nbThreads;
+    }
+
+    /**
+     * Set the input and read the file header.
+     *
+     * @param input Path, File, URL or InputStream
+     * @throws IOException if input can not be opened or header is invalid,
+     *         in which case the input is closed
+     */
+    public void setInput(final Object input) throws IOException {
+        dispose();
+        final InputStream in;
+        if (input instanceof Path) {
+            in = Files.newInputStream((Path) input);
+        } else if (input instanceof File) {
+            in = Files.newInputStream(((File) input).toPath());
+        } else if (input instanceof URL) {
+            in = ((URL) input).openStream();
+        } else if (input instanceof InputStream) {
+            in = (InputStream) input;
+        } else {
+            throw new IOException("Unsupported input : " + input);
+        }
+        stream = new DataInputStream(new BufferedInputStream(in));
+        endOfFile = false;
+        envelope = null;
+        executor = Executors.newFixedThreadPool(nbThreads, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "OSM PBF decoder");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        try {
+            final String type = readBlobHeader();
+            if (!"OSMHeader".equals(type)) {
+                throw new IOException("File does not start with an OSMHeader block, found : " + type);
+            }
+            readHeaderBlock(new ProtobufInput(readBlob(readBlobBytes())));
+        } catch (IOException | RuntimeException ex) {
+            //release the stream and decoding threads
+            try {
+                dispose();
+            } catch (IOException e) {
+                ex.addSuppressed(e);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * @return bounding box declared in file header, may be null
+     */
+    public Envelope getEnvelope() {
+        return envelope;
+    }
+
+    public boolean hasNext() throws IOException {
+        while (!block.hasNext()) {
+            fill();
+            final Future<List<IdentifiedElement>> future = pending.poll();
+            if (future == null) return false;
+            try {
+                block = future.get().iterator();
+            } catch (InterruptedException ex) {
+                throw new IOException("Interrupted while decoding block.", ex);
+            } catch (ExecutionException ex) {
+                final Throwable cause = ex.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                throw new IOException(cause.getMessage(), cause);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return next Node, Way or Relation, null if there are no more elements
+     */
+    public IdentifiedElement next() throws IOException {
+        return hasNext() ? block.next() : null;
+    }
+
+    /**
+     * Read blobs and submit data blocks until enough blocks are being decoded.
+     */
+    private void fill() throws IOException {
+        while (!endOfFile && pending.size() < nbThreads * 2) {
+            final String type = readBlobHeader();
+            if (type == null) {
+                endOfFile = true;
+                break;
+            }
+            final byte[] blob = readBlobBytes();
+            if ("OSMData".equals(type)) {
+                pending.add(executor.submit(new Callable<List<IdentifiedElement>>() {
+                    @Override
+                    public List<IdentifiedElement> call() throws IOException {
+                        return PrimitiveBlockDecoder.decode(readBlob(blob));
+                    }
+                }));
+            }
+        }
+    }
+
+    /**
+     * Size of the blob following last read blob header.
+     */
+    private int blobSize;
+
+    /**
+     * Read a blob header, stores blob size.
+     *
+     * @return blob type, null if end of file is reached
+     */
+    private String readBlobHeader() throws IOException {
+        final int first = stream.read();
+        if (first < 0) return null;
+        final int headerSize = (first << 24) | (stream.readUnsignedByte() << 16)
+                             | (stream.readUnsignedByte() << 8) | stream.readUnsignedByte();
+        if (headerSize < 0 || headerSize > MAX_HEADER_SIZE) {
+            throw new IOException("Invalid blob header size : " + headerSize);
+        }
+        final byte[] header = new byte[headerSize];
+        stream.readFully(header);
+
+        String type = null;
+        blobSize = -1;
+        final ProtobufInput in = new ProtobufInput(header);
+        while (in.nextField()) {
+            switch (in.getFieldNumber()) {
+                case 1 :  type = in.readString(); break;
+                case 3 :  blobSize = in.readInt32(); break;
+                default : in.skip();
+            }
+        }
+        if (type == null || blobSize < 0 || blobSize > MAX_BLOB_SIZE) {
+            throw new IOException("Invalid blob header, type : " + type + ", size : " + blobSize);
+        }
+        return type;
+    }
+
+    private byte[] readBlobBytes() throws IOException {
+        final byte[] blob = new byte[blobSize];
+        try {
+            stream.readFully(blob);
+        } catch (EOFException ex) {
+            throw new IOException("Truncated blob.", ex);
+        }
+        return blob;
+    }
+
+    /**
+     * Uncompress blob content.
+     */
+    private static byte[] readBlob(final byte[] blob) throws IOException {
+        byte[] raw = null;
+        byte[] zlib = null;
+        int rawSize = -1;
+        final ProtobufInput in = new ProtobufInput(blob);
+        while (in.nextField()) {
+            switch (in.getFieldNumber()) {
+                case 1 :  raw = in.readBytes(); break;
+                case 2 :  rawSize = in.readInt32(); break;
+                case 3 :  zlib = in.readBytes(); break;
+                case 4 :
+                case 5 :
+                case 6 :  throw new IOException("Unsupported blob compression : " + in.getFieldNumber());
+                default : in.skip();
+            }
+        }
+        if (raw != null) return raw;
+        if (zlib == null || rawSize < 0 || rawSize > MAX_BLOB_SIZE) {
+            throw new IOException("Invalid blob.");
+        }
+        final byte[] data = new byte[rawSize];
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(zlib);
+            int n = 0;
+            while (n < rawSize) {
+                final int read = inflater.inflate(data, n, rawSize - n);
+                if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += read;
+            }
+            if (n != rawSize) {
+                throw new IOException("Uncompressed blob size " + n + " does not match declared size " + rawSize);
+            }
+        } catch (DataFormatException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        } finally {
+            inflater.end();
+        }
+        return data;
+    }
+
+    private void readHeaderBlock(final ProtobufInput in) throws IOException {
+        while (in.nextField()) {
+            switch (in.getFieldNumber()) {
+                case 1 : {
+                    final ProtobufInput bbox = in.readMessage();
+                    double left = 0, right = 0, top = 0, bottom = 0;
+                    while (bbox.nextField()) {
+                        switch (bbox.getFieldNumber()) {
+                            case 1 :  left   = bbox.readSInt64() * 1e-9; break;
+                            case 2 :  right  = bbox.readSInt64() * 1e-9; break;
+                            case 3 :  top    = bbox.readSInt64() * 1e-9; break;
+                            case 4 :  bottom = bbox.readSInt64() * 1e-9; break;
+                            default : bbox.skip();
+                        }
+                    }
+                    envelope = Bound.create(left, right, bottom, top);
+                    break;
+                }
+                case 4 : {
+                    final String feature = in.readString();
+                    if (!SUPPORTED_FEATURES.contains(feature)) {
+                        throw new IOException("Unsupported OSM PBF feature : " + feature);
+                    }
+                    break;
+                }
+                default : in.skip();
+            }
+        }
+    }
+
+    /**
+     * Close the input and stop decoding threads.
+     */
+    public void dispose() throws IOException {
+        pending.clear();
+        block = Collections.<IdentifiedElement>emptyIterator();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+}
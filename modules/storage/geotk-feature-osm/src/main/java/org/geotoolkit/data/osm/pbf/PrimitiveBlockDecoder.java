@@ -0,0 +1,352 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.osm.pbf;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.geotoolkit.data.osm.model.IdentifiedElement;
+import org.geotoolkit.data.osm.model.Member;
+import org.geotoolkit.data.osm.model.MemberType;
+import org.geotoolkit.data.osm.model.Node;
+import org.geotoolkit.data.osm.model.Relation;
+import org.geotoolkit.data.osm.model.User;
+import org.geotoolkit.data.osm.model.Way;
+
+/**
+ * Decode an OSM PBF {@code PrimitiveBlock} in model elements, in the block order.<br/>
+ * A decoder is used for a single block and a single thread.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+final class PrimitiveBlockDecoder {
+
+    private static final MemberType[] MEMBER_TYPES = {MemberType.NODE, MemberType.WAY, MemberType.RELATION};
+
+    private String[] strings = new String[0];
+    private int granularity = 100;
+    private int dateGranularity = 1000;
+    private long latOffset = 0;
+    private long lonOffset = 0;
+
+    private final List<IdentifiedElement> elements = new ArrayList<>();
+
+    /**
+     * Caches of current element.
+     */
+    private final Map<String,String> tags = new LinkedHashMap<>();
+    private final LongArray keys = new LongArray();
+    private final LongArray vals = new LongArray();
+    private int version;
+    private long timestamp;
+    private long changeset;
+    private int uid;
+    private int userSid;
+
+    private PrimitiveBlockDecoder() {
+    }
+
+    /**
+     * Decode an uncompressed PrimitiveBlock message.
+     *
+     * @param data block bytes
+     * @return nodes, ways and relations of the block, in the block order
+     * @throws IOException if block is malformed
+     */
+    static List<IdentifiedElement> decode(final byte[] data) throws IOException {
+        final PrimitiveBlockDecoder decoder = new PrimitiveBlockDecoder();
+        //groups use the string table, which may be after them
+        final List<ProtobufInput> groups = new ArrayList<>();
+        final ProtobufInput in = new ProtobufInput(data);
+        while (in.nextField()) {
+            switch (in.getFieldNumber()) {
+                case 1 :  decoder.readStringTable(in.readMessage()); break;
+                case 2 :  groups.add(in.readMessage()); break;
+                case 17 : decoder.granularity = in.readInt32(); break;
+                case 18 : decoder.dateGranularity = in.readInt32(); break;
+                case 19 : decoder.latOffset = in.readInt64(); break;
+                case 20 : decoder.lonOffset = in.readInt64(); break;
+                default : in.skip();
+            }
+        }
+        for (ProtobufInput group : groups) {
+            decoder.readGroup(group);
+        }
+        return decoder.elements;
+    }
+
+    private void readStringTable(final ProtobufInput in) throws IOException {
+        final List<String> table = new ArrayList<>();
+        while (in.nextField()) {
+            if (in.getFieldNumber() == 1) {
+                table.add(in.readString());
+            } else {
+                in.skip();
+            }
+        }
+        strings = table.toArray(new String[table.size()]);
+    }
+
+    private String string(final long index) throws IOException {
+        if (index < 0 || index >= strings.length) {
+            throw new IOException("Invalid string table index : " + index);
+        }
+        return strings[(int) index];
+    }
+
+    private void readGroup(final ProtobufInput in) throws IOException {
+        while (in.nextField()) {
+            switch (in.getFieldNumber()) {
+                case 1 :  readNode(in.readMessage()); break;
+                case 2 :  readDenseNodes(in.readMessage()); break;
+                case 3 :  readWay(in.readMessage()); break;
+                case 4 :  readRelation(in.readMessage()); break;
+                default : in.skip();
+            }
+        }
+    }
+
+    private void resetCache() {
+        tags.clear();
+        keys.clear();
+        vals.clear();
+        version = -1;
+        timestamp = 0;
+        changeset = 0;
+        uid = User.USER_ID_NONE;
+        userSid = 0;
+    }
+
+    private void readInfo(final ProtobufInput in) throws IOException {
+        while (in.nextField()) {
+            switch (in.getFieldNumber()) {
+                case 1 :  version = in.readInt32(); break;
+                case 2 :  timestamp = in.readInt64(); break;
+                case 3 :  changeset = in.readInt64(); break;
+                case 4 :  uid = in.readInt32(); break;
+                case 5 :  userSid = in.readInt32(); break;
+                default : in.skip();
+            }
+        }
+    }
+
+    /**
+     * Fill tags map from keys and values string indexes.
+     */
+    private void fillTags() throws IOException {
+        final int n = Math.min(keys.size, vals.size);
+        for (int i = 0; i < n; i++) {
+            tags.put(string(keys.values[i]), string(vals.values[i]));
+        }
+    }
+
+    private User user() throws IOException {
+        return User.create(uid, (uid > 0) ? string(userSid) : null);
+    }
+
+    private double lat(final long value) {
+        return 1e-9 * (latOffset + (long) granularity * value);
+    }
+
+    private double lon(final long value) {
+        return 1e-9 * (lonOffset + (long) granularity * value);
+    }
+
+    private void readNode(final ProtobufInput in) throws IOException {
+        resetCache();
+        long id = 0;
+        long lat = 0;
+        long lon = 0;
+        while (in.nextField()) {
+            switch (in.getFieldNumber()) {
+                case 1 :  id = in.readSInt64(); break;
+                case 2 :  keys.read(in, false); break;
+                case 3 :  vals.read(in, false); break;
+                case 4 :  readInfo(in.readMessage()); break;
+                case 8 :  lat = in.readSInt64(); break;
+                case 9 :  lon = in.readSInt64(); break;
+                default : in.skip();
+            }
+        }
+        fillTags();
+        elements.add(new Node(lat(lat), lon(lon), id, version, (int) changeset, user(),
+                timestamp * dateGranularity, tags));
+    }
+
+    private void readDenseNodes(final ProtobufInput in) throws IOException {
+        final LongArray ids = new LongArray();
+        final LongArray lats = new LongArray();
+        final LongArray lons = new LongArray();
+        final LongArray keysVals = new LongArray();
+        final LongArray versions = new LongArray();
+        final LongArray timestamps = new LongArray();
+        final LongArray changesets = new LongArray();
+        final LongArray uids = new LongArray();
+        final LongArray userSids = new LongArray();
+
+        while (in.nextField()) {
+            switch (in.getFieldNumber()) {
+                case 1 :  ids.read(in, true); break;
+                case 5 : {
+                    final ProtobufInput info = in.readMessage();
+                    while (info.nextField()) {
+                        switch (info.getFieldNumber()) {
+                            case 1 :  versions.read(info, false); break;
+                            case 2 :  timestamps.read(info, true); break;
+                            case 3 :  changesets.read(info, true); break;
+                            case 4 :  uids.read(info, true); break;
+                            case 5 :  userSids.read(info, true); break;
+                            default : info.skip();
+                        }
+                    }
+                    break;
+                }
+                case 8 :  lats.read(in, true); break;
+                case 9 :  lons.read(in, true); break;
+                case 10 : keysVals.read(in, false); break;
+                default : in.skip();
+            }
+        }
+
+        if (lats.size != ids.size || lons.size != ids.size) {
+            throw new IOException("Dense nodes arrays have different sizes.");
+        }
+        final boolean hasInfo = versions.size == ids.size;
+        long id = 0, lat = 0, lon = 0, time = 0, cs = 0, user = 0, userString = 0;
+        int kv = 0;
+        for (int i = 0; i < ids.size; i++) {
+            resetCache();
+            id  += ids.values[i];
+            lat += lats.values[i];
+            lon += lons.values[i];
+            if (hasInfo) {
+                version = (int) versions.values[i];
+                if (i < timestamps.size) timestamp  = time += timestamps.values[i];
+                if (i < changesets.size) changeset  = cs += changesets.values[i];
+                if (i < uids.size)       uid        = (int) (user += uids.values[i]);
+                if (i < userSids.size)   userSid    = (int) (userString += userSids.values[i]);
+            }
+            //keys and values of all nodes, each node list ends with 0
+            while (kv < keysVals.size && keysVals.values[kv] != 0) {
+                if (kv + 1 >= keysVals.size) throw new IOException("Dense nodes keys without value.");
+                tags.put(string(keysVals.values[kv]), string(keysVals.values[kv + 1]));
+                kv += 2;
+            }
+            kv++;
+            elements.add(new Node(lat(lat), lon(lon), id, version, (int) changeset, user(),
+                    timestamp * dateGranularity, tags));
+        }
+    }
+
+    private void readWay(final ProtobufInput in) throws IOException {
+        resetCache();
+        long id = 0;
+        final LongArray refs = new LongArray();
+        while (in.nextField()) {
+            switch (in.getFieldNumber()) {
+                case 1 :  id = in.readInt64(); break;
+                case 2 :  keys.read(in, false); break;
+                case 3 :  vals.read(in, false); break;
+                case 4 :  readInfo(in.readMessage()); break;
+                case 8 :  refs.read(in, true); break;
+                default : in.skip();
+            }
+        }
+        fillTags();
+        final List<Long> nodes = new ArrayList<>(refs.size);
+        long ref = 0;
+        for (int i = 0; i < refs.size; i++) {
+            ref += refs.values[i];
+            nodes.add(ref);
+        }
+        elements.add(new Way(nodes, id, version, (int) changeset, user(), timestamp * dateGranularity, tags));
+    }
+
+    private void readRelation(final ProtobufInput in) throws IOException {
+        resetCache();
+        long id = 0;
+        final LongArray roles = new LongArray();
+        final LongArray memids = new LongArray();
+        final LongArray types = new LongArray();
+        while (in.nextField()) {
+            switch (in.getFieldNumber()) {
+                case 1 :  id = in.readInt64(); break;
+                case 2 :  keys.read(in, false); break;
+                case 3 :  vals.read(in, false); break;
+                case 4 :  readInfo(in.readMessage()); break;
+                case 8 :  roles.read(in, false); break;
+                case 9 :  memids.read(in, true); break;
+                case 10 : types.read(in, false); break;
+                default : in.skip();
+            }
+        }
+        if (roles.size != memids.size || types.size != memids.size) {
+            throw new IOException("Relation member arrays have different sizes.");
+        }
+        fillTags();
+        final List<Member> members = new ArrayList<>(memids.size);
+        long ref = 0;
+        for (int i = 0; i < memids.size; i++) {
+            ref += memids.values[i];
+            final long type = types.values[i];
+            if (type < 0 || type >= MEMBER_TYPES.length) {
+                throw new IOException("Invalid relation member type : " + type);
+            }
+            members.add(new Member(ref, MEMBER_TYPES[(int) type], string(roles.values[i])));
+        }
+        elements.add(new Relation(members, id, version, (int) changeset, user(), timestamp * dateGranularity, tags));
+    }
+
+    /**
+     * Growable array of repeated field values.
+     */
+    private static final class LongArray {
+        long[] values = new long[16];
+        int size = 0;
+
+        void clear() {
+            size = 0;
+        }
+
+        void add(final long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        /**
+         * Read a repeated field, packed or not.
+         *
+         * @param signed true for zigzag encoded values (sint32, sint64)
+         */
+        void read(final ProtobufInput in, final boolean signed) throws IOException {
+            if (in.isPacked()) {
+                final ProtobufInput packed = in.readMessage();
+                while (packed.hasRemaining()) {
+                    add(signed ? packed.readSInt64() : packed.readRawVarint());
+                }
+            } else {
+                add(signed ? in.readSInt64() : in.readRawVarint());
+            }
+        }
+    }
+}
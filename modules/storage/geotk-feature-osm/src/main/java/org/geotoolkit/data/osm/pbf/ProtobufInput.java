@@ -0,0 +1,164 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.osm.pbf;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal protocol buffer decoder over a byte array, only the wire types used by OSM PBF files.<br/>
+ * A message is read with a loop on {@link #nextField() } until it returns false, then the value
+ * of the field is read with the method matching its declared type, or skipped with {@link #skip() }.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+final class ProtobufInput {
+
+    static final int VARINT = 0;
+    static final int FIXED64 = 1;
+    static final int LENGTH_DELIMITED = 2;
+    static final int FIXED32 = 5;
+
+    private final byte[] buffer;
+    private int position;
+    private final int limit;
+
+    private int fieldNumber;
+    private int wireType;
+
+    ProtobufInput(final byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+    ProtobufInput(final byte[] buffer, final int offset, final int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    /**
+     * Move to next field of the message.
+     *
+     * @return false if the end of the message is reached
+     */
+    boolean nextField() throws IOException {
+        if (position >= limit) return false;
+        final long tag = readRawVarint();
+        fieldNumber = (int) (tag >>> 3);
+        wireType = (int) (tag & 0x7);
+        return true;
+    }
+
+    int getFieldNumber() {
+        return fieldNumber;
+    }
+
+    int getWireType() {
+        return wireType;
+    }
+
+    /**
+     * True if current field is a packed repeated field, false if it is a single value of a repeated field.
+     */
+    boolean isPacked() {
+        return wireType == LENGTH_DELIMITED;
+    }
+
+    boolean hasRemaining() {
+        return position < limit;
+    }
+
+    /**
+     * Skip current field value.
+     */
+    void skip() throws IOException {
+        switch (wireType) {
+            case VARINT :           readRawVarint(); break;
+            case FIXED64 :          position += 8; break;
+            case LENGTH_DELIMITED : position += readLength(); break;
+            case FIXED32 :          position += 4; break;
+            default : throw new IOException("Unsupported protobuf wire type : " + wireType);
+        }
+        if (position > limit) throw new IOException("Truncated protobuf message.");
+    }
+
+    long readRawVarint() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= limit) throw new IOException("Truncated protobuf message.");
+            final byte b = buffer[position++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IOException("Malformed protobuf varint.");
+    }
+
+    int readInt32() throws IOException {
+        return (int) readRawVarint();
+    }
+
+    long readInt64() throws IOException {
+        return readRawVarint();
+    }
+
+    int readSInt32() throws IOException {
+        final int n = (int) readRawVarint();
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    long readSInt64() throws IOException {
+        final long n = readRawVarint();
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    boolean readBool() throws IOException {
+        return readRawVarint() != 0;
+    }
+
+    private int readLength() throws IOException {
+        final int length = (int) readRawVarint();
+        if (length < 0 || position + length > limit) throw new IOException("Truncated protobuf message.");
+        return length;
+    }
+
+    String readString() throws IOException {
+        final int length = readLength();
+        final String str = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return str;
+    }
+
+    byte[] readBytes() throws IOException {
+        final int length = readLength();
+        final byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    /**
+     * Returns a decoder on the content of current length delimited field : an embedded message or a packed array.
+     */
+    ProtobufInput readMessage() throws IOException {
+        final int length = readLength();
+        final ProtobufInput input = new ProtobufInput(buffer, position, length);
+        position += length;
+        return input;
+    }
+
+}
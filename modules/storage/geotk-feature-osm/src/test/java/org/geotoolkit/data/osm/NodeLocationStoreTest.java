@@ -0,0 +1,117 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.osm;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link NodeLocationStore} modes.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public class NodeLocationStoreTest extends org.geotoolkit.test.TestBase {
+
+    private static final double DELTA = 1e-7;
+
+    private static double lat(final long id) {
+        return (id % 1800000) / 10000.0 - 90;
+    }
+
+    private static double lon(final long id) {
+        return ((id * 7) % 3600000) / 10000.0 - 180;
+    }
+
+    /**
+     * Store every third id from 0 to 300000, check all ids from 0 to 300000.
+     */
+    private static void test(final NodeLocationStore.Mode mode, final boolean shuffle) throws IOException {
+        final List<Long> ids = new ArrayList<>();
+        for (long id = 0; id < 300000; id += 3) {
+            ids.add(id);
+        }
+        if (shuffle) {
+            Collections.shuffle(ids, new Random(42));
+        }
+
+        try (NodeLocationStore store = new NodeLocationStore(mode)) {
+            for (Long id : ids) {
+                store.put(id, lat(id), lon(id));
+            }
+            store.finish();
+            assertEquals(ids.size(), store.getCount());
+
+            final double[] coords = new double[3];
+            for (long id = 0; id < 300000; id++) {
+                if (id % 3 == 0) {
+                    assertTrue(store.get(id, coords, 1));
+                    assertEquals(lon(id), coords[1], DELTA);
+                    assertEquals(lat(id), coords[2], DELTA);
+                } else {
+                    assertFalse(store.get(id, coords, 1));
+                }
+            }
+            assertFalse(store.get(-5, coords, 0));
+            assertFalse(store.get(300001, coords, 0));
+        }
+    }
+
+    @Test
+    public void sparseSortedTest() throws IOException {
+        test(NodeLocationStore.Mode.SPARSE, false);
+    }
+
+    @Test
+    public void sparseUnsortedTest() throws IOException {
+        test(NodeLocationStore.Mode.SPARSE, true);
+    }
+
+    @Test
+    public void denseTest() throws IOException {
+        test(NodeLocationStore.Mode.DENSE, true);
+    }
+
+    /**
+     * Zero and extreme coordinates are not confused with missing entries.
+     */
+    @Test
+    public void limitsTest() throws IOException {
+        for (NodeLocationStore.Mode mode : NodeLocationStore.Mode.values()) {
+            try (NodeLocationStore store = new NodeLocationStore(mode)) {
+                store.put(1, 0, 0);
+                store.put(2, -90, -180);
+                store.put(3, 90, 180);
+                store.finish();
+                final double[] coords = new double[2];
+                assertTrue(store.get(1, coords, 0));
+                assertArrayEquals(new double[]{0, 0}, coords, DELTA);
+                assertTrue(store.get(2, coords, 0));
+                assertArrayEquals(new double[]{-180, -90}, coords, DELTA);
+                assertTrue(store.get(3, coords, 0));
+                assertArrayEquals(new double[]{180, 90}, coords, DELTA);
+                assertFalse(store.get(0, coords, 0));
+            }
+        }
+    }
+}
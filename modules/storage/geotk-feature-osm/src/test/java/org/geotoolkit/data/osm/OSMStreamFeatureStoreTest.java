@@ -0,0 +1,89 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.osm;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.LineString;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.sis.storage.DataStoreException;
+import org.geotoolkit.data.FeatureReader;
+import org.geotoolkit.data.osm.model.Relation;
+import org.geotoolkit.data.query.QueryBuilder;
+import org.geotoolkit.feature.Feature;
+import org.junit.Test;
+import org.opengis.util.GenericName;
+
+import static org.junit.Assert.*;
+import static org.geotoolkit.data.osm.model.OSMModelConstants.*;
+
+/**
+ * Test {@link OSMStreamFeatureStore} reading.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public class OSMStreamFeatureStoreTest extends org.geotoolkit.test.TestBase {
+
+    private static final double DELTA = 1e-7;
+
+    private static List<Feature> readAll(final OSMStreamFeatureStore store, final GenericName name) throws DataStoreException {
+        final List<Feature> features = new ArrayList<>();
+        final FeatureReader reader = store.getFeatureReader(QueryBuilder.all(name));
+        try {
+            while (reader.hasNext()) {
+                features.add(reader.next());
+            }
+        } finally {
+            reader.close();
+        }
+        return features;
+    }
+
+    @Test
+    public void testReading() throws DataStoreException {
+        for (NodeLocationStore.Mode mode : NodeLocationStore.Mode.values()) {
+            final OSMStreamFeatureStore store = new OSMStreamFeatureStore(null,
+                    Paths.get("src/test/resources/org/geotoolkit/test-data/osm/sampleOSM.osm"), mode);
+            try {
+                assertEquals(3, store.getNames().size());
+                assertEquals(2, store.getNodeCount());
+
+                assertEquals(2, readAll(store, TYPE_NODE.getName()).size());
+                final List<Feature> relations = readAll(store, TYPE_RELATION.getName());
+                assertEquals(1, relations.size());
+                assertTrue(relations.get(0) instanceof Relation);
+
+                final List<Feature> ways = readAll(store, TYPE_WAY.getName());
+                assertEquals(1, ways.size());
+                final Feature way = ways.get(0);
+                assertEquals(27776903L, way.getPropertyValue("id"));
+                final LineString line = (LineString) way.getDefaultGeometryProperty().getValue();
+                assertNotNull(line);
+                final Coordinate[] coords = line.getCoordinates();
+                assertEquals(2, coords.length);
+                assertEquals(-0.1080108, coords[0].x, DELTA);
+                assertEquals(51.5074089, coords[0].y, DELTA);
+                assertEquals(-0.1076186, coords[1].x, DELTA);
+                assertEquals(51.5075933, coords[1].y, DELTA);
+            } finally {
+                store.close();
+            }
+        }
+    }
+}
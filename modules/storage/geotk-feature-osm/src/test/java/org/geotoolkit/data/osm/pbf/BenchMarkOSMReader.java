@@ -0,0 +1,86 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.osm.pbf;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.geotoolkit.data.osm.xml.OSMXMLReader;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compare {@link OSMXMLReader} and {@link OSMPBFReader} throughput on the same extract.<br/>
+ * Files are given with system properties, for example extracts downloaded from Geofabrik :
+ * {@code -Dosm.xml=/data/monaco.osm -Dosm.pbf=/data/monaco.osm.pbf}
+ *
+ * @author Johann Sorel (Geomatys)
+ */
+public class BenchMarkOSMReader {
+
+    private static final int NB_ITERATIONS = 5;
+
+    @Test
+    @Ignore
+    public void benchXMLTest() throws Exception {
+        final Path file = Paths.get(System.getProperty("osm.xml"));
+        for (int i = 0; i < NB_ITERATIONS; i++) {
+            final long start = System.nanoTime();
+            long count = 0;
+            final OSMXMLReader reader = new OSMXMLReader();
+            try {
+                reader.setInput(file);
+                while (reader.hasNext()) {
+                    reader.next();
+                    count++;
+                }
+            } finally {
+                reader.dispose();
+            }
+            print("xml", count, start);
+        }
+    }
+
+    @Test
+    @Ignore
+    public void benchPBFTest() throws Exception {
+        final Path file = Paths.get(System.getProperty("osm.pbf"));
+        final int nbProcs = Runtime.getRuntime().availableProcessors();
+        for (int nbThreads = 1; nbThreads <= nbProcs; nbThreads *= 2) {
+            for (int i = 0; i < NB_ITERATIONS; i++) {
+                final long start = System.nanoTime();
+                long count = 0;
+                final OSMPBFReader reader = new OSMPBFReader(nbThreads);
+                try {
+                    reader.setInput(file);
+                    while (reader.hasNext()) {
+                        reader.next();
+                        count++;
+                    }
+                } finally {
+                    reader.dispose();
+                }
+                print("pbf " + nbThreads + " threads", count, start);
+            }
+        }
+    }
+
+    private static void print(final String name, final long count, final long start) {
+        final long time = (System.nanoTime() - start) / 1000000;
+        System.out.println("stats " + name + " : " + count + " elements in " + time + " ms, "
+                + (count * 1000 / Math.max(1, time)) + " elements/s");
+    }
+}
@@ -0,0 +1,475 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.osm.pbf;
+
+import com.vividsolutions.jts.geom.LineString;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import javax.xml.stream.XMLStreamException;
+import org.apache.sis.storage.DataStoreException;
+import org.geotoolkit.data.FeatureReader;
+import org.geotoolkit.data.osm.NodeLocationStore;
+import org.geotoolkit.data.osm.OSMStreamFeatureStore;
+import org.geotoolkit.data.osm.model.IdentifiedElement;
+import org.geotoolkit.data.osm.model.Member;
+import org.geotoolkit.data.osm.model.Node;
+import org.geotoolkit.data.osm.model.Relation;
+import org.geotoolkit.data.osm.model.Tag;
+import org.geotoolkit.data.osm.model.Way;
+import org.geotoolkit.data.osm.xml.OSMXMLReader;
+import org.geotoolkit.data.query.QueryBuilder;
+import org.geotoolkit.feature.Feature;
+import org.junit.Test;
+import org.opengis.geometry.Envelope;
+
+import static org.junit.Assert.*;
+import static org.geotoolkit.data.osm.model.OSMModelConstants.*;
+
+/**
+ * Test {@link OSMPBFReader} on a PBF file encoded from the sample XML file.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public class OSMPBFReaderTest extends org.geotoolkit.test.TestBase {
+
+    private static final double DELTA = 1e-7;
+    private static final Path SAMPLE = Paths.get("src/test/resources/org/geotoolkit/test-data/osm/sampleOSM.osm");
+    private static final Path SAMPLE_PBF = Paths.get("src/test/resources/org/geotoolkit/test-data/osm/sampleOSM.osm.pbf");
+
+    private static List<IdentifiedElement> readXML() throws IOException, XMLStreamException {
+        final List<IdentifiedElement> elements = new ArrayList<>();
+        final OSMXMLReader reader = new OSMXMLReader();
+        try {
+            reader.setInput(SAMPLE);
+            while (reader.hasNext()) {
+                elements.add((IdentifiedElement) reader.next());
+            }
+        } finally {
+            reader.dispose();
+        }
+        return elements;
+    }
+
+    private static List<IdentifiedElement> readPBF(final Path file, final int nbThreads) throws IOException {
+        final List<IdentifiedElement> elements = new ArrayList<>();
+        final OSMPBFReader reader = new OSMPBFReader(nbThreads);
+        try {
+            reader.setInput(file);
+            while (reader.hasNext()) {
+                elements.add(reader.next());
+            }
+            assertNull(reader.next());
+        } finally {
+            reader.dispose();
+        }
+        return elements;
+    }
+
+    private static void assertSampleEnvelope(final Path file, final int nbThreads) throws IOException {
+        final OSMPBFReader reader = new OSMPBFReader(nbThreads);
+        reader.setInput(file);
+        final Envelope env = reader.getEnvelope();
+        reader.dispose();
+        assertNotNull(env);
+        assertEquals(-0.108157396316528d, env.getMinimum(0), DELTA);
+        assertEquals(-0.107599496841431d, env.getMaximum(0), DELTA);
+        assertEquals(51.5073601795557d, env.getMinimum(1), DELTA);
+        assertEquals(51.5076406454029d, env.getMaximum(1), DELTA);
+    }
+
+    private static void assertSameElements(final List<IdentifiedElement> expected, final List<IdentifiedElement> elements) {
+        assertEquals(expected.size(), elements.size());
+        for (int i = 0; i < expected.size(); i++) {
+            final IdentifiedElement exp = expected.get(i);
+            final IdentifiedElement res = elements.get(i);
+            assertEquals(exp.getClass(), res.getClass());
+            if (exp instanceof Node) {
+                //coordinates are stored with a limited precision
+                assertEquals(((Node) exp).getLatitude(), ((Node) res).getLatitude(), DELTA);
+                assertEquals(((Node) exp).getLongitude(), ((Node) res).getLongitude(), DELTA);
+                assertEquals(exp.getId(), res.getId());
+                assertEquals(exp.getVersion(), res.getVersion());
+                assertEquals(exp.getChangeset(), res.getChangeset());
+                assertEquals(exp.getUser(), res.getUser());
+                assertEquals(exp.getTimestamp(), res.getTimestamp());
+                assertEquals(exp.getTags(), res.getTags());
+            } else {
+                assertEquals(exp, res);
+            }
+        }
+    }
+
+    /**
+     * Read a PBF file which was not produced by the test encoder.
+     * The file holds the sample XML content, encoded with zlib blobs and
+     * dense nodes, ways and relations in a single block.
+     */
+    @Test
+    public void testReadingFile() throws IOException, XMLStreamException {
+        final List<IdentifiedElement> expected = readXML();
+        for (int nbThreads = 1; nbThreads <= 4; nbThreads++) {
+            assertSampleEnvelope(SAMPLE_PBF, nbThreads);
+            assertSameElements(expected, readPBF(SAMPLE_PBF, nbThreads));
+        }
+    }
+
+    @Test
+    public void testReading() throws IOException, XMLStreamException {
+        final List<IdentifiedElement> expected = readXML();
+        final Path file = Files.createTempFile("sample", ".osm.pbf");
+        try {
+            writePBF(expected, file);
+
+            for (int nbThreads = 1; nbThreads <= 4; nbThreads++) {
+                assertSampleEnvelope(file, nbThreads);
+                assertSameElements(expected, readPBF(file, nbThreads));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testFeatureStore() throws IOException, XMLStreamException, DataStoreException {
+        final Path file = Files.createTempFile("sample", ".osm.pbf");
+        try {
+            writePBF(readXML(), file);
+            final OSMStreamFeatureStore store = new OSMStreamFeatureStore(null, file, NodeLocationStore.Mode.SPARSE);
+            try {
+                assertEquals(2, store.getNodeCount());
+                final FeatureReader reader = store.getFeatureReader(QueryBuilder.all(TYPE_WAY.getName()));
+                try {
+                    assertTrue(reader.hasNext());
+                    final Feature way = reader.next();
+                    assertEquals(27776903L, way.getPropertyValue("id"));
+                    final LineString line = (LineString) way.getDefaultGeometryProperty().getValue();
+                    assertEquals(2, line.getNumPoints());
+                    assertEquals(-0.1080108, line.getCoordinateN(0).x, DELTA);
+                    assertEquals(51.5074089, line.getCoordinateN(0).y, DELTA);
+                    assertFalse(reader.hasNext());
+                } finally {
+                    reader.close();
+                }
+            } finally {
+                store.close();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnsupportedFeature() throws IOException {
+        final ProtobufWriter header = new ProtobufWriter();
+        header.writeString(4, "OsmSchema-V0.6");
+        header.writeString(4, "SomeFutureFeature");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeBlob(new DataOutputStream(out), "OSMHeader", header.toByteArray());
+
+        final OSMPBFReader reader = new OSMPBFReader(1);
+        try {
+            reader.setInput(new ByteArrayInputStream(out.toByteArray()));
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * The input must be closed when the header can not be read.
+     */
+    @Test
+    public void testInvalidHeaderClosesInput() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeBlob(new DataOutputStream(out), "OSMData", new byte[0]);
+        final boolean[] closed = new boolean[1];
+        final ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray()) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+                super.close();
+            }
+        };
+
+        final OSMPBFReader reader = new OSMPBFReader(1);
+        try {
+            reader.setInput(in);
+            fail("Invalid header should have been raised.");
+        } catch (IOException ex) {
+            //ok
+        }
+        assertTrue(closed[0]);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // minimal PBF encoder /////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Write elements in a PBF file : nodes as dense nodes in a first block,
+     * ways and relations in a second block.
+     */
+    static void writePBF(final List<IdentifiedElement> elements, final Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            final ProtobufWriter bbox = new ProtobufWriter();
+            bbox.writeSInt64(1, Math.round(-0.108157396316528 * 1e9));
+            bbox.writeSInt64(2, Math.round(-0.107599496841431 * 1e9));
+            bbox.writeSInt64(3, Math.round(51.5076406454029 * 1e9));
+            bbox.writeSInt64(4, Math.round(51.5073601795557 * 1e9));
+            final ProtobufWriter header = new ProtobufWriter();
+            header.writeMessage(1, bbox);
+            header.writeString(4, "OsmSchema-V0.6");
+            header.writeString(4, "DenseNodes");
+            writeBlob(out, "OSMHeader", header.toByteArray());
+
+            final List<Node> nodes = new ArrayList<>();
+            final List<IdentifiedElement> others = new ArrayList<>();
+            for (IdentifiedElement element : elements) {
+                if (element instanceof Node) nodes.add((Node) element);
+                else others.add(element);
+            }
+            writeBlob(out, "OSMData", denseBlock(nodes));
+            writeBlob(out, "OSMData", block(others));
+        }
+    }
+
+    private static void writeBlob(final DataOutputStream out, final String type, final byte[] data) throws IOException {
+        final Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        final ByteArrayOutputStream zlib = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        while (!deflater.finished()) {
+            zlib.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+
+        final ProtobufWriter blob = new ProtobufWriter();
+        blob.writeVarint(2, data.length);
+        blob.writeBytes(3, zlib.toByteArray());
+        final byte[] blobBytes = blob.toByteArray();
+
+        final ProtobufWriter header = new ProtobufWriter();
+        header.writeString(1, type);
+        header.writeVarint(3, blobBytes.length);
+        final byte[] headerBytes = header.toByteArray();
+
+        out.writeInt(headerBytes.length);
+        out.write(headerBytes);
+        out.write(blobBytes);
+    }
+
+    private static byte[] denseBlock(final List<Node> nodes) throws IOException {
+        final StringTable strings = new StringTable();
+        final ProtobufWriter ids = new ProtobufWriter();
+        final ProtobufWriter lats = new ProtobufWriter();
+        final ProtobufWriter lons = new ProtobufWriter();
+        final ProtobufWriter keysVals = new ProtobufWriter();
+        final ProtobufWriter versions = new ProtobufWriter();
+        final ProtobufWriter timestamps = new ProtobufWriter();
+        final ProtobufWriter changesets = new ProtobufWriter();
+        final ProtobufWriter uids = new ProtobufWriter();
+        final ProtobufWriter userSids = new ProtobufWriter();
+        long id = 0, lat = 0, lon = 0, time = 0, cs = 0, uid = 0, userSid = 0;
+        for (Node node : nodes) {
+            final long nlat = Math.round(node.getLatitude() * 1e7);
+            final long nlon = Math.round(node.getLongitude() * 1e7);
+            final long ntime = node.getTimestamp() / 1000;
+            final long nuserSid = strings.index(node.getUser().getUserName());
+            ids.writeRawSInt64(node.getId() - id);
+            lats.writeRawSInt64(nlat - lat);
+            lons.writeRawSInt64(nlon - lon);
+            versions.writeRawVarint(node.getVersion());
+            timestamps.writeRawSInt64(ntime - time);
+            changesets.writeRawSInt64(node.getChangeset() - cs);
+            uids.writeRawSInt64(node.getUser().getId() - uid);
+            userSids.writeRawSInt64(nuserSid - userSid);
+            for (Tag tag : node.getTags()) {
+                keysVals.writeRawVarint(strings.index(tag.getK()));
+                keysVals.writeRawVarint(strings.index(tag.getV()));
+            }
+            keysVals.writeRawVarint(0);
+            id = node.getId(); lat = nlat; lon = nlon; time = ntime;
+            cs = node.getChangeset(); uid = node.getUser().getId(); userSid = nuserSid;
+        }
+        final ProtobufWriter info = new ProtobufWriter();
+        info.writePacked(1, versions);
+        info.writePacked(2, timestamps);
+        info.writePacked(3, changesets);
+        info.writePacked(4, uids);
+        info.writePacked(5, userSids);
+        final ProtobufWriter dense = new ProtobufWriter();
+        dense.writePacked(1, ids);
+        dense.writeMessage(5, info);
+        dense.writePacked(8, lats);
+        dense.writePacked(9, lons);
+        dense.writePacked(10, keysVals);
+        final ProtobufWriter group = new ProtobufWriter();
+        group.writeMessage(2, dense);
+        return primitiveBlock(strings, group);
+    }
+
+    private static byte[] block(final List<IdentifiedElement> elements) throws IOException {
+        final StringTable strings = new StringTable();
+        final ProtobufWriter group = new ProtobufWriter();
+        for (IdentifiedElement element : elements) {
+            final ProtobufWriter msg = new ProtobufWriter();
+            msg.writeVarint(1, element.getId());
+            final ProtobufWriter keys = new ProtobufWriter();
+            final ProtobufWriter vals = new ProtobufWriter();
+            for (Tag tag : element.getTags()) {
+                keys.writeRawVarint(strings.index(tag.getK()));
+                vals.writeRawVarint(strings.index(tag.getV()));
+            }
+            msg.writePacked(2, keys);
+            msg.writePacked(3, vals);
+            final ProtobufWriter info = new ProtobufWriter();
+            info.writeVarint(1, element.getVersion());
+            info.writeVarint(2, element.getTimestamp() / 1000);
+            info.writeVarint(3, element.getChangeset());
+            info.writeVarint(4, element.getUser().getId());
+            info.writeVarint(5, strings.index(element.getUser().getUserName()));
+            msg.writeMessage(4, info);
+            if (element instanceof Way) {
+                final ProtobufWriter refs = new ProtobufWriter();
+                long ref = 0;
+                for (Long id : ((Way) element).getNodesIds()) {
+                    refs.writeRawSInt64(id - ref);
+                    ref = id;
+                }
+                msg.writePacked(8, refs);
+                group.writeMessage(3, msg);
+            } else {
+                final ProtobufWriter roles = new ProtobufWriter();
+                final ProtobufWriter memids = new ProtobufWriter();
+                final ProtobufWriter types = new ProtobufWriter();
+                long ref = 0;
+                for (Member member : ((Relation) element).getMembers()) {
+                    roles.writeRawVarint(strings.index(member.getRole()));
+                    memids.writeRawSInt64(member.getReference() - ref);
+                    ref = member.getReference();
+                    switch (member.getMemberType()) {
+                        case NODE : types.writeRawVarint(0); break;
+                        case WAY :  types.writeRawVarint(1); break;
+                        default :   types.writeRawVarint(2); break;
+                    }
+                }
+                msg.writePacked(8, roles);
+                msg.writePacked(9, memids);
+                msg.writePacked(10, types);
+                group.writeMessage(4, msg);
+            }
+        }
+        return primitiveBlock(strings, group);
+    }
+
+    private static byte[] primitiveBlock(final StringTable strings, final ProtobufWriter group) throws IOException {
+        final ProtobufWriter table = new ProtobufWriter();
+        for (String str : strings.strings.keySet()) {
+            table.writeString(1, str);
+        }
+        final ProtobufWriter block = new ProtobufWriter();
+        //group before string table, the decoder must not depend on field order
+        block.writeMessage(2, group);
+        block.writeMessage(1, table);
+        return block.toByteArray();
+    }
+
+    /**
+     * Block string table, index 0 is reserved as delimiter.
+     */
+    private static final class StringTable {
+        private final Map<String,Integer> strings = new LinkedHashMap<>();
+
+        private StringTable() {
+            strings.put("", 0);
+        }
+
+        private int index(final String str) {
+            if (str == null) return 0;
+            Integer index = strings.get(str);
+            if (index == null) {
+                index = strings.size();
+                strings.put(str, index);
+            }
+            return index;
+        }
+    }
+
+    private static final class ProtobufWriter {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        void writeRawVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        void writeRawSInt64(final long value) {
+            writeRawVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeTag(final int field, final int wireType) {
+            writeRawVarint((field << 3) | wireType);
+        }
+
+        void writeVarint(final int field, final long value) {
+            writeTag(field, ProtobufInput.VARINT);
+            writeRawVarint(value);
+        }
+
+        void writeSInt64(final int field, final long value) {
+            writeTag(field, ProtobufInput.VARINT);
+            writeRawSInt64(value);
+        }
+
+        void writeBytes(final int field, final byte[] bytes) throws IOException {
+            writeTag(field, ProtobufInput.LENGTH_DELIMITED);
+            writeRawVarint(bytes.length);
+            out.write(bytes);
+        }
+
+        void writeString(final int field, final String str) throws IOException {
+            writeBytes(field, str.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void writeMessage(final int field, final ProtobufWriter msg) throws IOException {
+            writeBytes(field, msg.toByteArray());
+        }
+
+        void writePacked(final int field, final ProtobufWriter values) throws IOException {
+            if (values.out.size() > 0) writeMessage(field, values);
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
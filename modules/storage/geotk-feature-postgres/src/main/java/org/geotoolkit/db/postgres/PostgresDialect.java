@@ -25,13 +25,16 @@ import com.vividsolutions.jts.geom.MultiPoint;
 import com.vividsolutions.jts.geom.MultiPolygon;
 import com.vividsolutions.jts.geom.Point;
 import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.io.ByteOrderValues;
 import com.vividsolutions.jts.io.ParseException;
 import com.vividsolutions.jts.io.WKBReader;
+import com.vividsolutions.jts.io.WKBWriter;
 import java.io.IOException;
 import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.Date;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -679,6 +682,180 @@ final class PostgresDialect extends AbstractSQLDialect{
         }
     }
     
+    @Override
+    public void encodeGeometryParameter(StringBuilder sql) {
+        sql.append("st_geomfromewkb(?)");
+    }
+
+    @Override
+    public void setValueParameter(PreparedStatement stmt, int index, Object value, Class type) throws SQLException {
+        if (value == null || value instanceof Number || value instanceof Boolean
+                || value instanceof String || value instanceof byte[] || value instanceof java.util.Date) {
+            super.setValueParameter(stmt, index, value, type);
+        } else {
+            //arrays and unknown types, send their literal form and let postgres cast it to column type
+            final StringBuilder sb = new StringBuilder();
+            ((PostgresFilterToSQL) getFilterToSQL(null)).writeValue(sb, value, -1);
+            String literal = sb.toString();
+            if (literal.length() > 1 && literal.charAt(0) == '\'' && literal.charAt(literal.length()-1) == '\'') {
+                literal = literal.substring(1, literal.length()-1).replace("''", "'");
+            }
+            stmt.setObject(index, literal, Types.OTHER);
+        }
+    }
+
+    @Override
+    public void setGeometryParameter(PreparedStatement stmt, int index, Geometry value, int srid)
+            throws SQLException, DataStoreException {
+        if (value != null && value.isEmpty() && ((Comparable)getVersion(null).getMajor()).compareTo((Comparable)Integer.valueOf(2)) < 0) {
+            //empty geometries are interpreted as Geometrycollection in postgis < 2
+            //this breaks the column geometry type constraint so we replace those by null
+            value = null;
+        }
+        if (value == null) {
+            stmt.setNull(index, Types.BINARY);
+            return;
+        }
+        if (value instanceof LinearRing) {
+            //postgis does not handle linear rings, convert to just a line string
+            value = value.getFactory().createLineString(((LinearRing) value).getCoordinateSequence());
+        }
+        if (srid > 0 && value.getSRID() != srid) {
+            value = (Geometry) value.clone();
+            value.setSRID(srid);
+        }
+        //same dimension as wkt encoding of literal values
+        final WKBWriter writer = new WKBWriter(2, ByteOrderValues.BIG_ENDIAN, srid > 0);
+        stmt.setBytes(index, writer.write(value));
+    }
+
+    /**
+     * Test if values of given binding can be written in a COPY CSV stream.
+     * Coverages and unknown types are not supported.
+     *
+     * @param binding attribute binding
+     * @return true if values can be encoded with {@link #encodeCopyValue(java.lang.StringBuilder, java.lang.Object) }
+     */
+    boolean isCopySupported(Class binding) {
+        while (binding.isArray()) {
+            binding = binding.getComponentType();
+        }
+        return binding.isPrimitive() || Number.class.isAssignableFrom(binding) || Boolean.class.isAssignableFrom(binding)
+            || CharSequence.class.isAssignableFrom(binding) || java.util.Date.class.isAssignableFrom(binding)
+            || Geometry.class.isAssignableFrom(binding);
+    }
+
+    /**
+     * Encode a value as a COPY CSV field.<br/>
+     * Null is an empty unquoted field, other values are quoted in their postgres text form.
+     *
+     * @param sb buffer where to append the field
+     * @param value value to encode
+     */
+    void encodeCopyValue(StringBuilder sb, Object value) {
+        final String text;
+        if (value == null) {
+            return;
+        } else if (value instanceof Number || value instanceof Boolean || value instanceof CharSequence
+                || value instanceof Date || value instanceof Time || value instanceof Timestamp) {
+            //Double and Float NaN text is accepted by postgres
+            text = value.toString();
+        } else if (value instanceof java.util.Date) {
+            //convert it to a timestamp, string representation won't be ambiguious like dates toString()
+            text = new Timestamp(((java.util.Date) value).getTime()).toString();
+        } else if (value instanceof byte[]) {
+            text = "\\x" + WKBWriter.toHex((byte[]) value);
+        } else {
+            //arrays, same literal as prepared statements
+            final StringBuilder literal = new StringBuilder();
+            ((PostgresFilterToSQL) getFilterToSQL(null)).writeValue(literal, value, -1);
+            String str = literal.toString();
+            if (str.length() > 1 && str.charAt(0) == '\'' && str.charAt(str.length()-1) == '\'') {
+                str = str.substring(1, str.length()-1).replace("''", "'");
+            }
+            text = str;
+        }
+        sb.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+
+    /**
+     * Encode a geometry as a COPY CSV field, in hexadecimal EWKB.
+     *
+     * @param sb buffer where to append the field
+     * @param value geometry to encode, can be null
+     * @param srid geometry srid
+     */
+    void encodeCopyGeometry(StringBuilder sb, Geometry value, int srid) throws DataStoreException {
+        if (value != null && value.isEmpty() && ((Comparable)getVersion(null).getMajor()).compareTo((Comparable)Integer.valueOf(2)) < 0) {
+            //empty geometries are interpreted as Geometrycollection in postgis < 2
+            //this breaks the column geometry type constraint so we replace those by null
+            value = null;
+        }
+        if (value == null) {
+            return;
+        }
+        if (value instanceof LinearRing) {
+            //postgis does not handle linear rings, convert to just a line string
+            value = value.getFactory().createLineString(((LinearRing) value).getCoordinateSequence());
+        }
+        if (srid > 0 && value.getSRID() != srid) {
+            value = (Geometry) value.clone();
+            value.setSRID(srid);
+        }
+        final WKBWriter writer = new WKBWriter(2, ByteOrderValues.BIG_ENDIAN, srid > 0);
+        sb.append(WKBWriter.toHex(writer.write(value)));
+    }
+
+    /**
+     * Get the sequence feeding a serial column.
+     *
+     * @param column auto generated column
+     * @return sequence name, or null if column values do not come from a sequence.
+     */
+    String getSerialSequence(final ColumnMetaModel column, final Connection cx) throws SQLException {
+        final StringBuilder table = new StringBuilder();
+        encodeSchemaAndTableName(table, column.getSchema(), column.getTable());
+        final PreparedStatement st = cx.prepareStatement("SELECT pg_get_serial_sequence(?, ?)");
+        ResultSet rs = null;
+        try {
+            st.setString(1, table.toString());
+            st.setString(2, column.getName());
+            rs = st.executeQuery();
+            return rs.next() ? rs.getString(1) : null;
+        } finally {
+            JDBCFeatureStoreUtilities.closeSafe(featurestore.getLogger(), null,st,rs);
+        }
+    }
+
+    /**
+     * Reserve several values of a sequence in one query.
+     *
+     * @param sequenceName sequence name
+     * @param count number of values
+     * @return reserved values
+     */
+    long[] nextValues(final String sequenceName, final int count, final Connection cx) throws SQLException {
+        final long[] values = new long[count];
+        if (count == 0) return values;
+        final PreparedStatement st = cx.prepareStatement("SELECT nextval(?::regclass) FROM generate_series(1, ?)");
+        ResultSet rs = null;
+        try {
+            st.setString(1, sequenceName);
+            st.setInt(2, count);
+            rs = st.executeQuery();
+            int i = 0;
+            while (i < count && rs.next()) {
+                values[i++] = rs.getLong(1);
+            }
+            if (i < count) {
+                throw new SQLException("Sequence "+sequenceName+" returned "+i+" values, "+count+" expected.");
+            }
+        } finally {
+            JDBCFeatureStoreUtilities.closeSafe(featurestore.getLogger(), null,st,rs);
+        }
+        return values;
+    }
+
     @Override
     public void encodePrimaryKey(StringBuilder sql, Class binding, String sqlType) {
         if(Integer.class.isAssignableFrom(binding) || Short.class.isAssignableFrom(binding)){
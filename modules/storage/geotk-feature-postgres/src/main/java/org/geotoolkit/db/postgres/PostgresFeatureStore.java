@@ -16,17 +16,32 @@
  */
 package org.geotoolkit.db.postgres;
 
+import com.vividsolutions.jts.geom.Geometry;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Level;
 import org.geotoolkit.data.query.DefaultQueryCapabilities;
 import org.geotoolkit.data.query.Query;
 import org.geotoolkit.data.query.QueryCapabilities;
 import org.geotoolkit.db.DefaultJDBCFeatureStore;
 import org.geotoolkit.db.JDBCFeatureStoreUtilities;
 import org.geotoolkit.db.dialect.SQLQueryBuilder;
+import org.geotoolkit.db.reverse.ColumnMetaModel;
+import org.geotoolkit.db.reverse.PrimaryKey;
+import org.geotoolkit.factory.Hints;
+import org.geotoolkit.feature.ComplexAttribute;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.Property;
+import org.geotoolkit.feature.simple.SimpleFeatureType;
+import org.geotoolkit.feature.type.ComplexType;
+import org.geotoolkit.feature.type.PropertyDescriptor;
 import org.geotoolkit.internal.sql.ScriptRunner;
 import org.apache.sis.storage.DataStoreException;
 import org.geotoolkit.parameter.Parameters;
@@ -34,7 +49,10 @@ import org.geotoolkit.version.VersionControl;
 import org.geotoolkit.version.VersioningException;
 import org.geotoolkit.feature.type.FeatureType;
 import org.opengis.util.GenericName;
+import org.opengis.filter.identity.FeatureId;
 import org.opengis.parameter.ParameterValueGroup;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 
 /**
  * Extends default jdbc feature store with versioning and subsampling capabilities.
@@ -44,10 +62,17 @@ import org.opengis.parameter.ParameterValueGroup;
 public class PostgresFeatureStore extends DefaultJDBCFeatureStore{
     
     private static final QueryCapabilities PG_CAPA = new DefaultQueryCapabilities(false, true, new String[]{Query.GEOTK_QOM, CUSTOM_SQL});
-    
+
+    /**
+     * Size of CSV text accumulated before sending it to a COPY stream.
+     */
+    private static final int COPY_BUFFER_SIZE = 65536;
+
     //historisation informations
     private Boolean hasHSFunctions;
     private PostgresQueryBuilder querybuilder = null;
+    //insert features with COPY statements
+    private boolean copyInsert = false;
     
     public PostgresFeatureStore(String host, int port, String database, String schema, String user, String password) throws DataStoreException {
         super(toParameters(host,port,database,schema,user,password), PostgresFeatureStoreFactory.NAME);
@@ -83,6 +108,217 @@ public class PostgresFeatureStore extends DefaultJDBCFeatureStore{
         return querybuilder;
     }
     
+    /**
+     * Indicate if features are inserted with COPY statements.
+     *
+     * @return true if bulk loading mode is enabled
+     */
+    public boolean isCopyInsert() {
+        return copyInsert;
+    }
+
+    /**
+     * Enable or disable bulk loading mode.<br/>
+     * When enabled, features are streamed to the database with {@code COPY ... FROM STDIN} statements
+     * in CSV format, geometries are written in hexadecimal EWKB. Each batch of
+     * {@link #getInsertBatchSize() } features is sent with one COPY statement, so larger batch sizes
+     * than the default are recommended. All batches of an add features call are committed together,
+     * or all rolled back if one fails.<br/>
+     * Complex types and types with coverage or unknown attribute bindings are inserted
+     * with the normal insert statements.
+     *
+     * <blockquote><font size=-1>
+     * <strong>NOTE: serial primary key values are reserved from their sequence before each COPY,
+     * key columns with database defaults not backed by a sequence use normal insert statements.</strong>
+     * </font></blockquote>
+     *
+     * @param copyInsert true to insert features with COPY statements
+     */
+    public void setCopyInsert(boolean copyInsert) {
+        this.copyInsert = copyInsert;
+    }
+
+    /**
+     * {@inheritDoc }
+     *
+     * In bulk loading mode, all features are inserted in a single transaction
+     * when no connection is given.
+     */
+    @Override
+    protected List<FeatureId> handleAddWithFeatureWriter(final GenericName groupName, final Collection<? extends Feature> newFeatures,
+            final Connection cnx, final Hints hints) throws DataStoreException {
+        if (!copyInsert || cnx != null) {
+            //given connection transaction is managed by caller
+            return super.handleAddWithFeatureWriter(groupName, newFeatures, cnx, hints);
+        }
+
+        Connection cx = null;
+        boolean autoCommit = true;
+        try {
+            cx = getDataSource().getConnection();
+            autoCommit = cx.getAutoCommit();
+            cx.setAutoCommit(false);
+            final List<FeatureId> ids;
+            try {
+                ids = super.handleAddWithFeatureWriter(groupName, newFeatures, cx, hints);
+                cx.commit();
+            } catch (DataStoreException | RuntimeException ex) {
+                cx.rollback();
+                throw ex;
+            }
+            fireFeaturesAdded(groupName, null);
+            return ids;
+        } catch (SQLException ex) {
+            throw new DataStoreException("Error inserting features : "+ex.getMessage(), ex);
+        } finally {
+            if (cx != null) {
+                try {
+                    cx.setAutoCommit(autoCommit);
+                } catch (SQLException ex) {
+                    getLogger().log(Level.WARNING, ex.getMessage(), ex);
+                }
+            }
+            JDBCFeatureStoreUtilities.closeSafe(getLogger(), cx);
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     *
+     * In bulk loading mode, features are sent with a COPY statement.
+     */
+    @Override
+    protected void insert(final Collection<? extends ComplexAttribute> features, final ComplexType featureType,
+            final Connection cx) throws DataStoreException {
+        if (!copyInsert || features.isEmpty() || !(featureType instanceof SimpleFeatureType) || hasCoverage(featureType)) {
+            super.insert(features, featureType, cx);
+            return;
+        }
+
+        final PostgresDialect dialect = (PostgresDialect) getDialect();
+        final PrimaryKey key = getDatabaseModel().getPrimaryKey(featureType.getName());
+        final List<ColumnMetaModel> keyColumns = key.getColumns();
+
+        final List<Object[]> keys = new ArrayList<>(features.size());
+        String sql = null;
+        // we do this in a synchronized block because key values are computed
+        // from database before the copy statement
+        synchronized (this) {
+            try {
+                if (!cx.isWrapperFor(PGConnection.class)) {
+                    getLogger().log(Level.FINE, "Connection does not support COPY, using insert statements.");
+                    super.insert(features, featureType, cx);
+                    return;
+                }
+
+                //values of serial key columns are reserved from their sequence
+                final String[] sequences = new String[keyColumns.size()];
+                for (int k=0; k<sequences.length; k++) {
+                    final ColumnMetaModel column = keyColumns.get(k);
+                    if (column.getType() == ColumnMetaModel.Type.AUTO) {
+                        sequences[k] = dialect.getSerialSequence(column, cx);
+                        if (sequences[k] == null) {
+                            super.insert(features, featureType, cx);
+                            return;
+                        }
+                    }
+                }
+
+                final List<PropertyDescriptor> columns = new ArrayList<>();
+                for (PropertyDescriptor desc : featureType.getDescriptors()) {
+                    if (!dialect.isCopySupported(desc.getType().getBinding())) {
+                        super.insert(features, featureType, cx);
+                        return;
+                    }
+                    columns.add(desc);
+                }
+
+                //compute all key values before starting the copy, no other query can be made while copying
+                final Object[] lastGenerated = new Object[keyColumns.size()];
+                for (ComplexAttribute feature : features) {
+                    keys.add(nextPrimaryKeyValues(keyColumns, feature, lastGenerated, cx));
+                }
+                for (int k=0; k<sequences.length; k++) {
+                    if (sequences[k] == null) continue;
+                    final long[] values = dialect.nextValues(sequences[k], keys.size(), cx);
+                    final Class clazz = keyColumns.get(k).getJavaType();
+                    for (int i=0; i<values.length; i++) {
+                        if (clazz == Integer.class) {
+                            keys.get(i)[k] = (int) values[i];
+                        } else if (clazz == Short.class) {
+                            keys.get(i)[k] = (short) values[i];
+                        } else {
+                            keys.get(i)[k] = values[i];
+                        }
+                    }
+                }
+
+                sql = ((PostgresQueryBuilder) getQueryBuilder()).copySQL(featureType, columns);
+                getLogger().log(Level.FINE, "Copying features: {0}", sql);
+                final CopyIn copy = cx.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+                try {
+                    final StringBuilder csv = new StringBuilder();
+                    int i = 0;
+                    for (ComplexAttribute feature : features) {
+                        final Object[] keyValues = keys.get(i++);
+                        for (PropertyDescriptor desc : columns) {
+                            final String attName = desc.getName().tip().toString();
+                            final int k = indexOf(keyColumns, attName);
+                            final Object value = (k >= 0) ? keyValues[k] : feature.getProperty(attName).getValue();
+                            if (value instanceof Geometry) {
+                                final Geometry geom = (Geometry) value;
+                                dialect.encodeCopyGeometry(csv, geom, SQLQueryBuilder.getGeometrySRID(geom, desc));
+                            } else {
+                                dialect.encodeCopyValue(csv, value);
+                            }
+                            csv.append(',');
+                        }
+                        csv.setCharAt(csv.length() - 1, '\n');
+                        if (csv.length() >= COPY_BUFFER_SIZE) {
+                            writeToCopy(copy, csv);
+                        }
+                    }
+                    writeToCopy(copy, csv);
+                    copy.endCopy();
+                } finally {
+                    if (copy.isActive()) {
+                        copy.cancelCopy();
+                    }
+                }
+            } catch (SQLException ex) {
+                throw new DataStoreException("Error inserting features : "+ex.getMessage()+"\nSQL Query :"+sql, ex);
+            }
+
+            //report key values and feature ids
+            int i = 0;
+            for (ComplexAttribute feature : features) {
+                final Object[] keyValues = keys.get(i++);
+                for (int k=0,n=keyColumns.size(); k<n; k++) {
+                    final Property prop = feature.getProperty(keyColumns.get(k).getName());
+                    if (prop != null) {
+                        prop.setValue(keyValues[k]);
+                    }
+                }
+                //report the feature id as user data since we cant set the fid
+                feature.getUserData().put("fid", featureType.getName().tip().toString() + "." + PrimaryKey.encodeFID(keyValues));
+            }
+        }
+
+        try {
+            if (cx.getAutoCommit()) {
+                fireFeaturesAdded(featureType.getName(), null);
+            }
+        } catch (SQLException ex) {
+            throw new DataStoreException(ex.getMessage(), ex);
+        }
+    }
+
+    private static void writeToCopy(final CopyIn copy, final StringBuilder csv) throws SQLException {
+        final byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        csv.setLength(0);
+    }
+
     ////////////////////////////////////////////////////////////////////////////
     // Versioning control //////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////
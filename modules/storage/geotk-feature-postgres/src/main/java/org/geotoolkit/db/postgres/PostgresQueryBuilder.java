@@ -18,6 +18,7 @@ package org.geotoolkit.db.postgres;
 
 import java.sql.SQLException;
 import java.util.Date;
+import java.util.List;
 import org.geotoolkit.data.query.Query;
 import org.geotoolkit.db.DefaultJDBCFeatureStore;
 import org.geotoolkit.db.dialect.SQLQueryBuilder;
@@ -25,7 +26,9 @@ import org.geotoolkit.db.reverse.PrimaryKey;
 import org.geotoolkit.filter.visitor.SimplifyingFilterVisitor;
 import org.apache.sis.storage.DataStoreException;
 import org.geotoolkit.version.VersioningException;
+import org.geotoolkit.feature.type.ComplexType;
 import org.geotoolkit.feature.type.FeatureType;
+import org.geotoolkit.feature.type.PropertyDescriptor;
 import org.opengis.filter.Filter;
 import org.opengis.filter.FilterFactory;
 
@@ -99,5 +102,25 @@ public class PostgresQueryBuilder extends SQLQueryBuilder{
 
         return sql.toString();
     }
-    
+
+    /**
+     * Generates a 'COPY FROM STDIN' sql statement, rows are expected in CSV format.
+     *
+     * @param featureType inserted type
+     * @param columns columns to fill, in CSV field order
+     */
+    public String copySQL(final ComplexType featureType, final List<? extends PropertyDescriptor> columns) {
+        final StringBuilder sql = new StringBuilder();
+        sql.append("COPY ");
+        dialect.encodeSchemaAndTableName(sql, databaseSchema, featureType.getName().tip().toString());
+        sql.append(" ( ");
+        for (PropertyDescriptor desc : columns) {
+            dialect.encodeColumnName(sql, desc.getName().tip().toString());
+            sql.append(',');
+        }
+        sql.setLength(sql.length() - 1);
+        sql.append(" ) FROM STDIN WITH CSV");
+        return sql.toString();
+    }
+
 }
@@ -877,6 +877,112 @@ public class PostgresFeatureStoreTest extends org.geotoolkit.test.TestBase {
         }
     }
 
+    /**
+     * Insert features with COPY statements, values, geometries and ids must be preserved.
+     * A failing batch must rollback all previous batches.
+     */
+    @Test
+    public void testCopyInsert() throws DataStoreException, FactoryException, VersioningException{
+        reload(true);
+        store.setCopyInsert(true);
+        store.setInsertBatchSize(100);
+
+        store.createFeatureType(FTYPE_SIMPLE.getName(), FTYPE_SIMPLE);
+        FeatureType resType = store.getFeatureType(store.getNames().iterator().next());
+
+        List<Feature> features = new ArrayList<>();
+        for (int i=0; i<250; i++) {
+            final Feature feature = FeatureUtilities.defaultFeature(resType, "0");
+            feature.getProperty("boolean").setValue(i % 2 == 0);
+            feature.getProperty("byte").setValue(45);
+            feature.getProperty("short").setValue(i);
+            feature.getProperty("integer").setValue(123456);
+            feature.getProperty("long").setValue(456789l);
+            feature.getProperty("float").setValue(Float.NaN);
+            feature.getProperty("double").setValue(14.5);
+            feature.getProperty("string").setValue((i == 0) ? null : "a \"string\", 'quoted'\n"+i);
+            features.add(feature);
+        }
+
+        List<FeatureId> addedIds = store.addFeatures(resType.getName(), features);
+        assertEquals(250, addedIds.size());
+        for (int i=0; i<250; i++) {
+            assertEquals(new DefaultFeatureId("testTable."+(i+1)), addedIds.get(i));
+        }
+
+        Session session = store.createSession(false);
+        FeatureCollection col = session.getFeatureCollection(QueryBuilder.all(resType.getName()));
+        assertEquals(250, col.size());
+
+        FeatureIterator ite = col.iterator();
+        try{
+            while (ite.hasNext()) {
+                final Feature resFeature = ite.next();
+                final int i = ((Number) resFeature.getProperty("short").getValue()).intValue();
+                assertEquals(i % 2 == 0, resFeature.getProperty("boolean").getValue());
+                assertEquals(45, resFeature.getProperty("byte").getValue());
+                assertEquals(123456, resFeature.getProperty("integer").getValue());
+                assertEquals(456789l, resFeature.getProperty("long").getValue());
+                assertTrue(((Float) resFeature.getProperty("float").getValue()).isNaN());
+                assertEquals(14.5d, resFeature.getProperty("double").getValue());
+                assertEquals((i == 0) ? null : "a \"string\", 'quoted'\n"+i, resFeature.getProperty("string").getValue());
+            }
+        }finally{
+            ite.close();
+        }
+
+        // SECOND TEST for geometries ------------------------------------------
+        reload(true);
+        store.setCopyInsert(true);
+        final GeometryFactory gf = new GeometryFactory();
+        store.createFeatureType(FTYPE_GEOMETRY.getName(), FTYPE_GEOMETRY);
+        resType = store.getFeatureType(store.getNames().iterator().next());
+
+        final Feature feature = FeatureUtilities.defaultFeature(resType, "0");
+        feature.getProperty("point").setValue(gf.createPoint(new Coordinate(12, -5)));
+        addedIds = store.addFeatures(resType.getName(), Collections.singleton(feature));
+        assertEquals(1, addedIds.size());
+        assertEquals(new DefaultFeatureId("testTable.1"), addedIds.get(0));
+
+        session = store.createSession(false);
+        col = session.getFeatureCollection(QueryBuilder.all(resType.getName()));
+        assertEquals(1, col.size());
+        ite = col.iterator();
+        try{
+            final Feature resFeature = ite.next();
+            final Point point = (Point) resFeature.getProperty("point").getValue();
+            assertEquals(gf.createPoint(new Coordinate(12, -5)), point);
+            assertEquals(CRS_4326, JTS.findCoordinateReferenceSystem(point));
+            assertNull(resFeature.getProperty("polygon").getValue());
+        }finally{
+            ite.close();
+        }
+
+        // THIRD TEST for rollback ---------------------------------------------
+        reload(true);
+        store.setCopyInsert(true);
+        store.setInsertBatchSize(100);
+        store.createFeatureType(FTYPE_SIMPLE.getName(), FTYPE_SIMPLE);
+        resType = store.getFeatureType(store.getNames().iterator().next());
+
+        features = new ArrayList<>();
+        for (int i=0; i<250; i++) {
+            final Feature f = FeatureUtilities.defaultFeature(resType, "0");
+            //last value is out of short range
+            f.getProperty("short").setValue((i == 249) ? 100000 : i);
+            features.add(f);
+        }
+        try {
+            store.addFeatures(resType.getName(), features);
+            fail("Insert should have failed");
+        } catch (DataStoreException ex) {
+            //ok
+        }
+        session = store.createSession(false);
+        col = session.getFeatureCollection(QueryBuilder.all(resType.getName()));
+        assertEquals(0, col.size());
+    }
+
     /**
      * 2 level depths feature test.
      */
@@ -961,6 +1067,85 @@ public class PostgresFeatureStoreTest extends org.geotoolkit.test.TestBase {
 
     }
 
+    /**
+     * Insert more features than insert batch size, all features and ids must be returned.
+     */
+    @Test
+    public void testBatchInsert() throws DataStoreException, FactoryException, VersioningException{
+        reload(true);
+        store.setInsertBatchSize(100);
+
+        final GeometryFactory gf = new GeometryFactory();
+        store.createFeatureType(FTYPE_GEOMETRY.getName(), FTYPE_GEOMETRY);
+        final FeatureType resType = store.getFeatureType(store.getNames().iterator().next());
+
+        final List<Feature> features = new ArrayList<>();
+        for (int i=0; i<250; i++) {
+            final Feature feature = FeatureUtilities.defaultFeature(resType, "0");
+            feature.getProperty("point").setValue(gf.createPoint(new Coordinate(i, -i)));
+            features.add(feature);
+        }
+
+        final List<FeatureId> addedIds = store.addFeatures(resType.getName(), features);
+        assertEquals(250, addedIds.size());
+        for (int i=0; i<250; i++) {
+            assertEquals(new DefaultFeatureId("testTable."+(i+1)), addedIds.get(i));
+        }
+
+        final Session session = store.createSession(false);
+        final FeatureCollection col = session.getFeatureCollection(QueryBuilder.all(resType.getName()));
+        assertEquals(250, col.size());
+
+        final boolean[] found = new boolean[250];
+        final FeatureIterator ite = col.iterator();
+        try{
+            while (ite.hasNext()) {
+                final Feature resFeature = ite.next();
+                final Point point = (Point) resFeature.getProperty("point").getValue();
+                final int i = (int) point.getX();
+                assertEquals(gf.createPoint(new Coordinate(i, -i)), point);
+                assertEquals(CRS_4326, JTS.findCoordinateReferenceSystem(point));
+                assertNull(resFeature.getProperty("polygon").getValue());
+                found[i] = true;
+            }
+        } finally{
+            ite.close();
+        }
+        for (boolean b : found) {
+            assertTrue(b);
+        }
+    }
+
+    /**
+     * Insert features in a table with only an auto generated primary key,
+     * all values come from the database.
+     */
+    @Test
+    public void testBatchInsertDefaultValues() throws DataStoreException, VersioningException{
+        reload(true);
+
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName("testTable");
+        final FeatureType emptyType = ftb.buildFeatureType();
+        store.createFeatureType(emptyType.getName(), emptyType);
+        final FeatureType resType = store.getFeatureType(store.getNames().iterator().next());
+
+        final List<Feature> features = new ArrayList<>();
+        for (int i=0; i<3; i++) {
+            features.add(FeatureUtilities.defaultFeature(resType, "0"));
+        }
+
+        final List<FeatureId> addedIds = store.addFeatures(resType.getName(), features);
+        assertEquals(3, addedIds.size());
+        for (int i=0; i<3; i++) {
+            assertEquals(new DefaultFeatureId("testTable."+(i+1)), addedIds.get(i));
+        }
+
+        final Session session = store.createSession(false);
+        final FeatureCollection col = session.getFeatureCollection(QueryBuilder.all(resType.getName()));
+        assertEquals(3, col.size());
+    }
+
     /**
      * 3 level depths feature test.
      */
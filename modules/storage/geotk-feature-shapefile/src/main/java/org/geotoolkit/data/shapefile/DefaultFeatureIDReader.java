@@ -32,7 +32,7 @@ import static org.apache.sis.util.ArgumentChecks.*;
 public class DefaultFeatureIDReader implements FeatureIDReader {
 
     private final String base;
-    private final AtomicLong inc = new AtomicLong();
+    private final AtomicLong inc;
 
     /**
      * This constructor will use the local part of the type as a
@@ -48,8 +48,17 @@ public class DefaultFeatureIDReader implements FeatureIDReader {
      * @param base string use as start element of the generated ids
      */
     public DefaultFeatureIDReader(final String base) {
+        this(base, 0);
+    }
+
+    /**
+     * @param base string use as start element of the generated ids
+     * @param start number of ids before the first generated one, first id number will be start+1
+     */
+    public DefaultFeatureIDReader(final String base, final long start) {
         ensureNonNull("base string", base);
         this.base = base + ".";
+        this.inc = new AtomicLong(start);
     }
 
     /**
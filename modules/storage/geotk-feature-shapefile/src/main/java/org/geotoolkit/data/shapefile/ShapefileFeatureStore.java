@@ -52,6 +52,8 @@ import org.apache.sis.storage.DataStoreException;
 import org.geotoolkit.data.FeatureStoreRuntimeException;
 import org.geotoolkit.data.FeatureReader;
 import org.geotoolkit.data.FeatureWriter;
+import org.geotoolkit.data.SplitFeatureReader;
+import org.geotoolkit.data.SplittableFeatureStore;
 import org.geotoolkit.data.memory.GenericEmptyFeatureIterator;
 import org.geotoolkit.data.query.DefaultQueryCapabilities;
 import org.geotoolkit.data.query.Query;
@@ -63,6 +65,7 @@ import org.geotoolkit.data.shapefile.shp.ShapeType;
 import org.geotoolkit.data.shapefile.shp.ShapefileHeader;
 import org.geotoolkit.data.shapefile.shp.ShapefileReader;
 import org.geotoolkit.data.shapefile.shp.ShapefileWriter;
+import org.geotoolkit.data.shapefile.shx.ShxReader;
 import org.geotoolkit.factory.Hints;
 import org.geotoolkit.feature.FeatureTypeUtilities;
 import org.geotoolkit.feature.FeatureTypeBuilder;
@@ -84,6 +87,7 @@ import org.opengis.util.GenericName;
 import org.geotoolkit.feature.type.PropertyDescriptor;
 import org.opengis.filter.Filter;
 import org.opengis.filter.identity.FeatureId;
+import org.opengis.filter.sort.SortBy;
 import org.opengis.geometry.Envelope;
 import org.opengis.parameter.ParameterValueGroup;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
@@ -96,7 +100,7 @@ import org.opengis.feature.MismatchedFeatureException;
  * @author Johann Sorel (Geomatys)
  * @module pending
  */
-public class ShapefileFeatureStore extends AbstractFeatureStore implements DataFileStore {
+public class ShapefileFeatureStore extends AbstractFeatureStore implements DataFileStore, SplittableFeatureStore {
 
     // This is the default character as specified by the DBF specification
     public static final Charset DEFAULT_STRING_CHARSET = DbaseFileReader.DEFAULT_STRING_CHARSET;
@@ -315,27 +319,15 @@ public class ShapefileFeatureStore extends AbstractFeatureStore implements DataF
         final Hints hints = query.getHints();
         final String typeName = query.getTypeName().tip().toString();
         final GenericName[] propertyNames = query.getPropertyNames();
-        final GenericName defaultGeomName = schema.getGeometryDescriptor().getName();
         final double[] resample = query.getResolution();
 
         //check if we must read the 3d values
         final CoordinateReferenceSystem reproject = query.getCoordinateSystemReproject();
         final boolean read3D = (reproject == null || CRS.getVerticalComponent(reproject, true) != null);
 
-        // gather attributes needed by the query tool, they will be used by the
-        // query filter
-        final FilterAttributeExtractor extractor = new FilterAttributeExtractor();
-        final Filter filter = query.getFilter();
-        filter.accept(extractor, null);
-        final GenericName[] filterAttnames = extractor.getAttributeNames();
-
         // check if the geometry is the one and only attribute needed
         // to return attribute _and_ to run the query filter
-        if (   propertyNames != null
-            && propertyNames.length == 1
-            && propertyNames[0].tip().toString().equals(defaultGeomName.tip().toString())
-            && (filterAttnames.length == 0 || (filterAttnames.length == 1 && filterAttnames[0].tip().toString()
-                        .equals(defaultGeomName.tip().toString())))) {
+        if (isGeometryOnly(query)) {
             try {
                 final FeatureType newSchema = FeatureTypeUtilities.createSubType(schema, propertyNames);
 
@@ -387,6 +379,151 @@ public class ShapefileFeatureStore extends AbstractFeatureStore implements DataF
 
     }
 
+    /**
+     * Check if the geometry is the one and only attribute needed to return
+     * attributes and to run the query filter, in which case the dbf is not read.
+     */
+    private boolean isGeometryOnly(final Query query) {
+        final GenericName[] propertyNames = query.getPropertyNames();
+        final String defaultGeomName = schema.getGeometryDescriptor().getName().tip().toString();
+
+        // gather attributes needed by the query tool, they will be used by the
+        // query filter
+        final FilterAttributeExtractor extractor = new FilterAttributeExtractor();
+        query.getFilter().accept(extractor, null);
+        final GenericName[] filterAttnames = extractor.getAttributeNames();
+
+        return propertyNames != null
+            && propertyNames.length == 1
+            && propertyNames[0].tip().toString().equals(defaultGeomName)
+            && (filterAttnames.length == 0 || (filterAttnames.length == 1
+                && filterAttnames[0].tip().toString().equals(defaultGeomName)));
+    }
+
+    /**
+     * {@inheritDoc }
+     * <br/>
+     * Local shapefiles with a shx file can be split, as long as the query
+     * does not require sorting or paging.
+     */
+    @Override
+    public boolean isSplittable(final Query query) {
+        final SortBy[] sortBy = query.getSortBy();
+        return shpFiles.isLocal()
+            && shpFiles.exists(SHX)
+            && (sortBy == null || sortBy.length == 0)
+            && query.getStartIndex() == 0
+            && query.getMaxFeatures() == null;
+    }
+
+    /**
+     * {@inheritDoc }
+     * <br/>
+     * Records are partitioned using the shx offsets, each part opens its own
+     * views on the shp and dbf files. Returned features are detached.
+     */
+    @Override
+    public SplitFeatureReader getSplitFeatureReader(final Query query) throws DataStoreException {
+        typeCheck(query.getTypeName());
+        if (!isSplittable(query)) {
+            throw new DataStoreException("Query can not be split : "+query);
+        }
+
+        final AccessManager locker = shpFiles.createLocker();
+        final int nbRecords;
+        try {
+            final ShxReader shx = locker.getSHXReader(useMemoryMappedBuffer);
+            if (shx == null) {
+                throw new DataStoreException("Missing shx file.");
+            }
+            nbRecords = shx.getRecordCount();
+        } catch (IOException ex) {
+            throw new DataStoreException(ex);
+        } finally {
+            try {
+                locker.disposeReaderAndWriters();
+            } catch (IOException ex) {
+                getLogger().log(Level.WARNING, ex.getMessage(), ex);
+            }
+        }
+        return new ShapefileSplitFeatureReader(this, query, 0, nbRecords);
+    }
+
+    /**
+     * Create an attribute reader on a range of records for the given query.
+     *
+     * @param start index of the first record
+     * @param end index after the last record
+     */
+    ShapefileRangeAttributeReader getRangeAttributesReader(final Query query,
+            final int start, final int end) throws DataStoreException {
+        final CoordinateReferenceSystem reproject = query.getCoordinateSystemReproject();
+        final boolean read3D = (reproject == null || CRS.getVerticalComponent(reproject, true) != null);
+        final boolean readDbf = !isGeometryOnly(query);
+
+        final AccessManager locker = shpFiles.createLocker();
+        final FeatureType schema = getFeatureType();
+        final PropertyDescriptor[] descs;
+        if(readDbf){
+            descs =  schema.getDescriptors().toArray(new PropertyDescriptor[0]);
+        }else{
+            descs = new PropertyDescriptor[]{schema.getGeometryDescriptor()};
+        }
+        try {
+            return new ShapefileRangeAttributeReader(locker, descs, read3D,
+                    useMemoryMappedBuffer, query.getResolution(), readDbf, dbfCharset, null, start, end);
+        } catch (IOException ex) {
+            try {
+                locker.disposeReaderAndWriters();
+            } catch (IOException e) {
+                ex.addSuppressed(e);
+            }
+            throw new DataStoreException(ex);
+        }
+    }
+
+    /**
+     * Create a feature reader for the given query on a range attribute reader.
+     */
+    FeatureReader getRangeFeatureReader(final Query query,
+            final ShapefileRangeAttributeReader attReader) throws DataStoreException {
+        final GenericName[] propertyNames = query.getPropertyNames();
+        try {
+            final FeatureType newSchema;
+            if (propertyNames != null) {
+                newSchema = FeatureTypeUtilities.createSubType(schema, propertyNames);
+            } else {
+                newSchema = schema;
+            }
+            final FeatureIDReader idReader = createFIDReader(query.getTypeName().tip().toString(), attReader);
+            //no hints, features must be detached since they are consumed by other threads
+            final FeatureReader reader = ShapefileFeatureReader.create(attReader, idReader, newSchema, null);
+            final QueryBuilder remaining = new QueryBuilder(query.getTypeName());
+            remaining.setProperties(query.getPropertyNames());
+            remaining.setFilter(query.getFilter());
+            remaining.setHints(query.getHints());
+            remaining.setCRS(query.getCoordinateSystemReproject());
+            return handleRemaining(reader, remaining.buildQuery());
+        } catch (MismatchedFeatureException se) {
+            throw new DataStoreException("Error creating schema", se);
+        } catch (IOException ex) {
+            throw new DataStoreException(ex);
+        }
+    }
+
+    /**
+     * Create the feature id reader used by split readers.
+     * Ids are the same as the ones of {@link #getFeatureReader(org.geotoolkit.data.query.Query) }.
+     *
+     * @param typeName base of the feature ids
+     * @param attReader range attribute reader
+     * @return feature id reader
+     */
+    protected FeatureIDReader createFIDReader(final String typeName,
+            final ShapefileRangeAttributeReader attReader) throws IOException {
+        return new DefaultFeatureIDReader(typeName, attReader.getPosition());
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -0,0 +1,120 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.shapefile;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import org.apache.sis.storage.DataStoreException;
+import org.geotoolkit.data.shapefile.indexed.RecordNumberTracker;
+import org.geotoolkit.data.shapefile.lock.AccessManager;
+import org.geotoolkit.data.shapefile.shx.ShxReader;
+import org.geotoolkit.feature.type.PropertyDescriptor;
+
+/**
+ * Attribute reader on a range of consecutive records.
+ * <br/>Shapes are located with the shx offsets and the dbf reader is moved to
+ * the first record of the range, so several range readers with their own
+ * {@link AccessManager} can read different parts of the same files at the same time.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public class ShapefileRangeAttributeReader extends ShapefileAttributeReader implements RecordNumberTracker {
+
+    private final ShxReader shx;
+    private int position;
+    private final int end;
+
+    /**
+     * Create the range attribute reader.
+     *
+     * @param locker - to aquiere different readers and writers.
+     * @param atts - the attributes that we are going to read.
+     * @param read3D - for shp reader, read 3d coordinate or not.
+     * @param memoryMapped - for shp, shx and dbf reader
+     * @param resample - for shp reader, decimate coordinates while reading
+     * @param readDBF - true to open a dbf reader
+     * @param charset - for dbf reader
+     * @param estimateRes - avoid reading geometry if under this resolution,
+     *                      while return an approximate geometry
+     * @param start - index of the first record, starting at 0
+     * @param end - index after the last record
+     */
+    public ShapefileRangeAttributeReader(final AccessManager locker,
+            final PropertyDescriptor[] atts, final boolean read3D, final boolean memoryMapped,
+            final double[] resample, final boolean readDBF, final Charset charset,
+            final double[] estimateRes, final int start, final int end) throws IOException, DataStoreException {
+        super(locker,atts,read3D,memoryMapped,resample,readDBF,charset,estimateRes);
+        this.shx = locker.getSHXReader(memoryMapped);
+        if(shx == null){
+            throw new IOException("Reading a range of records requires a shx file.");
+        }
+        if(start < 0 || start > end || end > shx.getRecordCount()){
+            throw new IOException("Invalid record range ["+start+","+end+"[ for "+shx.getRecordCount()+" records.");
+        }
+        this.position = start;
+        this.end = end;
+        if(dbf != null && start < end){
+            dbf.goTo(start+1);
+        }
+    }
+
+    /**
+     * @return index of the next record to read
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return index after the last record of the range
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean hasNext() throws IOException {
+        return position < end;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void next() throws IOException {
+        if(position >= end){
+            throw new IndexOutOfBoundsException("No more features in reader");
+        }
+        shp.goTo(shx.getOffsetInBytes(position));
+        nextShape();
+        nextDbf();
+        position++;
+    }
+
+    /**
+     * @return record number of the last read record, starting at 1
+     */
+    @Override
+    public int getRecordNumber() {
+        return position;
+    }
+
+}
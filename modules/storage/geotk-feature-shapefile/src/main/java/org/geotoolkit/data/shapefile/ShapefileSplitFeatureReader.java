@@ -0,0 +1,155 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.shapefile;
+
+import java.util.NoSuchElementException;
+import org.apache.sis.storage.DataStoreException;
+import org.geotoolkit.data.FeatureReader;
+import org.geotoolkit.data.FeatureStoreRuntimeException;
+import org.geotoolkit.data.SplitFeatureReader;
+import org.geotoolkit.data.query.Query;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.type.FeatureType;
+
+/**
+ * Split reader on a range of shapefile records.
+ * <br/>
+ * Splitting divides the records in two ranges, the returned reader has the upper half.
+ * Files are opened on first use, each reader has its own channels and mapped buffers
+ * so readers can be used by different threads.
+ * <br/>
+ * Splitting is only possible before the reader is used, once files are opened
+ * trySplit returns null.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public class ShapefileSplitFeatureReader implements SplitFeatureReader {
+
+    private final ShapefileFeatureStore store;
+    private final Query query;
+    private final int start;
+    private int end;
+
+    private ShapefileRangeAttributeReader attReader;
+    private FeatureReader reader;
+    private boolean closed = false;
+
+    ShapefileSplitFeatureReader(final ShapefileFeatureStore store, final Query query, final int start, final int end) {
+        this.store = store;
+        this.query = query;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Open the range reader if not done yet.
+     */
+    private FeatureReader getReader() throws FeatureStoreRuntimeException {
+        if(closed){
+            throw new FeatureStoreRuntimeException("Reader is closed.");
+        }
+        if(reader == null){
+            try {
+                attReader = store.getRangeAttributesReader(query, start, end);
+                reader = store.getRangeFeatureReader(query, attReader);
+            } catch (DataStoreException ex) {
+                throw new FeatureStoreRuntimeException(ex);
+            }
+        }
+        return reader;
+    }
+
+    private int getPosition() {
+        return (attReader != null) ? attReader.getPosition() : start;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public SplitFeatureReader trySplit() throws FeatureStoreRuntimeException {
+        if(closed || reader != null || end - start < 2){
+            return null;
+        }
+        final int middle = start + (end - start) / 2;
+        final ShapefileSplitFeatureReader part = new ShapefileSplitFeatureReader(store, query, middle, end);
+        end = middle;
+        return part;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public long estimateSize() {
+        return end - getPosition();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public FeatureType getFeatureType() {
+        return getReader().getFeatureType();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public boolean hasNext() throws FeatureStoreRuntimeException {
+        if(reader == null && start >= end) return false;
+        return getReader().hasNext();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Feature next() throws FeatureStoreRuntimeException {
+        if(!hasNext()){
+            throw new NoSuchElementException("There are no more Features to be read");
+        }
+        return reader.next();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void close() throws FeatureStoreRuntimeException {
+        if(closed) return;
+        closed = true;
+        if(reader != null){
+            reader.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void remove() throws FeatureStoreRuntimeException {
+        throw new FeatureStoreRuntimeException("Can not remove from a feature reader.");
+    }
+
+    @Override
+    public String toString() {
+        return "ShapefileSplitFeatureReader["+getPosition()+","+end+"[";
+    }
+}
@@ -37,6 +37,8 @@ import org.geotoolkit.data.shapefile.FeatureIDReader;
 import org.geotoolkit.data.shapefile.ShapefileFeatureStore;
 import org.geotoolkit.data.shapefile.ShapefileFeatureStoreFactory;
 import org.geotoolkit.data.shapefile.ShapefileFeatureReader;
+import org.geotoolkit.data.shapefile.ShapefileRangeAttributeReader;
+import org.geotoolkit.data.shapefile.DefaultFeatureIDReader;
 import org.geotoolkit.data.shapefile.fix.IndexedFidReader;
 import org.geotoolkit.data.shapefile.fix.IndexedFidWriter;
 import org.geotoolkit.data.shapefile.indexed.IndexDataReader.ShpData;
@@ -320,6 +322,23 @@ public class IndexedShapefileFeatureStore extends ShapefileFeatureStore {
         return ShapefileFeatureReader.create(r, fidReader, featureType, hints);
     }
 
+    /**
+     * {@inheritDoc }
+     * <br/>
+     * Use the fix file when available, to have the same ids as
+     * {@link #createFeatureReader(org.geotoolkit.data.shapefile.indexed.IndexedShapefileAttributeReader, org.geotoolkit.feature.simple.SimpleFeatureType, org.geotoolkit.factory.Hints) }.
+     */
+    @Override
+    protected FeatureIDReader createFIDReader(final String typeName,
+            final ShapefileRangeAttributeReader attReader) throws IOException {
+        if (!indexUseable(FIX)) {
+            //same ids as ShapeFIDReader, record number starting at 0
+            return new DefaultFeatureIDReader(typeName, attReader.getPosition() - 1);
+        } else {
+            return attReader.getLocker().getFIXReader(attReader);
+        }
+    }
+
     private IndexedShapefileAttributeReader getAttributesReader(final List<? extends PropertyDescriptor> properties,
             final Filter filter, final boolean read3D, final double[] resample) throws DataStoreException{
 
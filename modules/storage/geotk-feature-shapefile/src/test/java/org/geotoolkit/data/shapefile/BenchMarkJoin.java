@@ -0,0 +1,181 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.shapefile;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.apache.sis.referencing.CommonCRS;
+import org.geotoolkit.data.FeatureCollection;
+import org.geotoolkit.data.FeatureIterator;
+import org.geotoolkit.data.FeatureStore;
+import org.geotoolkit.data.FeatureStoreUtilities;
+import org.geotoolkit.data.memory.MemoryFeatureStore;
+import org.geotoolkit.data.query.DefaultJoin;
+import org.geotoolkit.data.query.DefaultSelector;
+import org.geotoolkit.data.query.Join;
+import org.geotoolkit.data.query.JoinType;
+import org.geotoolkit.data.query.QueryBuilder;
+import org.geotoolkit.data.session.Session;
+import org.geotoolkit.factory.FactoryFinder;
+import org.geotoolkit.factory.Hints;
+import org.geotoolkit.factory.HintsPending;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.FeatureTypeBuilder;
+import org.geotoolkit.feature.FeatureUtilities;
+import org.geotoolkit.feature.type.FeatureType;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.opengis.filter.FilterFactory;
+import org.opengis.util.GenericName;
+
+/**
+ * Inner join of two types of 10 000 features on an integer key, with the nested loop,
+ * the in memory hash join and the hash join spilling to temporary files.<br/>
+ * Each strategy is run on two memory feature stores and on two shapefiles.
+ * Right keys are random, about 10 000 rows are joined.
+ *
+ * @author Johann Sorel (Geomatys)
+ */
+public class BenchMarkJoin {
+
+    private static final int NB_FEATURES = 10000;
+    private static final int NB_ITERATIONS = 3;
+
+    /**
+     * Hash join above this number of right features uses temporary files.
+     */
+    private static final int SPILL_MAX_FEATURES = 1000;
+
+    private static final FilterFactory FF = FactoryFinder.getFilterFactory(null);
+    private static final GeometryFactory GF = new GeometryFactory();
+
+    @Test
+    @Ignore
+    public void benchMemoryTest() throws Exception {
+        final FeatureType leftType = createType("left", "key1");
+        final FeatureType rightType = createType("right", "key2");
+        final MemoryFeatureStore store = new MemoryFeatureStore();
+        fill(store, leftType, "key1", false);
+        fill(store, rightType, "key2", true);
+        bench("memory", store, leftType.getName(), store, rightType.getName());
+    }
+
+    @Test
+    @Ignore
+    public void benchShapefileTest() throws Exception {
+        final Path folder = Files.createTempDirectory("join");
+        final FeatureType leftType = createType("left", "key1");
+        final FeatureType rightType = createType("right", "key2");
+
+        ShapefileFeatureStore left = new ShapefileFeatureStore(folder.resolve("left.shp").toUri());
+        fill(left, leftType, "key1", false);
+        left.close();
+        ShapefileFeatureStore right = new ShapefileFeatureStore(folder.resolve("right.shp").toUri());
+        fill(right, rightType, "key2", true);
+        right.close();
+
+        //-- reopen stores to read from files only --//
+        left = new ShapefileFeatureStore(folder.resolve("left.shp").toUri());
+        right = new ShapefileFeatureStore(folder.resolve("right.shp").toUri());
+        try {
+            bench("shapefile", left, left.getName(), right, right.getName());
+        } finally {
+            left.close();
+            right.close();
+        }
+    }
+
+    private static void bench(final String source, final FeatureStore leftStore, final GenericName leftName,
+            final FeatureStore rightStore, final GenericName rightName) throws Exception {
+        final Hints loop = new Hints(HintsPending.JOIN_HASH, Boolean.FALSE);
+        final Hints hash = new Hints(HintsPending.JOIN_HASH, Boolean.TRUE);
+        final Hints spill = new Hints(HintsPending.JOIN_HASH, Boolean.TRUE, HintsPending.JOIN_HASH_MAX_FEATURES, SPILL_MAX_FEATURES);
+
+        for (int i = 0; i < NB_ITERATIONS; i++) {
+            join(source + " nested loop", leftStore, leftName, rightStore, rightName, loop);
+            join(source + " hash", leftStore, leftName, rightStore, rightName, hash);
+            join(source + " hash with temporary files", leftStore, leftName, rightStore, rightName, spill);
+        }
+    }
+
+    private static void join(final String strategy, final FeatureStore leftStore, final GenericName leftName,
+            final FeatureStore rightStore, final GenericName rightName, final Hints hints) throws Exception {
+        final Session leftSession = leftStore.createSession(false);
+        final Session rightSession = rightStore.createSession(false);
+
+        final QueryBuilder qb = new QueryBuilder();
+        final Join join = new DefaultJoin(
+                new DefaultSelector(leftSession, leftName, "s1"),
+                new DefaultSelector(rightSession, rightName, "s2"),
+                JoinType.INNER,
+                FF.equals(FF.property("key1"), FF.property("key2")));
+        qb.setSource(join);
+        qb.setHints(hints);
+
+        final long start = System.nanoTime();
+        final FeatureCollection col = leftSession.getFeatureCollection(qb.buildQuery());
+        int count = 0;
+        final FeatureIterator ite = col.iterator();
+        try {
+            while (ite.hasNext()) {
+                ite.next();
+                count++;
+            }
+        } finally {
+            ite.close();
+        }
+        final long time = (System.nanoTime() - start) / 1000000;
+        System.out.println("stats " + strategy + " : " + count + " rows joined in " + time + " ms");
+    }
+
+    /**
+     * Simple type with a point, shapefiles can not be written without geometry, and an integer key.
+     */
+    private static FeatureType createType(final String name, final String keyName) {
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName(name);
+        ftb.add("the_geom", Point.class, CommonCRS.WGS84.normalizedGeographic());
+        ftb.add(keyName, Integer.class);
+        ftb.setDefaultGeometry("the_geom");
+        return ftb.buildSimpleFeatureType();
+    }
+
+    /**
+     * Left keys are the feature index, right keys are random in the same range.
+     */
+    private static void fill(final FeatureStore store, final FeatureType type, final String keyName,
+            final boolean randomKeys) throws Exception {
+        store.createFeatureType(type.getName(), type);
+
+        final Random random = new Random(42);
+        final FeatureCollection features = FeatureStoreUtilities.collection(type.getName().tip().toString(), type);
+        for (int i = 0; i < NB_FEATURES; i++) {
+            final Feature feature = FeatureUtilities.defaultFeature(type, type.getName().tip() + "-" + i);
+            feature.getProperty("the_geom").setValue(GF.createPoint(new Coordinate(i % 360 - 180, i % 180 - 90)));
+            feature.getProperty(keyName).setValue(randomKeys ? random.nextInt(NB_FEATURES) : i);
+            features.add(feature);
+        }
+
+        final Session session = store.createSession(false);
+        session.addFeatures(type.getName(), features);
+        session.commit();
+    }
+}
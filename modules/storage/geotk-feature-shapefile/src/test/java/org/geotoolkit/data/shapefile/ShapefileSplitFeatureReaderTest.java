@@ -0,0 +1,181 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.shapefile;
+
+import com.vividsolutions.jts.geom.Geometry;
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.geotoolkit.data.FeatureReader;
+import org.geotoolkit.data.FeatureStoreUtilities;
+import org.geotoolkit.data.SplitFeatureReader;
+import org.geotoolkit.data.query.Query;
+import org.geotoolkit.data.query.QueryBuilder;
+import org.geotoolkit.factory.FactoryFinder;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.type.PropertyDescriptor;
+import org.junit.Test;
+import org.opengis.filter.FilterFactory;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test split and parallel reading of shapefiles.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public class ShapefileSplitFeatureReaderTest extends AbstractTestCaseSupport {
+
+    private static final String STATEPOP = "shapes/statepop.shp";
+    private static final int NB_RECORDS = 49;
+
+    private ShapefileFeatureStore createStore() throws Exception {
+        final File shpFile = copyShapefiles(STATEPOP);
+        return new ShapefileFeatureStore(shpFile.toURI());
+    }
+
+    /**
+     * Read all features of a reader in a map by identifier.
+     */
+    private static Map<String,Feature> read(final FeatureReader reader) {
+        final Map<String,Feature> features = new HashMap<>();
+        try {
+            while (reader.hasNext()) {
+                final Feature feature = reader.next();
+                assertNull("Duplicated feature", features.put(feature.getIdentifier().getID(), feature));
+            }
+        } finally {
+            reader.close();
+        }
+        return features;
+    }
+
+    private static void assertSameFeatures(final Map<String,Feature> expected, final Map<String,Feature> result) {
+        assertEquals(expected.keySet(), result.keySet());
+        for (Map.Entry<String,Feature> entry : expected.entrySet()) {
+            final Feature exp = entry.getValue();
+            final Feature res = result.get(entry.getKey());
+            for (PropertyDescriptor desc : exp.getType().getDescriptors()) {
+                final String name = desc.getName().tip().toString();
+                final Object expValue = exp.getPropertyValue(name);
+                final Object resValue = res.getPropertyValue(name);
+                if (expValue instanceof Geometry) {
+                    assertTrue(name, ((Geometry) expValue).equalsExact((Geometry) resValue));
+                } else {
+                    assertEquals(name, expValue, resValue);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSplitReaders() throws Exception {
+        final ShapefileFeatureStore store = createStore();
+        final Query query = QueryBuilder.all(store.getName());
+        assertTrue(store.isSplittable(query));
+
+        final Map<String,Feature> expected = read(store.getFeatureReader(query));
+        assertEquals(NB_RECORDS, expected.size());
+
+        final SplitFeatureReader reader = store.getSplitFeatureReader(query);
+        assertEquals(NB_RECORDS, reader.estimateSize());
+        final List<SplitFeatureReader> parts = FeatureStoreUtilities.split(reader, 4);
+        assertEquals(4, parts.size());
+
+        long total = 0;
+        final Map<String,Feature> result = new HashMap<>();
+        for (SplitFeatureReader part : parts) {
+            assertTrue(part.estimateSize() > 0);
+            total += part.estimateSize();
+            final Map<String,Feature> partFeatures = read(part);
+            assertEquals(0, part.estimateSize());
+            result.putAll(partFeatures);
+        }
+        assertEquals(NB_RECORDS, total);
+        assertSameFeatures(expected, result);
+        store.close();
+    }
+
+    @Test
+    public void testSplitGeometryOnly() throws Exception {
+        final ShapefileFeatureStore store = createStore();
+        final String geomName = store.getFeatureType().getGeometryDescriptor().getLocalName();
+        final QueryBuilder qb = new QueryBuilder(store.getName());
+        qb.setProperties(new String[]{geomName});
+        final Query query = qb.buildQuery();
+        assertTrue(store.isSplittable(query));
+
+        final Map<String,Feature> expected = read(store.getFeatureReader(query));
+        final Map<String,Feature> result = new HashMap<>();
+        for (SplitFeatureReader part : FeatureStoreUtilities.split(store.getSplitFeatureReader(query), 3)) {
+            result.putAll(read(part));
+        }
+        assertEquals(NB_RECORDS, result.size());
+        assertSameFeatures(expected, result);
+        store.close();
+    }
+
+    @Test
+    public void testParallelRead() throws Exception {
+        final ShapefileFeatureStore store = createStore();
+        final Query query = QueryBuilder.all(store.getName());
+
+        final Map<String,Feature> expected = read(store.getFeatureReader(query));
+        final FeatureReader reader = FeatureStoreUtilities.parallel(store.getSplitFeatureReader(query), 4);
+        assertEquals(store.getFeatureType(), reader.getFeatureType());
+        final Map<String,Feature> result = read(reader);
+        assertSameFeatures(expected, result);
+        store.close();
+    }
+
+    @Test
+    public void testNoSplitAfterRead() throws Exception {
+        final ShapefileFeatureStore store = createStore();
+        final Query query = QueryBuilder.all(store.getName());
+
+        final SplitFeatureReader reader = store.getSplitFeatureReader(query);
+        assertTrue(reader.hasNext());
+        reader.next();
+        assertNull(reader.trySplit());
+        assertEquals(NB_RECORDS - 1, read(reader).size());
+        store.close();
+    }
+
+    @Test
+    public void testNotSplittable() throws Exception {
+        final ShapefileFeatureStore store = createStore();
+        final FilterFactory ff = FactoryFinder.getFilterFactory(null);
+
+        QueryBuilder qb = new QueryBuilder(store.getName());
+        qb.setMaxFeatures(10);
+        assertFalse(store.isSplittable(qb.buildQuery()));
+
+        qb = new QueryBuilder(store.getName());
+        qb.setStartIndex(5);
+        assertFalse(store.isSplittable(qb.buildQuery()));
+
+        qb = new QueryBuilder(store.getName());
+        qb.setSortBy(new SortBy[]{ff.sort("STATE_NAME", SortOrder.ASCENDING)});
+        assertFalse(store.isSplittable(qb.buildQuery()));
+        store.close();
+    }
+
+}
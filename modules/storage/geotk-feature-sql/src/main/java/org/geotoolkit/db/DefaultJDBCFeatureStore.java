@@ -16,9 +16,13 @@
  */
 package org.geotoolkit.db;
 
+import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -87,6 +91,7 @@ import org.opengis.parameter.ParameterNotFoundException;
 import org.opengis.parameter.ParameterValueGroup;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 import org.opengis.util.FactoryException;
+import org.opengis.coverage.Coverage;
 
 /**
  *
@@ -114,6 +119,8 @@ public class DefaultJDBCFeatureStore extends JDBCFeatureStore{
     
     //number of records to retrieve with each db call.
     private final int fetchSize;
+    //number of records sent to the db with each insert batch.
+    private int insertBatchSize = 1000;
     private SQLQueryBuilder queryBuilder;
         
     
@@ -167,6 +174,25 @@ public class DefaultJDBCFeatureStore extends JDBCFeatureStore{
         return fetchSize;
     }
     
+    /**
+     * Get maximum number of records sent to the database in one batch when inserting features.
+     *
+     * @return insert batch size
+     */
+    public int getInsertBatchSize() {
+        return insertBatchSize;
+    }
+
+    /**
+     * Set maximum number of records sent to the database in one batch when inserting features.
+     *
+     * @param insertBatchSize insert batch size, strictly positive
+     */
+    public void setInsertBatchSize(int insertBatchSize) {
+        ArgumentChecks.ensureStrictlyPositive("insertBatchSize", insertBatchSize);
+        this.insertBatchSize = insertBatchSize;
+    }
+
     public void setDialect(SQLDialect dialect) {
         ArgumentChecks.ensureNonNull("dialect", dialect);
         this.dialect = dialect;
@@ -936,31 +962,192 @@ public class DefaultJDBCFeatureStore extends JDBCFeatureStore{
         handleRemoveWithFeatureWriter(groupName, filter, cnx);
     }
 
+    /**
+     * Insert features with a prepared statement, records are sent to the database by batches
+     * of {@link #getInsertBatchSize() } records.<br/>
+     * Each inserted feature receive its primary key values and its feature id in "fid" user data.
+     * Complex features and features with coverage values are inserted one by one.
+     */
     protected void insert(final Collection<? extends ComplexAttribute> features, final ComplexType featureType,
             final Connection cx) throws DataStoreException {
+
+        if (!(featureType instanceof SimpleFeatureType) || hasCoverage(featureType)) {
+            for (ComplexAttribute feature : features) {
+                insert(feature, featureType, cx);
+            }
+            return;
+        }
+
         final PrimaryKey key = dbmodel.getPrimaryKey(featureType.getName());
+        final List<ColumnMetaModel> keyColumns = key.getColumns();
+
+        //auto generated key columns are not inserted, their values are returned by the database
+        final List<PropertyDescriptor> columns = new ArrayList<>();
+        final List<String> generatedColumns = new ArrayList<>();
+        for (PropertyDescriptor desc : featureType.getDescriptors()) {
+            final int k = indexOf(keyColumns, desc.getName().tip().toString());
+            if (k >= 0 && keyColumns.get(k).getType() == ColumnMetaModel.Type.AUTO) {
+                generatedColumns.add(keyColumns.get(k).getName());
+            } else {
+                columns.add(desc);
+            }
+        }
+        final String sql = getQueryBuilder().insertPreparedSQL(featureType, columns);
+        getLogger().log(Level.FINE, "Inserting features: {0}", sql);
 
-        // we do this in a synchronized block because we need to do two queries,
-        // first to figure out what the id will be, then the insert statement
+        // we do this in a synchronized block because key values are computed
+        // from database before the insert statements
         synchronized (this) {
-            Statement st = null;
+            PreparedStatement stmt = null;
             try {
-                st = cx.createStatement();
-                final Object[] nextKeyValues = key.nextPrimaryKeyValues(this, cx);
-                final String sql = getQueryBuilder().insertSQL(featureType, features, nextKeyValues, cx);
-                st.executeUpdate(sql);
+                stmt = (generatedColumns.isEmpty()) ? cx.prepareStatement(sql)
+                        : cx.prepareStatement(sql, generatedColumns.toArray(new String[generatedColumns.size()]));
+
+                final List<ComplexAttribute> batch = new ArrayList<>();
+                final List<Object[]> batchKeys = new ArrayList<>();
+                final Object[] lastGenerated = new Object[keyColumns.size()];
+                for (ComplexAttribute feature : features) {
+                    final Object[] keyValues = nextPrimaryKeyValues(keyColumns, feature, lastGenerated, cx);
+                    int index = 1;
+                    for (PropertyDescriptor desc : columns) {
+                        final String attName = desc.getName().tip().toString();
+                        final Class binding = desc.getType().getBinding();
+                        final int k = indexOf(keyColumns, attName);
+                        final Object value = (k >= 0) ? keyValues[k] : feature.getProperty(attName).getValue();
+                        if (Geometry.class.isAssignableFrom(binding)) {
+                            final Geometry geom = (Geometry) value;
+                            dialect.setGeometryParameter(stmt, index, geom, SQLQueryBuilder.getGeometrySRID(geom, desc));
+                        } else {
+                            dialect.setValueParameter(stmt, index, value, binding);
+                        }
+                        index++;
+                    }
+                    stmt.addBatch();
+                    batch.add(feature);
+                    batchKeys.add(keyValues);
+
+                    if (batch.size() >= insertBatchSize) {
+                        executeInsertBatch(stmt, featureType, keyColumns, batch, batchKeys, !generatedColumns.isEmpty());
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    executeInsertBatch(stmt, featureType, keyColumns, batch, batchKeys, !generatedColumns.isEmpty());
+                }
 
                 if (cx.getAutoCommit()) {
                     fireFeaturesAdded(featureType.getName(), null);
                 }
             } catch (SQLException e) {
-                throw new DataStoreException("Error inserting features",e);
+                throw new DataStoreException("Error inserting features : "+e.getMessage()+"\nSQL Query :"+sql, e);
             } finally {
-                JDBCFeatureStoreUtilities.closeSafe(getLogger(),st);
+                JDBCFeatureStoreUtilities.closeSafe(getLogger(),stmt);
             }
         }
     }
 
+    /**
+     * Send pending insert batch to the database, then report primary key values and feature ids
+     * in inserted features. Given lists are cleared.
+     */
+    private void executeInsertBatch(final PreparedStatement stmt, final ComplexType featureType,
+            final List<ColumnMetaModel> keyColumns, final List<ComplexAttribute> batch,
+            final List<Object[]> batchKeys, final boolean generatedKeys) throws SQLException {
+        stmt.executeBatch();
+
+        int nbKnown = batch.size();
+        if (generatedKeys) {
+            final ResultSet rs = stmt.getGeneratedKeys();
+            try {
+                int row = 0;
+                while (row < batch.size() && rs.next()) {
+                    final Object[] keyValues = batchKeys.get(row++);
+                    int column = 1;
+                    for (int k=0,n=keyColumns.size(); k<n; k++) {
+                        if (keyColumns.get(k).getType() == ColumnMetaModel.Type.AUTO) {
+                            keyValues[k] = rs.getObject(column++);
+                        }
+                    }
+                }
+                if (row < batch.size()) {
+                    getLogger().log(Level.WARNING, "Database driver did not return generated keys of all inserted records, "
+                            + "{0} features identifiers are unknown.", batch.size() - row);
+                }
+                nbKnown = row;
+            } finally {
+                rs.close();
+            }
+        }
+
+        for (int i=0; i<nbKnown; i++) {
+            final ComplexAttribute feature = batch.get(i);
+            final Object[] keyValues = batchKeys.get(i);
+            for (int k=0,n=keyColumns.size(); k<n; k++) {
+                final Property prop = feature.getProperty(keyColumns.get(k).getName());
+                if (prop != null) {
+                    prop.setValue(keyValues[k]);
+                }
+            }
+            //report the feature id as user data since we cant set the fid
+            final String fid = featureType.getName().tip().toString() + "." + PrimaryKey.encodeFID(keyValues);
+            feature.getUserData().put("fid", fid);
+        }
+        batch.clear();
+        batchKeys.clear();
+    }
+
+    /**
+     * Compute primary key values of a feature to insert in batch.
+     * Values defined in the feature are kept, auto generated values are left to null.
+     *
+     * @param lastGenerated last values generated for non incrementing columns by the current batch insert,
+     *        those values are not yet in the table. This table is updated.
+     */
+    protected Object[] nextPrimaryKeyValues(final List<ColumnMetaModel> keyColumns, final ComplexAttribute feature,
+            final Object[] lastGenerated, final Connection cx) throws SQLException, DataStoreException {
+        final Object[] keyValues = new Object[keyColumns.size()];
+        for (int k=0; k<keyValues.length; k++) {
+            final ColumnMetaModel column = keyColumns.get(k);
+            if (column.getType() == ColumnMetaModel.Type.AUTO) {
+                continue;
+            }
+            final Property prop = feature.getProperty(column.getName());
+            Object value = (prop != null) ? prop.getValue() : null;
+            if (value == null || (value instanceof String && ((String) value).isEmpty())) {
+                final Class clazz = column.getJavaType();
+                if (column.getType() == ColumnMetaModel.Type.NON_INCREMENTING && lastGenerated[k] instanceof Number
+                        && (clazz == Short.class || clazz == Integer.class || clazz == Long.class
+                        || BigInteger.class.isAssignableFrom(clazz) || BigDecimal.class.isAssignableFrom(clazz))) {
+                    value = ((Number) lastGenerated[k]).longValue() + 1;
+                } else {
+                    value = column.nextColumnValue(this, cx);
+                }
+                lastGenerated[k] = value;
+            }
+            keyValues[k] = value;
+        }
+        return keyValues;
+    }
+
+    /**
+     * @return index of the column with given name, or -1 if not found.
+     */
+    protected static int indexOf(final List<ColumnMetaModel> columns, final String name) {
+        for (int i=0,n=columns.size(); i<n; i++) {
+            if (columns.get(i).getName().equals(name)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return true if feature type has a coverage property.
+     */
+    protected static boolean hasCoverage(final ComplexType featureType) {
+        for (PropertyDescriptor desc : featureType.getDescriptors()) {
+            if (Coverage.class.isAssignableFrom(desc.getType().getBinding())) return true;
+        }
+        return false;
+    }
+
     protected void insert(final ComplexAttribute feature, final ComplexType featureType,
             final Connection cx) throws DataStoreException {
         
@@ -1144,7 +1331,12 @@ public class DefaultJDBCFeatureStore extends JDBCFeatureStore{
     protected List<FeatureId> handleAddWithFeatureWriter(final GenericName groupName, final Collection<? extends Feature> newFeatures,
             Connection cnx, final Hints hints) throws DataStoreException{
         try{
-            return FeatureStoreUtilities.write(getFeatureWriterAppend(groupName,cnx,hints), newFeatures);
+            final FeatureWriter writer = getFeatureWriterAppend(groupName,cnx,hints);
+            if (writer instanceof JDBCFeatureWriterInsert) {
+                //send features by batches
+                return ((JDBCFeatureWriterInsert) writer).writeAll(newFeatures);
+            }
+            return FeatureStoreUtilities.write(writer, newFeatures);
         }catch(FeatureStoreRuntimeException ex){
             throw new DataStoreException(ex);
         }
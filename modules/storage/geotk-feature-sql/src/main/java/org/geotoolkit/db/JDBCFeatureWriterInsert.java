@@ -16,14 +16,18 @@
  */
 package org.geotoolkit.db;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 
 import org.apache.sis.storage.DataStoreException;
 import org.geotoolkit.data.FeatureStoreRuntimeException;
+import org.geotoolkit.data.FeatureStoreUtilities;
 import org.geotoolkit.data.FeatureWriter;
 import org.geotoolkit.factory.Hints;
 import org.geotoolkit.factory.HintsPending;
@@ -31,7 +35,9 @@ import org.geotoolkit.feature.AbstractFeature;
 import org.geotoolkit.feature.FeatureUtilities;
 import org.geotoolkit.filter.identity.DefaultFeatureId;
 import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.simple.SimpleFeatureType;
 import org.geotoolkit.feature.type.FeatureType;
+import org.opengis.filter.identity.FeatureId;
 
 /**
  * Feature writer for insertion only.
@@ -96,7 +102,7 @@ public class JDBCFeatureWriterInsert extends JDBCFeatureReader implements Featur
         if(batchInsert){
             toAdd.add(last);
             last = (AbstractFeature)FeatureUtilities.defaultFeature(type, "-1");
-            if(toAdd.size() > 1000){
+            if(toAdd.size() >= store.getInsertBatchSize()){
                 try {
                     store.insert(toAdd, type, cx);
                 } catch (DataStoreException e) {
@@ -118,6 +124,69 @@ public class JDBCFeatureWriterInsert extends JDBCFeatureReader implements Featur
         }
     }
 
+    /**
+     * Insert all given features by batches of {@link DefaultJDBCFeatureStore#getInsertBatchSize() } features,
+     * then close this writer. Complex features are written one by one.
+     *
+     * @param features features to insert
+     * @return inserted features ids, in collection order
+     * @throws FeatureStoreRuntimeException
+     */
+    public List<FeatureId> writeAll(final Collection<? extends Feature> features) throws FeatureStoreRuntimeException {
+        if (!(type instanceof SimpleFeatureType)) {
+            return FeatureStoreUtilities.write(this, features);
+        }
+
+        final int batchSize = store.getInsertBatchSize();
+        final List<FeatureId> ids = new ArrayList<>();
+        final List<Feature> batch = new ArrayList<>();
+        final Iterator<? extends Feature> ite = features.iterator();
+        try {
+            while (ite.hasNext()) {
+                final Feature feature = ite.next();
+                final Feature candidate = FeatureUtilities.defaultFeature(type, "-1");
+                FeatureUtilities.copy(feature, candidate, false);
+                if (candidate instanceof AbstractFeature) {
+                    ((AbstractFeature) candidate).setIdentifier(feature.getIdentifier());
+                }
+                batch.add(candidate);
+                if (batch.size() >= batchSize) {
+                    insertBatch(batch, ids);
+                }
+            }
+            if (!batch.isEmpty()) {
+                insertBatch(batch, ids);
+            }
+        } finally {
+            if (ite instanceof Closeable) {
+                try {
+                    ((Closeable) ite).close();
+                } catch (IOException ex) {
+                    throw new FeatureStoreRuntimeException(ex);
+                } finally {
+                    close();
+                }
+            } else {
+                close();
+            }
+        }
+        return ids;
+    }
+
+    private void insertBatch(final List<Feature> batch, final List<FeatureId> ids) throws FeatureStoreRuntimeException {
+        try {
+            store.insert(batch, type, cx);
+        } catch (DataStoreException e) {
+            throw new FeatureStoreRuntimeException(e);
+        }
+        for (Feature feature : batch) {
+            //the featurestore sets as userData
+            final String id = (String) feature.getUserData().get("fid");
+            ids.add((id != null) ? new DefaultFeatureId(id) : feature.getIdentifier());
+        }
+        batch.clear();
+    }
+
     @Override
     public void close() throws FeatureStoreRuntimeException {
 
@@ -16,8 +16,20 @@
  */
 package org.geotoolkit.db.dialect;
 
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.WKBWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.sis.storage.DataStoreException;
 import org.geotoolkit.feature.AttributeTypeBuilder;
 import org.geotoolkit.filter.capability.DefaultFilterCapabilities;
 import org.geotoolkit.filter.visitor.CapabilitiesFilterSplitter;
@@ -32,6 +44,29 @@ import org.opengis.filter.Filter;
  */
 public abstract class AbstractSQLDialect implements SQLDialect {
 
+    /**
+     * JDBC types used when setting null parameters, mapping of attribute bindings.
+     */
+    private static final Map<Class,Integer> CLASS_TO_TYPE = new HashMap<>();
+    static {
+        CLASS_TO_TYPE.put(String.class,         Types.VARCHAR);
+        CLASS_TO_TYPE.put(Character.class,      Types.CHAR);
+        CLASS_TO_TYPE.put(Boolean.class,        Types.BOOLEAN);
+        CLASS_TO_TYPE.put(Byte.class,           Types.TINYINT);
+        CLASS_TO_TYPE.put(Short.class,          Types.SMALLINT);
+        CLASS_TO_TYPE.put(Integer.class,        Types.INTEGER);
+        CLASS_TO_TYPE.put(Long.class,           Types.BIGINT);
+        CLASS_TO_TYPE.put(Float.class,          Types.REAL);
+        CLASS_TO_TYPE.put(Double.class,         Types.DOUBLE);
+        CLASS_TO_TYPE.put(BigInteger.class,     Types.NUMERIC);
+        CLASS_TO_TYPE.put(BigDecimal.class,     Types.NUMERIC);
+        CLASS_TO_TYPE.put(java.sql.Date.class,  Types.DATE);
+        CLASS_TO_TYPE.put(Time.class,           Types.TIME);
+        CLASS_TO_TYPE.put(Timestamp.class,      Types.TIMESTAMP);
+        CLASS_TO_TYPE.put(Date.class,           Types.TIMESTAMP);
+        CLASS_TO_TYPE.put(byte[].class,         Types.VARBINARY);
+    }
+
     @Override
     public boolean ignoreTable(String name) {
         return false;
@@ -82,6 +117,58 @@ public abstract class AbstractSQLDialect implements SQLDialect {
         encodeTableName(sql, tableName);
     }
     
+    /**
+     * Default implementation encodes a simple parameter, geometry is sent as WKB.
+     */
+    @Override
+    public void encodeGeometryParameter(StringBuilder sql) {
+        sql.append('?');
+    }
+
+    /**
+     * Default implementation converts dates to timestamps and set other values as objects.
+     * Null values are set with the JDBC type returned by {@link #getSQLTypeCode(java.lang.Class) }.
+     */
+    @Override
+    public void setValueParameter(PreparedStatement stmt, int index, Object value, Class type) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index, getSQLTypeCode(type));
+        } else if (value instanceof Date && !(value instanceof java.sql.Date
+                || value instanceof java.sql.Time || value instanceof Timestamp)) {
+            stmt.setTimestamp(index, new Timestamp(((Date) value).getTime()));
+        } else {
+            stmt.setObject(index, value);
+        }
+    }
+
+    /**
+     * Get the JDBC type matching an attribute binding, used to set null parameters.
+     * Default implementation maps base java types, arrays to {@link Types#ARRAY}
+     * and other types to {@link Types#OTHER}.
+     *
+     * @param binding attribute binding, can be null
+     * @return one of {@link Types} constants
+     */
+    protected int getSQLTypeCode(Class binding) {
+        if (binding == null) return Types.OTHER;
+        if (binding.isArray() && binding != byte[].class) return Types.ARRAY;
+        final Integer type = CLASS_TO_TYPE.get(binding);
+        return (type != null) ? type : Types.OTHER;
+    }
+
+    /**
+     * Default implementation set geometry as WKB bytes.
+     */
+    @Override
+    public void setGeometryParameter(PreparedStatement stmt, int index, Geometry value, int srid)
+            throws SQLException, DataStoreException {
+        if (value == null) {
+            stmt.setNull(index, Types.BINARY);
+        } else {
+            stmt.setBytes(index, new WKBWriter().write(value));
+        }
+    }
+
     @Override
     public void encodePostColumnCreateTable(StringBuilder sql, AttributeDescriptor att) {
     }
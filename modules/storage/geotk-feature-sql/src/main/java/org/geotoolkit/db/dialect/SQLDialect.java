@@ -19,6 +19,7 @@ package org.geotoolkit.db.dialect;
 import com.vividsolutions.jts.geom.Geometry;
 import java.io.IOException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Map;
@@ -116,6 +117,38 @@ public interface SQLDialect {
     void encodeGeometryValue(StringBuilder sql, Geometry value, int srid) throws DataStoreException;
     
     void encodeCoverageValue(StringBuilder sql, Coverage value) throws DataStoreException;
+
+    /**
+     * Encode a geometry parameter in a prepared statement query,
+     * value will be set with {@link #setGeometryParameter(java.sql.PreparedStatement, int, com.vividsolutions.jts.geom.Geometry, int) }.
+     *
+     * @param sql query to complete
+     */
+    void encodeGeometryParameter(StringBuilder sql);
+
+    /**
+     * Set a prepared statement parameter value.
+     *
+     * @param stmt prepared statement
+     * @param index parameter index, starting at 1
+     * @param value parameter value, can be null
+     * @param type value expected class
+     * @throws SQLException
+     */
+    void setValueParameter(PreparedStatement stmt, int index, Object value, Class type) throws SQLException;
+
+    /**
+     * Set a prepared statement geometry parameter value, encoded in query by
+     * {@link #encodeGeometryParameter(java.lang.StringBuilder) }.
+     *
+     * @param stmt prepared statement
+     * @param index parameter index, starting at 1
+     * @param value geometry, can be null
+     * @param srid geometry srid
+     * @throws SQLException
+     * @throws DataStoreException
+     */
+    void setGeometryParameter(PreparedStatement stmt, int index, Geometry value, int srid) throws SQLException, DataStoreException;
     
     void encodePrimaryKey(StringBuilder sql, Class binding, String sqlType);
 
@@ -321,6 +321,48 @@ public class SQLQueryBuilder {
     }
 
 
+    /**
+     * Generates a 'INSERT INTO' sql statement with a parameter for each given column,
+     * to be used as a prepared statement.
+     * Geometry parameters are encoded by {@link SQLDialect#encodeGeometryParameter(java.lang.StringBuilder) }.
+     * If there are no columns, all values are generated by the database with 'DEFAULT VALUES'.
+     *
+     * @param featureType inserted type
+     * @param columns inserted columns, in parameters order
+     * @return prepared statement sql
+     */
+    public String insertPreparedSQL(final ComplexType featureType, final List<? extends PropertyDescriptor> columns) {
+        final StringBuilder sqlType = new StringBuilder();
+        sqlType.append("INSERT INTO ");
+        dialect.encodeSchemaAndTableName(sqlType, databaseSchema, featureType.getName().tip().toString());
+        if (columns.isEmpty()) {
+            //only auto generated columns
+            sqlType.append(" DEFAULT VALUES");
+            return sqlType.toString();
+        }
+        sqlType.append(" ( ");
+
+        final StringBuilder sqlValues = new StringBuilder();
+        sqlValues.append(" ) VALUES ( ");
+
+        for(PropertyDescriptor desc : columns){
+            dialect.encodeColumnName(sqlType, desc.getName().tip().toString());
+            if (Geometry.class.isAssignableFrom(desc.getType().getBinding())) {
+                dialect.encodeGeometryParameter(sqlValues);
+            } else {
+                sqlValues.append('?');
+            }
+            sqlType.append(',');
+            sqlValues.append(',');
+        }
+
+        sqlType.setLength(sqlType.length() - 1);
+        sqlValues.setLength(sqlValues.length() - 1);
+        sqlValues.append(")");
+
+        return sqlType.toString() + sqlValues.toString();
+    }
+
     /**
      * Generates an 'UPDATE' sql statement.
      */
@@ -17,10 +17,19 @@
 
 package org.geotoolkit.data;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import org.apache.sis.storage.DataStoreException;
+import org.apache.sis.util.logging.Logging;
+import org.geotoolkit.data.memory.FeatureSpillFile;
 import org.geotoolkit.data.query.Join;
 import org.geotoolkit.data.query.JoinType;
 import org.geotoolkit.data.query.Query;
@@ -30,6 +39,7 @@ import org.geotoolkit.data.query.Selector;
 import org.geotoolkit.data.query.Source;
 import org.geotoolkit.factory.FactoryFinder;
 import org.geotoolkit.factory.Hints;
+import org.geotoolkit.factory.HintsPending;
 import org.geotoolkit.feature.AttributeDescriptorBuilder;
 import org.geotoolkit.util.NamesExt;
 import org.geotoolkit.feature.FeatureTypeBuilder;
@@ -38,6 +48,7 @@ import org.geotoolkit.feature.FeatureFactory;
 import org.geotoolkit.feature.Property;
 import org.geotoolkit.feature.type.AttributeDescriptor;
 import org.geotoolkit.feature.type.FeatureType;
+import org.geotoolkit.feature.type.PropertyDescriptor;
 import org.opengis.util.GenericName;
 import org.opengis.filter.Filter;
 import org.opengis.filter.FilterFactory;
@@ -46,6 +57,12 @@ import org.opengis.filter.expression.PropertyName;
 
 /**
  * FeatureCollection that takes it'es source from a join query.
+ * <br/>
+ * Features are matched either with a nested loop, making one query on a join side for
+ * each feature of the other side, or with a hash join, loading one side in a hash table
+ * and reading the other side once. Hash join is used unless the key types can not be hashed
+ * or the size of each side and the feature store query capabilities makes the nested loop cheaper.
+ * Strategy can be forced with the {@link HintsPending#JOIN_HASH} hint.
  *
  * @author Johann Sorel (Geomatys)
  * @module pending
@@ -56,6 +73,24 @@ public class DefaultJoinFeatureCollection extends AbstractFeatureCollection{
 
     private static final FilterFactory FF = FactoryFinder.getFilterFactory(null);
 
+    private static final Logger LOGGER = Logging.getLogger("org.geotoolkit.data");
+
+    /**
+     * Default maximum number of features kept in memory by hash joins.
+     */
+    private static final int DEFAULT_HASH_MAX_FEATURES = 100000;
+
+    /**
+     * Maximum number of partitions when hash join features do not fit in memory.
+     */
+    private static final int MAX_PARTITIONS = 256;
+
+    /**
+     * Estimated cost of one query on a feature store which can handle queries
+     * in its own language, relative to the cost of reading one feature.
+     */
+    private static final int INDEXED_QUERY_COST = 50;
+
     private final Query query;
     private final FeatureCollection leftCollection;
     private final FeatureCollection rightCollection;
@@ -154,7 +189,9 @@ public class DefaultJoinFeatureCollection extends AbstractFeatureCollection{
         final JoinType jt = getSource().getJoinType();
 
         try{
-            if(jt == JoinType.INNER){
+            if(useHashJoin(hints)){
+                return new JoinHashRowIterator(jt, hints);
+            }else if(jt == JoinType.INNER){
                 return new JoinInnerRowIterator(null);
             }else if(jt == JoinType.LEFT_OUTER){
                 return new JoinOuterRowIterator(true,null);
@@ -168,6 +205,103 @@ public class DefaultJoinFeatureCollection extends AbstractFeatureCollection{
         }
     }
 
+    /**
+     * Get hint value from iterator hints or from query hints.
+     */
+    private Object getHint(final Hints hints, final Hints.Key key) {
+        Object value = (hints != null) ? hints.get(key) : null;
+        if (value == null && query.getHints() != null) {
+            value = query.getHints().get(key);
+        }
+        return value;
+    }
+
+    /**
+     * Choose between hash join and nested loop.
+     * A nested loop makes one query on the secondary side for each feature of the primary side,
+     * it is cheaper only if primary side is very small or if secondary side feature store
+     * can handle queries in its own language, which is expected to use an index.
+     */
+    private boolean useHashJoin(final Hints hints) {
+        if (!isHashable()) return false;
+        final Object forced = getHint(hints, HintsPending.JOIN_HASH);
+        if (forced != null) return (Boolean) forced;
+
+        final boolean rightOuter = getSource().getJoinType() == JoinType.RIGHT_OUTER;
+        final FeatureCollection prime  = rightOuter ? rightCollection : leftCollection;
+        final FeatureCollection second = rightOuter ? leftCollection : rightCollection;
+        final long primeCount  = estimateCount(prime);
+        final long secondCount = estimateCount(second);
+        if (primeCount < 0 || secondCount < 0) return true;
+
+        final long loopCost = primeCount * (isIndexed(second) ? INDEXED_QUERY_COST : Math.max(1, secondCount));
+        final long hashCost = primeCount + secondCount;
+        return hashCost < loopCost;
+    }
+
+    /**
+     * Hash join can be used only if both key types have compatible hash codes :
+     * numbers, dates, or same string or boolean type.
+     */
+    private boolean isHashable() {
+        final PropertyIsEqualTo equal = getSource().getJoinCondition();
+        final Object leftKey = equal.getExpression1().evaluate(leftCollection.getFeatureType());
+        final Object rightKey = equal.getExpression2().evaluate(rightCollection.getFeatureType());
+        if (!(leftKey instanceof PropertyDescriptor) || !(rightKey instanceof PropertyDescriptor)) {
+            return false;
+        }
+        final Class leftBinding = ((PropertyDescriptor) leftKey).getType().getBinding();
+        final Class rightBinding = ((PropertyDescriptor) rightKey).getType().getBinding();
+        if (Number.class.isAssignableFrom(leftBinding) && Number.class.isAssignableFrom(rightBinding)) {
+            return true;
+        } else if (Date.class.isAssignableFrom(leftBinding) && Date.class.isAssignableFrom(rightBinding)) {
+            return true;
+        }
+        return leftBinding == rightBinding
+            && (leftBinding == String.class || leftBinding == Boolean.class || leftBinding == Character.class);
+    }
+
+    /**
+     * Number of features from feature store count.
+     *
+     * @return number of features or -1 if count is unknown or expensive.
+     */
+    private static long estimateCount(final FeatureCollection col) {
+        if (!(col.getSource() instanceof Selector)) return -1;
+        try {
+            return col.size();
+        } catch (FeatureStoreRuntimeException ex) {
+            LOGGER.log(Level.FINE, ex.getMessage(), ex);
+            return -1;
+        }
+    }
+
+    /**
+     * Check if collection feature store handles other query languages than {@link Query#GEOTK_QOM}.
+     */
+    private static boolean isIndexed(final FeatureCollection col) {
+        if (!(col.getSource() instanceof Selector)) return false;
+        final Selector selector = (Selector) col.getSource();
+        return selector.getSession().getFeatureStore().getQueryCapabilities().getSupportedQueryLanguages().length > 1;
+    }
+
+    /**
+     * Normalize join key so that equal numbers of different types have the same hash code.
+     */
+    private static Object hashKey(final Object value) {
+        if (value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long) {
+            return ((Number) value).longValue();
+        } else if (value instanceof Number) {
+            final double d = ((Number) value).doubleValue();
+            final long l = (long) d;
+            if (l == d) return l;
+            return d;
+        } else if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        return value;
+    }
+
     @Override
     public void update(final Filter filter, final Map<? extends AttributeDescriptor, ? extends Object> values) throws DataStoreException {
         if(isWritable()){
@@ -186,6 +320,301 @@ public class DefaultJoinFeatureCollection extends AbstractFeatureCollection{
         }
     }
 
+    /**
+     * Iterate on both collections with a hash join.
+     * Features of the build side are stored in a hash table by join key, then features of the
+     * probe side are read once and matched against the table. If the build side exceeds the
+     * maximum number of features in memory, both sides are partitioned by key hash in temporary
+     * files and each partition is joined separately.
+     */
+    private class JoinHashRowIterator implements FeatureIterator{
+
+        /** true if hash table contains left features */
+        private final boolean buildLeft;
+        /** true if probe features without match are returned alone */
+        private final boolean outer;
+        private final FeatureCollection buildCollection;
+        private final FeatureCollection probeCollection;
+        private final PropertyName buildProperty;
+        private final PropertyName probeProperty;
+        private final int maxFeatures;
+
+        private Map<Object,List<Feature>> table = new HashMap<>();
+        private FeatureIterator probeIterator;
+        /** partitions stored on disk, null if build side fits in memory */
+        private FeatureSpillFile[] buildPartitions;
+        private FeatureSpillFile[] probePartitions;
+        private int partition = -1;
+
+        private Feature probeFeature;
+        private List<Feature> matches;
+        private int matchIndex;
+        private boolean probeMatched;
+        private Feature combined;
+
+        JoinHashRowIterator(final JoinType jt, final Hints hints) throws DataStoreException{
+            final PropertyIsEqualTo equal = getSource().getJoinCondition();
+            if(jt == JoinType.INNER){
+                //build hash table on smallest side
+                final long leftCount = estimateCount(leftCollection);
+                final long rightCount = estimateCount(rightCollection);
+                buildLeft = leftCount >= 0 && rightCount >= 0 && leftCount < rightCount;
+            }else{
+                buildLeft = (jt == JoinType.RIGHT_OUTER);
+            }
+            outer = (jt != JoinType.INNER);
+            buildCollection = buildLeft ? leftCollection : rightCollection;
+            probeCollection = buildLeft ? rightCollection : leftCollection;
+            buildProperty = (PropertyName) (buildLeft ? equal.getExpression1() : equal.getExpression2());
+            probeProperty = (PropertyName) (buildLeft ? equal.getExpression2() : equal.getExpression1());
+            final Object max = getHint(hints, HintsPending.JOIN_HASH_MAX_FEATURES);
+            maxFeatures = (max != null) ? (Integer) max : DEFAULT_HASH_MAX_FEATURES;
+
+            try{
+                build();
+            }catch(IOException ex){
+                close();
+                throw new DataStoreException(ex.getMessage(), ex);
+            }catch(RuntimeException ex){
+                close();
+                throw ex;
+            }
+        }
+
+        private void build() throws IOException{
+            final FeatureIterator ite = buildCollection.iterator();
+            try{
+                int count = 0;
+                while(ite.hasNext()){
+                    final Feature feature = ite.next();
+                    if(count == maxFeatures && buildPartitions == null){
+                        if(FeatureSpillFile.isSupported(buildCollection.getFeatureType())
+                                && FeatureSpillFile.isSupported(probeCollection.getFeatureType())){
+                            startPartitioning();
+                        }else{
+                            LOGGER.log(Level.WARNING, "Hash join exceeds {0} features but complex features can not be"
+                                    + " stored in temporary files, all features are kept in memory.", maxFeatures);
+                        }
+                    }
+                    final Object key = hashKey(buildProperty.evaluate(feature));
+                    if(key == null){
+                        //null never match
+                    }else if(buildPartitions != null){
+                        buildPartitions[partitionOf(key)].write(feature);
+                    }else{
+                        List<Feature> lst = table.get(key);
+                        if(lst == null){
+                            lst = new ArrayList<>(1);
+                            table.put(key, lst);
+                        }
+                        lst.add(feature);
+                    }
+                    count++;
+                }
+            }finally{
+                ite.close();
+            }
+
+            if(buildPartitions == null){
+                probeIterator = probeCollection.iterator();
+            }else{
+                final FeatureIterator probe = probeCollection.iterator();
+                try{
+                    while(probe.hasNext()){
+                        final Feature feature = probe.next();
+                        //null keys are stored in first partition, they are returned alone in outer joins
+                        final Object key = hashKey(probeProperty.evaluate(feature));
+                        probePartitions[(key == null) ? 0 : partitionOf(key)].write(feature);
+                    }
+                }finally{
+                    probe.close();
+                }
+                nextPartition();
+            }
+        }
+
+        /**
+         * Create partition files and move current hash table features in them.
+         */
+        private void startPartitioning() throws IOException{
+            final long estimate = estimateCount(buildCollection);
+            //aim for partitions half the maximum size, to tolerate uneven key distributions
+            final int nb = (estimate < 0) ? 16 : (int) Math.max(2, Math.min(MAX_PARTITIONS, 2 * estimate / maxFeatures + 1));
+            buildPartitions = new FeatureSpillFile[nb];
+            probePartitions = new FeatureSpillFile[nb];
+            for(int i=0;i<nb;i++){
+                buildPartitions[i] = new FeatureSpillFile(buildCollection.getFeatureType());
+                probePartitions[i] = new FeatureSpillFile(probeCollection.getFeatureType());
+            }
+            for(Map.Entry<Object,List<Feature>> entry : table.entrySet()){
+                final FeatureSpillFile file = buildPartitions[partitionOf(entry.getKey())];
+                for(Feature feature : entry.getValue()){
+                    file.write(feature);
+                }
+            }
+            table.clear();
+        }
+
+        /**
+         * Partition index from key hash code, high bits of a multiplicative hash are used
+         * to avoid correlations with hash table buckets.
+         */
+        private int partitionOf(final Object key){
+            final long hash = (key.hashCode() * 0x9E3779B9) & 0xFFFFFFFFL;
+            return (int) ((hash * buildPartitions.length) >>> 32);
+        }
+
+        /**
+         * Load next partition in hash table.
+         *
+         * @return false if there are no more partitions
+         */
+        private boolean nextPartition() throws IOException{
+            if(probeIterator != null){
+                probeIterator.close();
+                probeIterator = null;
+            }
+            if(partition >= 0){
+                buildPartitions[partition].close();
+                probePartitions[partition].close();
+            }
+            partition++;
+            if(partition >= buildPartitions.length){
+                return false;
+            }
+
+            table = new HashMap<>();
+            final FeatureIterator ite = buildPartitions[partition].reader();
+            try{
+                while(ite.hasNext()){
+                    final Feature feature = ite.next();
+                    final Object key = hashKey(buildProperty.evaluate(feature));
+                    List<Feature> lst = table.get(key);
+                    if(lst == null){
+                        lst = new ArrayList<>(1);
+                        table.put(key, lst);
+                    }
+                    lst.add(feature);
+                }
+            }finally{
+                ite.close();
+            }
+            probeIterator = probePartitions[partition].reader();
+            return true;
+        }
+
+        @Override
+        public Feature next() {
+            try {
+                searchNext();
+            } catch (DataStoreException | IOException ex) {
+                throw new FeatureStoreRuntimeException(ex);
+            }
+            Feature f = combined;
+            combined = null;
+            return f;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                searchNext();
+            } catch (DataStoreException | IOException ex) {
+                throw new FeatureStoreRuntimeException(ex);
+            }
+            return combined != null;
+        }
+
+        private void searchNext() throws DataStoreException, IOException{
+            while(combined == null){
+                if(matches != null){
+                    //we might have several build features for one probe feature
+                    while(combined == null && matchIndex < matches.size()){
+                        combined = checkValid(probeFeature, matches.get(matchIndex++));
+                    }
+                    if(combined != null){
+                        probeMatched = true;
+                        return;
+                    }
+                    matches = null;
+                    if(outer && !probeMatched){
+                        //outer effect, no match but still we must return the probe side
+                        combined = buildLeft ? toFeature(null, probeFeature) : toFeature(probeFeature, null);
+                        return;
+                    }
+                }
+
+                if(probeIterator == null){
+                    return;
+                }else if(!probeIterator.hasNext()){
+                    if(buildPartitions == null){
+                        probeIterator.close();
+                        probeIterator = null;
+                        table = Collections.emptyMap();
+                    }else{
+                        //probe iterator is null if this was the last partition
+                        nextPartition();
+                    }
+                    continue;
+                }
+
+                probeFeature = probeIterator.next();
+                final Object key = hashKey(probeProperty.evaluate(probeFeature));
+                matches = (key == null) ? null : table.get(key);
+                if(matches == null){
+                    matches = Collections.emptyList();
+                }
+                matchIndex = 0;
+                probeMatched = false;
+            }
+        }
+
+        private Feature checkValid(final Feature probe, final Feature build) throws DataStoreException{
+            final Feature candidate = buildLeft ? toFeature(build, probe) : toFeature(probe, build);
+
+            if(query.getFilter().evaluate(candidate)){
+                //combine both rows
+                return candidate;
+            }else{
+                //not a valid combinaison
+                return null;
+            }
+        }
+
+        @Override
+        public void close() {
+            if(probeIterator != null){
+                probeIterator.close();
+                probeIterator = null;
+            }
+            table = Collections.emptyMap();
+            if(buildPartitions != null){
+                IOException error = null;
+                for(int i=0;i<buildPartitions.length;i++){
+                    for(FeatureSpillFile file : new FeatureSpillFile[]{buildPartitions[i], probePartitions[i]}){
+                        if(file == null) continue;
+                        try{
+                            file.close();
+                        }catch(IOException ex){
+                            error = ex;
+                        }
+                    }
+                }
+                buildPartitions = null;
+                probePartitions = null;
+                if(error != null){
+                    throw new FeatureStoreRuntimeException(error);
+                }
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Not supported yet on join queries.");
+        }
+
+    }
+
     /**
      * Iterate on both collections with an Inner join condition.
      */
@@ -33,6 +33,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import org.apache.sis.storage.DataStoreException;
 import org.geotoolkit.data.memory.MemoryFeatureStore;
@@ -274,6 +280,48 @@ public class FeatureStoreUtilities {
         return new FeatureReaderSequence(readers);
     }
 
+    /**
+     * Split a reader in at most the given number of readers, of similar sizes when possible.
+     * The given reader is the first reader of the returned list.
+     *
+     * @param reader reader to split
+     * @param nbSplits wanted number of readers
+     * @return list of readers, may be smaller then nbSplits if the reader could not be split enough
+     */
+    public static List<SplitFeatureReader> split(final SplitFeatureReader reader, final int nbSplits){
+        ensureNonNull("reader", reader);
+        ensureStrictlyPositive("nbSplits", nbSplits);
+        final List<SplitFeatureReader> readers = new ArrayList<>();
+        readers.add(reader);
+        while(readers.size() < nbSplits){
+            //split the largest reader
+            SplitFeatureReader largest = readers.get(0);
+            for(SplitFeatureReader candidate : readers){
+                if(candidate.estimateSize() > largest.estimateSize()) largest = candidate;
+            }
+            final SplitFeatureReader part = largest.trySplit();
+            if(part == null) break;
+            readers.add(part);
+        }
+        return readers;
+    }
+
+    /**
+     * Read a split reader with several threads.
+     * <br/>
+     * The reader is split in nbThreads readers, each one is read by its own thread and
+     * features are given to the returned reader through a bounded queue. The returned reader
+     * must be used by a single thread, features order is not preserved.
+     * Closing the returned reader stops the reading threads and closes the split readers.
+     *
+     * @param reader reader to read in parallel
+     * @param nbThreads number of reading threads
+     * @return FeatureReader returning all features of the split reader
+     */
+    public static FeatureReader parallel(final SplitFeatureReader reader, final int nbThreads){
+        return new ParallelFeatureReader(reader, split(reader, nbThreads));
+    }
+
     /**
      * Combine several FeatureIterator in one and merge them using the sort by orders.
      * All given iterator must already be sorted.
@@ -727,6 +775,167 @@ public class FeatureStoreUtilities {
 
     }
 
+    /**
+     * Read split readers concurrently, features are exchanged through a bounded queue.
+     * <br/>
+     * The first error raised by a split reader stops all reading threads and is
+     * thrown by the next call to hasNext or next.
+     *
+     * @author Johann Sorel (Geomatys)
+     * @module pending
+     */
+    private static class ParallelFeatureReader implements FeatureReader {
+
+        /**
+         * Marker put in the queue when a split reader is finished.
+         */
+        private static final Object END = new Object();
+
+        private final FeatureType type;
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(1024);
+        private final ExecutorService executor;
+        private volatile boolean closed = false;
+        private volatile Throwable error = null;
+        private int running;
+        private Feature next = null;
+
+        private ParallelFeatureReader(final FeatureReader reader, final List<SplitFeatureReader> parts) {
+            this.type = reader.getFeatureType();
+            this.running = parts.size();
+            this.executor = Executors.newFixedThreadPool(parts.size(), new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "Parallel feature reader");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            for(final SplitFeatureReader part : parts){
+                executor.execute(new PartReader(part));
+            }
+            executor.shutdown();
+        }
+
+        /**
+         * Keep the first error and stop all reading threads.
+         */
+        private synchronized void fail(final Throwable ex) {
+            if(error == null) error = ex;
+            stop();
+        }
+
+        private void stop() {
+            closed = true;
+            for(Runnable r : executor.shutdownNow()){
+                //parts which have not been started
+                ((PartReader) r).closePart();
+            }
+            queue.clear();
+        }
+
+        private void checkError() throws FeatureStoreRuntimeException {
+            final Throwable ex = error;
+            if(ex != null){
+                throw new FeatureStoreRuntimeException(ex.getMessage(), ex);
+            }
+        }
+
+        /**
+         * Wait for space in the queue, gives up if the reader is closed.
+         */
+        private void push(final Object obj) {
+            try{
+                while(!closed){
+                    if(queue.offer(obj, 100, TimeUnit.MILLISECONDS)) return;
+                }
+            }catch(InterruptedException ex){
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public FeatureType getFeatureType() {
+            return type;
+        }
+
+        @Override
+        public boolean hasNext() throws FeatureStoreRuntimeException {
+            checkError();
+            if(closed) return false;
+            try{
+                while(next == null && running > 0){
+                    final Object obj = queue.poll(100, TimeUnit.MILLISECONDS);
+                    checkError();
+                    if(obj == null){
+                        if(closed) return false;
+                    }else if(obj == END){
+                        running--;
+                    }else{
+                        next = (Feature) obj;
+                    }
+                }
+            }catch(InterruptedException ex){
+                throw new FeatureStoreRuntimeException(ex);
+            }
+            return next != null;
+        }
+
+        @Override
+        public Feature next() throws FeatureStoreRuntimeException {
+            if(!hasNext()){
+                throw new NoSuchElementException("No more elements");
+            }
+            final Feature f = next;
+            next = null;
+            return f;
+        }
+
+        @Override
+        public void close() {
+            stop();
+        }
+
+        @Override
+        public void remove() {
+            throw new FeatureStoreRuntimeException("Can not remove from a feature reader.");
+        }
+
+        /**
+         * Push the features of a split reader in the queue.
+         */
+        private final class PartReader implements Runnable {
+
+            private final SplitFeatureReader part;
+
+            private PartReader(final SplitFeatureReader part) {
+                this.part = part;
+            }
+
+            @Override
+            public void run() {
+                try{
+                    while(!closed && part.hasNext()){
+                        push(part.next());
+                    }
+                }catch(Throwable ex){
+                    fail(ex);
+                }finally{
+                    closePart();
+                    push(END);
+                }
+            }
+
+            private void closePart() {
+                try{
+                    part.close();
+                }catch(Throwable ex){
+                    fail(ex);
+                }
+            }
+        }
+
+    }
+
     /**
      * Combine several FeatureIterator and merge them using the comparator given.
      * All given iterator must already be ordered this same comparator, otherwise the results
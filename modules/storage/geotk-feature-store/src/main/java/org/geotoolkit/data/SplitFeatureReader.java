@@ -0,0 +1,53 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data;
+
+/**
+ * A FeatureReader which can be split in readers on independent parts of the data,
+ * in the spirit of java 8 Spliterator.
+ * <br/>
+ * Each reader is used by a single thread, but different readers obtained by
+ * splitting can be read by different threads at the same time.
+ * Features order between readers is not defined.
+ * <br/>
+ * Splitting must be done before reading : once features have been read,
+ * implementations may refuse to split and return null.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public interface SplitFeatureReader extends FeatureReader {
+
+    /**
+     * Split the remaining features of this reader.
+     * On success this reader is reduced to a part of its remaining features
+     * and the returned reader holds the other part.
+     *
+     * @return reader on a part of the remaining features, or null if this reader can not be split
+     * @throws FeatureStoreRuntimeException if the new reader could not be created
+     */
+    SplitFeatureReader trySplit() throws FeatureStoreRuntimeException;
+
+    /**
+     * Estimated number of features remaining in this reader,
+     * features may be less if the reader has a filter.
+     *
+     * @return estimated number of features
+     */
+    long estimateSize();
+
+}
@@ -0,0 +1,48 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data;
+
+import org.apache.sis.storage.DataStoreException;
+import org.geotoolkit.data.query.Query;
+
+/**
+ * A FeatureStore which can read a query with several threads.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public interface SplittableFeatureStore {
+
+    /**
+     * Test if a query can be read with a {@link SplitFeatureReader}.
+     * Queries requiring an order on the features, like sorted or paged queries, usually can not.
+     *
+     * @param query tested query
+     * @return true if {@link #getSplitFeatureReader(org.geotoolkit.data.query.Query) } supports this query
+     */
+    boolean isSplittable(Query query);
+
+    /**
+     * Get a reader on the query result which can be split for concurrent reading.
+     *
+     * @param query splittable query
+     * @return split reader, never null
+     * @throws DataStoreException if query is not splittable or reader creation failed
+     */
+    SplitFeatureReader getSplitFeatureReader(Query query) throws DataStoreException;
+
+}
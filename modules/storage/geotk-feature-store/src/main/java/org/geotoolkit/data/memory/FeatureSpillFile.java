@@ -0,0 +1,398 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.memory;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateFilter;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKBReader;
+import com.vividsolutions.jts.io.WKBWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.apache.sis.util.ArgumentChecks;
+import org.geotoolkit.data.FeatureIterator;
+import org.geotoolkit.data.FeatureStoreRuntimeException;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.FeatureFactory;
+import org.geotoolkit.feature.Property;
+import org.geotoolkit.feature.simple.SimpleFeatureType;
+import org.geotoolkit.feature.type.AttributeDescriptor;
+import org.geotoolkit.feature.type.FeatureType;
+
+/**
+ * Temporary file storing features of a simple feature type, used by generic
+ * iterators and collections when features do not fit in memory.<br/>
+ * Features are appended with {@link #write(org.geotoolkit.feature.Feature) } then read back
+ * in the same order with {@link #reader() }.<br/>
+ * Numbers, booleans, strings and dates are stored in a compact binary form, geometries are
+ * stored in WKB. Other attribute values are stored with java serialization, so they must be serializable.
+ *
+ * <blockquote><font size=-1>
+ * <strong>NOTE: features user data are not stored. Geometries are read back with a default geometry factory,
+ * their user data, usually the coordinate reference system, are kept in memory when shared by many geometries.</strong>
+ * </font></blockquote>
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public final class FeatureSpillFile implements Closeable {
+
+    private static final FeatureFactory FEATURE_FACTORY = FeatureFactory.LENIENT;
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    /**
+     * Maximum number of distinct geometry user data kept in memory,
+     * other user data are serialized with the geometry.
+     */
+    private static final int MAX_USER_DATA = 1024;
+
+    //value type tags
+    private static final byte NULL      = 0;
+    private static final byte BOOLEAN   = 1;
+    private static final byte BYTE      = 2;
+    private static final byte SHORT     = 3;
+    private static final byte INTEGER   = 4;
+    private static final byte LONG      = 5;
+    private static final byte FLOAT     = 6;
+    private static final byte DOUBLE    = 7;
+    private static final byte STRING    = 8;
+    private static final byte DATE      = 9;
+    private static final byte TIMESTAMP = 10;
+    private static final byte GEOMETRY  = 11;
+    private static final byte OBJECT    = 12;
+
+    //geometry user data tags
+    private static final int NO_USER_DATA = -1;
+    private static final int SERIALIZED_USER_DATA = -2;
+
+    private final SimpleFeatureType type;
+    private final List<AttributeDescriptor> descriptors;
+    private final File file;
+    private DataOutputStream out;
+    private int size = 0;
+
+    /**
+     * Geometry user data shared by many geometries, referenced by index in the file.
+     */
+    private final List<Object> userDatas = new ArrayList<>();
+    private final Map<Object,Integer> userDataIndexes = new IdentityHashMap<>();
+
+    /**
+     * Create a new empty spill file.
+     *
+     * @param type type of stored features, must be a {@link SimpleFeatureType}.
+     * @throws IOException if temporary file can not be created.
+     */
+    public FeatureSpillFile(final FeatureType type) throws IOException {
+        ArgumentChecks.ensureNonNull("type", type);
+        if (!isSupported(type)) {
+            throw new IllegalArgumentException("Only simple feature types can be stored, found : "+type.getName());
+        }
+        this.type = (SimpleFeatureType) type;
+        this.descriptors = this.type.getAttributeDescriptors();
+        file = File.createTempFile("features", ".spill");
+        file.deleteOnExit();
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    }
+
+    /**
+     * Test if features of given type can be stored.
+     *
+     * @param type tested type
+     * @return true for simple feature types.
+     */
+    public static boolean isSupported(final FeatureType type) {
+        return type instanceof SimpleFeatureType;
+    }
+
+    /**
+     * @return number of features written.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Append a feature at the end of the file.
+     *
+     * @param feature feature to store
+     * @throws IOException if writing failed or if an attribute value is not serializable.
+     */
+    public void write(final Feature feature) throws IOException {
+        if (out == null) {
+            throw new IOException("Spill file is closed for writing.");
+        }
+        writeString(out, feature.getIdentifier().getID());
+        for (AttributeDescriptor desc : descriptors) {
+            final Property prop = feature.getProperty(desc.getName());
+            writeValue((prop == null) ? null : prop.getValue());
+        }
+        size++;
+    }
+
+    private void writeValue(final Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value.getClass() == Date.class) {
+            out.writeByte(DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value.getClass() == Timestamp.class) {
+            out.writeByte(TIMESTAMP);
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof Geometry && isWKBCompatible((Geometry) value)) {
+            final Geometry geom = (Geometry) value;
+            out.writeByte(GEOMETRY);
+            final byte[] wkb = new WKBWriter(is3D(geom) ? 3 : 2, true).write(geom);
+            out.writeInt(wkb.length);
+            out.write(wkb);
+            writeUserData(geom.getUserData());
+        } else {
+            out.writeByte(OBJECT);
+            writeObject(out, value);
+        }
+    }
+
+    private void writeUserData(final Object userData) throws IOException {
+        if (userData == null) {
+            out.writeInt(NO_USER_DATA);
+            return;
+        }
+        Integer index = userDataIndexes.get(userData);
+        if (index == null && userDatas.size() < MAX_USER_DATA) {
+            index = userDatas.size();
+            userDatas.add(userData);
+            userDataIndexes.put(userData, index);
+        }
+        if (index != null) {
+            out.writeInt(index);
+        } else {
+            out.writeInt(SERIALIZED_USER_DATA);
+            writeObject(out, userData);
+        }
+    }
+
+    /**
+     * WKB can not represent linear rings and empty points.
+     */
+    private static boolean isWKBCompatible(final Geometry geom) {
+        return !(geom instanceof LinearRing) && !(geom instanceof Point && geom.isEmpty());
+    }
+
+    private static boolean is3D(final Geometry geom) {
+        final boolean[] found = new boolean[1];
+        geom.apply(new CoordinateFilter() {
+            @Override
+            public void filter(final Coordinate coord) {
+                if (!Double.isNaN(coord.z)) found[0] = true;
+            }
+        });
+        return found[0];
+    }
+
+    private static void writeString(final DataOutputStream out, final String str) throws IOException {
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeObject(final DataOutputStream out, final Object value) throws IOException {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(buffer)) {
+            oos.writeObject(value);
+        }
+        out.writeInt(buffer.size());
+        buffer.writeTo(out);
+    }
+
+    /**
+     * Finish writing and iterate on stored features, in writing order.
+     * No features can be written after this call, but several readers can be opened.
+     *
+     * @return feature iterator, must be closed.
+     * @throws IOException if file can not be read.
+     */
+    public FeatureIterator reader() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+        return new Reader();
+    }
+
+    /**
+     * Delete the file.
+     *
+     * @throws IOException if file can not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    private final class Reader implements FeatureIterator {
+
+        private final DataInputStream in;
+        private final WKBReader wkbReader = new WKBReader(GEOMETRY_FACTORY);
+        private int index = 0;
+
+        private Reader() throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        }
+
+        @Override
+        public boolean hasNext() throws FeatureStoreRuntimeException {
+            return index < size;
+        }
+
+        @Override
+        public Feature next() throws FeatureStoreRuntimeException {
+            if (index >= size) {
+                throw new NoSuchElementException("No more features.");
+            }
+            try {
+                final String id = readString();
+                final Object[] values = new Object[descriptors.size()];
+                for (int i=0; i<values.length; i++) {
+                    values[i] = readValue();
+                }
+                index++;
+                return FEATURE_FACTORY.createSimpleFeature(values, type, id);
+            } catch (IOException | ClassNotFoundException | ParseException ex) {
+                throw new FeatureStoreRuntimeException(ex);
+            }
+        }
+
+        private Object readValue() throws IOException, ClassNotFoundException, ParseException {
+            final byte tag = in.readByte();
+            switch (tag) {
+                case NULL      : return null;
+                case BOOLEAN   : return in.readBoolean();
+                case BYTE      : return in.readByte();
+                case SHORT     : return in.readShort();
+                case INTEGER   : return in.readInt();
+                case LONG      : return in.readLong();
+                case FLOAT     : return in.readFloat();
+                case DOUBLE    : return in.readDouble();
+                case STRING    : return readString();
+                case DATE      : return new Date(in.readLong());
+                case TIMESTAMP : {
+                    final Timestamp ts = new Timestamp(in.readLong());
+                    ts.setNanos(in.readInt());
+                    return ts;
+                }
+                case GEOMETRY  : {
+                    final byte[] wkb = new byte[in.readInt()];
+                    in.readFully(wkb);
+                    final Geometry geom = wkbReader.read(wkb);
+                    final int userData = in.readInt();
+                    if (userData == SERIALIZED_USER_DATA) {
+                        geom.setUserData(readObject());
+                    } else if (userData != NO_USER_DATA) {
+                        geom.setUserData(userDatas.get(userData));
+                    }
+                    return geom;
+                }
+                case OBJECT    : return readObject();
+                default : throw new IOException("Unexpected value type : "+tag);
+            }
+        }
+
+        private String readString() throws IOException {
+            final byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private Object readObject() throws IOException, ClassNotFoundException {
+            final byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                return ois.readObject();
+            }
+        }
+
+        @Override
+        public void close() throws FeatureStoreRuntimeException {
+            try {
+                in.close();
+            } catch (IOException ex) {
+                throw new FeatureStoreRuntimeException(ex);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Not supported.");
+        }
+    }
+}
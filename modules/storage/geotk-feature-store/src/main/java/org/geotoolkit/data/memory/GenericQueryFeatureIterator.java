@@ -63,13 +63,6 @@ public class GenericQueryFeatureIterator {
         //          otherwise the result will be illogic.
 
 
-        //wrap sort by ---------------------------------------------------------
-        //This can be really expensive, and force the us to read the full iterator.
-        //that may cause out of memory errors.
-        if(sorts != null && sorts.length != 0){
-            reader = GenericSortByFeatureIterator.wrap(reader, sorts);
-        }
-
         //wrap filter ----------------------------------------------------------
         //we must keep the filter first since it impacts the start index and max feature
         if(filter != null && filter != Filter.INCLUDE){
@@ -83,6 +76,20 @@ public class GenericQueryFeatureIterator {
             }
         }
 
+        //wrap sort by ---------------------------------------------------------
+        //This can be really expensive, and force the us to read the full iterator.
+        //sort is stable, filtering before sorting gives the same result and reduce
+        //the number of sorted features. when max feature is set only the first
+        //start+max features are kept, bigger sorts are spilled in temporary files.
+        if(sorts != null && sorts.length != 0){
+            Integer limit = null;
+            if(max != null){
+                final long l = (long)max + ((start != null && start > 0) ? start : 0);
+                limit = (int) Math.min(l, Integer.MAX_VALUE);
+            }
+            reader = GenericSortByFeatureIterator.wrap(reader, sorts, limit, hints);
+        }
+
         //wrap start index -----------------------------------------------------
         if(start != null && start > 0){
             reader = GenericStartIndexFeatureIterator.wrap(reader, start);
@@ -17,62 +17,183 @@
 
 package org.geotoolkit.data.memory;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import org.geotoolkit.data.FeatureCollection;
 import org.geotoolkit.data.FeatureIterator;
 import org.geotoolkit.data.FeatureReader;
 import org.geotoolkit.data.FeatureStoreRuntimeException;
 import org.geotoolkit.data.query.SortByComparator;
 import org.geotoolkit.factory.Hints;
+import org.geotoolkit.factory.HintsPending;
 import org.geotoolkit.feature.FeatureUtilities;
 import org.apache.sis.util.Classes;
+import org.apache.sis.util.logging.Logging;
 import org.geotoolkit.feature.Feature;
 import org.geotoolkit.feature.type.FeatureType;
 import org.opengis.filter.sort.SortBy;
 
 /**
  * Basic support for a  FeatureIterator that will sort features using the given sort by
- * orders. This may be very consuming in memory since this implementation must iterate
- * over all features and store them in memory in the right order.
+ * orders. This implementation must iterate over all features before returning the first one.
+ * <br/>
+ * When the number of wanted features is known, only this number of features are kept in memory.
+ * Otherwise features are sorted in memory until the {@link HintsPending#SORT_MAX_FEATURES} limit
+ * is reached, then sorted runs of features are written in temporary files and merged on iteration.
+ * Sort is stable, features with equal sort values are returned in source order.
  *
- * Don't use this class in you now that your iterator holds a great amount of features,
- * otherwise it may cause an Out Of Memory Exception.
+ * <blockquote><font size=-1>
+ * <strong>NOTE: only simple features can be written in temporary files,
+ * complex features are all kept in memory.</strong>
+ * </font></blockquote>
  *
  * @author Johann Sorel (Geomatys)
  * @module pending
  */
 public class GenericSortByFeatureIterator<R extends FeatureIterator> implements FeatureIterator {
 
+    private static final Logger LOGGER = Logging.getLogger("org.geotoolkit.data");
+
+    /**
+     * Default maximum number of features sorted in memory.
+     */
+    private static final int DEFAULT_MAX_FEATURES = 100000;
+
     protected final R iterator;
     private final Comparator<Feature> comparator;
+    /** maximum number of features returned, null if unlimited */
+    private final Integer limit;
+    /** maximum number of features kept in memory */
+    private final int maxInMemory;
     protected List<Feature> ordered = null;
     protected int index = 0;
+    /** merge of sorted runs, null if all features are in memory */
+    private RunMerger merger = null;
 
     /**
      * Creates a new instance of GenericSortByFeatureIterator
      *
      * @param iterator FeatureReader to sort
      * @param orders sorting orders
+     * @param limit maximum number of features to return, null if unlimited
+     * @param hints hints, can be null
      */
-    private GenericSortByFeatureIterator(final R iterator, final SortBy[] orders) {
+    private GenericSortByFeatureIterator(final R iterator, final SortBy[] orders, final Integer limit, final Hints hints) {
         this.iterator = iterator;
         this.comparator = new SortByComparator(orders);
+        this.limit = limit;
+        final Object max = (hints != null) ? hints.get(HintsPending.SORT_MAX_FEATURES) : null;
+        this.maxInMemory = (max != null) ? Math.max(1, (Integer) max) : DEFAULT_MAX_FEATURES;
     }
 
     private synchronized void sort() throws FeatureStoreRuntimeException{
         if(ordered != null) return;
 
-        ordered = new ArrayList<>();
+        if(limit != null && limit <= maxInMemory){
+            ordered = sortTop(limit);
+            return;
+        }
 
+        List<Feature> buffer = new ArrayList<>();
+        List<FeatureSpillFile> runs = null;
+        try{
+            while(iterator.hasNext()){
+                final Feature feature = iterator.next();
+                buffer.add(FeatureUtilities.copy(feature));
+                if(buffer.size() >= maxInMemory && FeatureSpillFile.isSupported(feature.getType())){
+                    if(runs == null) runs = new ArrayList<>();
+                    runs.add(writeRun(buffer, feature.getType()));
+                    buffer = new ArrayList<>();
+                }
+            }
+        }catch(IOException | RuntimeException ex){
+            if(runs != null){
+                for(FeatureSpillFile run : runs){
+                    closeSafe(run);
+                }
+            }
+            if(ex instanceof FeatureStoreRuntimeException) throw (FeatureStoreRuntimeException) ex;
+            throw new FeatureStoreRuntimeException(ex);
+        }
+
+        Collections.sort(buffer,comparator);
+        if(runs == null){
+            ordered = (limit != null && buffer.size() > limit) ? new ArrayList<>(buffer.subList(0, limit)) : buffer;
+        }else{
+            //last run stays in memory
+            ordered = Collections.emptyList();
+            merger = new RunMerger(runs, buffer);
+        }
+    }
+
+    /**
+     * Keep only the given number of first features, using a bounded heap.
+     */
+    private List<Feature> sortTop(final int nb){
+        if(nb <= 0) return Collections.emptyList();
+
+        //heap head is the last feature in sort order, on equal values the last read feature
+        final PriorityQueue<Ranked> heap = new PriorityQueue<>(nb, Collections.reverseOrder(new Comparator<Ranked>() {
+            @Override
+            public int compare(final Ranked r1, final Ranked r2) {
+                final int c = comparator.compare(r1.feature, r2.feature);
+                return (c != 0) ? c : (r1.rank < r2.rank ? -1 : (r1.rank == r2.rank ? 0 : 1));
+            }
+        }));
+        long rank = 0;
         while(iterator.hasNext()){
-            ordered.add(FeatureUtilities.copy( iterator.next()));
+            final Feature feature = iterator.next();
+            if(heap.size() < nb){
+                heap.add(new Ranked(FeatureUtilities.copy(feature), rank));
+            }else if(comparator.compare(feature, heap.peek().feature) < 0){
+                heap.poll();
+                heap.add(new Ranked(FeatureUtilities.copy(feature), rank));
+            }
+            rank++;
+        }
+
+        final Feature[] array = new Feature[heap.size()];
+        for(int i=array.length-1; i>=0; i--){
+            array[i] = heap.poll().feature;
         }
+        final List<Feature> result = new ArrayList<>(array.length);
+        Collections.addAll(result, array);
+        return result;
+    }
 
-        Collections.sort(ordered,comparator);
+    /**
+     * Sort features and write them in a temporary file.
+     * If a limit is defined, only the first features are written.
+     */
+    private FeatureSpillFile writeRun(final List<Feature> features, final FeatureType type) throws IOException{
+        Collections.sort(features,comparator);
+        final int nb = (limit == null) ? features.size() : Math.min(limit, features.size());
+        final FeatureSpillFile run = new FeatureSpillFile(type);
+        try{
+            for(int i=0;i<nb;i++){
+                run.write(features.get(i));
+            }
+        }catch(IOException | RuntimeException ex){
+            closeSafe(run);
+            throw ex;
+        }
+        return run;
+    }
+
+    private static void closeSafe(final FeatureSpillFile file){
+        try{
+            file.close();
+        }catch(IOException ex){
+            LOGGER.log(Level.WARNING, ex.getMessage(), ex);
+        }
     }
 
     /**
@@ -81,6 +202,13 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
     @Override
     public Feature next() throws FeatureStoreRuntimeException {
         sort();
+        if(merger != null){
+            if(!hasNext()){
+                throw new NoSuchElementException("No more elements.");
+            }
+            index++;
+            return merger.next();
+        }
         try{
             Feature c = ordered.get(index);
             index++;
@@ -95,7 +223,13 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
      */
     @Override
     public void close() throws FeatureStoreRuntimeException {
-        iterator.close();
+        try{
+            iterator.close();
+        }finally{
+            if(merger != null){
+                merger.close();
+            }
+        }
     }
 
     /**
@@ -104,6 +238,9 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
     @Override
     public boolean hasNext() throws FeatureStoreRuntimeException {
         sort();
+        if(merger != null){
+            return (limit == null || index < limit) && merger.hasNext();
+        }
         return index < ordered.size();
     }
 
@@ -115,6 +252,92 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
         iterator.remove();
     }
 
+    /**
+     * Feature with its position in source iterator.
+     */
+    private static final class Ranked {
+        private final Feature feature;
+        private final long rank;
+
+        private Ranked(final Feature feature, final long rank) {
+            this.feature = feature;
+            this.rank = rank;
+        }
+    }
+
+    /**
+     * Lazy merge of sorted runs.
+     * Runs are in source order, on equal values features of the first run are returned first.
+     */
+    private final class RunMerger {
+
+        private final List<FeatureSpillFile> files;
+        private final List<Iterator<Feature>> runs = new ArrayList<>();
+        private final PriorityQueue<Head> heads;
+
+        private RunMerger(final List<FeatureSpillFile> files, final List<Feature> lastRun) {
+            this.files = files;
+            heads = new PriorityQueue<>(files.size() + 1, new Comparator<Head>() {
+                @Override
+                public int compare(final Head h1, final Head h2) {
+                    final int c = comparator.compare(h1.feature, h2.feature);
+                    return (c != 0) ? c : (h1.run - h2.run);
+                }
+            });
+            try{
+                for(FeatureSpillFile file : files){
+                    runs.add(file.reader());
+                }
+            }catch(IOException ex){
+                close();
+                throw new FeatureStoreRuntimeException(ex);
+            }
+            runs.add(lastRun.iterator());
+            for(int i=0,n=runs.size();i<n;i++){
+                advance(i);
+            }
+        }
+
+        private void advance(final int run) {
+            final Iterator<Feature> ite = runs.get(run);
+            if(ite.hasNext()){
+                heads.add(new Head(ite.next(), run));
+            }
+        }
+
+        boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        Feature next() {
+            final Head head = heads.poll();
+            advance(head.run);
+            return head.feature;
+        }
+
+        void close() {
+            heads.clear();
+            for(Iterator<Feature> ite : runs){
+                if(ite instanceof FeatureIterator){
+                    ((FeatureIterator) ite).close();
+                }
+            }
+            for(FeatureSpillFile file : files){
+                closeSafe(file);
+            }
+        }
+    }
+
+    private static final class Head {
+        private final Feature feature;
+        private final int run;
+
+        private Head(final Feature feature, final int run) {
+            this.feature = feature;
+            this.run = run;
+        }
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder(Classes.getShortClassName(this));
@@ -134,8 +357,9 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
      */
     private static final class GenericSortByFeatureReader extends GenericSortByFeatureIterator<FeatureReader> implements FeatureReader{
 
-        private GenericSortByFeatureReader(final FeatureReader reader,final SortBy[] orders){
-            super(reader,orders);
+        private GenericSortByFeatureReader(final FeatureReader reader,final SortBy[] orders,
+                final Integer limit, final Hints hints){
+            super(reader,orders,limit,hints);
         }
 
         @Override
@@ -170,17 +394,41 @@ public class GenericSortByFeatureIterator<R extends FeatureIterator> implements
      * Wrap a FeatureReader will a sort by order.
      */
     public static FeatureReader wrap(final FeatureReader reader, final SortBy[] orders){
-        return new GenericSortByFeatureReader(reader, orders);
+        return wrap(reader, orders, null, null);
+    }
+
+    /**
+     * Wrap a FeatureReader will a sort by order, returning at most the given number of features.
+     *
+     * @param reader reader to sort
+     * @param orders sorting orders
+     * @param limit maximum number of features returned, null if unlimited
+     * @param hints hints, can be null, see {@link HintsPending#SORT_MAX_FEATURES}
+     */
+    public static FeatureReader wrap(final FeatureReader reader, final SortBy[] orders, final Integer limit, final Hints hints){
+        return new GenericSortByFeatureReader(reader, orders, limit, hints);
     }
 
     /**
      * Wrap a FeatureIterator will a sort by order.
      */
     public static FeatureIterator wrap(final FeatureIterator reader, final SortBy[] orders){
+        return wrap(reader, orders, null, null);
+    }
+
+    /**
+     * Wrap a FeatureIterator will a sort by order, returning at most the given number of features.
+     *
+     * @param reader iterator to sort
+     * @param orders sorting orders
+     * @param limit maximum number of features returned, null if unlimited
+     * @param hints hints, can be null, see {@link HintsPending#SORT_MAX_FEATURES}
+     */
+    public static FeatureIterator wrap(final FeatureIterator reader, final SortBy[] orders, final Integer limit, final Hints hints){
         if(reader instanceof FeatureReader){
-            return wrap((FeatureReader)reader,orders);
+            return wrap((FeatureReader)reader,orders,limit,hints);
         }else{
-            return new GenericSortByFeatureIterator(reader, orders);
+            return new GenericSortByFeatureIterator(reader, orders, limit, hints);
         }
     }
 
@@ -0,0 +1,251 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import org.apache.sis.util.ObjectConverters;
+import org.apache.sis.util.UnconvertibleObjectException;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.Property;
+import org.geotoolkit.feature.type.FeatureType;
+import org.geotoolkit.feature.type.PropertyDescriptor;
+import org.opengis.filter.BinaryComparisonOperator;
+import org.opengis.filter.Filter;
+import org.opengis.filter.PropertyIsBetween;
+import org.opengis.filter.PropertyIsEqualTo;
+import org.opengis.filter.PropertyIsGreaterThan;
+import org.opengis.filter.PropertyIsGreaterThanOrEqualTo;
+import org.opengis.filter.PropertyIsLessThan;
+import org.opengis.filter.PropertyIsLessThanOrEqualTo;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+
+/**
+ * Hash or sorted index on an attribute of a {@link MemoryFeatureStore} group.<br/>
+ * Hash indexes resolve PropertyIsEqualTo filters, sorted indexes also resolve
+ * PropertyIsLessThan, PropertyIsLessThanOrEqualTo, PropertyIsGreaterThan,
+ * PropertyIsGreaterThanOrEqualTo and PropertyIsBetween filters.<br/>
+ * Numbers are indexed by their double value, so an integer literal can match a double attribute.
+ *
+ * <blockquote><font size=-1>
+ * <strong>NOTE: null values are not indexed, case insensitive comparisons are not resolved.</strong>
+ * </font></blockquote>
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+final class MemoryAttributeIndex extends MemoryIndex {
+
+    private final Class<?> binding;
+    /** class of the normalized values */
+    private final Class<?> keyClass;
+    private final boolean sorted;
+    private final Map<Object,Set<String>> values;
+    private final Map<String,Object> keys = new HashMap<>();
+    /** features which value can not be sorted, always returned as candidates */
+    private final Set<String> unsorted = new HashSet<>();
+
+    /**
+     * @param type feature type
+     * @param descriptor indexed attribute descriptor
+     * @param sorted true to create a sorted index, which can resolve range comparisons
+     * @throws IllegalArgumentException if a sorted index is requested on a not comparable attribute
+     */
+    MemoryAttributeIndex(final FeatureType type, final PropertyDescriptor descriptor, final boolean sorted) {
+        super(type, descriptor);
+        this.binding = descriptor.getType().getBinding();
+        if(Number.class.isAssignableFrom(binding)){
+            this.keyClass = Double.class;
+        }else if(Date.class.isAssignableFrom(binding)){
+            this.keyClass = Date.class;
+        }else{
+            this.keyClass = binding;
+        }
+        this.sorted = sorted;
+        if(sorted){
+            if(!Comparable.class.isAssignableFrom(binding)){
+                throw new IllegalArgumentException("Property "+descriptor.getName()
+                        +" values are not comparable, a sorted index can not be created.");
+            }
+            values = new TreeMap<>();
+        }else{
+            values = new HashMap<>();
+        }
+    }
+
+    /**
+     * @return true if index is sorted
+     */
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void add(final String id, final Feature feature) {
+        final Property prop = feature.getProperty(descriptor.getName());
+        final Object key = normalize((prop != null) ? prop.getValue() : null);
+        if(key == null) return;
+
+        if(sorted && !keyClass.isInstance(key)){
+            unsorted.add(id);
+            return;
+        }
+        Set<String> ids = values.get(key);
+        if(ids == null){
+            ids = new HashSet<>();
+            values.put(key, ids);
+        }
+        ids.add(id);
+        keys.put(id, key);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void remove(final String id) {
+        unsorted.remove(id);
+        final Object key = keys.remove(id);
+        if(key == null) return;
+        final Set<String> ids = values.get(key);
+        if(ids != null){
+            ids.remove(id);
+            if(ids.isEmpty()) values.remove(key);
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void clear() {
+        values.clear();
+        keys.clear();
+        unsorted.clear();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Collection<String> candidates(final Filter filter) {
+        if(filter instanceof PropertyIsBetween){
+            if(!sorted) return null;
+            final PropertyIsBetween between = (PropertyIsBetween) filter;
+            if(!isIndexed(between.getExpression())) return null;
+            final Object lower = toKey(between.getLowerBoundary());
+            final Object upper = toKey(between.getUpperBoundary());
+            if(lower == null || upper == null) return null;
+            if(compare(lower, upper) > 0) return new ArrayList<>(unsorted);
+            return collect(((NavigableMap<Object,Set<String>>)values).subMap(lower, true, upper, true));
+        }
+
+        if(!(filter instanceof BinaryComparisonOperator)) return null;
+        final BinaryComparisonOperator op = (BinaryComparisonOperator) filter;
+        if(!op.isMatchingCase() && String.class.equals(binding)) return null;
+
+        //property on the left side : property OP literal
+        final boolean left;
+        final Object key;
+        if(isIndexed(op.getExpression1())){
+            left = true;
+            key = toKey(op.getExpression2());
+        }else if(isIndexed(op.getExpression2())){
+            left = false;
+            key = toKey(op.getExpression1());
+        }else{
+            return null;
+        }
+        if(key == null) return null;
+
+        if(filter instanceof PropertyIsEqualTo){
+            final Set<String> ids = values.get(key);
+            final Collection<String> result = new ArrayList<>(unsorted);
+            if(ids != null) result.addAll(ids);
+            return result;
+        }
+        if(!sorted) return null;
+
+        final NavigableMap<Object,Set<String>> map = (NavigableMap<Object,Set<String>>) values;
+        if(filter instanceof PropertyIsLessThan){
+            return collect(left ? map.headMap(key, false) : map.tailMap(key, false));
+        }else if(filter instanceof PropertyIsLessThanOrEqualTo){
+            return collect(left ? map.headMap(key, true) : map.tailMap(key, true));
+        }else if(filter instanceof PropertyIsGreaterThan){
+            return collect(left ? map.tailMap(key, false) : map.headMap(key, false));
+        }else if(filter instanceof PropertyIsGreaterThanOrEqualTo){
+            return collect(left ? map.tailMap(key, true) : map.headMap(key, true));
+        }
+        return null;
+    }
+
+    private Collection<String> collect(final Map<Object,Set<String>> map) {
+        final Collection<String> result = new ArrayList<>(unsorted);
+        for(Set<String> ids : map.values()){
+            result.addAll(ids);
+        }
+        return result;
+    }
+
+    /**
+     * Convert a literal expression in an index key.
+     *
+     * @return key or null if expression is not a literal or can not be converted to attribute type.
+     */
+    private Object toKey(final Expression exp) {
+        if(!(exp instanceof Literal)) return null;
+        Object value = ((Literal)exp).getValue();
+        if(value == null) return null;
+        if(!binding.isInstance(value) && !(value instanceof Number && Number.class.isAssignableFrom(binding))){
+            try{
+                value = ObjectConverters.convert(value, binding);
+            }catch(UnconvertibleObjectException ex){
+                return null;
+            }
+        }
+        value = normalize(value);
+        return keyClass.isInstance(value) ? value : null;
+    }
+
+    /**
+     * Number are all indexed as double, dates as plain date.
+     */
+    private static Object normalize(final Object value) {
+        if(value instanceof Number){
+            return ((Number)value).doubleValue();
+        }else if(value instanceof Date){
+            return new Date(((Date)value).getTime());
+        }
+        return value;
+    }
+
+    private static int compare(final Object o1, final Object o2) {
+        return ((Comparable)o1).compareTo(o2);
+    }
+
+}
@@ -28,6 +28,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.sis.storage.DataStoreException;
 import org.geotoolkit.data.AbstractFeatureStore;
 import org.geotoolkit.data.FeatureStoreFactory;
@@ -50,15 +52,20 @@ import org.geotoolkit.feature.type.FeatureType;
 import org.geotoolkit.feature.type.GeometryDescriptor;
 import org.opengis.util.GenericName;
 import org.geotoolkit.feature.type.PropertyDescriptor;
+import org.opengis.filter.And;
 import org.opengis.filter.Filter;
 import org.opengis.filter.FilterFactory;
 import org.opengis.filter.Id;
 import org.opengis.filter.identity.FeatureId;
 import org.opengis.filter.identity.Identifier;
+import org.opengis.filter.Or;
 import org.opengis.metadata.Metadata;
 
 /**
- * @todo : make this concurrent
+ * Feature store keeping all features in memory.<br/>
+ * Spatial and attribute indexes can be created on each type, they are maintained
+ * on each modification and used to resolve query filters without testing all features.
+ *
  * @author Johann Sorel (Geomatys)
  * @module pending
  */
@@ -70,12 +77,110 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
         final AtomicLong incId = new AtomicLong(-1);//first one will be 0
         final FeatureType type;
         final Map<String,Feature> features;
+        /** guard indexes, features are modified with the write lock */
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        final List<MemoryIndex> indexes = new ArrayList<MemoryIndex>();
 
         Group(final FeatureType type){
             this.type = type;
             this.features = new ConcurrentHashMap<String, Feature>();
         }
 
+        public void put(final String id, final Feature feature){
+            lock.writeLock().lock();
+            try{
+                features.put(id, feature);
+                for(MemoryIndex index : indexes){
+                    index.remove(id);
+                    index.add(id, feature);
+                }
+            }finally{
+                lock.writeLock().unlock();
+            }
+        }
+
+        public Feature remove(final String id){
+            lock.writeLock().lock();
+            try{
+                final Feature feature = features.remove(id);
+                if(feature != null){
+                    for(MemoryIndex index : indexes){
+                        index.remove(id);
+                    }
+                }
+                return feature;
+            }finally{
+                lock.writeLock().unlock();
+            }
+        }
+
+        public void addIndex(final MemoryIndex index){
+            lock.writeLock().lock();
+            try{
+                for(Map.Entry<String,Feature> entry : features.entrySet()){
+                    index.add(entry.getKey(), entry.getValue());
+                }
+                indexes.add(index);
+            }finally{
+                lock.writeLock().unlock();
+            }
+        }
+
+        public void clearIndexes(){
+            lock.writeLock().lock();
+            try{
+                for(MemoryIndex index : indexes){
+                    index.clear();
+                }
+                indexes.clear();
+            }finally{
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Find the features which may match given filter using the indexes.
+         *
+         * @return candidate feature ids, null if filter can not be resolved by the indexes.
+         */
+        public Collection<String> candidates(final Filter filter){
+            lock.readLock().lock();
+            try{
+                if(indexes.isEmpty()) return null;
+                return resolve(filter);
+            }finally{
+                lock.readLock().unlock();
+            }
+        }
+
+        private Collection<String> resolve(final Filter filter){
+            if(filter instanceof And){
+                //use the most selective index
+                Collection<String> best = null;
+                for(Filter f : ((And)filter).getChildren()){
+                    final Collection<String> candidates = resolve(f);
+                    if(candidates != null && (best == null || candidates.size() < best.size())){
+                        best = candidates;
+                    }
+                }
+                return best;
+            }else if(filter instanceof Or){
+                //each part must be resolved
+                final Set<String> union = new HashSet<String>();
+                for(Filter f : ((Or)filter).getChildren()){
+                    final Collection<String> candidates = resolve(f);
+                    if(candidates == null) return null;
+                    union.addAll(candidates);
+                }
+                return union;
+            }
+            for(MemoryIndex index : indexes){
+                final Collection<String> candidates = index.candidates(filter);
+                if(candidates != null) return candidates;
+            }
+            return null;
+        }
+
         public String generateId(){
             while(true){
                 final long c = incId.incrementAndGet();
@@ -99,6 +204,26 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
 
             final Set<Identifier> fids = ids.getIdentifiers();
             final Iterator<Identifier> iteIds = fids.iterator();
+            return createIterator(new Iterator<String>() {
+                @Override
+                public boolean hasNext() {
+                    return iteIds.hasNext();
+                }
+                @Override
+                public String next() {
+                    return iteIds.next().getID().toString();
+                }
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException("Not supported.");
+                }
+            });
+        }
+
+        /**
+         * Iterate on features with given ids, ids of removed features are skipped.
+         */
+        public Iterator<? extends Feature> createIterator(final Iterator<String> iteIds) {
 
             return new Iterator<Feature>(){
 
@@ -129,8 +254,7 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
                     if(next != null) return;
 
                     while(next == null && iteIds.hasNext()){
-                        final String strid = iteIds.next().getID().toString();
-                        next = features.get(strid);
+                        next = features.get(iteIds.next());
                     }
 
                 }
@@ -322,7 +446,7 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
                 }
             }
             
-            grp.features.put(candidateId, copy);
+            grp.put(candidateId, copy);
             addedIds.add(new DefaultFeatureId(candidateId));
         }
 
@@ -348,16 +472,26 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
             if(candidate == null) continue;
 
             ups.add(itd);
-            for(Map.Entry<? extends PropertyDescriptor, ? extends Object> entry : values.entrySet()){
-                final PropertyDescriptor desc = entry.getKey();
-                final Property prop = candidate.getProperty(desc.getName());
-                if(prop != null){
-                    final Object value = entry.getValue();
-                    if(value instanceof Geometry){
-                        JTS.setCRS((Geometry)value, ((GeometryDescriptor)desc).getCoordinateReferenceSystem() );
-                    }                    
-                    prop.setValue(value);
+            grp.lock.writeLock().lock();
+            try{
+                for(Map.Entry<? extends PropertyDescriptor, ? extends Object> entry : values.entrySet()){
+                    final PropertyDescriptor desc = entry.getKey();
+                    final Property prop = candidate.getProperty(desc.getName());
+                    if(prop != null){
+                        final Object value = entry.getValue();
+                        if(value instanceof Geometry){
+                            JTS.setCRS((Geometry)value, ((GeometryDescriptor)desc).getCoordinateReferenceSystem() );
+                        }
+                        prop.setValue(value);
+                    }
+                }
+                //update indexes
+                for(MemoryIndex index : grp.indexes){
+                    index.remove(itd.getID().toString());
+                    index.add(itd.getID().toString(), candidate);
                 }
+            }finally{
+                grp.lock.writeLock().unlock();
             }
         }
 
@@ -378,7 +512,7 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
 
         final Set<Identifier> rems = new HashSet<Identifier>();
         for(final Identifier itd : toRemove){
-            final Feature candidate = grp.features.remove(String.valueOf(itd.getID()));
+            final Feature candidate = grp.remove(String.valueOf(itd.getID()));
             if(candidate == null) continue;
 
             rems.add(itd);
@@ -436,7 +570,13 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
                 remaining.setFilter(Filter.INCLUDE);
             }
         }else{
-            ite = grp.createIterator(null);
+            //use indexes if possible, filter is still evaluated on each candidate
+            final Collection<String> candidates = grp.candidates(filter);
+            if(candidates != null){
+                ite = grp.createIterator(candidates.iterator());
+            }else{
+                ite = grp.createIterator((Id)null);
+            }
         }
 
         final FeatureReader reader;
@@ -444,7 +584,6 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
         reader = GenericWrapFeatureIterator.wrapToReader(ite, grp.getFeatureType()); 
 
         //fall back on generic parameter handling.
-        //todo we should handle at least spatial filter here by using a quadtree.
         return handleRemaining(reader, remaining.buildQuery());
     }
 
@@ -456,6 +595,74 @@ public class MemoryFeatureStore extends AbstractFeatureStore{
         return handleWriter(typeName, filter, hints);
     }
 
+    /**
+     * Create an R-Tree index on a geometry property of the given type.
+     * The index is used to resolve spatial filters on this property.
+     *
+     * @param groupName feature type name
+     * @param propertyName geometry property name, null for the default geometry
+     * @throws DataStoreException if type or property does not exist or if property can not be indexed
+     */
+    public void createSpatialIndex(final GenericName groupName, final String propertyName) throws DataStoreException {
+        final Group grp = groups.get(groupName);
+        if(grp == null){
+            throw new DataStoreException("No featureType for name : " + groupName);
+        }
+        final FeatureType type = grp.getFeatureType();
+        final PropertyDescriptor desc = (propertyName == null) ?
+                type.getGeometryDescriptor() : type.getDescriptor(propertyName);
+        if(!(desc instanceof GeometryDescriptor)){
+            throw new DataStoreException("No geometry property "+propertyName+" in type "+groupName);
+        }
+        try{
+            grp.addIndex(new MemorySpatialIndex(type, (GeometryDescriptor)desc));
+        }catch(IllegalArgumentException ex){
+            throw new DataStoreException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Create an index on an attribute of the given type.
+     * A hash index resolves equality filters, a sorted index also resolves range comparisons.
+     *
+     * @param groupName feature type name
+     * @param propertyName attribute name
+     * @param sorted true for a sorted index, attribute values must be comparable
+     * @throws DataStoreException if type or property does not exist or if property can not be indexed
+     */
+    public void createAttributeIndex(final GenericName groupName, final String propertyName,
+            final boolean sorted) throws DataStoreException {
+        ensureNonNull("property name", propertyName);
+        final Group grp = groups.get(groupName);
+        if(grp == null){
+            throw new DataStoreException("No featureType for name : " + groupName);
+        }
+        final FeatureType type = grp.getFeatureType();
+        final PropertyDescriptor desc = type.getDescriptor(propertyName);
+        if(desc == null){
+            throw new DataStoreException("No property "+propertyName+" in type "+groupName);
+        }
+        try{
+            grp.addIndex(new MemoryAttributeIndex(type, desc, sorted));
+        }catch(IllegalArgumentException ex){
+            throw new DataStoreException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Remove all indexes of the given type.
+     *
+     * @param groupName feature type name
+     * @throws DataStoreException if type does not exist
+     */
+    public void dropIndexes(final GenericName groupName) throws DataStoreException {
+        final Group grp = groups.get(groupName);
+        if(grp == null){
+            throw new DataStoreException("No featureType for name : " + groupName);
+        }
+        grp.clearIndexes();
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -0,0 +1,99 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.memory;
+
+import java.util.Collection;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.type.FeatureType;
+import org.geotoolkit.feature.type.PropertyDescriptor;
+import org.opengis.filter.Filter;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.PropertyName;
+
+/**
+ * Index on a property of the features stored in a {@link MemoryFeatureStore} group.<br/>
+ * An index only returns candidate feature ids, the query filter must still be evaluated
+ * on each candidate.
+ *
+ * <blockquote><font size=-1>
+ * <strong>NOTE: indexes are not thread safe, MemoryFeatureStore guards them with the group lock.</strong>
+ * </font></blockquote>
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+abstract class MemoryIndex {
+
+    protected final FeatureType type;
+    protected final PropertyDescriptor descriptor;
+
+    protected MemoryIndex(final FeatureType type, final PropertyDescriptor descriptor) {
+        this.type = type;
+        this.descriptor = descriptor;
+    }
+
+    /**
+     * @return indexed property descriptor
+     */
+    public PropertyDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * Index given feature.
+     *
+     * @param id feature identifier
+     * @param feature feature to index
+     */
+    public abstract void add(String id, Feature feature);
+
+    /**
+     * Remove feature from the index.
+     *
+     * @param id feature identifier
+     */
+    public abstract void remove(String id);
+
+    /**
+     * Find the features which may match given filter.
+     *
+     * @param filter filter to resolve
+     * @return candidate feature ids, or null if the filter can not be resolved by this index.
+     */
+    public abstract Collection<String> candidates(Filter filter);
+
+    /**
+     * Remove all indexed features.
+     */
+    public abstract void clear();
+
+    /**
+     * @return true if given expression is the indexed property.
+     */
+    protected boolean isIndexed(final Expression exp) {
+        if(!(exp instanceof PropertyName)) return false;
+        final String name = ((PropertyName)exp).getPropertyName();
+        if(name == null || name.isEmpty()){
+            //default geometry
+            return descriptor.equals(type.getGeometryDescriptor());
+        }
+        final Object desc = ((PropertyName)exp).evaluate(type);
+        return desc instanceof PropertyDescriptor
+            && descriptor.getName().equals(((PropertyDescriptor)desc).getName());
+    }
+
+}
@@ -0,0 +1,299 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.memory;
+
+import com.vividsolutions.jts.geom.Geometry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.sis.geometry.GeneralEnvelope;
+import org.apache.sis.referencing.CRS;
+import org.apache.sis.referencing.CommonCRS;
+import org.apache.sis.util.logging.Logging;
+import org.geotoolkit.data.FeatureStoreRuntimeException;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.Property;
+import org.geotoolkit.feature.type.FeatureType;
+import org.geotoolkit.feature.type.GeometryDescriptor;
+import org.geotoolkit.filter.binaryspatial.UnreprojectedLooseBBox;
+import org.geotoolkit.geometry.jts.JTS;
+import org.geotoolkit.index.tree.StoreIndexException;
+import org.geotoolkit.index.tree.Tree;
+import org.geotoolkit.index.tree.TreeElementMapper;
+import org.geotoolkit.index.tree.star.MemoryStarRTree;
+import org.opengis.filter.Filter;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.spatial.BBOX;
+import org.opengis.filter.spatial.BinarySpatialOperator;
+import org.opengis.filter.spatial.Contains;
+import org.opengis.filter.spatial.Crosses;
+import org.opengis.filter.spatial.Equals;
+import org.opengis.filter.spatial.Intersects;
+import org.opengis.filter.spatial.Overlaps;
+import org.opengis.filter.spatial.Touches;
+import org.opengis.filter.spatial.Within;
+import org.opengis.geometry.Envelope;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.util.FactoryException;
+
+/**
+ * R-Tree index on a geometry property of a {@link MemoryFeatureStore} group.<br/>
+ * Resolves BBOX filters and spatial operators which require geometries envelopes
+ * to intersect : Intersects, Contains, Within, Overlaps, Crosses, Touches and Equals.
+ *
+ * <blockquote><font size=-1>
+ * <strong>NOTE: features without geometry or with an empty geometry are not indexed,
+ * they can not match any of the resolved operators.</strong>
+ * </font></blockquote>
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+final class MemorySpatialIndex extends MemoryIndex {
+
+    private static final Logger LOGGER = Logging.getLogger("org.geotoolkit.data.memory");
+
+    /**
+     * Maximum number of elements in each tree node.
+     */
+    private static final int MAX_ELEMENTS = 16;
+
+    /**
+     * Indexed feature, tree identifier is affected on insertion.
+     */
+    private static final class Entry {
+        private final String id;
+        private final Envelope envelope;
+        private int treeId;
+
+        private Entry(final String id, final Envelope envelope) {
+            this.id = id;
+            this.envelope = envelope;
+        }
+    }
+
+    /**
+     * Link tree identifiers and indexed features.
+     */
+    private static final class EntryMapper implements TreeElementMapper<Entry> {
+
+        private final Map<Integer,Entry> entries = new HashMap<>();
+
+        @Override
+        public int getTreeIdentifier(final Entry object) {
+            return object.treeId;
+        }
+
+        @Override
+        public Envelope getEnvelope(final Entry object) {
+            return object.envelope;
+        }
+
+        @Override
+        public void setTreeIdentifier(final Entry object, final int treeIdentifier) {
+            object.treeId = treeIdentifier;
+            entries.put(treeIdentifier, object);
+        }
+
+        @Override
+        public Entry getObjectFromTreeIdentifier(final int treeIdentifier) {
+            return entries.get(treeIdentifier);
+        }
+
+        @Override
+        public Map<Integer, Entry> getFullMap() {
+            return entries;
+        }
+
+        @Override
+        public void clear() {
+            entries.clear();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public boolean isClosed() {
+            return false;
+        }
+    }
+
+    /** 2D part of geometry crs, used by the tree */
+    private final CoordinateReferenceSystem crs;
+    private final EntryMapper mapper = new EntryMapper();
+    private final Map<String,Entry> byId = new HashMap<>();
+    private Tree<Entry> tree;
+
+    /**
+     * @param type feature type
+     * @param descriptor indexed geometry descriptor
+     * @throws IllegalArgumentException if geometry descriptor has no 2D coordinate reference system
+     */
+    MemorySpatialIndex(final FeatureType type, final GeometryDescriptor descriptor) {
+        super(type, descriptor);
+        final CoordinateReferenceSystem geomCrs = descriptor.getCoordinateReferenceSystem();
+        crs = (geomCrs != null) ? CRS.getHorizontalComponent(geomCrs) : null;
+        if(crs == null){
+            throw new IllegalArgumentException("Geometry property "+descriptor.getName()
+                    +" has no horizontal coordinate reference system, it can not be indexed.");
+        }
+        tree = createTree();
+    }
+
+    private Tree<Entry> createTree() {
+        try {
+            return new MemoryStarRTree<>(MAX_ELEMENTS, crs, mapper);
+        } catch (StoreIndexException ex) {
+            //does not happen with memory trees
+            throw new FeatureStoreRuntimeException(ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void add(final String id, final Feature feature) {
+        final Property prop = feature.getProperty(descriptor.getName());
+        final Object value = (prop != null) ? prop.getValue() : null;
+        if(!(value instanceof Geometry)) return;
+
+        final com.vividsolutions.jts.geom.Envelope env = ((Geometry)value).getEnvelopeInternal();
+        if(env.isNull()) return;
+
+        final Entry entry = new Entry(id, toEnvelope(env));
+        try {
+            tree.insert(entry);
+        } catch (StoreIndexException ex) {
+            throw new FeatureStoreRuntimeException(ex);
+        }
+        byId.put(id, entry);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void remove(final String id) {
+        final Entry entry = byId.remove(id);
+        if(entry == null) return;
+        try {
+            tree.remove(entry);
+        } catch (StoreIndexException ex) {
+            throw new FeatureStoreRuntimeException(ex);
+        }
+        mapper.entries.remove(entry.treeId);
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void clear() {
+        byId.clear();
+        mapper.clear();
+        tree = createTree();
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Collection<String> candidates(final Filter filter) {
+        if(!(filter instanceof BBOX || filter instanceof Intersects || filter instanceof Contains
+          || filter instanceof Within || filter instanceof Overlaps || filter instanceof Crosses
+          || filter instanceof Touches || filter instanceof Equals)){
+            return null;
+        }
+
+        final BinarySpatialOperator op = (BinarySpatialOperator) filter;
+        final Expression literal;
+        if(isIndexed(op.getExpression1())){
+            literal = op.getExpression2();
+        }else if(isIndexed(op.getExpression2())){
+            literal = op.getExpression1();
+        }else{
+            return null;
+        }
+        if(!(literal instanceof Literal)) return null;
+
+        final Object value = ((Literal)literal).getValue();
+        final GeneralEnvelope search;
+        CoordinateReferenceSystem searchCrs;
+        if(value instanceof Geometry){
+            final com.vividsolutions.jts.geom.Envelope env = ((Geometry)value).getEnvelopeInternal();
+            if(env.isNull()) return null;
+            search = toEnvelope(env);
+            try{
+                searchCrs = JTS.findCoordinateReferenceSystem((Geometry)value);
+            }catch(FactoryException | IllegalArgumentException ex){
+                LOGGER.log(Level.FINE, ex.getMessage(), ex);
+                return null;
+            }
+        }else if(value instanceof Envelope && ((Envelope)value).getDimension() == 2){
+            final Envelope env = (Envelope) value;
+            search = new GeneralEnvelope(crs);
+            search.setRange(0, env.getMinimum(0), env.getMaximum(0));
+            search.setRange(1, env.getMinimum(1), env.getMaximum(1));
+            searchCrs = env.getCoordinateReferenceSystem();
+            if(searchCrs == null && filter instanceof BBOX && !(filter instanceof UnreprojectedLooseBBox)){
+                //bbox without crs are expected in CRS:84
+                searchCrs = CommonCRS.WGS84.normalizedGeographic();
+            }
+        }else{
+            return null;
+        }
+
+        //search crs must match the tree crs, geometries are reprojected by the filter otherwise
+        if(searchCrs != null && !(filter instanceof UnreprojectedLooseBBox)){
+            final CoordinateReferenceSystem search2D = CRS.getHorizontalComponent(searchCrs);
+            if(search2D == null || !CRS.equalsIgnoreMetadata(crs, search2D)){
+                return null;
+            }
+        }
+        final int[] ids;
+        try {
+            ids = tree.searchID(search);
+        } catch (StoreIndexException ex) {
+            throw new FeatureStoreRuntimeException(ex);
+        }
+        final Collection<String> result = new ArrayList<>(ids.length);
+        for(int treeId : ids){
+            final Entry entry = mapper.entries.get(treeId);
+            if(entry != null) result.add(entry.id);
+        }
+        return result;
+    }
+
+    private GeneralEnvelope toEnvelope(final com.vividsolutions.jts.geom.Envelope env) {
+        final GeneralEnvelope envelope = new GeneralEnvelope(crs);
+        envelope.setRange(0, env.getMinX(), env.getMaxX());
+        envelope.setRange(1, env.getMinY(), env.getMaxY());
+        return envelope;
+    }
+
+}
@@ -17,11 +17,17 @@
 
 package org.geotoolkit.data;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import org.apache.sis.storage.DataStoreException;
 import org.geotoolkit.data.iterator.CheckCloseFeatureIterator;
 import org.geotoolkit.data.memory.MemoryFeatureStore;
 import org.geotoolkit.data.query.QueryBuilder;
 import org.geotoolkit.util.NamesExt;
+import org.geotoolkit.feature.Feature;
 import org.geotoolkit.feature.FeatureTypeBuilder;
 
 import org.junit.Test;
@@ -233,4 +239,138 @@ public class DataUtilitiesTest extends org.geotoolkit.test.TestBase {
         assertTrue(reader.isClosed());
     }
 
+    @Test
+    public void testParallelReader() throws DataStoreException{
+        final List<Feature> features = readAll(name1);
+        final List<ListSplitReader> parts = new ArrayList<>();
+        final FeatureReader reader = FeatureStoreUtilities.parallel(
+                new ListSplitReader(features, 0, features.size(), -1, parts), 4);
+
+        final Set<String> ids = new HashSet<>();
+        while(reader.hasNext()){
+            assertTrue(ids.add(reader.next().getIdentifier().getID()));
+        }
+        reader.close();
+
+        assertEquals(10, ids.size());
+        assertEquals(4, parts.size());
+        for(ListSplitReader part : parts){
+            assertTrue(part.closed);
+        }
+    }
+
+    /**
+     * The first error of a split reader must stop the reading and be raised.
+     */
+    @Test
+    public void testParallelReaderError() throws Exception{
+        final List<Feature> features = readAll(name1);
+        final List<ListSplitReader> parts = new ArrayList<>();
+        final FeatureReader reader = FeatureStoreUtilities.parallel(
+                new ListSplitReader(features, 0, features.size(), 1, parts), 2);
+
+        try{
+            while(reader.hasNext()){
+                reader.next();
+            }
+            fail("Reading error should have been raised.");
+        }catch(FeatureStoreRuntimeException ex){
+            assertEquals("Reading failed", ex.getCause().getMessage());
+        }
+        //error is still raised on following calls
+        try{
+            reader.hasNext();
+            fail("Reading error should have been raised.");
+        }catch(FeatureStoreRuntimeException ex){
+            //ok
+        }
+        reader.close();
+
+        //reading threads close their parts when they stop
+        for(ListSplitReader part : parts){
+            for(int i=0; i<100 && !part.closed; i++){
+                Thread.sleep(10);
+            }
+            assertTrue(part.closed);
+        }
+    }
+
+    private List<Feature> readAll(final GenericName name) throws DataStoreException{
+        final List<Feature> features = new ArrayList<>();
+        final FeatureReader reader = store.getFeatureReader(QueryBuilder.all(name));
+        try{
+            while(reader.hasNext()){
+                features.add(reader.next());
+            }
+        }finally{
+            reader.close();
+        }
+        return features;
+    }
+
+    /**
+     * Split reader on a range of a feature list.
+     */
+    private static final class ListSplitReader implements SplitFeatureReader{
+
+        private final List<Feature> features;
+        private final List<ListSplitReader> parts;
+        /** index of the feature which raise an error, -1 for none */
+        private final int failAt;
+        private int index;
+        private int end;
+        private volatile boolean closed = false;
+
+        private ListSplitReader(final List<Feature> features, final int start, final int end,
+                final int failAt, final List<ListSplitReader> parts){
+            this.features = features;
+            this.index = start;
+            this.end = end;
+            this.failAt = failAt;
+            this.parts = parts;
+            parts.add(this);
+        }
+
+        @Override
+        public SplitFeatureReader trySplit() throws FeatureStoreRuntimeException {
+            if(end - index < 2) return null;
+            final int middle = index + (end - index) / 2;
+            final ListSplitReader part = new ListSplitReader(features, middle, end, failAt, parts);
+            end = middle;
+            return part;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public FeatureType getFeatureType() {
+            return features.get(0).getType();
+        }
+
+        @Override
+        public boolean hasNext() throws FeatureStoreRuntimeException {
+            return index < end;
+        }
+
+        @Override
+        public Feature next() throws FeatureStoreRuntimeException {
+            if(!hasNext()) throw new NoSuchElementException();
+            if(index == failAt) throw new FeatureStoreRuntimeException("Reading failed");
+            return features.get(index++);
+        }
+
+        @Override
+        public void close() throws FeatureStoreRuntimeException {
+            closed = true;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
 }
@@ -557,6 +557,92 @@ public class GenericIteratorTest extends org.geotoolkit.test.TestBase {
         assertTrue(checkIte.isClosed());
     }
 
+    @Test
+    public void testSortByIteratorLimitAndSpill(){
+        final FeatureType type = buildOriginalFT();
+        final FeatureCollection collection = FeatureStoreUtilities.collection("id", type);
+        final List<String> expected = new ArrayList<>();
+        for(int k=0;k<7;k++){
+            for(int i=0;i<50;i++){
+                if(i%7 == k) expected.add(NAME.tip().toString()+"."+i);
+            }
+        }
+        for(int i=0;i<50;i++){
+            final Feature sf = FeatureUtilities.defaultFeature(type, NAME.tip().toString()+"."+i);
+            sf.setPropertyValue("att_geom", GF.createPoint(new Coordinate(i, 0)));
+            sf.setPropertyValue("att_string", "v"+(i%7));
+            sf.setPropertyValue("att_double", (double)i);
+            collection.add(sf);
+        }
+
+        //equal values must stay in source order
+        final SortBy[] sorts = new SortBy[]{
+            FF.sort("att_string", SortOrder.ASCENDING)
+        };
+
+        final Hints spill = new Hints(HintsPending.SORT_MAX_FEATURES, 4);
+
+        //in memory sort
+        assertEquals(expected, sortedIds(GenericSortByFeatureIterator.wrap(collection.iterator(), sorts, null, null)));
+        //top-N
+        assertEquals(expected.subList(0, 10), sortedIds(GenericSortByFeatureIterator.wrap(collection.iterator(), sorts, 10, null)));
+        assertEquals(expected, sortedIds(GenericSortByFeatureIterator.wrap(collection.iterator(), sorts, 100, null)));
+        assertTrue(sortedIds(GenericSortByFeatureIterator.wrap(collection.iterator(), sorts, 0, null)).isEmpty());
+        //sorted runs merged from temporary files
+        assertEquals(expected, sortedIds(GenericSortByFeatureIterator.wrap(collection.iterator(), sorts, null, spill)));
+        assertEquals(expected.subList(0, 20), sortedIds(GenericSortByFeatureIterator.wrap(collection.iterator(), sorts, 20, spill)));
+        //limit above the in memory maximum
+        assertEquals(expected.subList(0, 8), sortedIds(GenericSortByFeatureIterator.wrap(collection.iterator(), sorts, 8, spill)));
+        assertEquals(expected.subList(0, 45), sortedIds(GenericSortByFeatureIterator.wrap(collection.iterator(), sorts, 45, new Hints(HintsPending.SORT_MAX_FEATURES, 40))));
+
+        //complex features can not be spilled, they all stay in memory
+        final FeatureCollection complex = buildComplexFeatureCollection();
+        final FeatureType ct = complex.getFeatureType();
+        final Collection<Property> props = new ArrayList<>();
+        props.add(AF.createAttribute("cccc", (AttributeDescriptor) ct.getDescriptor("att_string"), null));
+        props.add(AF.createAttribute(3, (AttributeDescriptor) ct.getDescriptor("att_double"), null));
+        complex.add(AF.createFeature(props, ct, "cid3"));
+        assertEquals(Arrays.asList(COMPLEX_ID_1, COMPLEX_ID_2), sortedIds(GenericSortByFeatureIterator.wrap(
+                complex.iterator(), sorts, 2, new Hints(HintsPending.SORT_MAX_FEATURES, 1))));
+
+        //next must respect the limit when runs are merged
+        final FeatureIterator limited = GenericSortByFeatureIterator.wrap(collection.iterator(), sorts, 8, spill);
+        try{
+            for(int i=0;i<8;i++) limited.next();
+            limited.next();
+            fail("Limit should have been reached.");
+        }catch(NoSuchElementException ex){
+            //ok
+        }finally{
+            limited.close();
+        }
+
+        //check spilled values are preserved
+        final FeatureIterator ite = GenericSortByFeatureIterator.wrap(collection.iterator(), sorts, null, spill);
+        final Feature first = ite.next();
+        assertEquals("v0", first.getPropertyValue("att_string"));
+        assertEquals(0d, (Double)first.getPropertyValue("att_double"), DELTA);
+        assertEquals(GF.createPoint(new Coordinate(0, 0)), first.getPropertyValue("att_geom"));
+        ite.close();
+
+        //check sub iterator is properly closed
+        final CheckCloseFeatureIterator checkIte = new CheckCloseFeatureIterator(collection.iterator());
+        sortedIds(GenericSortByFeatureIterator.wrap(checkIte, sorts, 20, spill));
+        assertTrue(checkIte.isClosed());
+    }
+
+    private static List<String> sortedIds(final FeatureIterator ite){
+        final List<String> ids = new ArrayList<>();
+        try{
+            while(ite.hasNext()){
+                ids.add(ite.next().getIdentifier().getID());
+            }
+        }finally{
+            ite.close();
+        }
+        return ids;
+    }
+
     @Test
     public void testSortByIteratorOnComplex(){
 
@@ -0,0 +1,295 @@
+/*
+ *    Geotoolkit - An Open Source Java GIS Toolkit
+ *    http://www.geotoolkit.org
+ *
+ *    (C) 2016, Geomatys
+ *
+ *    This library is free software; you can redistribute it and/or
+ *    modify it under the terms of the GNU Lesser General Public
+ *    License as published by the Free Software Foundation;
+ *    version 2.1 of the License.
+ *
+ *    This library is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *    Lesser General Public License for more details.
+ */
+package org.geotoolkit.data.memory;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.sis.geometry.GeneralEnvelope;
+import org.apache.sis.referencing.CommonCRS;
+import org.apache.sis.storage.DataStoreException;
+import org.geotoolkit.data.FeatureReader;
+import org.geotoolkit.data.query.QueryBuilder;
+import org.geotoolkit.factory.FactoryFinder;
+import org.geotoolkit.feature.Feature;
+import org.geotoolkit.feature.FeatureTypeBuilder;
+import org.geotoolkit.feature.FeatureUtilities;
+import org.geotoolkit.feature.type.FeatureType;
+import org.geotoolkit.feature.type.PropertyDescriptor;
+import org.geotoolkit.util.NamesExt;
+import org.junit.Test;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+import org.opengis.filter.identity.FeatureId;
+import org.opengis.util.GenericName;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test {@link MemoryFeatureStore} spatial and attribute indexes.
+ *
+ * @author Johann Sorel (Geomatys)
+ * @module pending
+ */
+public class MemoryIndexTest extends org.geotoolkit.test.TestBase {
+
+    private static final FilterFactory2 FF = (FilterFactory2) FactoryFinder.getFilterFactory(null);
+    private static final GeometryFactory GF = new GeometryFactory();
+    private static final GenericName NAME = NamesExt.create("http://test.com", "Index");
+
+    private static FeatureType createType() {
+        final FeatureTypeBuilder ftb = new FeatureTypeBuilder();
+        ftb.setName(NAME);
+        ftb.add("geom", Point.class, CommonCRS.WGS84.normalizedGeographic());
+        ftb.add("value", Integer.class);
+        ftb.add("name", String.class);
+        ftb.setDefaultGeometry("geom");
+        return ftb.buildSimpleFeatureType();
+    }
+
+    private static Feature createFeature(final FeatureType type, final int i) {
+        final Feature feature = FeatureUtilities.defaultFeature(type, "f"+i);
+        feature.setPropertyValue("geom", GF.createPoint(new Coordinate(i % 50, i / 50)));
+        feature.setPropertyValue("value", i % 100);
+        feature.setPropertyValue("name", (i % 3 == 0) ? null : "n"+(i % 7));
+        return feature;
+    }
+
+    private static MemoryFeatureStore createStore(final boolean indexed) throws DataStoreException {
+        final FeatureType type = createType();
+        final MemoryFeatureStore store = new MemoryFeatureStore(type, true);
+        final List<Feature> features = new ArrayList<>();
+        for(int i=0;i<1000;i++){
+            features.add(createFeature(type, i));
+        }
+        store.addFeatures(NAME, features);
+        if(indexed){
+            store.createSpatialIndex(NAME, null);
+            store.createAttributeIndex(NAME, "value", true);
+            store.createAttributeIndex(NAME, "name", false);
+        }
+        return store;
+    }
+
+    private static Set<String> ids(final MemoryFeatureStore store, final Filter filter) throws DataStoreException {
+        final QueryBuilder qb = new QueryBuilder(NAME);
+        qb.setFilter(filter);
+        final Set<String> ids = new HashSet<>();
+        final FeatureReader reader = store.getFeatureReader(qb.buildQuery());
+        try{
+            while(reader.hasNext()){
+                final Feature feature = reader.next();
+                assertTrue(filter.evaluate(feature));
+                assertTrue(ids.add(feature.getIdentifier().getID()));
+            }
+        }finally{
+            reader.close();
+        }
+        return ids;
+    }
+
+    /**
+     * Read feature ids without checking the filter, features may be modified while read.
+     */
+    private static Set<String> readIds(final MemoryFeatureStore store, final Filter filter) throws DataStoreException {
+        final QueryBuilder qb = new QueryBuilder(NAME);
+        qb.setFilter(filter);
+        final Set<String> ids = new HashSet<>();
+        final FeatureReader reader = store.getFeatureReader(qb.buildQuery());
+        try{
+            while(reader.hasNext()){
+                assertTrue(ids.add(reader.next().getIdentifier().getID()));
+            }
+        }finally{
+            reader.close();
+        }
+        return ids;
+    }
+
+    private static Filter bbox(final double minx, final double miny, final double maxx, final double maxy) {
+        final GeneralEnvelope env = new GeneralEnvelope(CommonCRS.WGS84.normalizedGeographic());
+        env.setRange(0, minx, maxx);
+        env.setRange(1, miny, maxy);
+        return FF.bbox(FF.property("geom"), env);
+    }
+
+    private static List<Filter> createFilters() {
+        final Polygon poly = GF.createPolygon(new Coordinate[]{
+            new Coordinate(2, 2), new Coordinate(12, 2), new Coordinate(2, 12), new Coordinate(2, 2)});
+        final List<Filter> filters = new ArrayList<>();
+        filters.add(bbox(10.5, 3, 20, 8.5));
+        filters.add(bbox(-10, -10, -1, -1));
+        filters.add(FF.intersects(FF.property("geom"), FF.literal(poly)));
+        filters.add(FF.within(FF.property("geom"), FF.literal(poly)));
+        filters.add(FF.equals(FF.property("value"), FF.literal(42)));
+        filters.add(FF.equals(FF.literal(42d), FF.property("value")));
+        filters.add(FF.less(FF.property("value"), FF.literal(10)));
+        filters.add(FF.lessOrEqual(FF.property("value"), FF.literal(10)));
+        filters.add(FF.greater(FF.property("value"), FF.literal(90.5)));
+        filters.add(FF.greaterOrEqual(FF.literal(5), FF.property("value")));
+        filters.add(FF.between(FF.property("value"), FF.literal(20), FF.literal(25)));
+        filters.add(FF.equals(FF.property("name"), FF.literal("n3")));
+        filters.add(FF.and(bbox(0, 0, 25, 25), FF.equals(FF.property("name"), FF.literal("n1"))));
+        filters.add(FF.or(FF.equals(FF.property("value"), FF.literal(1)), bbox(0, 0, 2, 2)));
+        //not resolved by indexes
+        filters.add(FF.or(FF.equals(FF.property("value"), FF.literal(1)), FF.isNull(FF.property("name"))));
+        filters.add(FF.like(FF.property("name"), "n*"));
+        return filters;
+    }
+
+    /**
+     * Indexed and not indexed stores must return the same features.
+     */
+    @Test
+    public void testIndexedQueries() throws DataStoreException {
+        final MemoryFeatureStore indexed = createStore(true);
+        final MemoryFeatureStore scan = createStore(false);
+
+        for(Filter filter : createFilters()){
+            assertEquals(filter.toString(), ids(scan, filter), ids(indexed, filter));
+        }
+        assertEquals(60, ids(indexed, bbox(10.5, 3, 20, 8.5)).size());
+        assertEquals(10, ids(indexed, FF.equals(FF.property("value"), FF.literal(42))).size());
+    }
+
+    /**
+     * Indexes must follow features modifications.
+     */
+    @Test
+    public void testIndexMaintenance() throws DataStoreException {
+        final MemoryFeatureStore indexed = createStore(true);
+        final MemoryFeatureStore scan = createStore(false);
+
+        for(MemoryFeatureStore store : new MemoryFeatureStore[]{indexed, scan}){
+            final Map<PropertyDescriptor,Object> values = new HashMap<>();
+            final FeatureType type = store.getFeatureType(NAME);
+            values.put(type.getDescriptor("value"), 500);
+            values.put(type.getDescriptor("geom"), GF.createPoint(new Coordinate(100, 100)));
+            store.updateFeatures(NAME, FF.equals(FF.property("value"), FF.literal(7)), values);
+            store.removeFeatures(NAME, bbox(0, 0, 4.5, 4.5));
+            store.addFeatures(NAME, Collections.singleton(createFeature(type, 2)));
+        }
+
+        final List<Filter> filters = createFilters();
+        filters.add(FF.equals(FF.property("value"), FF.literal(500)));
+        filters.add(FF.equals(FF.property("value"), FF.literal(7)));
+        filters.add(bbox(99, 99, 101, 101));
+        for(Filter filter : filters){
+            assertEquals(filter.toString(), ids(scan, filter), ids(indexed, filter));
+        }
+        assertEquals(10, ids(indexed, bbox(99, 99, 101, 101)).size());
+        assertTrue(ids(indexed, FF.equals(FF.property("value"), FF.literal(7))).isEmpty());
+
+        indexed.dropIndexes(NAME);
+        for(Filter filter : filters){
+            assertEquals(filter.toString(), ids(scan, filter), ids(indexed, filter));
+        }
+    }
+
+    /**
+     * Readers running during writes must not fail and must only return
+     * features which have been added, without duplicates.
+     * Features may be modified while read, so filters are not checked here.
+     */
+    @Test
+    public void testConcurrentReadWrite() throws Exception {
+        final MemoryFeatureStore indexed = createStore(true);
+        final FeatureType type = indexed.getFeatureType(NAME);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final CountDownLatch started = new CountDownLatch(4);
+        final List<Filter> filters = createFilters();
+        final Set<String> known = new HashSet<>(ids(indexed, Filter.INCLUDE));
+        final Set<String> seen = Collections.newSetFromMap(new ConcurrentHashMap<String,Boolean>());
+
+        final List<Thread> readers = new ArrayList<>();
+        for(int t=0;t<4;t++){
+            final Thread reader = new Thread(){
+                @Override
+                public void run() {
+                    started.countDown();
+                    try{
+                        while(running.get()){
+                            for(Filter filter : filters){
+                                seen.addAll(readIds(indexed, filter));
+                            }
+                        }
+                    }catch(Throwable ex){
+                        error.compareAndSet(null, ex);
+                    }
+                }
+            };
+            reader.start();
+            readers.add(reader);
+        }
+
+        started.await();
+        try{
+            for(int k=0;k<20;k++){
+                final List<Feature> features = new ArrayList<>();
+                for(int i=1000;i<1200;i++){
+                    features.add(createFeature(type, i));
+                }
+                for(FeatureId id : indexed.addFeatures(NAME, features)){
+                    known.add(id.getID());
+                }
+                final Map<PropertyDescriptor,Object> values = new HashMap<>();
+                values.put(type.getDescriptor("value"), k);
+                indexed.updateFeatures(NAME, bbox(0, 20, 50, 21), values);
+                indexed.removeFeatures(NAME, bbox(0, 20, 50, 24));
+            }
+        }finally{
+            running.set(false);
+            for(Thread reader : readers){
+                reader.join();
+            }
+        }
+
+        if(error.get() != null){
+            throw new AssertionError(error.get());
+        }
+        assertTrue(known.containsAll(seen));
+
+        //final state must match a full scan
+        final MemoryFeatureStore scan = new MemoryFeatureStore(type, true);
+        final QueryBuilder qb = new QueryBuilder(NAME);
+        final FeatureReader reader = indexed.getFeatureReader(qb.buildQuery());
+        final List<Feature> remaining = new ArrayList<>();
+        try{
+            while(reader.hasNext()) remaining.add(reader.next());
+        }finally{
+            reader.close();
+        }
+        scan.addFeatures(NAME, remaining);
+        for(Filter filter : filters){
+            assertEquals(filter.toString(), ids(scan, filter), ids(indexed, filter));
+        }
+    }
+
+}
@@ -18,6 +18,8 @@
 
 package org.geotoolkit.data.query;
 
+import java.util.HashSet;
+import java.util.Set;
 import junit.framework.TestCase;
 
 import org.geotoolkit.data.FeatureCollection;
@@ -26,6 +28,8 @@ import org.geotoolkit.data.FeatureWriter;
 import org.geotoolkit.data.memory.MemoryFeatureStore;
 import org.geotoolkit.data.session.Session;
 import org.geotoolkit.factory.FactoryFinder;
+import org.geotoolkit.factory.Hints;
+import org.geotoolkit.factory.HintsPending;
 import org.geotoolkit.util.NamesExt;
 import org.geotoolkit.feature.FeatureTypeBuilder;
 import org.apache.sis.referencing.CommonCRS;
@@ -574,4 +578,57 @@ public class QueryTest extends TestCase{
         
     }
 
+    /**
+     * Test that hash join, hash join with temporary files and nested loop give the same results.
+     */
+    @Test
+    public void testJoinStrategies() throws Exception{
+        final Hints loop = new Hints(HintsPending.JOIN_HASH, Boolean.FALSE);
+        final Hints hash = new Hints(HintsPending.JOIN_HASH, Boolean.TRUE);
+        final Hints spill = new Hints(HintsPending.JOIN_HASH, Boolean.TRUE, HintsPending.JOIN_HASH_MAX_FEATURES, 1);
+
+        final Set<String> inner = joinIds(JoinType.INNER, loop);
+        assertEquals(4, inner.size());
+        assertTrue(inner.contains(fid_1_1 +" "+fid_2_2));
+        assertEquals(inner, joinIds(JoinType.INNER, hash));
+        assertEquals(inner, joinIds(JoinType.INNER, spill));
+
+        final Set<String> left = joinIds(JoinType.LEFT_OUTER, loop);
+        assertEquals(6, left.size());
+        assertTrue(left.contains(fid_1_4 +" "));
+        assertEquals(left, joinIds(JoinType.LEFT_OUTER, hash));
+        assertEquals(left, joinIds(JoinType.LEFT_OUTER, spill));
+
+        final Set<String> right = joinIds(JoinType.RIGHT_OUTER, loop);
+        assertEquals(6, right.size());
+        assertTrue(right.contains(fid_2_5));
+        assertEquals(right, joinIds(JoinType.RIGHT_OUTER, hash));
+        assertEquals(right, joinIds(JoinType.RIGHT_OUTER, spill));
+    }
+
+    private Set<String> joinIds(final JoinType type, final Hints hints) throws Exception{
+        final Session session = store.createSession(false);
+
+        final QueryBuilder qb = new QueryBuilder();
+        final Join join = new DefaultJoin(
+                new DefaultSelector(session, name1, "s1"),
+                new DefaultSelector(session, name2, "s2"),
+                type,
+                FF.equals(FF.property("att2"), FF.property("att3")));
+        qb.setSource(join);
+        qb.setHints(hints);
+
+        final FeatureCollection col = session.getFeatureCollection(qb.buildQuery());
+        final Set<String> ids = new HashSet<>();
+        final FeatureIterator ite = col.iterator();
+        try{
+            while(ite.hasNext()){
+                assertTrue(ids.add(ite.next().getIdentifier().getID()));
+            }
+        }finally{
+            ite.close();
+        }
+        return ids;
+    }
+
 }
@@ -115,6 +115,32 @@ public final class HintsPending extends Hints {
      */
     public static final Key KEY_IGNORE_SMALL_FEATURES = new Key(double[].class);
 
+    /**
+     * Strategy used by generic join collections to match features on both join sides.
+     * True forces a hash join when join key types allow it : one side is loaded in a hash table
+     * and the other side is read once. False forces a nested loop : one query is made on a side
+     * for each feature of the other side.
+     *
+     * Default value is null, the strategy is choosen from the key types and the size of each side.
+     */
+    public static final Key JOIN_HASH = new Key(Boolean.class);
+
+    /**
+     * Maximum number of features kept in memory by a hash join, when this number is exceeded
+     * both join sides are partitioned in temporary files.
+     *
+     * Default value is 100000.
+     */
+    public static final Key JOIN_HASH_MAX_FEATURES = new Key(Integer.class);
+
+    /**
+     * Maximum number of features kept in memory by generic sort iterators, when this number
+     * is exceeded sorted runs of features are written in temporary files and merged on iteration.
+     *
+     * Default value is 100000.
+     */
+    public static final Key SORT_MAX_FEATURES = new Key(Integer.class);
+
     private HintsPending(){}
 
 }